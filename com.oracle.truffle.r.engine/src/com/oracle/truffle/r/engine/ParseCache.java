@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.engine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.r.nodes.RASTUtils;
+import com.oracle.truffle.r.runtime.context.Engine.ParserMetadata;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
+
+/**
+ * Keeps the results of parsing a {@link Source} so that parsing the same code again, e.g.
+ * {@code eval(parse(text=...))} in a loop or repeated {@code source} of a file, only copies the
+ * ASTs. The key is the {@link Source} itself, whose equality covers the content as well as the name
+ * and path, so that the source sections of the copies are the same as those of a fresh parse.
+ *
+ * The cached ASTs are never handed out, every request gets its own copy that can be rewritten or
+ * adopted independently. The least recently used entries are evicted.
+ */
+final class ParseCache {
+
+    static final class Entry {
+        private final RSyntaxNode[] nodes;
+        private final ParserMetadata parseData;
+
+        private Entry(RSyntaxNode[] nodes, ParserMetadata parseData) {
+            this.nodes = nodes;
+            this.parseData = parseData;
+        }
+
+        /**
+         * Returns new copies of the cached ASTs.
+         */
+        @TruffleBoundary
+        List<RSyntaxNode> copyNodes() {
+            return copy(nodes);
+        }
+
+        ParserMetadata getParseData() {
+            return parseData;
+        }
+    }
+
+    private final LinkedHashMap<Source, Entry> entries;
+
+    ParseCache(int maxEntries) {
+        this.entries = new LinkedHashMap<Source, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Source, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached result of parsing {@code source}, or {@code null} if it was not parsed
+     * before.
+     */
+    @TruffleBoundary
+    Entry get(Source source) {
+        synchronized (entries) {
+            return entries.get(source);
+        }
+    }
+
+    /**
+     * Remembers the result of parsing {@code source}. The ASTs are copied, so that the caller can
+     * go on using the originals.
+     */
+    @TruffleBoundary
+    void put(Source source, List<RSyntaxNode> nodes, ParserMetadata parseData) {
+        List<RSyntaxNode> copies = copy(nodes.toArray(new RSyntaxNode[nodes.size()]));
+        Entry entry = new Entry(copies.toArray(new RSyntaxNode[copies.size()]), parseData);
+        synchronized (entries) {
+            entries.put(source, entry);
+        }
+    }
+
+    private static List<RSyntaxNode> copy(RSyntaxNode[] nodes) {
+        List<RSyntaxNode> result = new ArrayList<>(nodes.length);
+        for (RSyntaxNode node : nodes) {
+            result.add(RASTUtils.cloneNode(node.asRNode()).asRSyntaxNode());
+        }
+        return result;
+    }
+}
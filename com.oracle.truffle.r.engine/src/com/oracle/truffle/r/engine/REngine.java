@@ -79,6 +79,7 @@ import com.oracle.truffle.r.runtime.ThreadTimings;
 import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.Utils.DebugExitException;
 import com.oracle.truffle.r.runtime.context.Engine;
+import com.oracle.truffle.r.runtime.context.FastROptions;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
 import com.oracle.truffle.r.runtime.data.RAttributable;
@@ -134,6 +135,11 @@ final class REngine implements Engine, Engine.Timings {
      */
     private boolean suppressWarnings;
 
+    /**
+     * Created on first use, see {@link #getParseCache()}.
+     */
+    private ParseCache parseCache;
+
     private REngine(RContext context) {
         this.context = context;
         this.childTimes = new long[]{0, 0};
@@ -280,14 +286,42 @@ final class REngine implements Engine, Engine.Timings {
 
     @Override
     public ParsedExpression parse(Source source, boolean keepSource) throws ParseException {
-        RParserFactory.Parser parser = RParserFactory.getParser();
-        RASTBuilder builder = new RASTBuilder(true);
-        List<RSyntaxNode> script = parser.script(source, builder, context.getLanguage());
+        List<RSyntaxNode> script;
+        ParserMetadata parseData;
+        ParseCache cache = getParseCache();
+        ParseCache.Entry cached = cache == null ? null : cache.get(source);
+        if (cached != null) {
+            script = cached.copyNodes();
+            parseData = cached.getParseData();
+        } else {
+            RParserFactory.Parser parser = RParserFactory.getParser();
+            RASTBuilder builder = new RASTBuilder(true);
+            script = parser.script(source, builder, context.getLanguage());
+            parseData = builder.getParseData();
+            if (cache != null) {
+                cache.put(source, script, parseData);
+            }
+        }
         Object[] data = new Object[script.size()];
         for (int i = 0; i < script.size(); i++) {
             data[i] = RASTUtils.createLanguageElement(script.get(i));
         }
-        return new ParsedExpression(RDataFactory.createExpression(data), builder.getParseData());
+        return new ParsedExpression(RDataFactory.createExpression(data), parseData);
+    }
+
+    /**
+     * Returns the cache of {@link #parse(Source, boolean)} results, or {@code null} if it is
+     * disabled.
+     */
+    private ParseCache getParseCache() {
+        if (parseCache == null) {
+            int size = context.getOption(FastROptions.ParseCacheSize);
+            if (size <= 0) {
+                return null;
+            }
+            parseCache = new ParseCache(size);
+        }
+        return parseCache;
     }
 
     @Override
@@ -28,8 +28,8 @@ import static com.oracle.truffle.r.runtime.ffi.RFFILog.logDownCallReturn;
 import static com.oracle.truffle.r.runtime.ffi.RFFILog.logEnabled;
 
 import java.lang.reflect.Field;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.concurrent.locks.ReentrantLock;
 
 import com.oracle.truffle.api.CompilerDirectives;
@@ -114,11 +114,62 @@ public class TruffleNFI_Context extends RFFIContext {
     private RuntimeException lastException;
 
     /**
-     * Memory allocated using Rf_alloc, which should be reclaimed at every down-call exit. Note:
-     * this is less efficient than GNUR's version, we may need to implement it properly should the
-     * performance be a problem.
+     * The state of the down-calls made by one thread. Threads of the same context make down-calls
+     * independently of each other, so the nesting, and with it the memory allocated using
+     * R_alloc and the callbacks tables to restore, is tracked per thread.
      */
-    public final ArrayDeque<ArrayList<Long>> transientAllocations = new ArrayDeque<>();
+    private static final class DownCallState {
+        /**
+         * Memory allocated using R_alloc, which should be reclaimed at every down-call exit.
+         */
+        private final TruffleNFI_TransientArena transientArena = new TruffleNFI_TransientArena();
+
+        /**
+         * The callbacks table replaced by {@link TruffleNFI_Context#pushCallbacks()} in the
+         * down-call at given depth, to be restored when it returns. Indexed by the depth, so that
+         * the down-call prologue and epilogue do not need to allocate any token.
+         */
+        private long[] savedCallbacks = new long[16];
+
+        /**
+         * The number of active down-calls of the thread.
+         */
+        private int depth;
+
+        @TruffleBoundary
+        private void growSavedCallbacks() {
+            savedCallbacks = Arrays.copyOf(savedCallbacks, savedCallbacks.length * 2);
+        }
+    }
+
+    private final ThreadLocal<DownCallState> downCallState = ThreadLocal.withInitial(this::createDownCallState);
+
+    /**
+     * All the down-call states ever created in this context, so that their memory can be freed
+     * when the context is disposed.
+     */
+    private final ArrayList<DownCallState> downCallStates = new ArrayList<>();
+
+    private DownCallState createDownCallState() {
+        DownCallState state = new DownCallState();
+        synchronized (downCallStates) {
+            downCallStates.add(state);
+        }
+        return state;
+    }
+
+    @TruffleBoundary
+    private DownCallState getDownCallState() {
+        return downCallState.get();
+    }
+
+    /**
+     * Allocates native memory that is released when the current down-call of this thread returns.
+     */
+    public long allocateTransient(long size) {
+        DownCallState state = getDownCallState();
+        return state.transientArena.allocate(size, state.depth);
+    }
 
     public void setLastUpCallException(RuntimeException ex) {
         assert ex == null || lastException == null : "last up-call exception is already set";
@@ -394,17 +445,28 @@ public class TruffleNFI_Context extends RFFIContext {
                 // these stay on the same thread
                 break;
         }
+        synchronized (downCallStates) {
+            for (DownCallState state : downCallStates) {
+                state.transientArena.dispose();
+            }
+            downCallStates.clear();
+        }
         super.beforeDispose(context);
     }
 
     @Override
     public Object beforeDowncall(MaterializedFrame frame, RFFIFactory.Type rffiType) {
         Object tokenFromSuper = super.beforeDowncall(frame, RFFIFactory.Type.NFI);
-        transientAllocations.push(new ArrayList<>());
         if (hasAccessLock) {
             acquireLock();
         }
-        return new Object[]{tokenFromSuper, pushCallbacks()};
+        DownCallState state = getDownCallState();
+        int depth = ++state.depth;
+        if (depth >= state.savedCallbacks.length) {
+            state.growSavedCallbacks();
+        }
+        state.savedCallbacks[depth] = pushCallbacks();
+        return tokenFromSuper;
     }
 
     @Override
@@ -417,12 +479,11 @@ public class TruffleNFI_Context extends RFFIContext {
 
     @Override
     public void afterDowncall(Object beforeValue, RFFIFactory.Type rffiType) {
-        Object[] tokens = (Object[]) beforeValue;
-        super.afterDowncall(tokens[0], rffiType);
-        popCallbacks((long) tokens[1]);
-        for (Long ptr : transientAllocations.pop()) {
-            UnsafeAdapter.UNSAFE.freeMemory(ptr);
-        }
+        super.afterDowncall(beforeValue, rffiType);
+        DownCallState state = getDownCallState();
+        int depth = state.depth--;
+        popCallbacks(state.savedCallbacks[depth]);
+        state.transientArena.release(depth);
         RuntimeException lastUpCallEx = getLastUpCallException();
         setLastUpCallException(null);
         if (hasAccessLock) {
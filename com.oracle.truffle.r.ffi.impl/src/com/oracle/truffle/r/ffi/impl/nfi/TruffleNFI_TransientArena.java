@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.ffi.impl.nfi;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Bump-pointer arena for the native memory that lives only until the down-call that allocated it
+ * returns, i.e., {@code R_alloc}. Memory is carved from chunks that are kept for reuse, requests
+ * larger than a quarter of a chunk get their own block.
+ *
+ * The arena keeps a stack of marks, one for every down-call depth that allocated something. The
+ * mark is pushed lazily by the first allocation at given depth, so down-calls that do not allocate
+ * transient memory do not touch the arena apart from one comparison on return, when everything
+ * allocated since the mark is released at once. The arena belongs to one thread of one context and
+ * relies on the down-calls of that thread being properly nested, the depths are those of the
+ * thread's own down-calls.
+ */
+final class TruffleNFI_TransientArena {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int LARGE_ALLOCATION = CHUNK_SIZE / 4;
+    private static final int RETAINED_CHUNKS = 2;
+    private static final int ALIGNMENT = 16;
+
+    private long[] chunks = new long[4];
+    private int chunkCount;
+    /**
+     * Index of the chunk being filled, {@code -1} if none.
+     */
+    private int currentChunk = -1;
+    private long top;
+    private long limit;
+
+    private long[] largeBlocks = new long[8];
+    private int largeCount;
+
+    private int[] markDepth = new int[8];
+    private int[] markChunk = new int[8];
+    private long[] markTop = new long[8];
+    private int[] markLarge = new int[8];
+    private int markCount;
+
+    /**
+     * Allocates {@code size} bytes that are released when the down-call at {@code depth} returns.
+     */
+    long allocate(long size, int depth) {
+        if (markCount == 0 || markDepth[markCount - 1] != depth) {
+            assert markCount == 0 || markDepth[markCount - 1] < depth : "invalid nesting of transient allocations";
+            pushMark(depth);
+        }
+        long alignedSize = (size + ALIGNMENT - 1) & -ALIGNMENT;
+        if (alignedSize > LARGE_ALLOCATION) {
+            return allocateLarge(alignedSize);
+        }
+        if (top + alignedSize > limit) {
+            nextChunk();
+        }
+        long result = top;
+        top += alignedSize;
+        return result;
+    }
+
+    /**
+     * Releases everything allocated by the down-call at {@code depth}, which is returning.
+     */
+    void release(int depth) {
+        if (markCount > 0 && markDepth[markCount - 1] == depth) {
+            releaseToMark();
+        }
+    }
+
+    @TruffleBoundary
+    private void pushMark(int depth) {
+        if (markCount == markDepth.length) {
+            int newLength = markCount * 2;
+            markDepth = Arrays.copyOf(markDepth, newLength);
+            markChunk = Arrays.copyOf(markChunk, newLength);
+            markTop = Arrays.copyOf(markTop, newLength);
+            markLarge = Arrays.copyOf(markLarge, newLength);
+        }
+        markDepth[markCount] = depth;
+        markChunk[markCount] = currentChunk;
+        markTop[markCount] = top;
+        markLarge[markCount] = largeCount;
+        markCount++;
+    }
+
+    @TruffleBoundary
+    private void releaseToMark() {
+        markCount--;
+        for (int i = markLarge[markCount]; i < largeCount; i++) {
+            UnsafeAdapter.UNSAFE.freeMemory(largeBlocks[i]);
+        }
+        largeCount = markLarge[markCount];
+        currentChunk = markChunk[markCount];
+        top = markTop[markCount];
+        limit = currentChunk < 0 ? 0 : chunks[currentChunk] + CHUNK_SIZE;
+        if (markCount == 0 && chunkCount > RETAINED_CHUNKS) {
+            // do not hold on to the memory used by one exceptionally hungry call
+            for (int i = RETAINED_CHUNKS; i < chunkCount; i++) {
+                UnsafeAdapter.UNSAFE.freeMemory(chunks[i]);
+            }
+            chunkCount = RETAINED_CHUNKS;
+        }
+    }
+
+    @TruffleBoundary
+    private void nextChunk() {
+        currentChunk++;
+        if (currentChunk == chunkCount) {
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            }
+            chunks[chunkCount++] = UnsafeAdapter.UNSAFE.allocateMemory(CHUNK_SIZE);
+        }
+        top = chunks[currentChunk];
+        limit = top + CHUNK_SIZE;
+    }
+
+    @TruffleBoundary
+    private long allocateLarge(long size) {
+        if (largeCount == largeBlocks.length) {
+            largeBlocks = Arrays.copyOf(largeBlocks, largeCount * 2);
+        }
+        long result = UnsafeAdapter.UNSAFE.allocateMemory(size);
+        largeBlocks[largeCount++] = result;
+        return result;
+    }
+
+    /**
+     * Frees all the memory held by the arena.
+     */
+    void dispose() {
+        for (int i = 0; i < largeCount; i++) {
+            UnsafeAdapter.UNSAFE.freeMemory(largeBlocks[i]);
+        }
+        for (int i = 0; i < chunkCount; i++) {
+            UnsafeAdapter.UNSAFE.freeMemory(chunks[i]);
+        }
+        largeCount = 0;
+        chunkCount = 0;
+        markCount = 0;
+        currentChunk = -1;
+        top = 0;
+        limit = 0;
+    }
+}
@@ -265,6 +265,7 @@ public final class FFIProcessor extends AbstractProcessor {
         }
         w.append("import com.oracle.truffle.r.ffi.impl.upcalls.UpCallBase;");
         w.append("import com.oracle.truffle.r.runtime.ffi.RFFIContext;\n");
+        w.append("import com.oracle.truffle.r.runtime.ffi.NativeCallProfiler;\n");
         w.append("import com.oracle.truffle.r.runtime.ffi.RFFILog;\n");
         w.append("import com.oracle.truffle.api.interop.InteropLibrary;\n");
         w.append("import com.oracle.truffle.api.library.ExportLibrary;\n");
@@ -357,6 +358,9 @@ public final class FFIProcessor extends AbstractProcessor {
         w.append("        if (RFFILog.logEnabled()) {\n");
         w.append("            RFFILog.logUpCall(\"" + name + "\", arguments);\n");
         w.append("        }\n");
+        w.append("        if (NativeCallProfiler.isEnabled()) {\n");
+        w.append("            NativeCallProfiler.upCall(\"" + name + "\");\n");
+        w.append("        }\n");
         w.append("        RContext ctx = ctxRef.get();\n");
         w.append("        RFFIContext rffiCtx = ctxProfile.profile(ctx.getStateRFFI());\n");
 
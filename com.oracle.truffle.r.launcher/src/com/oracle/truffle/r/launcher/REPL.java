@@ -25,9 +25,11 @@ package com.oracle.truffle.r.launcher;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -63,6 +65,7 @@ public class REPL {
     private static final Source SET_CONSOLE_PROMPT_HANDLER = Source.newBuilder("R", ".fastr.set.consoleHandler", "<set-console-handler>").internal(true).buildLiteral();
     private static final Source GET_EXECUTOR = Source.newBuilder("R", ".fastr.getExecutor()", "<get-executor>").internal(true).buildLiteral();
     private static final Source PRINT_ERROR = Source.newBuilder("R", ".fastr.printError", "<print-error>").internal(true).buildLiteral();
+    private static final Source DISPATCH_NATIVE_HANDLERS = Source.newBuilder("R", ".fastr.dispatchNativeHandlers", "<dispatch-native-handlers>").internal(true).buildLiteral();
 
     public static int readEvalPrint(Context context, ConsoleHandler consoleHandler, boolean useExecutor) {
         return readEvalPrint(context, consoleHandler, null, useExecutor);
@@ -233,66 +236,75 @@ public class REPL {
 
     static class EventLoopThread extends Thread {
 
-        private final File fifoInFile;
-        private final File fifoOutFile;
+        private final File doorbellFile;
+        private final boolean isFifo;
         private final Context context;
         private final ExecutorService executor;
-
-        EventLoopThread(String fifoInPath, String fifoOutPath, Context context, ExecutorService executor) {
-            this.fifoInFile = new File(fifoInPath);
-            this.fifoOutFile = new File(fifoOutPath);
+        private volatile boolean stopped;
+
+        /**
+         * @param doorbellFile either the anonymous pipe created in this process by the native event
+         *            loop, opened via {@code /dev/fd}, or a FIFO in a temporary directory
+         */
+        EventLoopThread(File doorbellFile, boolean isFifo, Context context, ExecutorService executor) {
+            super("FastR native event loop");
+            this.doorbellFile = doorbellFile;
+            this.isFifo = isFifo;
             this.context = context;
             this.executor = executor;
+            setDaemon(true);
         }
 
         void stopLoop() {
+            // the doorbell is read through an interruptible channel, so the interrupt ends the read
+            stopped = true;
+            interrupt();
             try {
-                interrupt();
-                try (final FileOutputStream fis = new FileOutputStream(fifoInFile)) {
-                    fis.write(66);
-                    fis.flush();
-                }
                 join(8000);
-            } catch (Exception e) {
-                e.printStackTrace();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (isFifo) {
+                doorbellFile.delete();
+                doorbellFile.getParentFile().delete();
             }
         }
 
-        void releaseFifoOut() {
+        @Override
+        public void run() {
+            Value dispatchFunction;
             try {
-                try (final FileOutputStream fis = new FileOutputStream(fifoOutFile)) {
-                    fis.write(65);
-                    fis.flush();
-                }
+                dispatchFunction = executor.submit(() -> context.eval(DISPATCH_NATIVE_HANDLERS)).get();
             } catch (Exception e) {
                 e.printStackTrace();
+                return;
             }
-        }
-
-        @Override
-        public void run() {
-            while (!isInterrupted()) {
-                try {
-                    try (final FileInputStream fis = new FileInputStream(fifoInFile)) {
-                        fis.read();
-                        if (isInterrupted()) {
-                            break;
-                        }
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+            try (FileChannel doorbell = new FileInputStream(doorbellFile).getChannel()) {
+                while (!stopped) {
+                    // each byte announces one batch of events, but all the batches queued so far
+                    // are dispatched by a single task
+                    buffer.clear();
+                    if (doorbell.read(buffer) < 0 || stopped) {
+                        break;
                     }
-                } catch (IOException e) {
+                    executor.submit(() -> {
+                        traceEventLoopLogger.log("before dispatching request");
+                        try {
+                            int res = dispatchFunction.execute().asInt();
+                            traceEventLoopLogger.log("after dispatching request, res=" + res);
+                        } catch (Throwable ex) {
+                            traceEventLoopLogger.log("error in dispatching request");
+                            ex.printStackTrace();
+                        }
+                    });
+                }
+            } catch (ClosedByInterruptException e) {
+                // stopLoop
+            } catch (IOException e) {
+                if (!stopped) {
                     e.printStackTrace();
                 }
-                executor.submit(() -> {
-                    traceEventLoopLogger.log("before dispatching request");
-                    try {
-                        int res = context.eval(Source.newBuilder("R", ".fastr.dispatchNativeHandlers", "<dispatch-native-handlers>").internal(true).buildLiteral()).execute().asInt();
-                        traceEventLoopLogger.log("after dispatching request, res=" + res);
-                    } catch (Throwable ex) {
-                        releaseFifoOut();
-                        traceEventLoopLogger.log("error in dispatching request");
-                        ex.printStackTrace();
-                    }
-                });
             }
         }
     }
@@ -399,9 +411,12 @@ public class REPL {
             // result.getMember("result").asInt());
             return null;
         } else {
-            final String fifoInPath = result.getMember("fifoInPath").asString();
-            final String fifoOutPath = result.getMember("fifoOutPath").asString();
-            EventLoopThread t = new EventLoopThread(fifoInPath, fifoOutPath, context, executor);
+            EventLoopThread t;
+            if (result.hasMember("doorbellPath")) {
+                t = new EventLoopThread(new File(result.getMember("doorbellPath").asString()), true, context, executor);
+            } else {
+                t = new EventLoopThread(new File("/dev/fd/" + result.getMember("doorbellFd").asInt()), false, context, executor);
+            }
             t.start();
             return t;
         }
@@ -232,6 +232,9 @@ public class MethodsListDispatch {
             // the other one is in GnuR implemented by R_standardGeneric and is not implemented
             // in FastR yet.
             RContext.getInstance().setMethodTableDispatchOn(value);
+            if (value != prev) {
+                RContext.getInstance().s4DispatchCache.invalidateAll();
+            }
             return RRuntime.asLogical(prev);
         }
     }
@@ -268,6 +271,7 @@ public class MethodsListDispatch {
                     } else if (codeVecString.charAt(0) == 's' || codeVecString.charAt(0) == 'S') {
                         RContext.getInstance().setAllowPrimitiveMethods(true);
                     }
+                    RContext.getInstance().s4DispatchCache.invalidateAll();
                 }
                 return value;
             }
@@ -282,6 +286,7 @@ public class MethodsListDispatch {
             }
 
             setPrimitiveMethodsInternal(opx, codeVecString, fundef, mlist);
+            RContext.getInstance().s4DispatchCache.invalidateAll();
             return fnameString;
         }
 
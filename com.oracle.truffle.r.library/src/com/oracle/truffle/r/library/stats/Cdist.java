@@ -25,6 +25,9 @@ import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.missingValue
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.nullValue;
 import static com.oracle.truffle.r.runtime.nmath.MathConstants.DBL_MIN;
 
+import java.util.stream.IntStream;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.nodes.attributes.GetFixedAttributeNode;
@@ -35,6 +38,8 @@ import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RList;
@@ -42,11 +47,13 @@ import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
 import com.oracle.truffle.r.runtime.data.nodes.VectorAccess.RandomIterator;
-import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
 
-    private static final NACheck naCheck = NACheck.create();
+    /**
+     * The minimal number of element operations ({@code pairs * ncol}) to compute in parallel.
+     */
+    private static final long PARALLEL_MIN_WORK = 1L << 22;
 
     @Child private GetFixedAttributeNode getNamesAttrNode = GetFixedAttributeNode.createNames();
 
@@ -72,13 +79,17 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
         }
         int nr = getDimNode.nrows(x);
         int nc = getDimNode.ncols(x);
-        int n = nr * (nr - 1) / 2; /* avoid int overflow for N ~ 50,000 */
-        double[] ans = new double[n];
+        long size = (long) nr * (nr - 1) / 2; /* avoid int overflow for N ~ 50,000 */
+        if (size > Integer.MAX_VALUE) {
+            throw error(Message.TOO_LONG_VECTOR);
+        }
+        double[] ans = new double[(int) size];
 
+        boolean na;
         try (RandomIterator xIter = xAccess.randomAccess(x)) {
-            rdistance(xAccess, xIter, nr, nc, ans, false, methodObj, p);
+            na = rdistance(xAccess, xIter, nr, nc, ans, methodObj, p);
         }
-        RDoubleVector result = RDataFactory.createDoubleVector(ans, naCheck.neverSeenNA());
+        RDoubleVector result = RDataFactory.createDoubleVector(ans, !na);
 
         RStringVector names = (RStringVector) getNamesAttrNode.execute(list);
         if (names != null) {
@@ -119,49 +130,157 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
         return Method.values()[method - 1];
     }
 
-    private void rdistance(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, double[] d, boolean diag, Method method, double p) {
-        int ij; /* can exceed 2^31 - 1, but Java can't handle that */
-        //
+    /**
+     * Computes the distances between the rows of the column-major matrix {@code x}. The rows are
+     * copied into a row-major matrix so that each distance reads two contiguous arrays. The lower
+     * triangle of the result is computed in square tiles of rows that fit into the cache together,
+     * each band of tiles with the same first row index {@code j} is an independent task and the
+     * bands run in parallel for large inputs if {@link FastROptions#ParallelDistances} is enabled.
+     * The result is the same as with the plain loop over the pairs, only the order of computation
+     * differs.
+     */
+    private boolean rdistance(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, double[] d, Method method, double p) {
         if (method == Method.MINKOWSKI) {
             if (!RRuntime.isFinite(p) || p <= 0) {
                 throw error(RError.Message.GENERIC, "distance(): invalid p");
             }
         }
-        int dc = diag ? 0 : 1; /* diag=1: we do the diagonal */
-        ij = 0;
-        naCheck.enable(true);
-        for (int j = 0; j <= nr; j++) {
-            for (int i = j + dc; i < nr; i++) {
-                double r = method.dist(xAccess, xIter, nr, nc, i, j, p);
-                naCheck.check(r);
-                d[ij++] = r;
+        double[] rows = new double[nr * nc];
+        boolean finite = true;
+        for (int j = 0; j < nc; j++) {
+            for (int i = 0; i < nr; i++) {
+                double value = xAccess.getDouble(xIter, j * nr + i);
+                finite &= RRuntime.isFinite(value);
+                rows[i * nc + j] = value;
+            }
+        }
+        return computeDistances(rows, nr, nc, d, method, p, finite);
+    }
+
+    @TruffleBoundary
+    private static boolean computeDistances(double[] rows, int nr, int nc, double[] d, Method method, double p, boolean finite) {
+        if (method == Method.EUCLIDEAN && finite && !RContext.getInstance().getOption(FastROptions.ExactEuclideanDistance)) {
+            return computeTiles(nr, nc, d, true, new GramEuclidean(rows, nr, nc));
+        }
+        // the binary method warns about non-finite values, which must happen on this thread
+        boolean parallel = finite || method != Method.BINARY;
+        return computeTiles(nr, nc, d, parallel, (i1, i2) -> method.dist(rows, i1 * nc, i2 * nc, nc, p));
+    }
+
+    @FunctionalInterface
+    private interface PairDistance {
+        double dist(int i1, int i2);
+    }
+
+    /**
+     * The number of rows in a tile, chosen so that two tiles of rows use about 256KB.
+     */
+    private static int tileRows(int nc) {
+        return Math.max(8, Math.min(256, 16384 / Math.max(1, nc)));
+    }
+
+    /**
+     * The index of the distance between the rows {@code i} and {@code j < i} in the result.
+     */
+    private static int resultIndex(int nr, int i, int j) {
+        return (int) ((long) j * (2L * nr - j - 1) / 2 + (i - j - 1));
+    }
+
+    /**
+     * Fills the result with the distances of all pairs of rows and returns whether there is an
+     * {@code NA} in it.
+     */
+    private static boolean computeTiles(int nr, int nc, double[] d, boolean parallel, PairDistance distance) {
+        int tile = tileRows(nc);
+        int bands = (nr + tile - 1) / tile;
+        IntStream tasks = IntStream.range(0, bands);
+        if (parallel && (long) d.length * nc >= PARALLEL_MIN_WORK && bands > 1 && RContext.getInstance().getOption(FastROptions.ParallelDistances)) {
+            tasks = tasks.parallel();
+        }
+        return tasks.mapToObj(band -> computeBand(nr, d, tile, band, distance)).reduce(false, (na1, na2) -> na1 || na2);
+    }
+
+    private static boolean computeBand(int nr, double[] d, int tile, int band, PairDistance distance) {
+        boolean na = false;
+        int jStart = band * tile;
+        int jEnd = Math.min(nr, jStart + tile);
+        for (int iStart = jStart; iStart < nr; iStart += tile) {
+            int iEnd = Math.min(nr, iStart + tile);
+            for (int j = jStart; j < jEnd; j++) {
+                int i = Math.max(iStart, j + 1);
+                int ij = resultIndex(nr, i, j);
+                for (; i < iEnd; i++) {
+                    double r = distance.dist(i, j);
+                    na |= RRuntime.isNA(r);
+                    d[ij++] = r;
+                }
             }
         }
+        return na;
     }
 
+    /**
+     * The euclidean distance computed as {@code sqrt(|a|^2 + |b|^2 - 2 a.b)} from the precomputed
+     * squared norms of the rows, i.e. in the form of a matrix product of the data with its
+     * transpose. This is not exact for close rows because of cancellation, so it is only used if
+     * {@link FastROptions#ExactEuclideanDistance} is disabled and all values are finite.
+     */
+    private static final class GramEuclidean implements PairDistance {
+        private final double[] rows;
+        private final int nc;
+        private final double[] norms;
+
+        GramEuclidean(double[] rows, int nr, int nc) {
+            this.rows = rows;
+            this.nc = nc;
+            this.norms = new double[nr];
+            for (int i = 0; i < nr; i++) {
+                norms[i] = dot(rows, i * nc, i * nc, nc);
+            }
+        }
+
+        @Override
+        public double dist(int i1, int i2) {
+            double squared = norms[i1] + norms[i2] - 2 * dot(rows, i1 * nc, i2 * nc, nc);
+            return Math.sqrt(Math.max(squared, 0));
+        }
+
+        private static double dot(double[] x, int o1, int o2, int nc) {
+            double s0 = 0;
+            double s1 = 0;
+            double s2 = 0;
+            double s3 = 0;
+            int j = 0;
+            for (; j + 3 < nc; j += 4) {
+                s0 += x[o1 + j] * x[o2 + j];
+                s1 += x[o1 + j + 1] * x[o2 + j + 1];
+                s2 += x[o1 + j + 2] * x[o2 + j + 2];
+                s3 += x[o1 + j + 3] * x[o2 + j + 3];
+            }
+            for (; j < nc; j++) {
+                s0 += x[o1 + j] * x[o2 + j];
+            }
+            return (s0 + s1) + (s2 + s3);
+        }
+    }
+
+    /**
+     * The distance methods, {@code dist} gets a row-major matrix and the offsets of the two rows.
+     */
     public enum Method {
         EUCLIDEAN {
             @Override
-            public double dist(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, final int i1in, final int i2in, double p) {
-                int i1 = i1in;
-                int i2 = i2in;
-                double dev;
-                double dist;
-                int count;
-                int j;
-
-                count = 0;
-                dist = 0;
-                for (j = 0; j < nc; j++) {
-                    if (bothNonNAN(xAccess.getDouble(xIter, i1), xAccess.getDouble(xIter, i2))) {
-                        dev = (xAccess.getDouble(xIter, i1) - xAccess.getDouble(xIter, i2));
+            public double dist(double[] x, int i1, int i2, int nc, double p) {
+                double dist = 0;
+                int count = 0;
+                for (int j = 0; j < nc; j++) {
+                    if (bothNonNAN(x[i1 + j], x[i2 + j])) {
+                        double dev = (x[i1 + j] - x[i2 + j]);
                         if (!RRuntime.isNAorNaN(dev)) {
                             dist += dev * dev;
                             count++;
                         }
                     }
-                    i1 += nr;
-                    i2 += nr;
                 }
                 if (count == 0) {
                     return RRuntime.DOUBLE_NA;
@@ -170,24 +289,16 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
                     dist /= ((double) count / nc);
                 }
                 return Math.sqrt(dist);
-
             }
         },
         MAXIMUM {
             @Override
-            public double dist(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, final int i1in, final int i2in, double p) {
-                int i1 = i1in;
-                int i2 = i2in;
-                double dev;
-                double dist;
-                int count;
-                int j;
-
-                count = 0;
-                dist = -Double.MAX_VALUE;
-                for (j = 0; j < nc; j++) {
-                    if (bothNonNAN(xAccess.getDouble(xIter, i1), xAccess.getDouble(xIter, i2))) {
-                        dev = Math.abs(xAccess.getDouble(xIter, i1) - xAccess.getDouble(xIter, i2));
+            public double dist(double[] x, int i1, int i2, int nc, double p) {
+                double dist = -Double.MAX_VALUE;
+                int count = 0;
+                for (int j = 0; j < nc; j++) {
+                    if (bothNonNAN(x[i1 + j], x[i2 + j])) {
+                        double dev = Math.abs(x[i1 + j] - x[i2 + j]);
                         if (!RRuntime.isNAorNaN(dev)) {
                             if (dev > dist) {
                                 dist = dev;
@@ -195,38 +306,26 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
                             count++;
                         }
                     }
-                    i1 += nr;
-                    i2 += nr;
                 }
                 if (count == 0) {
                     return RRuntime.DOUBLE_NA;
                 }
                 return dist;
-
             }
         },
         MANHATTAN {
             @Override
-            public double dist(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, final int i1in, final int i2in, double p) {
-                int i1 = i1in;
-                int i2 = i2in;
-                double dev;
-                double dist;
-                int count;
-                int j;
-
-                count = 0;
-                dist = 0;
-                for (j = 0; j < nc; j++) {
-                    if (bothNonNAN(xAccess.getDouble(xIter, i1), xAccess.getDouble(xIter, i2))) {
-                        dev = Math.abs(xAccess.getDouble(xIter, i1) - xAccess.getDouble(xIter, i2));
+            public double dist(double[] x, int i1, int i2, int nc, double p) {
+                double dist = 0;
+                int count = 0;
+                for (int j = 0; j < nc; j++) {
+                    if (bothNonNAN(x[i1 + j], x[i2 + j])) {
+                        double dev = Math.abs(x[i1 + j] - x[i2 + j]);
                         if (!RRuntime.isNAorNaN(dev)) {
                             dist += dev;
                             count++;
                         }
                     }
-                    i1 += nr;
-                    i2 += nr;
                 }
                 if (count == 0) {
                     return RRuntime.DOUBLE_NA;
@@ -235,29 +334,19 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
                     dist /= ((double) count / nc);
                 }
                 return dist;
-
             }
         },
         CANBERRA {
             @Override
-            public double dist(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, final int i1in, final int i2in, double p) {
-                int i1 = i1in;
-                int i2 = i2in;
-                double dev;
-                double dist;
-                double sum;
-                double diff;
-                int count;
-                int j;
-
-                count = 0;
-                dist = 0;
-                for (j = 0; j < nc; j++) {
-                    if (bothNonNAN(xAccess.getDouble(xIter, i1), xAccess.getDouble(xIter, i2))) {
-                        sum = Math.abs(xAccess.getDouble(xIter, i1) + xAccess.getDouble(xIter, i2));
-                        diff = Math.abs(xAccess.getDouble(xIter, i1) - xAccess.getDouble(xIter, i2));
+            public double dist(double[] x, int i1, int i2, int nc, double p) {
+                double dist = 0;
+                int count = 0;
+                for (int j = 0; j < nc; j++) {
+                    if (bothNonNAN(x[i1 + j], x[i2 + j])) {
+                        double sum = Math.abs(x[i1 + j] + x[i2 + j]);
+                        double diff = Math.abs(x[i1 + j] - x[i2 + j]);
                         if (sum > DBL_MIN || diff > DBL_MIN) {
-                            dev = diff / sum;
+                            double dev = diff / sum;
                             if (!RRuntime.isNAorNaN(dev) ||
                                             (!RRuntime.isFinite(diff) && diff == sum &&
                                                             /* use Inf = lim x -> oo */ ((dev = 1.) != 0))) {
@@ -266,8 +355,6 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
                             }
                         }
                     }
-                    i1 += nr;
-                    i2 += nr;
                 }
                 if (count == 0) {
                     return RRuntime.DOUBLE_NA;
@@ -276,41 +363,29 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
                     dist /= ((double) count / nc);
                 }
                 return dist;
-
             }
         },
         BINARY {
             @Override
-            public double dist(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, final int i1in, final int i2in, double p) {
-                int i1 = i1in;
-                int i2 = i2in;
-                int total;
-                int count;
-                int dist;
-                int j;
-
-                total = 0;
-                count = 0;
-                dist = 0;
-
-                for (j = 0; j < nc; j++) {
-                    if (bothNonNAN(xAccess.getDouble(xIter, i1), xAccess.getDouble(xIter, i2))) {
-                        if (!bothFinite(xAccess.getDouble(xIter, i1), xAccess.getDouble(xIter, i2))) {
+            public double dist(double[] x, int i1, int i2, int nc, double p) {
+                int total = 0;
+                int count = 0;
+                int dist = 0;
+                for (int j = 0; j < nc; j++) {
+                    if (bothNonNAN(x[i1 + j], x[i2 + j])) {
+                        if (!bothFinite(x[i1 + j], x[i2 + j])) {
                             RError.warning(RError.SHOW_CALLER2, RError.Message.GENERIC, "treating non-finite values as NA");
                         } else {
-                            if (xAccess.getDouble(xIter, i1) != 0. || xAccess.getDouble(xIter, i2) != 0.) {
+                            if (x[i1 + j] != 0. || x[i2 + j] != 0.) {
                                 count++;
-                                if (!(xAccess.getDouble(xIter, i1) != 0. && xAccess.getDouble(xIter, i2) != 0.)) {
+                                if (!(x[i1 + j] != 0. && x[i2 + j] != 0.)) {
                                     dist++;
                                 }
                             }
                             total++;
                         }
                     }
-                    i1 += nr;
-                    i2 += nr;
                 }
-
                 if (total == 0) {
                     return RRuntime.DOUBLE_NA;
                 }
@@ -318,31 +393,21 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
                     return 0;
                 }
                 return (double) dist / count;
-
             }
         },
         MINKOWSKI {
             @Override
-            public double dist(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, final int i1in, final int i2in, double p) {
-                int i1 = i1in;
-                int i2 = i2in;
-                double dev;
-                double dist;
-                int count;
-                int j;
-
-                count = 0;
-                dist = 0;
-                for (j = 0; j < nc; j++) {
-                    if (bothNonNAN(xAccess.getDouble(xIter, i1), xAccess.getDouble(xIter, i2))) {
-                        dev = (xAccess.getDouble(xIter, i1) - xAccess.getDouble(xIter, i2));
+            public double dist(double[] x, int i1, int i2, int nc, double p) {
+                double dist = 0;
+                int count = 0;
+                for (int j = 0; j < nc; j++) {
+                    if (bothNonNAN(x[i1 + j], x[i2 + j])) {
+                        double dev = (x[i1 + j] - x[i2 + j]);
                         if (!RRuntime.isNAorNaN(dev)) {
                             dist += Math.pow(Math.abs(dev), p);
                             count++;
                         }
                     }
-                    i1 += nr;
-                    i2 += nr;
                 }
                 if (count == 0) {
                     return RRuntime.DOUBLE_NA;
@@ -354,6 +419,6 @@ public abstract class Cdist extends RExternalBuiltinNode.Arg4 {
             }
         };
 
-        public abstract double dist(VectorAccess xAccess, RandomIterator xIter, int nr, int nc, int i1, int i2, double p);
+        public abstract double dist(double[] x, int i1, int i2, int nc, double p);
     }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.library.stats;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.GetDimAttributeNode;
+import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
+import com.oracle.truffle.r.runtime.RError.Message;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.appl.Linpack;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.nodes.ShareObjectNode;
+import com.oracle.truffle.r.runtime.ffi.MiscRFFI;
+
+/**
+ * The least squares fit of {@code lm.fit}, implemented in C in GnuR's {@code lm.c}. The
+ * decomposition is done by the Java port of {@code dqrls} for matrices with at most
+ * {@link FastROptions#JavaDecompositionThreshold} elements and by the native routine otherwise.
+ */
+public abstract class Cdqrls extends RExternalBuiltinNode.Arg4 {
+
+    private static final RStringVector NAMES = ShareObjectNode.sharePermanent(
+                    RDataFactory.createStringVector(new String[]{"qr", "coefficients", "residuals", "effects", "rank", "pivot", "qraux", "tol", "pivoted"}, RDataFactory.COMPLETE_VECTOR));
+
+    private final ConditionProfile javaProfile = ConditionProfile.createBinaryProfile();
+
+    @Child private MiscRFFI.DqrlsNode dqrlsNode;
+
+    static {
+        Casts casts = new Casts(Cdqrls.class);
+        casts.arg(0).mustNotBeMissing().mustNotBeNull().asDoubleVector(true, true, true);
+        casts.arg(1).mustNotBeMissing().mustNotBeNull().asDoubleVector(true, true, true);
+        casts.arg(2).asDoubleVector().findFirst(RRuntime.DOUBLE_NA);
+        casts.arg(3).asLogicalVector().findFirst(RRuntime.LOGICAL_FALSE).map(toBoolean());
+    }
+
+    @Specialization
+    protected RList cdqrls(RAbstractDoubleVector xVec, RAbstractDoubleVector yVec, double tol, boolean check,
+                    @Cached("create()") GetDimAttributeNode getDimNode) {
+        int[] dims = getDimNode.getDimensions(xVec);
+        if (dims == null || (check && dims.length != 2)) {
+            throw error(Message.X_NOT_MATRIX);
+        }
+        int n = dims[0];
+        int p = dims[1];
+        int ny = n == 0 ? 0 : yVec.getLength() / n; /* y : n x ny, or an n - vector */
+        if (check && n * ny != yVec.getLength()) {
+            throw error(Message.QR_DIMENSIONS_DO_NOT_MATCH, n, p, yVec.getLength());
+        }
+        double[] x = xVec.materialize().getDataCopy();
+        checkFinite(x, "x");
+        double[] y = yVec.materialize().getDataCopy();
+        checkFinite(y, "y");
+
+        double[] coefficients = new double[p * ny];
+        double[] residuals = y.clone();
+        double[] effects = y.clone();
+        int[] pivot = new int[p];
+        for (int i = 0; i < p; i++) {
+            pivot[i] = i + 1;
+        }
+        double[] qraux = new double[p];
+        double[] work = new double[2 * p];
+        int rank;
+        if (javaProfile.profile(useJava((long) n * p))) {
+            rank = Linpack.dqrls(x, n, p, y, ny, tol, coefficients, residuals, effects, pivot, qraux, work);
+        } else {
+            if (dqrlsNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                dqrlsNode = insert(MiscRFFI.DqrlsNode.create());
+            }
+            int[] rankHolder = new int[1];
+            dqrlsNode.execute(x, n, p, y, ny, tol, coefficients, residuals, effects, rankHolder, pivot, qraux, work);
+            rank = rankHolder[0];
+        }
+        boolean pivoted = false;
+        for (int i = 0; i < p; i++) {
+            if (pivot[i] != i + 1) {
+                pivoted = true;
+                break;
+            }
+        }
+
+        RDoubleVector qr = RDataFactory.createDoubleVector(x, RDataFactory.COMPLETE_VECTOR);
+        qr.copyAttributesFrom(xVec);
+        RDoubleVector resultResiduals = RDataFactory.createDoubleVector(residuals, RDataFactory.COMPLETE_VECTOR);
+        resultResiduals.copyAttributesFrom(yVec);
+        RDoubleVector resultEffects = RDataFactory.createDoubleVector(effects, RDataFactory.COMPLETE_VECTOR);
+        resultEffects.copyAttributesFrom(yVec);
+        Object[] data = new Object[]{
+                        qr,
+                        ny > 1 ? RDataFactory.createDoubleVector(coefficients, RDataFactory.COMPLETE_VECTOR, new int[]{p, ny})
+                                        : RDataFactory.createDoubleVector(coefficients, RDataFactory.COMPLETE_VECTOR),
+                        resultResiduals,
+                        resultEffects,
+                        rank,
+                        RDataFactory.createIntVector(pivot, RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createDoubleVector(qraux, RDataFactory.COMPLETE_VECTOR),
+                        tol,
+                        RRuntime.asLogical(pivoted)
+        };
+        return RDataFactory.createList(data, NAMES);
+    }
+
+    private void checkFinite(double[] values, String name) {
+        for (double value : values) {
+            if (!RRuntime.isFinite(value)) {
+                throw error(Message.NA_NAN_INF_IN, name);
+            }
+        }
+    }
+
+    @TruffleBoundary
+    private static boolean useJava(long elements) {
+        return elements <= RContext.getInstance().getOption(FastROptions.JavaDecompositionThreshold);
+    }
+}
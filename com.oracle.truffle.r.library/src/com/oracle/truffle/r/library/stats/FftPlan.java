@@ -0,0 +1,1034 @@
+/*
+ * Copyright (c) 1995, 1996, 1997  Robert Gentleman and Ross Ihaka
+ * Copyright (c) 1998--2000, 2013  The R Core Team
+ * Copyright (c) 2019, Oracle and/or its affiliates
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, a copy is available at
+ * https://www.R-project.org/Licenses/
+ */
+package com.oracle.truffle.r.library.stats;
+
+import static com.oracle.truffle.r.runtime.nmath.MathConstants.M_PI_4;
+import static com.oracle.truffle.r.runtime.nmath.MathConstants.M_SQRT_3;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The mixed-radix fast Fourier transform by Richard Singleton, transcribed from GnuR's
+ * {@code fft.c}, so that the results are the same as in GnuR up to the rounding of the sines and
+ * cosines.
+ *
+ * A plan holds the factorization of one series length, which GnuR's {@code fft_factor} computes
+ * into static variables before every {@code fft_work}. Plans are immutable and cached by length,
+ * the transforms copy the factors because they are overwritten during the permutation. The scratch
+ * arrays are kept in a {@link Workspace}, which can be reused for all transforms of one thread
+ * whose plans do not need larger scratch arrays.
+ */
+public final class FftPlan {
+
+    private static final int MAX_CACHED_PLANS = 1024;
+    private static final long PARALLEL_MIN_LENGTH = 1L << 15;
+    private static final ConcurrentHashMap<Integer, FftPlan> plans = new ConcurrentHashMap<>();
+
+    private final int n;
+    /**
+     * The factors, with the square factors at the start and mirrored at the end.
+     */
+    private final int[] nfac;
+    /**
+     * The number of factors.
+     */
+    private final int mFac;
+    /**
+     * The number of square factors.
+     */
+    private final int kt;
+    private final int maxf;
+    private final int maxp;
+
+    private FftPlan(int n, int[] nfac, int mFac, int kt, int maxf, int maxp) {
+        this.n = n;
+        this.nfac = nfac;
+        this.mFac = mFac;
+        this.kt = kt;
+        this.maxf = maxf;
+        this.maxp = maxp;
+    }
+
+    /**
+     * Returns the plan for series of length {@code n > 1}, or {@code null} if {@code n} cannot be
+     * factored.
+     */
+    @TruffleBoundary
+    public static FftPlan get(int n) {
+        FftPlan plan = plans.get(n);
+        if (plan == null) {
+            plan = factor(n);
+            if (plan != null && plans.size() < MAX_CACHED_PLANS) {
+                plans.putIfAbsent(n, plan);
+            }
+        }
+        return plan;
+    }
+
+    public int getLength() {
+        return n;
+    }
+
+    /**
+     * Scratch storage of the transforms, corresponding to the {@code work} and {@code iwork}
+     * arrays of GnuR. The arrays are 1-based like in the original code.
+     */
+    public static final class Workspace {
+        private final double[] at;
+        private final double[] ck;
+        private final double[] bt;
+        private final double[] sk;
+        private final int[] np;
+        private final int[] nfac = new int[22];
+
+        public Workspace(int maxf, int maxp) {
+            this.at = new double[maxf + 1];
+            this.ck = new double[maxf + 1];
+            this.bt = new double[maxf + 1];
+            this.sk = new double[maxf + 1];
+            this.np = new int[maxp + 1];
+        }
+
+        public boolean fits(FftPlan plan) {
+            return plan.maxf < at.length && plan.maxp < np.length;
+        }
+    }
+
+    public Workspace createWorkspace() {
+        return new Workspace(maxf, maxp);
+    }
+
+    /**
+     * Transforms the complex series stored as interleaved real and imaginary parts in {@code z}
+     * starting at the complex element {@code offset}, with the meaning of {@code nseg} and
+     * {@code nspn} as in GnuR's {@code fft_work}. The inverse transform is not scaled.
+     */
+    public void transform(double[] z, int offset, int nseg, int nspn, boolean inverse, Workspace workspace) {
+        assert workspace.fits(this);
+        int nspan = n * nspn;
+        int ntot = nspan * nseg;
+        System.arraycopy(nfac, 0, workspace.nfac, 1, mFac);
+        fftmx(z, 2 * offset - 1, ntot, n, nspan, inverse ? 2 : -2, mFac, kt, workspace.at, workspace.ck, workspace.bt, workspace.sk, workspace.np, workspace.nfac);
+    }
+
+    /**
+     * Transforms the {@code nseg} consecutive segments of {@code n * nspn} complex elements of
+     * {@code z}. The transform of each segment does not depend on the other segments, so that they
+     * can be transformed in parallel with the same results.
+     */
+    @TruffleBoundary
+    public void transformSegments(double[] z, int nseg, int nspn, boolean inverse, boolean parallel) {
+        int span = n * nspn;
+        int chunks = parallel && (long) span * nseg >= PARALLEL_MIN_LENGTH ? Math.min(nseg, Runtime.getRuntime().availableProcessors()) : 1;
+        if (chunks <= 1) {
+            transform(z, 0, nseg, nspn, inverse, createWorkspace());
+        } else {
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                int from = (int) ((long) nseg * chunk / chunks);
+                int to = (int) ((long) nseg * (chunk + 1) / chunks);
+                transform(z, from * span, to - from, nspn, inverse, createWorkspace());
+            });
+        }
+    }
+
+    // transcribed from fft_factor
+
+    private static FftPlan factor(int n) {
+        assert n > 1;
+        int[] nfac = new int[20];
+        int mFac = 0;
+        int kt;
+        int maxp = 0;
+        int k = n; /* k := remaining unfactored factor of n */
+
+        /* extract square factors first ------------------ */
+
+        /*
+         * extract 4^2 = 16 separately ==> at most one remaining factor 2^2 = 4, done below
+         */
+        while (k % 16 == 0) {
+            nfac[mFac++] = 4;
+            k /= 16;
+        }
+
+        /* extract 3^2, 5^2, ... */
+        boolean kchanged = false;
+        int sqrtk = (int) Math.sqrt(k);
+        for (int j = 3; j <= sqrtk; j += 2) {
+            int jj = j * j;
+            while (k % jj == 0) {
+                nfac[mFac++] = j;
+                k /= jj;
+                kchanged = true;
+            }
+            if (kchanged) {
+                kchanged = false;
+                sqrtk = (int) Math.sqrt(k);
+            }
+        }
+
+        if (k <= 4) {
+            kt = mFac;
+            nfac[mFac] = k;
+            if (k != 1) {
+                mFac++;
+            }
+        } else {
+            if (k % 4 == 0) {
+                nfac[mFac++] = 2;
+                k /= 4;
+            }
+
+            /* all square factors out now, but k >= 5 still */
+
+            kt = mFac;
+            maxp = Math.max(kt + kt + 2, k - 1);
+            int j = 2;
+            do {
+                if (k % j == 0) {
+                    nfac[mFac++] = j;
+                    k /= j;
+                }
+                if (j > Integer.MAX_VALUE - 2) {
+                    break;
+                }
+                j = ((j + 1) / 2) * 2 + 1;
+            } while (j <= k);
+        }
+
+        if (mFac <= kt + 1) {
+            maxp = mFac + kt + 1;
+        }
+        if (mFac + kt > 20) { /* error - too many factors */
+            return null;
+        }
+        if (kt != 0) {
+            int j = kt;
+            while (j != 0) {
+                nfac[mFac++] = nfac[--j];
+            }
+        }
+        int maxf = nfac[mFac - kt - 1];
+        /* The last squared factor is not necessarily the largest PR#1429 */
+        if (kt > 0) {
+            maxf = Math.max(nfac[kt - 1], maxf);
+        }
+        if (kt > 1) {
+            maxf = Math.max(nfac[kt - 2], maxf);
+        }
+        if (kt > 2) {
+            maxf = Math.max(nfac[kt - 3], maxf);
+        }
+        return new FftPlan(n, nfac, mFac, kt, maxf, maxp);
+    }
+
+    // transcribed from fftmx, the labels of the original are the states of the loop
+
+    private static final int L_START = 0;
+    private static final int L60 = 1;
+    private static final int L70 = 2;
+    private static final int L80 = 3;
+    private static final int L100 = 4;
+    private static final int L110 = 5;
+    private static final int L120 = 6;
+    private static final int L130 = 7;
+    private static final int L140 = 8;
+    private static final int L150 = 9;
+    private static final int L160 = 10;
+    private static final int L170 = 11;
+    private static final int L180 = 12;
+    private static final int L190 = 13;
+    private static final int L200 = 14;
+    private static final int L_F5 = 15;
+    private static final int L220 = 16;
+    private static final int L_F_ODD = 17;
+    private static final int L250 = 18;
+    private static final int L260 = 19;
+    private static final int L270 = 20;
+    private static final int L290 = 21;
+    private static final int L300 = 22;
+    private static final int L_FIN = 23;
+    private static final int L370 = 24;
+    private static final int L380 = 25;
+    private static final int L400 = 26;
+    private static final int L410 = 27;
+    private static final int L440 = 28;
+    private static final int L460 = 29;
+    private static final int L470 = 30;
+    private static final int L480 = 31;
+    private static final int L500 = 32;
+    private static final int L_ORD = 33;
+    private static final int L520 = 34;
+    private static final int L570 = 35;
+
+    /**
+     * The data are {@code a[j] = z[base + j]} and {@code b[j] = z[base + j + 1]} for the 1-based
+     * indices of the original, all other arrays are 1-based too.
+     */
+    private static void fftmx(double[] z, int base, int ntot, int n, int nspan, int isn, int m, int ktIn, double[] at, double[] ck, double[] bt, double[] sk, int[] np, int[] nfac) {
+        final int ia = base;
+        final int ib = base + 1;
+        double aa = 0;
+        double aj = 0;
+        double ajm = 0;
+        double ajp = 0;
+        double ak = 0;
+        double akm = 0;
+        double akp = 0;
+        double bb = 0;
+        double bj = 0;
+        double bjm = 0;
+        double bjp = 0;
+        double bk = 0;
+        double bkm = 0;
+        double bkp = 0;
+        double c1 = 0;
+        double c2 = 0;
+        double c3 = 0;
+        double cd = 0;
+        double dr = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        double sd = 0;
+        int j = 0;
+        int jj = 0;
+        int k = 0;
+        int k1 = 0;
+        int k2 = 0;
+        int k3 = 0;
+        int k4 = 0;
+        int kk = 0;
+        int kspnn = 0;
+        int mm = 0;
+        int kt = ktIn;
+
+        int inc = Math.abs(isn);
+        int nt = inc * ntot;
+        int ks = inc * nspan;
+        double rad = M_PI_4; /* = pi/4 =^= 45 degrees */
+        double s72 = rad / 0.625; /* 72 = 45 / .625 degrees */
+        double c72 = Math.cos(s72);
+        s72 = Math.sin(s72);
+        double s120 = 0.5 * M_SQRT_3; /* sin(120) = sqrt(3)/2 */
+        if (isn <= 0) {
+            s72 = -s72;
+            s120 = -s120;
+            rad = -rad;
+        }
+
+        int kspan = ks;
+        int nn = nt - inc;
+        int jc = ks / n;
+
+        /* sin, cos values are re-initialized each lim steps */
+
+        int lim = 32;
+        int klim = lim * jc;
+        int i = 0;
+        int jf = 0;
+        int maxf = nfac[m - kt];
+        if (kt > 0) {
+            maxf = Math.max(nfac[kt], maxf);
+        }
+
+        /* compute fourier transform */
+
+        int label = L_START;
+        while (true) {
+            switch (label) {
+                case L_START:
+                    dr = (8.0 * jc) / kspan;
+                    cd = Math.sin(0.5 * dr * rad);
+                    cd = 2.0 * cd * cd;
+                    sd = Math.sin(dr * rad);
+                    kk = 1;
+                    i++;
+                    if (nfac[i] != 2) {
+                        label = L110;
+                        continue;
+                    }
+
+                    /* transform for factor of 2 (including rotation factor) */
+
+                    kspan /= 2;
+                    k1 = kspan + 2;
+                    do {
+                        do {
+                            k2 = kk + kspan;
+                            ak = z[ia + k2];
+                            bk = z[ib + k2];
+                            z[ia + k2] = z[ia + kk] - ak;
+                            z[ib + k2] = z[ib + kk] - bk;
+                            z[ia + kk] += ak;
+                            z[ib + kk] += bk;
+                            kk = k2 + kspan;
+                        } while (kk <= nn);
+                        kk -= nn;
+                    } while (kk <= jc);
+
+                    if (kk > kspan) {
+                        label = L_FIN;
+                        continue;
+                    }
+                    // fall through
+                case L60:
+                    c1 = 1.0 - cd;
+                    s1 = sd;
+                    mm = Math.min(k1 / 2, klim);
+                    label = L80;
+                    continue;
+                case L70:
+                    ak = c1 - (cd * c1 + sd * s1);
+                    s1 = (sd * c1 - cd * s1) + s1;
+                    c1 = ak;
+                    // fall through
+                case L80:
+                    do {
+                        k2 = kk + kspan;
+                        ak = z[ia + kk] - z[ia + k2];
+                        bk = z[ib + kk] - z[ib + k2];
+                        z[ia + kk] += z[ia + k2];
+                        z[ib + kk] += z[ib + k2];
+                        z[ia + k2] = c1 * ak - s1 * bk;
+                        z[ib + k2] = s1 * ak + c1 * bk;
+                        kk = k2 + kspan;
+                    } while (kk < nt);
+                    k2 = kk - nt;
+                    c1 = -c1;
+                    kk = k1 - k2;
+                    if (kk > k2) {
+                        label = L80;
+                        continue;
+                    }
+                    kk += jc;
+                    if (kk <= mm) {
+                        label = L70;
+                        continue;
+                    }
+                    if (kk >= k2) {
+                        k1 = k1 + inc + inc;
+                        kk = (k1 - kspan) / 2 + jc;
+                        label = kk <= jc + jc ? L60 : L_START;
+                        continue;
+                    }
+                    s1 = ((kk - 1) / jc) * dr * rad;
+                    c1 = Math.cos(s1);
+                    s1 = Math.sin(s1);
+                    mm = Math.min(k1 / 2, mm + klim);
+                    label = L80;
+                    continue;
+
+                    /* transform for factor of 3 (optional code) */
+
+                case L100:
+                    k1 = kk + kspan;
+                    k2 = k1 + kspan;
+                    ak = z[ia + kk];
+                    bk = z[ib + kk];
+                    aj = z[ia + k1] + z[ia + k2];
+                    bj = z[ib + k1] + z[ib + k2];
+                    z[ia + kk] = ak + aj;
+                    z[ib + kk] = bk + bj;
+                    ak = -0.5 * aj + ak;
+                    bk = -0.5 * bj + bk;
+                    aj = (z[ia + k1] - z[ia + k2]) * s120;
+                    bj = (z[ib + k1] - z[ib + k2]) * s120;
+                    z[ia + k1] = ak - bj;
+                    z[ib + k1] = bk + aj;
+                    z[ia + k2] = ak + bj;
+                    z[ib + k2] = bk - aj;
+                    kk = k2 + kspan;
+                    if (kk < nn) {
+                        label = L100;
+                        continue;
+                    }
+                    kk = kk - nn;
+                    label = kk <= kspan ? L100 : L290;
+                    continue;
+
+                    /* transform for factor of 4 */
+
+                case L110:
+                    if (nfac[i] != 4) {
+                        label = L_F_ODD;
+                        continue;
+                    }
+                    kspnn = kspan;
+                    kspan /= 4;
+                    // fall through
+                case L120:
+                    c1 = 1.0;
+                    s1 = 0;
+                    mm = Math.min(kspan, klim);
+                    label = L150;
+                    continue;
+                case L130:
+                    c2 = c1 - (cd * c1 + sd * s1);
+                    s1 = (sd * c1 - cd * s1) + s1;
+                    c1 = c2;
+                    // fall through
+                case L140:
+                    c2 = c1 * c1 - s1 * s1;
+                    s2 = c1 * s1 * 2.0;
+                    c3 = c2 * c1 - s2 * s1;
+                    s3 = c2 * s1 + s2 * c1;
+                    // fall through
+                case L150:
+                    k1 = kk + kspan;
+                    k2 = k1 + kspan;
+                    k3 = k2 + kspan;
+                    akp = z[ia + kk] + z[ia + k2];
+                    akm = z[ia + kk] - z[ia + k2];
+                    ajp = z[ia + k1] + z[ia + k3];
+                    ajm = z[ia + k1] - z[ia + k3];
+                    z[ia + kk] = akp + ajp;
+                    ajp = akp - ajp;
+                    bkp = z[ib + kk] + z[ib + k2];
+                    bkm = z[ib + kk] - z[ib + k2];
+                    bjp = z[ib + k1] + z[ib + k3];
+                    bjm = z[ib + k1] - z[ib + k3];
+                    z[ib + kk] = bkp + bjp;
+                    bjp = bkp - bjp;
+                    if (isn < 0) {
+                        label = L180;
+                        continue;
+                    }
+                    akp = akm - bjm;
+                    akm = akm + bjm;
+                    bkp = bkm + ajm;
+                    bkm = bkm - ajm;
+                    if (s1 == 0.0) {
+                        label = L190;
+                        continue;
+                    }
+                    // fall through
+                case L160:
+                    z[ia + k1] = akp * c1 - bkp * s1;
+                    z[ib + k1] = akp * s1 + bkp * c1;
+                    z[ia + k2] = ajp * c2 - bjp * s2;
+                    z[ib + k2] = ajp * s2 + bjp * c2;
+                    z[ia + k3] = akm * c3 - bkm * s3;
+                    z[ib + k3] = akm * s3 + bkm * c3;
+                    kk = k3 + kspan;
+                    if (kk <= nt) {
+                        label = L150;
+                        continue;
+                    }
+                    // fall through
+                case L170:
+                    kk = kk - nt + jc;
+                    if (kk <= mm) {
+                        label = L130;
+                        continue;
+                    }
+                    if (kk < kspan) {
+                        label = L200;
+                        continue;
+                    }
+                    kk = kk - kspan + inc;
+                    if (kk <= jc) {
+                        label = L120;
+                        continue;
+                    }
+                    label = kspan == jc ? L_FIN : L_START;
+                    continue;
+                case L180:
+                    akp = akm + bjm;
+                    akm = akm - bjm;
+                    bkp = bkm - ajm;
+                    bkm = bkm + ajm;
+                    if (s1 != 0.0) {
+                        label = L160;
+                        continue;
+                    }
+                    // fall through
+                case L190:
+                    z[ia + k1] = akp;
+                    z[ib + k1] = bkp;
+                    z[ia + k2] = ajp;
+                    z[ib + k2] = bjp;
+                    z[ia + k3] = akm;
+                    z[ib + k3] = bkm;
+                    kk = k3 + kspan;
+                    label = kk <= nt ? L150 : L170;
+                    continue;
+                case L200:
+                    s1 = ((kk - 1) / jc) * dr * rad;
+                    c1 = Math.cos(s1);
+                    s1 = Math.sin(s1);
+                    mm = Math.min(kspan, mm + klim);
+                    label = L140;
+                    continue;
+
+                    /* transform for factor of 5 (optional code) */
+
+                case L_F5:
+                    c2 = c72 * c72 - s72 * s72;
+                    s2 = 2.0 * c72 * s72;
+                    // fall through
+                case L220:
+                    k1 = kk + kspan;
+                    k2 = k1 + kspan;
+                    k3 = k2 + kspan;
+                    k4 = k3 + kspan;
+                    akp = z[ia + k1] + z[ia + k4];
+                    akm = z[ia + k1] - z[ia + k4];
+                    bkp = z[ib + k1] + z[ib + k4];
+                    bkm = z[ib + k1] - z[ib + k4];
+                    ajp = z[ia + k2] + z[ia + k3];
+                    ajm = z[ia + k2] - z[ia + k3];
+                    bjp = z[ib + k2] + z[ib + k3];
+                    bjm = z[ib + k2] - z[ib + k3];
+                    aa = z[ia + kk];
+                    bb = z[ib + kk];
+                    z[ia + kk] = aa + akp + ajp;
+                    z[ib + kk] = bb + bkp + bjp;
+                    ak = akp * c72 + ajp * c2 + aa;
+                    bk = bkp * c72 + bjp * c2 + bb;
+                    aj = akm * s72 + ajm * s2;
+                    bj = bkm * s72 + bjm * s2;
+                    z[ia + k1] = ak - bj;
+                    z[ia + k4] = ak + bj;
+                    z[ib + k1] = bk + aj;
+                    z[ib + k4] = bk - aj;
+                    ak = akp * c2 + ajp * c72 + aa;
+                    bk = bkp * c2 + bjp * c72 + bb;
+                    aj = akm * s2 - ajm * s72;
+                    bj = bkm * s2 - bjm * s72;
+                    z[ia + k2] = ak - bj;
+                    z[ia + k3] = ak + bj;
+                    z[ib + k2] = bk + aj;
+                    z[ib + k3] = bk - aj;
+                    kk = k4 + kspan;
+                    if (kk < nn) {
+                        label = L220;
+                        continue;
+                    }
+                    kk = kk - nn;
+                    label = kk <= kspan ? L220 : L290;
+                    continue;
+
+                    /* transform for odd factors */
+
+                case L_F_ODD:
+                    k = nfac[i];
+                    kspnn = kspan;
+                    kspan /= k;
+                    if (k == 3) {
+                        label = L100;
+                        continue;
+                    }
+                    if (k == 5) {
+                        label = L_F5;
+                        continue;
+                    }
+                    if (k != jf) {
+                        jf = k;
+                        s1 = rad / (k / 8.0);
+                        c1 = Math.cos(s1);
+                        s1 = Math.sin(s1);
+                        ck[jf] = 1.0;
+                        sk[jf] = 0.0;
+
+                        for (j = 1; j < k; j++) { /* k is changing as well */
+                            ck[j] = ck[k] * c1 + sk[k] * s1;
+                            sk[j] = ck[k] * s1 - sk[k] * c1;
+                            k--;
+                            ck[k] = ck[j];
+                            sk[k] = -sk[j];
+                        }
+                    }
+                    // fall through
+                case L250:
+                    k1 = kk;
+                    k2 = kk + kspnn;
+                    aa = z[ia + kk];
+                    bb = z[ib + kk];
+                    ak = aa;
+                    bk = bb;
+                    j = 1;
+                    k1 = k1 + kspan;
+                    // fall through
+                case L260:
+                    k2 = k2 - kspan;
+                    j++;
+                    at[j] = z[ia + k1] + z[ia + k2];
+                    ak = at[j] + ak;
+                    bt[j] = z[ib + k1] + z[ib + k2];
+                    bk = bt[j] + bk;
+                    j++;
+                    at[j] = z[ia + k1] - z[ia + k2];
+                    bt[j] = z[ib + k1] - z[ib + k2];
+                    k1 = k1 + kspan;
+                    if (k1 < k2) {
+                        label = L260;
+                        continue;
+                    }
+                    z[ia + kk] = ak;
+                    z[ib + kk] = bk;
+                    k1 = kk;
+                    k2 = kk + kspnn;
+                    j = 1;
+                    // fall through
+                case L270:
+                    k1 += kspan;
+                    k2 -= kspan;
+                    jj = j;
+                    ak = aa;
+                    bk = bb;
+                    aj = 0.0;
+                    bj = 0.0;
+                    for (k = 2; k < jf; k++) {
+                        ak += at[k] * ck[jj];
+                        bk += bt[k] * ck[jj];
+                        k++;
+                        aj += at[k] * sk[jj];
+                        bj += bt[k] * sk[jj];
+                        jj += j;
+                        if (jj > jf) {
+                            jj -= jf;
+                        }
+                    }
+                    k = jf - j;
+                    z[ia + k1] = ak - bj;
+                    z[ib + k1] = bk + aj;
+                    z[ia + k2] = ak + bj;
+                    z[ib + k2] = bk - aj;
+                    j++;
+                    if (j < k) {
+                        label = L270;
+                        continue;
+                    }
+                    kk = kk + kspnn;
+                    if (kk <= nn) {
+                        label = L250;
+                        continue;
+                    }
+                    kk = kk - nn;
+                    if (kk <= kspan) {
+                        label = L250;
+                        continue;
+                    }
+                    // fall through
+
+                    /* multiply by rotation factor (except for factors of 2 and 4) */
+
+                case L290:
+                    if (i == m) {
+                        label = L_FIN;
+                        continue;
+                    }
+                    kk = jc + 1;
+                    // fall through
+                case L300:
+                    c2 = 1.0 - cd;
+                    s1 = sd;
+                    mm = Math.min(kspan, klim);
+
+                    while (true) { /* L320: */
+                        c1 = c2;
+                        s2 = s1;
+                        kk += kspan;
+                        do { /* L330: */
+                            do {
+                                ak = z[ia + kk];
+                                z[ia + kk] = c2 * ak - s2 * z[ib + kk];
+                                z[ib + kk] = s2 * ak + c2 * z[ib + kk];
+                                kk += kspnn;
+                            } while (kk <= nt);
+                            ak = s1 * s2;
+                            s2 = s1 * c2 + c1 * s2;
+                            c2 = c1 * c2 - ak;
+                            kk += -nt + kspan;
+                        } while (kk <= kspnn);
+                        kk += -kspnn + jc;
+                        if (kk <= mm) { /* L310: */
+                            c2 = c1 - (cd * c1 + sd * s1);
+                            s1 = s1 + (sd * c1 - cd * s1);
+                            continue /* goto L320 */;
+                        }
+                        if (kk >= kspan) {
+                            kk = kk - kspan + jc + inc;
+                            label = kk <= jc + jc ? L300 : L_START;
+                            break;
+                        }
+                        s1 = ((kk - 1) / jc) * dr * rad;
+                        c2 = Math.cos(s1);
+                        s1 = Math.sin(s1);
+                        mm = Math.min(kspan, mm + klim);
+                    }
+                    continue;
+
+                    /* permute the results to normal order---done in two stages */
+                    /* permutation for square factors of n */
+
+                case L_FIN:
+                    np[1] = ks;
+                    if (kt == 0) {
+                        label = L440;
+                        continue;
+                    }
+                    k = kt + kt + 1;
+                    if (m < k) {
+                        k--;
+                    }
+                    np[k + 1] = jc;
+                    for (j = 1; j < k; j++, k--) {
+                        np[j + 1] = np[j] / nfac[j];
+                        np[k] = np[k + 1] * nfac[j];
+                    }
+                    k3 = np[k + 1];
+                    kspan = np[2];
+                    kk = jc + 1;
+                    k2 = kspan + 1;
+                    j = 1;
+                    label = n == ntot ? L370 : L400;
+                    continue;
+
+                    /* permutation for single-variate transform (optional code) */
+
+                case L370:
+                    do {
+                        ak = z[ia + kk];
+                        z[ia + kk] = z[ia + k2];
+                        z[ia + k2] = ak;
+                        bk = z[ib + kk];
+                        z[ib + kk] = z[ib + k2];
+                        z[ib + k2] = bk;
+                        kk += inc;
+                        k2 += kspan;
+                    } while (k2 < ks);
+                    // fall through
+                case L380:
+                    do {
+                        k2 -= np[j];
+                        j++;
+                        k2 += np[j + 1];
+                    } while (k2 > np[j]);
+                    j = 1;
+                    label = -1;
+                    do {
+                        if (kk < k2) {
+                            label = L370;
+                            break;
+                        }
+                        kk += inc;
+                        k2 += kspan;
+                    } while (k2 < ks);
+                    if (label == L370) {
+                        continue;
+                    }
+                    if (kk < ks) {
+                        label = L380;
+                        continue;
+                    }
+                    jc = k3;
+                    label = L440;
+                    continue;
+
+                    /* permutation for multivariate transform */
+
+                case L400:
+                    k = kk + jc;
+                    do {
+                        ak = z[ia + kk];
+                        z[ia + kk] = z[ia + k2];
+                        z[ia + k2] = ak;
+                        bk = z[ib + kk];
+                        z[ib + kk] = z[ib + k2];
+                        z[ib + k2] = bk;
+                        kk += inc;
+                        k2 += inc;
+                    } while (kk < k);
+                    kk += ks - jc;
+                    k2 += ks - jc;
+                    if (kk < nt) {
+                        label = L400;
+                        continue;
+                    }
+                    k2 += -nt + kspan;
+                    kk += -nt + jc;
+                    if (k2 < ks) {
+                        label = L400;
+                        continue;
+                    }
+                    // fall through
+                case L410:
+                    label = -1;
+                    do {
+                        do {
+                            k2 -= np[j];
+                            j++;
+                            k2 += np[j + 1];
+                        } while (k2 > np[j]);
+                        j = 1;
+                        do {
+                            if (kk < k2) {
+                                label = L400;
+                                break;
+                            }
+                            kk += jc;
+                            k2 += kspan;
+                        } while (k2 < ks);
+                    } while (label != L400 && kk < ks);
+                    if (label == L400) {
+                        continue;
+                    }
+                    jc = k3;
+                    // fall through
+                case L440:
+                    if (2 * kt + 1 >= m) {
+                        return;
+                    }
+                    kspnn = np[kt + 1];
+
+                    /* permutation for square-free factors of n */
+
+                    /* Here, nfac[] is overwritten... -- now CUMULATIVE ("cumprod") factors */
+                    nn = m - kt;
+                    nfac[nn + 1] = 1;
+                    for (j = nn; j > kt; j--) {
+                        nfac[j] *= nfac[j + 1];
+                    }
+                    kt++;
+                    nn = nfac[kt] - 1;
+                    jj = 0;
+                    j = 0;
+                    label = L480;
+                    continue;
+                case L460:
+                    jj -= k2;
+                    k2 = kk;
+                    k++;
+                    kk = nfac[k];
+                    // fall through
+                case L470:
+                    jj += kk;
+                    if (jj >= k2) {
+                        label = L460;
+                        continue;
+                    }
+                    np[j] = jj;
+                    // fall through
+                case L480:
+                    k2 = nfac[kt];
+                    k = kt + 1;
+                    kk = nfac[k];
+                    j++;
+                    if (j <= nn) {
+                        label = L470;
+                        continue;
+                    }
+
+                    /* determine the permutation cycles of length greater than 1 */
+
+                    j = 0;
+                    // fall through
+                case L500:
+                    do {
+                        j++;
+                        kk = np[j];
+                    } while (kk < 0);
+                    while (kk != j) {
+                        do {
+                            k = kk;
+                            kk = np[k];
+                            np[k] = -kk;
+                        } while (kk != j);
+                        k3 = kk;
+                        do {
+                            j++;
+                            kk = np[j];
+                        } while (kk < 0);
+                    }
+                    np[j] = -j;
+                    if (j != nn) {
+                        label = L500;
+                        continue;
+                    }
+                    maxf *= inc;
+                    label = L570;
+                    continue;
+
+                    /* reorder a and b, following the permutation cycles */
+
+                case L_ORD:
+                    do {
+                        j--;
+                    } while (np[j] < 0);
+                    jj = jc;
+                    // fall through
+                case L520:
+                    kspan = Math.min(jj, maxf);
+                    jj -= kspan;
+                    k = np[j];
+                    kk = jc * k + i + jj;
+
+                    for (k1 = kk + kspan, k2 = 1; k1 != kk; k1 -= inc, k2++) {
+                        at[k2] = z[ia + k1];
+                        bt[k2] = z[ib + k1];
+                    }
+
+                    do {
+                        k1 = kk + kspan;
+                        k2 = k1 - jc * (k + np[k]);
+                        k = -np[k];
+                        do {
+                            z[ia + k1] = z[ia + k2];
+                            z[ib + k1] = z[ib + k2];
+                            k1 -= inc;
+                            k2 -= inc;
+                        } while (k1 != kk);
+                        kk = k2;
+                    } while (k != j);
+
+                    for (k1 = kk + kspan, k2 = 1; k1 > kk; k1 -= inc, k2++) {
+                        z[ia + k1] = at[k2];
+                        z[ib + k1] = bt[k2];
+                    }
+
+                    if (jj != 0) {
+                        label = L520;
+                        continue;
+                    }
+                    if (j != 1) {
+                        label = L_ORD;
+                        continue;
+                    }
+                    // fall through
+                case L570:
+                    j = k3 + 1;
+                    nt = nt - kspnn;
+                    i = nt - inc + 1;
+                    if (nt >= 0) {
+                        label = L_ORD;
+                        continue;
+                    }
+                    return;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.numericValue
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
 
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.nodes.Node;
@@ -40,18 +41,23 @@ import com.oracle.truffle.r.nodes.attributes.UnaryCopyAttributesNode;
 import com.oracle.truffle.r.nodes.builtin.NodeWithArgumentCasts.Casts;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.nodes.profile.VectorLengthProfile;
+import com.oracle.truffle.r.runtime.ParallelChunks;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions.FixedParameters;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function2_1;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function2_2;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function3_1;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function3_2;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function4_1;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function4_2;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions.Kernel;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
@@ -59,6 +65,7 @@ import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 public final class StatsFunctionsNodes {
     @CompilationFinal private static final RDoubleVector DUMMY_VECTOR = RDataFactory.createDoubleVectorFromScalar(1);
+    private static final int PARALLEL_CHUNK_SIZE = 1 << 16;
 
     private StatsFunctionsNodes() {
         // private
@@ -76,6 +83,7 @@ public final class StatsFunctionsNodes {
         final ConditionProfile copyAttrsFromD = ConditionProfile.createBinaryProfile();
         final VectorLengthProfile resultVectorLengthProfile = VectorLengthProfile.create();
         final LoopConditionProfile loopConditionProfile = LoopConditionProfile.createCountingProfile();
+        final ConditionProfile scalarParameters = ConditionProfile.createBinaryProfile();
 
         public static StatFunctionProfiles create() {
             return new StatFunctionProfiles();
@@ -93,6 +101,16 @@ public final class StatsFunctionsNodes {
         }
         int length = profiles.resultVectorLengthProfile.profile(Math.max(aLength, Math.max(bLength, Math.max(cLength, dLength))));
         RBaseNode.reportWork(node, length);
+        if (profiles.scalarParameters.profile(bLength == 1 && cLength == 1 && dLength == 1)) {
+            double bValue = b.getDataAt(0);
+            double cValue = c.getDataAt(0);
+            double dValue = d.getDataAt(0);
+            if (!Double.isNaN(bValue) && !Double.isNaN(cValue) && !Double.isNaN(dValue)) {
+                RDoubleVector resultVec = evaluateScalarParameters(function, a, bValue, cValue, dValue, x, y, profiles);
+                copyAttributesNode.execute(resultVec, a);
+                return resultVec;
+            }
+        }
         double[] result = new double[length];
 
         boolean complete = true;
@@ -144,6 +162,81 @@ public final class StatsFunctionsNodes {
         return resultVec;
     }
 
+    /**
+     * The common case of a vector of values and valid scalar parameters: the parameters are read
+     * and checked once and there is no recycling. If the function provides a
+     * {@link FixedParameters} kernel, the parameters are also validated and preprocessed once and
+     * long vectors are split into parallel chunks if
+     * {@link FastROptions#ParallelDistributionFunctions} is enabled.
+     */
+    private static RDoubleVector evaluateScalarParameters(Function4_2 function, RAbstractDoubleVector a, double b, double c, double d, boolean x, boolean y, StatFunctionProfiles profiles) {
+        int length = a.getLength();
+        double[] result = new double[length];
+        Kernel kernel = function instanceof FixedParameters ? prepare((FixedParameters) function, b, c, d, x, y) : null;
+        boolean nans;
+        if (kernel != null) {
+            nans = evaluateKernel(kernel, a, result);
+        } else {
+            nans = false;
+            profiles.aCheck.enable(a);
+            profiles.loopConditionProfile.profileCounted(length);
+            for (int i = 0; profiles.loopConditionProfile.inject(i < length); i++) {
+                double aValue = a.getDataAt(i);
+                double value;
+                if (Double.isNaN(aValue)) {
+                    profiles.nan.enter();
+                    value = profiles.aCheck.check(aValue) ? RRuntime.DOUBLE_NA : Double.NaN;
+                } else {
+                    value = function.evaluate(aValue, b, c, d, x, y);
+                    if (Double.isNaN(value)) {
+                        profiles.nan.enter();
+                        nans = true;
+                    }
+                }
+                result[i] = value;
+            }
+        }
+        if (nans) {
+            RError.warning(RError.SHOW_CALLER, RError.Message.NAN_PRODUCED);
+        }
+        // NA values come only from NA values in a
+        return RDataFactory.createDoubleVector(result, a.isComplete());
+    }
+
+    @TruffleBoundary
+    private static Kernel prepare(FixedParameters function, double b, double c, double d, boolean x, boolean y) {
+        return function.prepare(b, c, d, x, y);
+    }
+
+    /**
+     * Fills {@code result} with the kernel applied to the values of {@code a} and reports whether
+     * a {@code NaN} was produced from a value that is not {@code NaN}.
+     */
+    @TruffleBoundary
+    private static boolean evaluateKernel(Kernel kernel, RAbstractDoubleVector a, double[] result) {
+        double[] data = a.getReadonlyData();
+        int length = result.length;
+        boolean parallel = ParallelChunks.chunkCount(length, PARALLEL_CHUNK_SIZE, true) > 1 && RContext.getInstance().getOption(FastROptions.ParallelDistributionFunctions);
+        return ParallelChunks.reduce(length, PARALLEL_CHUNK_SIZE, parallel, (from, to) -> evaluateKernel(kernel, data, result, from, to), (n1, n2) -> n1 || n2);
+    }
+
+    private static boolean evaluateKernel(Kernel kernel, double[] data, double[] result, int from, int to) {
+        boolean nans = false;
+        for (int i = from; i < to; i++) {
+            double aValue = data[i];
+            double value;
+            if (Double.isNaN(aValue)) {
+                // keeps NA as well as NaN
+                value = aValue;
+            } else {
+                value = kernel.evaluate(aValue);
+                nans |= Double.isNaN(value);
+            }
+            result[i] = value;
+        }
+        return nans;
+    }
+
     private static void castBoolean(Casts casts, int index, byte defaultValue) {
         // defensively we map missing to the default values
         casts.arg(index).asLogicalVector().findFirst(defaultValue).map(toBoolean());
@@ -44,10 +44,12 @@ import com.oracle.truffle.r.nodes.attributes.SetFixedAttributeNode;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
+import com.oracle.truffle.r.runtime.data.StringInternTable;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
@@ -217,17 +219,29 @@ public abstract class TypeConvert extends RExternalBuiltinNode.Arg5 {
 
             int[] data = new int[x.getLength()];
             boolean complete = true;
+            // low cardinality columns read by scan etc. share the String instances
+            String last = null;
+            int lastLevel = 0;
             for (int j = 0; j < data.length; j++) {
                 s = x.getDataAt(j);
-                if (!isNA(s, naStrings)) {
-                    data[j] = levels.get(s);
+                if (Utils.fastPathIdentityEquals(s, last)) {
+                    data[j] = lastLevel;
+                } else if (!isNA(s, naStrings)) {
+                    data[j] = lastLevel = levels.get(s);
+                    last = s;
                 } else {
                     data[j] = RRuntime.INT_NA;
                     complete = false;
                 }
             }
             RIntVector res = RDataFactory.createIntVector(data, complete);
-            setLevelsAttrNode.setAttr(res, RDataFactory.createStringVector(levels.keySet().toArray(new String[0]), RDataFactory.COMPLETE_VECTOR));
+            String[] levelNames = levels.keySet().toArray(new String[0]);
+            if (StringInternTable.isEnabled()) {
+                for (int j = 0; j < levelNames.length; j++) {
+                    levelNames[j] = StringInternTable.intern(levelNames[j]);
+                }
+            }
+            setLevelsAttrNode.setAttr(res, RDataFactory.createStringVector(levelNames, RDataFactory.COMPLETE_VECTOR));
             return RAbstractVector.setVectorClassAttr(res, RDataFactory.createStringVector("factor"));
         }
     }
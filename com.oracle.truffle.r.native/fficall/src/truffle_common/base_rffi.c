@@ -30,8 +30,16 @@
 #include <sys/utsname.h>
 #include <errno.h>
 
-int call_base_initEventLoop(char *fifoInPath, char *fifoOutPath) {
-    return initEventLoop(fifoInPath, fifoOutPath);
+int call_base_initEventLoop(char *doorbellPath) {
+    return initEventLoop(doorbellPath);
+}
+
+void call_base_releaseEventLoop() {
+    releaseEventLoop();
+}
+
+void call_base_eventLoopStats(double *stats) {
+    eventLoopStats(stats);
 }
 
 int call_base_getpid() {
@@ -113,6 +113,8 @@ SEXP R_UnwindProtect(SEXP (*fun)(void *data), void *data,
     return result;
 }
 
+// An error in a handler unwinds through this function, the event loop thread is then released by
+// FastRDispatchNativeHandlers on the Java side.
 int call_base_dispatchHandlers() {
     return dispatchHandlers();
 }
@@ -28,10 +28,14 @@
 #include <limits.h>
 #include <Rinternals.h>
 
-extern int initEventLoop(char* fifoInPathParam, char* fifoOutPathParam);
+extern int initEventLoop(char* doorbellPath);
 
 extern int dispatchHandlers();
 
+extern void releaseEventLoop();
+
+extern void eventLoopStats(double *stats);
+
 char *ensure_truffle_chararray(const char *x);
 void *ensure_string(const char *x);
 void *ensure_function(void *fptr);
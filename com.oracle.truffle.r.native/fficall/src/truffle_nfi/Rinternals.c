@@ -193,5 +193,15 @@ SEXP R_UnwindProtect(SEXP (*fun)(void *data), void *data,
 }
 
 int call_base_dispatchHandlers() {
-    DO_CALL(dispatchHandlers());
+    jmp_buf error_jmpbuf;
+    pushJmpBuf(&error_jmpbuf);
+    int result = -1;
+    if (!setjmp(error_jmpbuf)) {
+        result = dispatchHandlers();
+    } else {
+        // an error in a handler must not leave the event loop thread blocked
+        releaseEventLoop();
+    }
+    popJmpBuf();
+    return result;
 }
@@ -49,10 +49,14 @@
     popJmpBuf();                    \
     return result;
 
-extern int initEventLoop(char* fifoInPathParam, char* fifoOutPathParam);
+extern int initEventLoop(char* doorbellPath);
 
 extern int dispatchHandlers();
 
+extern void releaseEventLoop();
+
+extern void eventLoopStats(double *stats);
+
 extern void init_memory();
 
 extern void init_utils(TruffleEnv *env);
@@ -360,6 +360,7 @@ getSelectedHandler(InputHandler *handlers, fd_set *readMask)
 #include <sys/types.h>
 #include <pthread.h>
 #include <errno.h>
+#include <time.h>
 
 static void
 handleInterrupt(void)
@@ -376,114 +377,187 @@ static void eventLoopLog(const char* msg) {
 	}
 }
 
-char hint1 = 64;
-char hint2 = 65;
-fd_set *what;
-char* fifoInPath;
-char* fifoOutPath;
-
-static int notifyExecutorAndWait() {
-	int fd = open(fifoInPath, O_WRONLY);
-	if (fd < 0) {
-	    return errno;
-    }
-	int res = write(fd, &hint1, 1);
-	if (res < 0) {
-	    return errno;
-    }
-	res = close(fd);
-	if (res < 0) {
-	    return errno;
-    }
-	
-	// wait until the executor confirms the dispatching of the handlers is done
-	fd = open(fifoOutPath, O_RDONLY);
-	if (fd < 0) {
-	    return errno;
-    }
-	char confirmed[1];
-	res = read(fd, confirmed, sizeof(confirmed) + 1);
-	if (res < 0) {
-	    return errno;
-    }
-	res = close(fd);
-	if (res < 0) {
-	    return errno;
-    }
-
-	return 0;
+/*
+ * The native event loop thread and the FastR context thread share an in-process event queue
+ * guarded by 'queueLock'. The loop thread waits for activity on the registered input handlers,
+ * enqueues the resulting batch (the set of ready descriptors) and rings the doorbell pipe, which
+ * the Java side is blocked on. The context thread then drains the queue in 'dispatchHandlers' and
+ * releases the loop thread via the 'queueDrained' condition, so no file system objects are involved
+ * and there is a single wake-up per batch rather than a FIFO round-trip per event.
+ */
+#define MAX_DRAIN_ROUNDS 64
+
+static pthread_mutex_t queueLock = PTHREAD_MUTEX_INITIALIZER;
+static pthread_cond_t queueDrained = PTHREAD_COND_INITIALIZER;
+static fd_set pendingBatch;
+static int pendingBatchReady = 0;
+/* set while the context thread runs the handlers of the pending batch */
+static int dispatching = 0;
+static long long pendingBatchEnqueued = 0;
+static int doorbell[2] = {-1, -1};
+/* the named FIFO used as the doorbell where the Java side cannot open the pipe via /dev/fd */
+static char *doorbellPath = NULL;
+
+/* statistics, see eventLoopStats */
+static double statEnqueued = 0;
+static double statBatches = 0;
+static double statAbandoned = 0;
+static double statRounds = 0;
+static double statMaxRounds = 0;
+static double statLatencyTotal = 0;
+static double statLatencyMax = 0;
+
+static long long nanoTime() {
+	struct timespec ts;
+	clock_gettime(CLOCK_MONOTONIC, &ts);
+	return (long long) ts.tv_sec * 1000000000LL + ts.tv_nsec;
 }
 
 int dispatchHandlers() {
+	fd_set batch;
+	long long enqueued;
+	pthread_mutex_lock(&queueLock);
+	if (!pendingBatchReady) {
+		pthread_mutex_unlock(&queueLock);
+		return 0;
+	}
+	batch = pendingBatch;
+	enqueued = pendingBatchEnqueued;
+	dispatching = 1;
+	pthread_mutex_unlock(&queueLock);
+
+	double latency = (double) (nanoTime() - enqueued);
 	eventLoopLog("before R_runHandlers in dispatchHandlers");
-	R_runHandlers(R_InputHandlers, what);
-	
-	eventLoopLog("before open in dispatchHandlers");
-	int fd = open(fifoOutPath, O_WRONLY);
-	if (fd < 0) {
-	    return errno;
-    }
-	eventLoopLog("before write in dispatchHandlers");
-	int res = write(fd, &hint2, 1);
-	if (res < 0) {
-	    return errno;
-    }
-	eventLoopLog("before close in dispatchHandlers");
-	res = close(fd);
-	if (res < 0) {
-	    return errno;
-    }
+	R_runHandlers(R_InputHandlers, &batch);
+
+	// the loop thread is parked until we signal it, so we can safely poll for events that
+	// arrived in the meantime and dispatch them in the same batch
+	int rounds = 1;
+	while (rounds < MAX_DRAIN_ROUNDS) {
+		fd_set *more = R_checkActivityEx(0, 1, handleInterrupt);
+		if (more == NULL) {
+			break;
+		}
+		R_runHandlers(R_InputHandlers, more);
+		rounds++;
+	}
+
+	pthread_mutex_lock(&queueLock);
+	pendingBatchReady = 0;
+	dispatching = 0;
+	statBatches++;
+	statRounds += rounds;
+	if (rounds > statMaxRounds) {
+		statMaxRounds = rounds;
+	}
+	statLatencyTotal += latency;
+	if (latency > statLatencyMax) {
+		statLatencyMax = latency;
+	}
+	pthread_cond_signal(&queueDrained);
+	pthread_mutex_unlock(&queueLock);
 
 	eventLoopLog("before exit in dispatchHandlers");
+	return rounds;
+}
 
-	return 0;
+/*
+ * Releases the event loop thread when the dispatching of a batch was abandoned because of an error
+ * in one of the handlers. Does nothing if no batch is being dispatched, so that the error handling
+ * of both the native and the Java side may call it.
+ */
+void releaseEventLoop() {
+	pthread_mutex_lock(&queueLock);
+	if (dispatching) {
+		dispatching = 0;
+		pendingBatchReady = 0;
+		statAbandoned++;
+		pthread_cond_signal(&queueDrained);
+	}
+	pthread_mutex_unlock(&queueLock);
+}
+
+void eventLoopStats(double *stats) {
+	pthread_mutex_lock(&queueLock);
+	stats[0] = statBatches;
+	stats[1] = statRounds;
+	stats[2] = statMaxRounds;
+	stats[3] = statBatches > 0 ? statLatencyTotal / statBatches : 0;
+	stats[4] = statLatencyMax;
+	stats[5] = statEnqueued - statBatches - statAbandoned;
+	pthread_mutex_unlock(&queueLock);
 }
 
 static void *eventLoop(void *params) {
 
 	int wt = 1000000;
-	
+	char hint = 64;
+
+	if (doorbellPath != NULL) {
+		// blocks until the Java side opens the FIFO for reading
+		doorbell[1] = open(doorbellPath, O_WRONLY);
+		if (doorbell[1] < 0) {
+			eventLoopLog("cannot open the doorbell FIFO, exiting the event loop");
+			return NULL;
+		}
+	}
+
 	for (;;) {
 		fflush(stdout);
-		
-		what = R_checkActivityEx(wt, 1, handleInterrupt);
+
+		fd_set *what = R_checkActivityEx(wt, 1, handleInterrupt);
 		if (what != NULL) {
-			int res = notifyExecutorAndWait();
-			if (res != 0) {
+			pthread_mutex_lock(&queueLock);
+			pendingBatch = *what;
+			pendingBatchEnqueued = nanoTime();
+			pendingBatchReady = 1;
+			statEnqueued++;
+			pthread_mutex_unlock(&queueLock);
+
+			if (write(doorbell[1], &hint, 1) < 0) {
+				eventLoopLog("cannot ring the doorbell, exiting the event loop");
 				return NULL;
 			}
+
+			// the handlers must consume the input before we can select again
+			pthread_mutex_lock(&queueLock);
+			while (pendingBatchReady) {
+				pthread_cond_wait(&queueDrained, &queueLock);
+			}
+			pthread_mutex_unlock(&queueLock);
 		}
 	}
-	
+
 	return NULL;
 }
 
-int initEventLoop(char* fifoInPathParam, char* fifoOutPathParam) {
+/*
+ * Starts the native event loop thread. If 'doorbellPathParam' is empty, the doorbell is an
+ * anonymous pipe and the result is its read end. Otherwise a FIFO is created at the given path
+ * and the result is 0. Returns a negative error code on failure.
+ */
+int initEventLoop(char* doorbellPathParam) {
 	const char* trace = getenv("TRACE_EVENT_LOOP");
 	if (trace && strcmp(trace, "true") == 0) {
 		fpLog = fopen("traceEventLoop.log", "a+");
 	}
 
-	fifoInPath = malloc(strlen(fifoInPathParam) * (sizeof(char) + 1));
-	strcpy(fifoInPath, fifoInPathParam);
-
-	fifoOutPath = malloc(strlen(fifoOutPathParam) * (sizeof(char) + 1));
-	strcpy(fifoOutPath, fifoOutPathParam);
-    
-    int res = mkfifo(fifoInPath, 0666);
-    if (res != 0 && errno != EEXIST) {
-	    return errno;
-    }
+	if (doorbellPathParam == NULL || doorbellPathParam[0] == '\0') {
+		if (pipe(doorbell) != 0) {
+			return -errno;
+		}
+	} else {
+		if (mkfifo(doorbellPathParam, 0600) != 0) {
+			return -errno;
+		}
+		doorbellPath = strdup(doorbellPathParam);
+	}
 
-    res = mkfifo(fifoOutPath, 0666);
-    if (res != 0 && errno != EEXIST) {
-	    return errno;
-    }
-    
-    pthread_t eventLoopThread;
+	pthread_t eventLoopThread;
 	if(pthread_create(&eventLoopThread, NULL, eventLoop, NULL)) {
 		fprintf(stderr, "Error creating dispatch thread\n");
+		return -1;
 	}
 
-	return 0;
+	return doorbellPath == NULL ? doorbell[0] : 0;
 }
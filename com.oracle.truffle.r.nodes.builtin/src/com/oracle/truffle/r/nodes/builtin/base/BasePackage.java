@@ -103,8 +103,16 @@ import com.oracle.truffle.r.nodes.builtin.fastr.FastRContext;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRContextFactory;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRDebug;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRDebugNodeGen;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRDispatchCacheStats;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRDispatchCacheStatsNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRDispatchNativeHandlers;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastREventLoopStats;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastREventLoopStatsNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRGetExecutor;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRBindDataFrames;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRBindDataFramesNodeGen;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRGroupReduce;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRGroupReduceNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRHelp.FastRAddHelpPath;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRHelp.FastRHelpPath;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRHelp.FastRHelpRd;
@@ -128,6 +136,8 @@ import com.oracle.truffle.r.nodes.builtin.fastr.FastRInteropFactory.FastRInterop
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRInteropFactory.FastRInteropTryNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRLibPaths;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRLibPathsNodeGen;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRNativeProfile;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRNativeProfileNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastROptionBuiltin;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRPatchPackage;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRPatchPackageNodeGen;
@@ -164,8 +174,6 @@ import com.oracle.truffle.r.nodes.builtin.fastr.FastRTreeStats;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRTreeStatsNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRUseDebugMakevars;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRUseDebugMakevarsNodeGen;
-import com.oracle.truffle.r.nodes.builtin.fastr.FastrDqrls;
-import com.oracle.truffle.r.nodes.builtin.fastr.FastrDqrlsNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.memprof.FastRprofmem;
 import com.oracle.truffle.r.nodes.builtin.fastr.memprof.FastRprofmemNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.memprof.FastRprofmemShow;
@@ -460,6 +468,8 @@ public class BasePackage extends RBuiltinPackage {
         add(Exists.class, ExistsNodeGen::create);
         add(Expression.class, ExpressionNodeGen::create);
         add(FastRGetExecutor.class, FastRGetExecutor::new);
+        add(FastRBindDataFrames.class, FastRBindDataFramesNodeGen::create);
+        add(FastRGroupReduce.class, FastRGroupReduceNodeGen::create);
         add(FastRContext.R.class, FastRContextFactory.RNodeGen::create);
         add(FastRContext.Rscript.class, FastRContextFactory.RscriptNodeGen::create);
         add(FastRContext.CloseChannel.class, FastRContextFactory.CloseChannelNodeGen::create);
@@ -478,11 +488,13 @@ public class BasePackage extends RBuiltinPackage {
         add(FastRContext.Interrupt.class, FastRContextFactory.InterruptNodeGen::create);
         add(FastRContext.Join.class, FastRContextFactory.JoinNodeGen::create);
         add(FastRRegisterFunctions.class, FastRRegisterFunctionsNodeGen::create);
-        add(FastrDqrls.class, FastrDqrlsNodeGen::create);
         add(FastRDebug.class, FastRDebugNodeGen::create);
         add(FastRPatchPackage.class, FastRPatchPackageNodeGen::create);
         add(FastRDispatchNativeHandlers.class, FastRDispatchNativeHandlers::new);
         add(FastRInitEventLoop.class, FastRInitEventLoopNodeGen::create);
+        add(FastREventLoopStats.class, FastREventLoopStatsNodeGen::create);
+        add(FastRDispatchCacheStats.class, FastRDispatchCacheStatsNodeGen::create);
+        add(FastRNativeProfile.class, FastRNativeProfileNodeGen::create);
         add(FastRSetBreakpoint.class, FastRSetBreakpointNodeGen::create);
         add(FastRAddHelpPath.class, FastRAddHelpPath::create);
         add(FastRHelpPath.class, FastRHelpPathNodeGen::create);
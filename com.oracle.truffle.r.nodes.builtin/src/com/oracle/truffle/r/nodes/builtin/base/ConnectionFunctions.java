@@ -113,6 +113,7 @@ import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.StringInternTable;
 import com.oracle.truffle.r.runtime.data.RTypes;
 import com.oracle.truffle.r.runtime.data.model.RAbstractAtomicVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
@@ -655,7 +656,7 @@ public abstract class ConnectionFunctions {
                 if (n > 0 && lines.length < n && !ok) {
                     throw error(RError.Message.TOO_FEW_LINES_READ_LINES);
                 }
-                return RDataFactory.createStringVector(lines, RDataFactory.COMPLETE_VECTOR);
+                return RDataFactory.createStringVector(StringInternTable.deduplicate(lines), RDataFactory.COMPLETE_VECTOR);
             } catch (IOException x) {
                 throw error(RError.Message.ERROR_READING_CONNECTION, x.getMessage());
             }
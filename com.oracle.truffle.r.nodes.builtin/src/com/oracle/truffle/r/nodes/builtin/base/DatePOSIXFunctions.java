@@ -58,7 +58,6 @@ import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
 import java.time.temporal.TemporalField;
 import java.time.temporal.ValueRange;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -71,10 +70,13 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.GetNamesAttributeNode;
 import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.SetClassAttributeNode;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.CompiledDateTimeFormat;
+import com.oracle.truffle.r.runtime.CompiledDateTimeFormat.Fields;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.ZoneTransitionTable;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
@@ -93,6 +95,8 @@ import java.time.Month;
 
 public class DatePOSIXFunctions {
 
+    private static final long SECONDS_PER_DAY = 24L * 3600L;
+
     private static final class POSIXltBuilder {
 
         private static final String[] LT_NAMES = new String[]{"sec", "min", "hour", "mday", "mon", "year", "wday", "yday", "isdst"};
@@ -200,14 +204,12 @@ public class DatePOSIXFunctions {
         protected RList doDate2POSIXlt(RAbstractDoubleVector x) {
             int xLen = x.getLength();
             POSIXltBuilder builder = new POSIXltBuilder(xLen, "UTC");
+            Fields fields = new Fields();
             for (int i = 0; i < xLen; i++) {
                 double d = x.getDataAt(i);
                 if (RRuntime.isFinite(d)) {
-                    int day = (int) Math.floor(d);
-                    Instant instant = Instant.ofEpochSecond(day * 3600L * 24L);
-                    ZonedDateTime date = ZonedDateTime.ofInstant(instant, builder.getRealZone().toZoneId());
-                    boolean dst = builder.getRealZone().inDaylightTime(Date.from(instant));
-                    builder.setEntry(i, 0, 0, 0, date.getDayOfMonth(), date.getMonthValue() - 1, date.getYear() - 1900, date.getDayOfWeek().ordinal(), date.getDayOfYear(), dst ? 1 : 0);
+                    fields.setFromLocalSeconds((long) Math.floor(d) * SECONDS_PER_DAY);
+                    builder.setEntry(i, 0, 0, 0, fields.day, fields.month, fields.year - 1900, fields.wday, fields.yday, 0);
                 } else {
                     builder.setIncompleteEntry(i);
                 }
@@ -237,16 +239,16 @@ public class DatePOSIXFunctions {
         protected RList asPOSIXlt(RAbstractDoubleVector x, String tz) {
             int xLen = x.getLength();
             POSIXltBuilder builder = new POSIXltBuilder(xLen, tz);
+            ZoneTransitionTable zone = RContext.getInstance().dateTimeFormatCache.getZone(builder.getRealZone().toZoneId());
+            Fields fields = new Fields();
             for (int i = 0; i < xLen; i++) {
                 double second = x.getDataAt(i);
                 if (RRuntime.isFinite(second)) {
-                    Instant instant = Instant.ofEpochSecond((long) second);
+                    long epochSecond = (long) second;
                     double miliseconds = second - Math.floor(second);
-                    ZonedDateTime date = ZonedDateTime.ofInstant(instant, builder.getRealZone().toZoneId());
-                    boolean dst = builder.getRealZone().inDaylightTime(Date.from(instant));
-                    builder.setEntry(i, date.getSecond() + miliseconds, date.getMinute(), date.getHour(), date.getDayOfMonth(), date.getMonthValue() - 1, date.getYear() - 1900,
-                                    date.getDayOfWeek().ordinal(),
-                                    date.getDayOfYear(), dst ? 1 : 0);
+                    fields.setFromLocalSeconds(epochSecond + zone.offsetAt(epochSecond));
+                    builder.setEntry(i, fields.second + miliseconds, fields.minute, fields.hour, fields.day, fields.month, fields.year - 1900, fields.wday, fields.yday,
+                                    zone.isDaylightSavings(epochSecond) ? 1 : 0);
                 } else {
                     builder.setIncompleteEntry(i);
                 }
@@ -286,6 +288,7 @@ public class DatePOSIXFunctions {
             }
 
             ZoneId zoneId = zone.toZoneId();
+            ZoneTransitionTable zoneTable = RContext.getInstance().dateTimeFormatCache.getZone(zoneId);
             int length = max(secVector.getLength(), minVector.getLength(), hourVector.getLength(), mdayVector.getLength(), monVector.getLength(), yearVector.getLength());
             double[] data = new double[length];
             boolean complete = true;
@@ -306,9 +309,14 @@ public class DatePOSIXFunctions {
                         year -= delta;
                         mon += delta * 12;
                     }
-                    LocalDateTime time = LocalDateTime.of(year + 1900, mon + 1, 1, hour, min, (int) sec).plusDays(mday - 1);
-                    ZonedDateTime zoned = time.atZone(zoneId);
-                    data[i] = zoned.toInstant().getEpochSecond() + (sec - Math.floor(sec));
+                    if (isSimpleTime(year, mday, hour, min, sec)) {
+                        long local = (CompiledDateTimeFormat.daysFromCivil(year + 1900, mon + 1, 1) + mday - 1) * SECONDS_PER_DAY + hour * 3600L + min * 60L + (int) sec;
+                        data[i] = zoneTable.localToEpochSecond(local) + (sec - Math.floor(sec));
+                    } else {
+                        LocalDateTime time = LocalDateTime.of(year + 1900, mon + 1, 1, hour, min, (int) sec).plusDays(mday - 1);
+                        ZonedDateTime zoned = time.atZone(zoneId);
+                        data[i] = zoned.toInstant().getEpochSecond() + (sec - Math.floor(sec));
+                    }
                 } else {
                     data[i] = RRuntime.DOUBLE_NA;
                     complete = false;
@@ -397,21 +405,26 @@ public class DatePOSIXFunctions {
             RAbstractIntVector monVector = (RAbstractIntVector) RRuntime.convertScalarVectors(x.getDataAt(4));
             RAbstractIntVector yearVector = (RAbstractIntVector) RRuntime.convertScalarVectors(x.getDataAt(5));
             ZoneId zone;
-            DateTimeFormatterBuilder[] builders = createFormatters(format, false);
             String tzone = getTimeZomeFromAttribute(x);
-            if (usetz && !tzone.isEmpty()) {
+            boolean appendZone = usetz && !tzone.isEmpty();
+            if (appendZone) {
                 zone = ZoneId.of(tzone, TIME_ZONE_MAPPING);
-                for (DateTimeFormatterBuilder builder : builders) {
-                    builder.appendLiteral(' ').appendZoneText(TextStyle.SHORT);
-                }
             } else {
                 zone = RContext.getInstance().stateREnvVars.getSystemTimeZone().toZoneId();
             }
 
-            DateTimeFormatter[] formatters = new DateTimeFormatter[builders.length];
-            for (int i = 0; i < builders.length; i++) {
-                formatters[i] = builders[i].toFormatter();
+            // the compiled formats do not print zone names, for the others the java.time
+            // formatters are created upfront so that unsupported conversions are reported
+            CompiledDateTimeFormat[] compiled = new CompiledDateTimeFormat[format.getLength()];
+            DateTimeFormatter[] formatters = new DateTimeFormatter[format.getLength()];
+            for (int i = 0; i < compiled.length; i++) {
+                CompiledDateTimeFormat f = appendZone ? null : RContext.getInstance().dateTimeFormatCache.getFormat(format.getDataAt(i));
+                compiled[i] = f != null && f.canFormat() ? f : null;
+                if (compiled[i] == null) {
+                    formatters[i] = createOutputFormatter(format.getDataAt(i), appendZone);
+                }
             }
+            StringBuilder str = new StringBuilder();
             int length = secVector.getLength();
             String[] data = new String[length];
             boolean complete = true;
@@ -423,9 +436,18 @@ public class DatePOSIXFunctions {
                     int mday = mdayVector.getDataAt(i);
                     int mon = monVector.getDataAt(i) + 1;
                     int year = yearVector.getDataAt(i) + 1900;
+                    int formatIndex = i % compiled.length;
+                    str.setLength(0);
+                    if (compiled[formatIndex] != null && compiled[formatIndex].format(year, mon - 1, mday, hour, min, sec, str)) {
+                        data[i] = str.toString();
+                        continue;
+                    }
+                    if (formatters[formatIndex] == null) {
+                        formatters[formatIndex] = createOutputFormatter(format.getDataAt(formatIndex), appendZone);
+                    }
                     LocalDateTime time = LocalDateTime.of(year, mon, mday, hour, min, (int) sec, (int) ((sec - Math.floor(sec)) * 1000000000L));
                     ZonedDateTime zoned = time.atZone(zone);
-                    data[i] = formatters[i % formatters.length].format(zoned);
+                    data[i] = formatters[formatIndex].format(zoned);
                 } else {
                     data[i] = RRuntime.STRING_NA;
                     complete = false;
@@ -433,6 +455,14 @@ public class DatePOSIXFunctions {
             }
             return RDataFactory.createStringVector(data, complete);
         }
+
+        private static DateTimeFormatter createOutputFormatter(String format, boolean appendZone) {
+            DateTimeFormatterBuilder builder = createFormatter(format, false);
+            if (appendZone) {
+                builder.appendLiteral(' ').appendZoneText(TextStyle.SHORT);
+            }
+            return builder.toFormatter();
+        }
     }
 
     @RBuiltin(name = "strptime", kind = INTERNAL, parameterNames = {"x", "format", "tz"}, behavior = PURE)
@@ -455,17 +485,52 @@ public class DatePOSIXFunctions {
                 timeZone = TimeZone.getTimeZone(tz.getDataAt(0));
             }
             POSIXltBuilder builder = new POSIXltBuilder(length, zoneString);
-            DateTimeFormatterBuilder[] builders = createFormatters(format, true);
-            DateTimeFormatter[] formatters = new DateTimeFormatter[builders.length];
-            for (int i = 0; i < builders.length; i++) {
-                formatters[i] = builders[i].toFormatter().withChronology(LeapYearChronology.INSTANCE);
+            CompiledDateTimeFormat.Cache cache = RContext.getInstance().dateTimeFormatCache;
+            ZoneTransitionTable zone = cache.getZone(timeZone.toZoneId());
+            // the java.time formatters are created upfront only for the formats that cannot be
+            // compiled, so that unsupported conversions are reported
+            CompiledDateTimeFormat[] compiled = new CompiledDateTimeFormat[format.getLength()];
+            DateTimeFormatter[] formatters = new DateTimeFormatter[format.getLength()];
+            for (int i = 0; i < compiled.length; i++) {
+                CompiledDateTimeFormat f = cache.getFormat(format.getDataAt(i));
+                compiled[i] = f != null && f.canParse() ? f : null;
+                if (compiled[i] == null) {
+                    formatters[i] = createInputFormatter(format.getDataAt(i));
+                }
             }
 
+            Fields fields = new Fields();
             for (int i = 0; i < length; i++) {
                 String str = x.getDataAt(i);
+                int formatIndex = i % compiled.length;
+                if (compiled[formatIndex] != null) {
+                    if (RRuntime.isNA(str)) {
+                        builder.setIncompleteEntry(i);
+                        continue;
+                    }
+                    if (compiled[formatIndex].parse(str, fields)) {
+                        double fraction = fields.second - Math.floor(fields.second);
+                        long local = fields.toLocalSeconds();
+                        long epochSecond;
+                        if (fields.offset != Fields.NO_OFFSET) {
+                            // %z: the time is given in another zone, convert it to this one
+                            epochSecond = local - fields.offset;
+                            fields.setFromLocalSeconds(epochSecond + zone.offsetAt(epochSecond));
+                        } else {
+                            epochSecond = zone.localToEpochSecond(local);
+                            fields.setFromLocalSeconds(local);
+                        }
+                        builder.setEntry(i, fields.second + fraction, fields.minute, fields.hour, fields.day, fields.month, fields.year - 1900, fields.wday, fields.yday,
+                                        zone.isDaylightSavings(epochSecond) ? 1 : 0);
+                        continue;
+                    }
+                    if (formatters[formatIndex] == null) {
+                        formatters[formatIndex] = createInputFormatter(format.getDataAt(formatIndex));
+                    }
+                }
                 TemporalAccessor parse;
                 try {
-                    parse = formatters[i % formatters.length].parse(str, new ParsePosition(0));
+                    parse = formatters[formatIndex].parse(str, new ParsePosition(0));
                 } catch (DateTimeParseException e) {
                     builder.setIncompleteEntry(i);
                     continue;
@@ -482,8 +547,8 @@ public class DatePOSIXFunctions {
                     ZoneOffset zoneOffset = timeZone.toZoneId().getRules().getOffset(time);
                     double ms = (time.toInstant(zoneOffset).toEpochMilli() % 1000) / 1000.0;
                     boolean dst = builder.getRealZone().inDaylightTime(java.util.Date.from(time.toLocalDate().atStartOfDay(timeZone.toZoneId()).toInstant()));
-                    builder.setEntry(i, time.getSecond() + ms, time.getMinute(), time.getHour(), time.getDayOfMonth(), time.getMonthValue() - 1, time.getYear() - 1900, time.getDayOfWeek().ordinal(),
-                                    time.getDayOfYear(), dst ? 1 : 0);
+                    builder.setEntry(i, time.getSecond() + ms, time.getMinute(), time.getHour(), time.getDayOfMonth(), time.getMonthValue() - 1, time.getYear() - 1900,
+                                    time.getDayOfWeek().getValue() % 7, time.getDayOfYear() - 1, dst ? 1 : 0);
                     continue;
                 } catch (DateTimeException e) {
                     // try without time
@@ -491,21 +556,17 @@ public class DatePOSIXFunctions {
                 try {
                     LocalDate date = LocalDate.from(parse);
                     boolean dst = builder.getRealZone().inDaylightTime(java.util.Date.from(date.atStartOfDay(timeZone.toZoneId()).toInstant()));
-                    builder.setEntry(i, 0, 0, 0, date.getDayOfMonth(), date.getMonthValue() - 1, date.getYear() - 1900, date.getDayOfWeek().ordinal(), date.getDayOfYear(), dst ? 1 : 0);
+                    builder.setEntry(i, 0, 0, 0, date.getDayOfMonth(), date.getMonthValue() - 1, date.getYear() - 1900, date.getDayOfWeek().getValue() % 7, date.getDayOfYear() - 1, dst ? 1 : 0);
                 } catch (DateTimeException e) {
                     throw RInternalError.shouldNotReachHere(e);
                 }
             }
             return builder.finish();
         }
-    }
 
-    private static DateTimeFormatterBuilder[] createFormatters(RAbstractStringVector formats, boolean forInput) {
-        DateTimeFormatterBuilder[] result = new DateTimeFormatterBuilder[formats.getLength()];
-        for (int i = 0; i < result.length; i++) {
-            result[i] = createFormatter(formats.getDataAt(i), forInput);
+        private static DateTimeFormatter createInputFormatter(String format) {
+            return createFormatter(format, true).toFormatter().withChronology(LeapYearChronology.INSTANCE);
         }
-        return result;
     }
 
     private static DateTimeFormatterBuilder createFormatter(String format, boolean forInput) {
@@ -807,6 +868,14 @@ public class DatePOSIXFunctions {
         }
     }
 
+    /**
+     * Checks that the broken-down time can be converted without the {@code java.time} API, which
+     * handles the out-of-range values.
+     */
+    private static boolean isSimpleTime(int year, int mday, int hour, int min, double sec) {
+        return year > -100000 && year < 100000 && mday > -1000000 && mday < 1000000 && hour >= 0 && hour < 24 && min >= 0 && min < 60 && sec >= 0 && sec < 60;
+    }
+
     private static int max(int... values) {
         int result = Integer.MIN_VALUE;
         for (int v : values) {
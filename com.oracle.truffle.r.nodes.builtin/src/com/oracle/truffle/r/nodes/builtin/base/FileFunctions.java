@@ -36,10 +36,7 @@ import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.nio.file.CopyOption;
-import java.nio.file.DirectoryNotEmptyException;
-import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileVisitResult;
 import java.nio.file.NoSuchFileException;
@@ -49,14 +46,12 @@ import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 import java.util.function.BiFunction;
-import java.util.function.Predicate;
+import java.util.function.BiPredicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
-import java.util.stream.Stream;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -76,6 +71,7 @@ import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.context.FastROptions;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.context.RContext.ConsoleIO;
 import com.oracle.truffle.r.runtime.context.TruffleRLanguage;
@@ -89,12 +85,15 @@ import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RSymbol;
 import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
-import java.nio.file.FileVisitor;
 
 // Much of this code was influences/transcribed from GnuR src/main/platform.c
 
 public class FileFunctions {
 
+    private static boolean isParallel(RContext context) {
+        return context.getOption(FastROptions.ParallelFileTree);
+    }
+
     @RBuiltin(name = "file.access", kind = INTERNAL, parameterNames = {"names", "mode"}, behavior = IO)
     public abstract static class FileAccess extends RBuiltinNode.Arg2 {
         private static final int EXECUTE = 1;
@@ -280,6 +279,14 @@ public class FileFunctions {
                         Column.uid.name(), Column.gid.name(), Column.uname.name(), Column.grname.name()};
         private static final RStringVector NAMES_VECTOR = RDataFactory.createStringVector(NAMES, RDataFactory.COMPLETE_VECTOR);
         private static final RStringVector OCTMODE = RDataFactory.createStringVectorFromScalar("octmode");
+        private static final List<TruffleFile.AttributeDescriptor<?>> ATTRIBUTES = Arrays.asList(TruffleFile.SIZE, TruffleFile.IS_DIRECTORY, TruffleFile.UNIX_PERMISSIONS,
+                        TruffleFile.LAST_MODIFIED_TIME, TruffleFile.CREATION_TIME, TruffleFile.LAST_ACCESS_TIME, TruffleFile.UNIX_UID, TruffleFile.UNIX_GID, TruffleFile.UNIX_OWNER,
+                        TruffleFile.UNIX_GROUP);
+
+        /**
+         * The minimal number of files whose attributes are read in parallel.
+         */
+        private static final int PARALLEL_FILES = 256;
 
         @Child private SetClassAttributeNode setClassAttrNode;
 
@@ -297,9 +304,9 @@ public class FileFunctions {
              * dataframe and sets the row.names attributes to the paths in vec. It also updates the
              * mtime, ctime, atime fields using .POSIXct.
              *
-             * We try to use the JDK classes, even though they provide a more abstract interface
-             * than R. In particular there seems to be no way to get the uid/gid values. We might be
-             * better off justing using a native call.
+             * All attributes of a file are read at once via the POSIX attributes of the file
+             * system, so that this is one query of the file system per file. Many files are
+             * queried in parallel.
              *
              * TODO implement extras_cols=FALSE
              */
@@ -308,53 +315,23 @@ public class FileFunctions {
             boolean[] complete = new boolean[NAMES.length];
             for (int n = 0; n < Column.VALUES.length; n++) {
                 data[n] = createColumnData(Column.VALUES[n], vecLength);
-                complete[n] = RDataFactory.COMPLETE_VECTOR; // optimistic
             }
-            Env env = RContext.getInstance().getEnv();
+            RContext context = RContext.getInstance();
+            Env env = context.getEnv();
+            TruffleFile[] files = new TruffleFile[vecLength];
             for (int i = 0; i < vecLength; i++) {
-                String vecPath = vec.getDataAt(i);
-                TruffleFile file = FileSystemUtils.getSafeTruffleFile(env, Utils.tildeExpand(vecPath));
-                // missing defaults to NA
-                if (file.exists()) {
-                    double size = RRuntime.DOUBLE_NA;
-                    byte isdir = RRuntime.LOGICAL_NA;
-                    int mode = RRuntime.INT_NA;
-                    int mtime = RRuntime.INT_NA;
-                    int atime = RRuntime.INT_NA;
-                    int ctime = RRuntime.INT_NA;
-                    int uid = RRuntime.INT_NA;
-                    int gid = RRuntime.INT_NA;
-                    String uname = RRuntime.STRING_NA;
-                    String grname = RRuntime.STRING_NA;
-                    try {
-                        size = file.size();
-                        isdir = RRuntime.asLogical(file.isDirectory());
-                        mtime = Utils.getTimeInSecs(file.getLastModifiedTime());
-                        ctime = Utils.getTimeInSecs(file.getCreationTime());
-                        atime = Utils.getTimeInSecs(file.getLastAccessTime());
-                        mode = Utils.intFilePermissions(file.getPosixPermissions());
-                        uname = file.getOwner().getName();
-                        grname = file.getGroup().getName();
-                    } catch (IOException ex) {
-                        // ok, NA value is used
-                    }
-                    setColumnValue(Column.size, data, complete, i, size);
-                    setColumnValue(Column.isdir, data, complete, i, isdir);
-                    setColumnValue(Column.mode, data, complete, i, mode);
-                    setColumnValue(Column.mtime, data, complete, i, mtime);
-                    setColumnValue(Column.ctime, data, complete, i, ctime);
-                    setColumnValue(Column.atime, data, complete, i, atime);
-                    setColumnValue(Column.uid, data, complete, i, uid);
-                    setColumnValue(Column.gid, data, complete, i, gid);
-                    setColumnValue(Column.uname, data, complete, i, uname);
-                    setColumnValue(Column.grname, data, complete, i, grname);
-                } else {
-                    for (int n = 0; n < Column.VALUES.length; n++) {
-                        setNA(Column.VALUES[n], data, i);
-                        complete[n] = false;
-                    }
+                files[i] = FileSystemUtils.getSafeTruffleFile(env, Utils.tildeExpand(vec.getDataAt(i)));
+            }
+            if (vecLength >= PARALLEL_FILES && isParallel(context)) {
+                FileSystemUtils.parallelForIO(vecLength, i -> readAttributes(files[i], data, i));
+            } else {
+                for (int i = 0; i < vecLength; i++) {
+                    readAttributes(files[i], data, i);
                 }
             }
+            for (int n = 0; n < Column.VALUES.length; n++) {
+                complete[n] = isComplete(Column.VALUES[n], data[n]);
+            }
             for (int n = 0; n < Column.VALUES.length; n++) {
                 data[n] = createColumnResult(Column.VALUES[n], data[n], complete[n]);
             }
@@ -374,21 +351,84 @@ public class FileFunctions {
             // @formatter:on
         }
 
-        private static void updateComplete(int slot, boolean[] complete, boolean update) {
-            if (complete[slot]) {
-                complete[slot] = update;
+        /**
+         * Reads all attributes of {@code file} with one query of the file system and stores them
+         * in row {@code index} of the columns. Missing files and files whose attributes cannot be
+         * read have all columns {@code NA}.
+         */
+        private static void readAttributes(TruffleFile file, Object[] data, int index) {
+            TruffleFile.Attributes attributes;
+            try {
+                attributes = file.getAttributes(ATTRIBUTES);
+            } catch (UnsupportedOperationException ex) {
+                // no POSIX attributes
+                readAttributesSeparately(file, data, index);
+                return;
+            } catch (IOException | SecurityException ex) {
+                for (int n = 0; n < Column.VALUES.length; n++) {
+                    setNA(Column.VALUES[n], data, index);
+                }
+                return;
             }
+            setRow(data, index, attributes.get(TruffleFile.SIZE), RRuntime.asLogical(attributes.get(TruffleFile.IS_DIRECTORY)),
+                            Utils.intFilePermissions(attributes.get(TruffleFile.UNIX_PERMISSIONS)), Utils.getTimeInSecs(attributes.get(TruffleFile.LAST_MODIFIED_TIME)),
+                            Utils.getTimeInSecs(attributes.get(TruffleFile.CREATION_TIME)), Utils.getTimeInSecs(attributes.get(TruffleFile.LAST_ACCESS_TIME)),
+                            attributes.get(TruffleFile.UNIX_UID), attributes.get(TruffleFile.UNIX_GID), attributes.get(TruffleFile.UNIX_OWNER).getName(),
+                            attributes.get(TruffleFile.UNIX_GROUP).getName());
         }
 
-        private static void setColumnValue(Column column, Object[] data, boolean[] complete, int index, Object value) {
-            int slot = column.ordinal();
+        private static void readAttributesSeparately(TruffleFile file, Object[] data, int index) {
+            // missing defaults to NA
+            if (file.exists()) {
+                double size = RRuntime.DOUBLE_NA;
+                byte isdir = RRuntime.LOGICAL_NA;
+                int mode = RRuntime.INT_NA;
+                int mtime = RRuntime.INT_NA;
+                int atime = RRuntime.INT_NA;
+                int ctime = RRuntime.INT_NA;
+                String uname = RRuntime.STRING_NA;
+                String grname = RRuntime.STRING_NA;
+                try {
+                    size = file.size();
+                    isdir = RRuntime.asLogical(file.isDirectory());
+                    mtime = Utils.getTimeInSecs(file.getLastModifiedTime());
+                    ctime = Utils.getTimeInSecs(file.getCreationTime());
+                    atime = Utils.getTimeInSecs(file.getLastAccessTime());
+                    mode = Utils.intFilePermissions(file.getPosixPermissions());
+                    uname = file.getOwner().getName();
+                    grname = file.getGroup().getName();
+                } catch (IOException | UnsupportedOperationException ex) {
+                    // ok, NA value is used
+                }
+                setRow(data, index, size, isdir, mode, mtime, ctime, atime, RRuntime.INT_NA, RRuntime.INT_NA, uname, grname);
+            } else {
+                for (int n = 0; n < Column.VALUES.length; n++) {
+                    setNA(Column.VALUES[n], data, index);
+                }
+            }
+        }
+
+        private static void setRow(Object[] data, int index, double size, byte isdir, int mode, int mtime, int ctime, int atime, int uid, int gid, String uname, String grname) {
+            ((double[]) data[Column.size.ordinal()])[index] = size;
+            ((byte[]) data[Column.isdir.ordinal()])[index] = isdir;
+            ((int[]) data[Column.mode.ordinal()])[index] = mode;
+            ((int[]) data[Column.mtime.ordinal()])[index] = mtime;
+            ((int[]) data[Column.ctime.ordinal()])[index] = ctime;
+            ((int[]) data[Column.atime.ordinal()])[index] = atime;
+            ((int[]) data[Column.uid.ordinal()])[index] = uid;
+            ((int[]) data[Column.gid.ordinal()])[index] = gid;
+            ((String[]) data[Column.uname.ordinal()])[index] = uname;
+            ((String[]) data[Column.grname.ordinal()])[index] = grname;
+        }
+
+        private static boolean isComplete(Column column, Object data) {
             // @formatter:off
             switch(column) {
-                case size: ((double[]) data[slot])[index] = (double) value; updateComplete(slot, complete, (double) value != RRuntime.DOUBLE_NA); return;
-                case isdir: ((byte[]) data[slot])[index] = (byte) value; updateComplete(slot, complete, (byte) value != RRuntime.LOGICAL_NA); return;
+                case size: for (double v : (double[]) data) { if (RRuntime.isNA(v)) { return false; } } return true;
+                case isdir: for (byte v : (byte[]) data) { if (RRuntime.isNA(v)) { return false; } } return true;
                 case mode: case mtime: case ctime: case atime:
-                case uid: case gid: ((int[]) data[slot])[index] = (int) value; updateComplete(slot, complete, (int) value != RRuntime.INT_NA); return;
-                case uname: case grname: ((String[]) data[slot])[index] = (String) value; updateComplete(slot, complete, !RRuntime.isNA((String) value)); return;
+                case uid: case gid: for (int v : (int[]) data) { if (RRuntime.isNA(v)) { return false; } } return true;
+                case uname: case grname: for (String v : (String[]) data) { if (RRuntime.isNA(v)) { return false; } } return true;
                 default: throw RInternalError.shouldNotReachHere();
             }
             // @formatter:on
@@ -703,14 +743,14 @@ public class FileFunctions {
                                                               // but TF gives true
                     continue;
                 }
-                try (Stream<TruffleFile> stream = FileSystemUtils.find(root, recursive ? Integer.MAX_VALUE : 1, new FileMatcher(pattern, allFiles, includeDirs))) {
-                    Iterator<TruffleFile> iter = stream.iterator();
+                try {
+                    List<TruffleFile> found = FileSystemUtils.findAll(root, recursive ? Integer.MAX_VALUE : 1, new FileMatcher(pattern, allFiles, includeDirs), recursive && isParallel(context));
                     TruffleFile vecPath = null;
                     if (!fullNames) {
                         vecPath = FileSystemUtils.getSafeTruffleFile(env, vecPathString);
                     }
-                    while (iter.hasNext()) {
-                        TruffleFile file = iter.next();
+                    for (TruffleFile foundFile : found) {
+                        TruffleFile file = foundFile;
                         if (file.equals(root)) {
                             continue;
                         }
@@ -731,7 +771,7 @@ public class FileFunctions {
                             files.add(fullNames ? FileSystemUtils.getSafeTruffleFile(env, vecPathString).resolve(DOTDOT).getPath() : DOTDOT);
                         }
                     }
-                } catch (IOException | UncheckedIOException ex) {
+                } catch (IOException ex) {
                     // ignored
                 }
             }
@@ -740,34 +780,36 @@ public class FileFunctions {
                 return RDataFactory.createEmptyStringVector();
             } else {
                 String fileSeparator = context.getEnv().getFileNameSeparator();
-                String[] data = new String[files.size()];
-                files.toArray(data);
                 /*
                  * During sorting, GNU-R ignores the dot prefix in hidden files ie. we have to
-                 * consider every hidden file without the dot at the beginning.
+                 * consider every hidden file without the dot at the beginning. The keys are
+                 * computed once and the paths sorted together with them.
                  */
-                Arrays.sort(data, (filePath1, filePath2) -> {
-                    String filename1WithoutDot = skipLeadingDotInFilename(filePath1, fileSeparator);
-                    String filename2WithoutDot = skipLeadingDotInFilename(filePath2, fileSeparator);
-                    return filename1WithoutDot.compareTo(filename2WithoutDot);
-                });
+                String[][] keyed = new String[files.size()][];
+                for (int i = 0; i < keyed.length; i++) {
+                    String filePath = files.get(i);
+                    keyed[i] = new String[]{skipLeadingDotInFilename(filePath, fileSeparator), filePath};
+                }
+                Arrays.sort(keyed, (entry1, entry2) -> entry1[0].compareTo(entry2[0]));
+                String[] data = new String[keyed.length];
+                for (int i = 0; i < data.length; i++) {
+                    data[i] = keyed[i][1];
+                }
                 return RDataFactory.createStringVector(data, RDataFactory.COMPLETE_VECTOR);
             }
         }
 
         private static String skipLeadingDotInFilename(String filePath, String fileSeparator) {
-            String[] items = filePath.split(Pattern.quote(fileSeparator));
-            String baseName = items[items.length - 1];
-            String baseNameWithoutDot = baseName.charAt(0) == '.' ? baseName.substring(1) : baseName;
-            if (!baseNameWithoutDot.equals(baseName)) {
-                items[items.length - 1] = baseNameWithoutDot;
-                return String.join(fileSeparator, items);
+            int separator = filePath.lastIndexOf(fileSeparator);
+            int baseNameStart = separator < 0 ? 0 : separator + fileSeparator.length();
+            if (baseNameStart < filePath.length() && filePath.charAt(baseNameStart) == '.') {
+                return filePath.substring(0, baseNameStart) + filePath.substring(baseNameStart + 1);
             } else {
                 return filePath;
             }
         }
 
-        private static class FileMatcher implements Predicate<TruffleFile> {
+        private static class FileMatcher implements BiPredicate<TruffleFile, Boolean> {
             final Pattern pattern;
             final boolean includeDirs;
             final boolean allFiles;
@@ -779,8 +821,8 @@ public class FileFunctions {
             }
 
             @Override
-            public boolean test(TruffleFile f) {
-                if (f.isDirectory() && !includeDirs) {
+            public boolean test(TruffleFile f, Boolean isDirectory) {
+                if (isDirectory && !includeDirs) {
                     return false;
                 }
                 if (!allFiles && f.getName().charAt(0) == '.') {
@@ -820,14 +862,14 @@ public class FileFunctions {
                 if (!root.exists()) {
                     continue;
                 }
-                try (Stream<TruffleFile> stream = FileSystemUtils.find(root, recursive ? Integer.MAX_VALUE : 1, new FileMatcher())) {
-                    Iterator<TruffleFile> iter = stream.iterator();
+                try {
+                    List<TruffleFile> found = FileSystemUtils.findAll(root, recursive ? Integer.MAX_VALUE : 1, (f, isDirectory) -> isDirectory, recursive && isParallel(RContext.getInstance()));
                     TruffleFile vecPath = null;
                     if (!fullNames) {
                         vecPath = FileSystemUtils.getSafeTruffleFile(env, vecPathString);
                     }
-                    while (iter.hasNext()) {
-                        TruffleFile dir = iter.next();
+                    for (TruffleFile foundDir : found) {
+                        TruffleFile dir = foundDir;
                         if (!recursive && dir.equals(root)) {
                             continue;
                         }
@@ -845,14 +887,6 @@ public class FileFunctions {
             Arrays.sort(data);
             return RDataFactory.createStringVector(data, RDataFactory.COMPLETE_VECTOR);
         }
-
-        private static class FileMatcher implements Predicate<TruffleFile> {
-            @Override
-            public boolean test(TruffleFile f) {
-                boolean result = f.isDirectory();
-                return result;
-            }
-        }
     }
 
     // TODO handle the general case, which is similar to paste, dispatch to as.character S3 methods
@@ -1061,66 +1095,8 @@ public class FileFunctions {
             return RDataFactory.createLogicalVector(status, RDataFactory.COMPLETE_VECTOR);
         }
 
-        private static final class DirCopy implements FileVisitor<TruffleFile> {
-            private final TruffleFile fromDir;
-            private final TruffleFile toDir;
-            private final CopyOption[] copyOptions;
-            private boolean error;
-
-            private DirCopy(TruffleFile fromDir, TruffleFile toDir, CopyOption[] copyOptions) {
-                this.fromDir = fromDir;
-                this.toDir = toDir;
-                this.copyOptions = copyOptions;
-            }
-
-            @Override
-            public FileVisitResult preVisitDirectory(TruffleFile dir, BasicFileAttributes attrs) {
-                TruffleFile newDir = toDir.resolve(fromDir.relativize(dir).getPath());
-                try {
-                    dir.copy(newDir, copyOptions);
-                } catch (FileAlreadyExistsException x) {
-                    error = true;
-                    // ok
-                } catch (DirectoryNotEmptyException x) {
-                    // ok
-                } catch (IOException ex) {
-                    error = true;
-                    return FileVisitResult.SKIP_SUBTREE;
-                }
-                return FileVisitResult.CONTINUE;
-            }
-
-            @Override
-            public FileVisitResult visitFile(TruffleFile file, BasicFileAttributes attrs) throws IOException {
-                TruffleFile newFile = toDir.resolve(fromDir.relativize(file).getPath());
-                try {
-                    file.copy(newFile, copyOptions);
-                } catch (FileAlreadyExistsException x) {
-                    error = true;
-                    // ok
-                }
-                return FileVisitResult.CONTINUE;
-            }
-
-            @Override
-            public FileVisitResult visitFileFailed(TruffleFile f, IOException exc) throws IOException {
-                throw exc;
-            }
-
-            @Override
-            public FileVisitResult postVisitDirectory(TruffleFile f, IOException exc) throws IOException {
-                if (exc != null) {
-                    throw exc;
-                }
-                return FileVisitResult.CONTINUE;
-            }
-        }
-
-        @SuppressWarnings("static-method")
-        private boolean copyDir(TruffleFile fromDir, TruffleFile toDir, CopyOption[] copyOptions) throws IOException {
-            DirCopy dirCopy = new DirCopy(fromDir, toDir, copyOptions);
-            FileSystemUtils.walkFileTree(fromDir, dirCopy);
-            return !dirCopy.error;
+        private static boolean copyDir(TruffleFile fromDir, TruffleFile toDir, CopyOption[] copyOptions) throws IOException {
+            return FileSystemUtils.copyTree(fromDir, toDir, copyOptions, isParallel(RContext.getInstance()));
         }
     }
 
@@ -1307,18 +1283,8 @@ public class FileFunctions {
             return -1;
         }
 
-        private int recursiveDelete(TruffleFile f) {
-            try (DirectoryStream<TruffleFile> stream = f.newDirectoryStream()) {
-                for (TruffleFile entry : stream) {
-                    if (entry.isDirectory()) {
-                        recursiveDelete(entry);
-                    }
-                    FileSystemUtils.deleteIfExists(entry);
-                }
-                return 1;
-            } catch (IOException ex) {
-                return 0;
-            }
+        private static int recursiveDelete(TruffleFile f) {
+            return FileSystemUtils.deleteContents(f, isParallel(RContext.getInstance())) ? 1 : 0;
         }
     }
 
@@ -34,6 +34,7 @@ import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RAttributable;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 
 @RBuiltin(name = "formatC", kind = INTERNAL, parameterNames = {"x", "mode", "width", "digits", "format", "flag", "i.strlen"}, behavior = PURE)
@@ -114,6 +115,12 @@ public abstract class FormatC extends RBuiltinNode.Arg7 {
         if ("d".equals(format)) {
             String form = "%" + flag + width + "d";
             if (type == RType.Integer) {
+                if (x instanceof RAbstractIntVector && distinctFlags(flag)) {
+                    String[] formatted = FormatPlan.compile(form).execute(new Object[]{x}, x.getLength(), false, i -> String.format(form, x.getDataAtAsObject(i)));
+                    if (formatted != null) {
+                        return formatted;
+                    }
+                }
                 for (int i = 0; i < x.getLength(); i++) {
                     result[i] = String.format(form, x.getDataAtAsObject(i));
                 }
@@ -169,8 +176,12 @@ public abstract class FormatC extends RBuiltinNode.Arg7 {
                 } else {
                     String form = "%" + flag + width + "." + dig + format;
                     String form2 = "%" + width + "s";
+                    String[] formatted = null;
+                    if (distinctFlags(flag)) {
+                        formatted = FormatPlan.compile(form).execute(new Object[]{x}, x.getLength(), false, i -> String.format(form, x.getDataAtAsObject(i)));
+                    }
                     for (int i = 0; i < x.getLength(); i++) {
-                        String str = String.format(form, x.getDataAtAsObject(i));
+                        String str = formatted != null ? formatted[i] : String.format(form, x.getDataAtAsObject(i));
                         str = ("g".equals(format) || "f".equals(format)) ? trimZero(str) : str;
                         result[i] = String.format(form2, str);
                     }
@@ -182,6 +193,18 @@ public abstract class FormatC extends RBuiltinNode.Arg7 {
         return result;
     }
 
+    /**
+     * {@link String#format} rejects repeated flags, which a {@link FormatPlan} would accept.
+     */
+    private static boolean distinctFlags(String flag) {
+        for (int i = 1; i < flag.length(); i++) {
+            if (flag.lastIndexOf(flag.charAt(i), i - 1) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static String trimZero(String str) {
         int e = str.indexOf('e');
         int i = e < 0 ? str.length() : e;
@@ -0,0 +1,430 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Formatter;
+import java.util.IllegalFormatException;
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.nodes.builtin.base.Sprintf.FormatInfo;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+
+/**
+ * A format string of {@code sprintf} compiled into literal segments and conversions, which is
+ * executed over whole argument vectors with typed element access and one reused buffer.
+ *
+ * The integer and string conversions are done by the plan itself and produce the same text as
+ * {@link Sprintf}'s formatting via {@code java.util.Formatter}, the floating point conversions
+ * still go through a {@link Formatter}, but with a precomputed specification for the single value.
+ * The elements that need any of the special treatments of {@link Sprintf} ({@code NA} values,
+ * doubles that are not integers for integer conversions, flags that Java rejects) are formatted
+ * by a fallback given by the caller, so the plan never changes the result.
+ */
+final class FormatPlan {
+
+    private enum Kind {
+        INT,
+        DOUBLE,
+        LOGICAL,
+        STRING
+    }
+
+    private static final class Conversion {
+        /** The conversion as processed by {@link Sprintf#extractFormatInfo}. */
+        private final char conversion;
+        /** The conversion as written in the format, e.g. {@code 'i'} for {@code 'd'}. */
+        private final char written;
+        private final int arg;
+        private final int width;
+        private final int precision;
+        private final boolean adjustLeft;
+        private final boolean alwaysSign;
+        private final boolean spacePrefix;
+        private final boolean padZero;
+        private final boolean alternate;
+        /** The Java specification for floating point conversions. */
+        private final String spec;
+
+        Conversion(FormatInfo fi, char written) {
+            this.conversion = fi.conversion;
+            this.written = written;
+            this.arg = fi.numArg - 1;
+            this.width = fi.width;
+            this.precision = fi.precision;
+            this.adjustLeft = fi.adjustLeft;
+            this.alwaysSign = fi.alwaysSign;
+            this.spacePrefix = fi.spacePrefix;
+            this.padZero = fi.padZero;
+            this.alternate = fi.alternate;
+            StringBuilder sb = new StringBuilder("%");
+            // the flags in the order used by Sprintf.processFormat
+            if (adjustLeft) {
+                sb.append('-');
+            }
+            if (alwaysSign) {
+                sb.append('+');
+            }
+            if (alternate) {
+                sb.append('#');
+            }
+            if (padZero) {
+                sb.append('0');
+            }
+            if (spacePrefix) {
+                sb.append(' ');
+            }
+            if (width >= 0) {
+                sb.append(width);
+            }
+            if (precision >= 0) {
+                sb.append('.').append(precision);
+            }
+            this.spec = sb.append(conversion).toString();
+        }
+    }
+
+    private final String format;
+    /**
+     * The literal text before each conversion and after the last one, or {@code null} if the
+     * format cannot be compiled.
+     */
+    private final String[] literals;
+    private final Conversion[] conversions;
+
+    private FormatPlan(String format, String[] literals, Conversion[] conversions) {
+        this.format = format;
+        this.literals = literals;
+        this.conversions = conversions;
+    }
+
+    boolean isFormat(String fmt) {
+        return format.equals(fmt);
+    }
+
+    /**
+     * Compiles the format, the plan of a format with arguments given by {@code *} or with an
+     * argument used by several conversions (which {@link Sprintf} converts for the last one only)
+     * cannot be executed and neither can that of an invalid format.
+     */
+    @TruffleBoundary
+    static FormatPlan compile(String fmt) {
+        ArrayList<String> literals = new ArrayList<>();
+        ArrayList<Conversion> conversions = new ArrayList<>();
+        try {
+            char[] cs = fmt.toCharArray();
+            StringBuilder literal = new StringBuilder();
+            int i = 0;
+            int argc = 1;
+            while (i < cs.length) {
+                while (i < cs.length && cs[i] != '%') {
+                    literal.append(cs[i++]);
+                }
+                if (i == cs.length) {
+                    break;
+                }
+                i++;
+                FormatInfo fi = Sprintf.extractFormatInfo(cs, i, argc);
+                argc = fi.argc;
+                if (fi.conversion == '%') {
+                    literal.append('%');
+                } else if (fi.widthIsArg || fi.precisionIsArg) {
+                    return new FormatPlan(fmt, null, null);
+                } else {
+                    for (Conversion c : conversions) {
+                        if (c.arg == fi.numArg - 1) {
+                            return new FormatPlan(fmt, null, null);
+                        }
+                    }
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    conversions.add(new Conversion(fi, cs[fi.nextChar - 1]));
+                }
+                i = fi.nextChar;
+            }
+            literals.add(literal.toString());
+        } catch (RuntimeException e) {
+            // the error is reported by the fallback
+            return new FormatPlan(fmt, null, null);
+        }
+        return new FormatPlan(fmt, literals.toArray(new String[literals.size()]), conversions.toArray(new Conversion[conversions.size()]));
+    }
+
+    /**
+     * Formats {@code length} elements of the arguments, which are either scalars ({@link Integer},
+     * {@link Double}, {@link Byte} for logicals or {@link String}) or vectors of these types
+     * (recycled), or string arrays. If {@code doubleAsLong} is set, integer doubles are printed by
+     * {@code %d} and {@code %x} as Java longs, as {@link Sprintf} does for a single double
+     * argument. Returns {@code null} if the plan cannot be used for these arguments.
+     */
+    @TruffleBoundary
+    String[] execute(Object[] values, int length, boolean doubleAsLong, IntFunction<String> fallback) {
+        if (literals == null) {
+            return null;
+        }
+        Kind[] kinds = new Kind[conversions.length];
+        int[] lengths = new int[conversions.length];
+        for (int c = 0; c < conversions.length; c++) {
+            int arg = conversions[c].arg;
+            if (arg >= values.length) {
+                return null;
+            }
+            Object value = values[arg];
+            if (value instanceof Integer) {
+                kinds[c] = Kind.INT;
+            } else if (value instanceof RAbstractIntVector) {
+                kinds[c] = Kind.INT;
+                lengths[c] = ((RAbstractIntVector) value).getLength();
+            } else if (value instanceof Double) {
+                kinds[c] = Kind.DOUBLE;
+            } else if (value instanceof RAbstractDoubleVector) {
+                kinds[c] = Kind.DOUBLE;
+                lengths[c] = ((RAbstractDoubleVector) value).getLength();
+            } else if (value instanceof Byte) {
+                kinds[c] = Kind.LOGICAL;
+            } else if (value instanceof RAbstractLogicalVector) {
+                kinds[c] = Kind.LOGICAL;
+                lengths[c] = ((RAbstractLogicalVector) value).getLength();
+            } else if (value instanceof String) {
+                kinds[c] = Kind.STRING;
+            } else if (value instanceof RAbstractStringVector) {
+                kinds[c] = Kind.STRING;
+                lengths[c] = ((RAbstractStringVector) value).getLength();
+            } else if (value instanceof String[]) {
+                kinds[c] = Kind.STRING;
+                lengths[c] = ((String[]) value).length;
+            } else {
+                return null;
+            }
+            if (lengths[c] == 0 && !(value instanceof Integer || value instanceof Double || value instanceof Byte || value instanceof String)) {
+                return null;
+            }
+        }
+        String[] result = new String[length];
+        StringBuilder sb = new StringBuilder();
+        Formatter formatter = null;
+        for (int k = 0; k < length; k++) {
+            sb.setLength(0);
+            boolean done = true;
+            for (int c = 0; c < conversions.length && done; c++) {
+                sb.append(literals[c]);
+                Conversion conv = conversions[c];
+                Object value = values[conv.arg];
+                int index = lengths[c] == 0 ? 0 : k % lengths[c];
+                switch (kinds[c]) {
+                    case INT: {
+                        int v = value instanceof Integer ? (Integer) value : ((RAbstractIntVector) value).getDataAt(index);
+                        if (RRuntime.isNA(v)) {
+                            done = false;
+                        } else if (conv.conversion == 's') {
+                            done = appendString(sb, Integer.toString(v), conv);
+                        } else if (isFloatingPoint(conv.conversion) && !isG(conv.conversion)) {
+                            formatter = formatter == null ? new Formatter(sb, (Locale) null) : formatter;
+                            done = appendFloatingPoint(sb, formatter, v, conv);
+                        } else {
+                            done = appendInteger(sb, v, true, conv);
+                        }
+                        break;
+                    }
+                    case LOGICAL: {
+                        byte v = value instanceof Byte ? (Byte) value : ((RAbstractLogicalVector) value).getDataAt(index);
+                        if (RRuntime.isNA(v)) {
+                            done = false;
+                        } else if (conv.conversion == 's') {
+                            done = appendString(sb, RRuntime.logicalToString(v), conv);
+                        } else if (isFloatingPoint(conv.conversion) && !isG(conv.conversion)) {
+                            formatter = formatter == null ? new Formatter(sb, (Locale) null) : formatter;
+                            done = appendFloatingPoint(sb, formatter, v, conv);
+                        } else {
+                            done = appendInteger(sb, v, true, conv);
+                        }
+                        break;
+                    }
+                    case DOUBLE: {
+                        double v = value instanceof Double ? (Double) value : ((RAbstractDoubleVector) value).getDataAt(index);
+                        if (RRuntime.isNA(v)) {
+                            done = false;
+                        } else if (conv.conversion == 's') {
+                            done = appendString(sb, v == (int) v ? Integer.toString((int) v) : Double.toString(v), conv);
+                        } else if (isFloatingPoint(conv.conversion)) {
+                            formatter = formatter == null ? new Formatter(sb, (Locale) null) : formatter;
+                            done = appendFloatingPoint(sb, formatter, v, conv);
+                        } else if (doubleAsLong && conv.written != 'i' && conv.written != 'o') {
+                            done = Math.floor(v) == v && appendInteger(sb, (long) v, false, conv);
+                        } else {
+                            done = v == (int) v && appendInteger(sb, (int) v, true, conv);
+                        }
+                        break;
+                    }
+                    case STRING: {
+                        String v;
+                        if (value instanceof String) {
+                            v = (String) value;
+                        } else if (value instanceof String[]) {
+                            v = ((String[]) value)[index];
+                        } else {
+                            v = ((RAbstractStringVector) value).getDataAt(index);
+                        }
+                        done = !RRuntime.isNA(v) && conv.conversion == 's' && appendString(sb, v, conv);
+                        break;
+                    }
+                    default:
+                        throw RInternalError.shouldNotReachHere();
+                }
+            }
+            if (done) {
+                sb.append(literals[conversions.length]);
+                result[k] = sb.toString();
+            } else {
+                result[k] = fallback.apply(k);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isFloatingPoint(char c) {
+        return "feEgGaA".indexOf(c) != -1;
+    }
+
+    private static boolean isG(char c) {
+        return c == 'g' || c == 'G';
+    }
+
+    /**
+     * Appends an integer for the conversions {@code d}, {@code o}, {@code x} and {@code X} (and
+     * {@code g} and {@code G}, which {@link Sprintf} prints as {@code d} for integers) like
+     * {@link Formatter} does, where {@code fromInt} means the value has Java type {@code int}.
+     * Returns {@code false} for the combinations of flags that {@link Formatter} rejects.
+     */
+    private static boolean appendInteger(StringBuilder sb, long value, boolean fromInt, Conversion conv) {
+        char c = isG(conv.conversion) ? 'd' : conv.conversion;
+        if (conv.precision >= 0 || (conv.adjustLeft && conv.padZero) || ((conv.adjustLeft || conv.padZero) && conv.width < 0)) {
+            return false;
+        }
+        int start = sb.length();
+        if (c == 'd') {
+            if (conv.alternate || (conv.alwaysSign && conv.spacePrefix)) {
+                return false;
+            }
+            String digits = Long.toString(value);
+            int digitsStart = 0;
+            if (value < 0) {
+                sb.append('-');
+                digitsStart = 1;
+            } else if (conv.alwaysSign) {
+                sb.append('+');
+            } else if (conv.spacePrefix) {
+                sb.append(' ');
+            }
+            if (conv.padZero) {
+                for (int i = sb.length() - start + digits.length() - digitsStart; i < conv.width; i++) {
+                    sb.append('0');
+                }
+            }
+            sb.append(digits, digitsStart, digits.length());
+        } else if (c == 'o' || c == 'x' || c == 'X') {
+            if (conv.alwaysSign || conv.spacePrefix) {
+                return false;
+            }
+            long v = fromInt && value < 0 ? value + (1L << 32) : value;
+            String digits;
+            String prefix;
+            if (c == 'o') {
+                digits = Long.toOctalString(v);
+                prefix = "0";
+            } else {
+                digits = Long.toHexString(v);
+                prefix = c == 'X' ? "0X" : "0x";
+                if (c == 'X') {
+                    digits = digits.toUpperCase(Locale.ROOT);
+                }
+            }
+            int len = digits.length();
+            if (conv.alternate) {
+                sb.append(prefix);
+                len += prefix.length();
+            }
+            if (conv.padZero) {
+                for (int i = len; i < conv.width; i++) {
+                    sb.append('0');
+                }
+            }
+            sb.append(digits);
+        } else {
+            return false;
+        }
+        justify(sb, start, conv);
+        return true;
+    }
+
+    private static boolean appendString(StringBuilder sb, String value, Conversion conv) {
+        if (conv.alwaysSign || conv.spacePrefix || conv.padZero || conv.alternate || (conv.adjustLeft && conv.width < 0)) {
+            return false;
+        }
+        int start = sb.length();
+        if (conv.precision >= 0 && conv.precision < value.length()) {
+            sb.append(value, 0, conv.precision);
+        } else {
+            sb.append(value);
+        }
+        justify(sb, start, conv);
+        return true;
+    }
+
+    private static boolean appendFloatingPoint(StringBuilder sb, Formatter formatter, double value, Conversion conv) {
+        int start = sb.length();
+        try {
+            formatter.format(conv.spec, value);
+            return true;
+        } catch (IllegalFormatException e) {
+            sb.setLength(start);
+            return false;
+        }
+    }
+
+    /**
+     * Pads the text appended from {@code start} with spaces to the width of the conversion.
+     */
+    private static void justify(StringBuilder sb, int start, Conversion conv) {
+        int padding = conv.width - (sb.length() - start);
+        if (padding > 0) {
+            if (conv.adjustLeft) {
+                for (int i = 0; i < padding; i++) {
+                    sb.append(' ');
+                }
+            } else {
+                char[] spaces = new char[padding];
+                Arrays.fill(spaces, ' ');
+                sb.insert(start, spaces);
+            }
+        }
+    }
+}
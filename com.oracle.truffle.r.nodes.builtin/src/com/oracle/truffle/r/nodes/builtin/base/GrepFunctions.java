@@ -62,6 +62,8 @@ import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.StringInternTable;
+import com.oracle.truffle.r.runtime.data.StringInternTable.Deduplicator;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
@@ -1501,6 +1503,8 @@ public class GrepFunctions {
             PCRERFFI.Result[] pcreSplits = perl ? new PCRERFFI.Result[splits.length] : null;
 
             na.enable(x);
+            // the pieces of all elements are deduplicated together
+            Deduplicator deduplicator = StringInternTable.createDeduplicator();
             for (int i = 0; i < splits.length; i++) {
                 String currentSplit = split.getDataAt(i);
                 splits[i] = fixed || perl ? split.getDataAt(i) : RegExp.checkPreDefinedClasses(split.getDataAt(i));
@@ -1525,7 +1529,7 @@ public class GrepFunctions {
                 String currentSplit = splits[i % splits.length];
                 try {
                     if (currentSplit.isEmpty()) {
-                        result[i] = na.check(data) ? RDataFactory.createNAStringVector() : emptySplitIntl(data);
+                        result[i] = na.check(data) ? RDataFactory.createNAStringVector() : emptySplitIntl(data, deduplicator);
                     } else if (RRuntime.isNA(currentSplit)) {
                         // NA doesn't split
                         result[i] = RDataFactory.createStringVectorFromScalar(data);
@@ -1535,9 +1539,9 @@ public class GrepFunctions {
                             resultItem = RDataFactory.createNAStringVector();
                         } else {
                             if (perl) {
-                                resultItem = splitPerl(data, pcreSplits[i % splits.length]);
+                                resultItem = splitPerl(data, pcreSplits[i % splits.length], deduplicator);
                             } else {
-                                resultItem = splitIntl(data, currentSplit, fixed);
+                                resultItem = splitIntl(data, currentSplit, fixed, deduplicator);
                             }
                             if (resultItem.getLength() == 0) {
                                 if (fixed) {
@@ -1571,7 +1575,14 @@ public class GrepFunctions {
             }
         }
 
-        private static RStringVector splitIntl(String input, String separator, boolean fixed) {
+        private static RStringVector createSplitResult(String[] pieces, boolean complete, Deduplicator deduplicator) {
+            if (deduplicator != null) {
+                deduplicator.deduplicate(pieces);
+            }
+            return RDataFactory.createStringVector(pieces, complete);
+        }
+
+        private static RStringVector splitIntl(String input, String separator, boolean fixed, Deduplicator deduplicator) {
             assert !RRuntime.isNA(input);
 
             if (fixed) {
@@ -1593,26 +1604,26 @@ public class GrepFunctions {
                 if (!m.isEmpty()) {
                     matches.add(m);
                 }
-                return RDataFactory.createStringVector(matches.toArray(new String[matches.size()]), false);
+                return createSplitResult(matches.toArray(new String[matches.size()]), false, deduplicator);
             } else {
                 if (input.equals(separator)) {
                     return RDataFactory.createStringVector("");
                 } else {
-                    return RDataFactory.createStringVector(input.split(separator), true);
+                    return createSplitResult(input.split(separator), true, deduplicator);
                 }
             }
         }
 
-        private static RStringVector emptySplitIntl(String input) {
+        private static RStringVector emptySplitIntl(String input, Deduplicator deduplicator) {
             assert !RRuntime.isNA(input);
             String[] result = new String[input.length()];
             for (int i = 0; i < input.length(); i++) {
                 result[i] = new String(new char[]{input.charAt(i)});
             }
-            return RDataFactory.createStringVector(result, true);
+            return createSplitResult(result, true, deduplicator);
         }
 
-        private RStringVector splitPerl(String data, PCRERFFI.Result pcre) {
+        private RStringVector splitPerl(String data, PCRERFFI.Result pcre, Deduplicator deduplicator) {
             ArrayList<String> matches = new ArrayList<>();
             int lastEndOffset = 0;
             int lastEndIndex = 0;
@@ -1645,7 +1656,7 @@ public class GrepFunctions {
             }
             String[] result = new String[matches.size()];
             matches.toArray(result);
-            return RDataFactory.createStringVector(result, RDataFactory.COMPLETE_VECTOR);
+            return createSplitResult(result, RDataFactory.COMPLETE_VECTOR, deduplicator);
         }
     }
 
@@ -41,6 +41,7 @@ import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.GetRowNa
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.VectorIdentity;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.CharSXPWrapper;
 import com.oracle.truffle.r.runtime.data.RAttributable;
@@ -53,6 +54,7 @@ import com.oracle.truffle.r.runtime.data.RPairList;
 import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RS4Object;
 import com.oracle.truffle.r.runtime.data.RSymbol;
+import com.oracle.truffle.r.runtime.data.model.RAbstractAtomicVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractListBaseVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
@@ -145,7 +147,7 @@ public abstract class Identical extends RBuiltinNode.Arg8 {
     @SuppressWarnings("unused")
     @Specialization
     protected byte doInternalIdentical(String x, String y, boolean numEq, boolean singleNA, boolean attribAsSet, boolean ignoreBytecode, boolean ignoreEnvironment, boolean ignoreSrcref) {
-        return RRuntime.asLogical(x.equals(y));
+        return RRuntime.asLogical(VectorIdentity.identical(x, y));
     }
 
     @SuppressWarnings("unused")
@@ -158,26 +160,7 @@ public abstract class Identical extends RBuiltinNode.Arg8 {
     @SuppressWarnings("unused")
     @Specialization
     protected byte doInternalIdentical(double x, double y, boolean numEq, boolean singleNA, boolean attribAsSet, boolean ignoreBytecode, boolean ignoreEnvironment, boolean ignoreSrcref) {
-        if (singleNA) {
-            if (RRuntime.isNA(x)) {
-                return RRuntime.asLogical(RRuntime.isNA(y));
-            } else if (RRuntime.isNA(y)) {
-                return RRuntime.LOGICAL_FALSE;
-            } else if (Double.isNaN(x)) {
-                return RRuntime.asLogical(Double.isNaN(y));
-            } else if (Double.isNaN(y)) {
-                return RRuntime.LOGICAL_FALSE;
-            }
-        }
-        if (numEq) {
-            if (!singleNA) {
-                if (Double.isNaN(x) || Double.isNaN(y)) {
-                    return RRuntime.asLogical(Double.doubleToRawLongBits(x) == Double.doubleToRawLongBits(y));
-                }
-            }
-            return RRuntime.asLogical(x == y);
-        }
-        return RRuntime.asLogical(Double.doubleToRawLongBits(x) == Double.doubleToRawLongBits(y));
+        return RRuntime.asLogical(VectorIdentity.identical(x, y, numEq, singleNA));
     }
 
     private byte identicalAttr(RAttributable x, RAttributable y, boolean numEq, boolean singleNA, boolean attribAsSet, boolean ignoreBytecode, boolean ignoreEnvironment, boolean ignoreSrcref) {
@@ -292,6 +275,10 @@ public abstract class Identical extends RBuiltinNode.Arg8 {
                     boolean ignoreSrcref) {
         if (vecLengthProfile.profile(x.getLength() != y.getLength()) || differentTypesProfile.profile(x.getRType() != y.getRType())) {
             return RRuntime.LOGICAL_FALSE;
+        } else if (x instanceof RAbstractAtomicVector && y instanceof RAbstractAtomicVector) {
+            if (!VectorIdentity.identicalData((RAbstractAtomicVector) x, (RAbstractAtomicVector) y, numEq, singleNA)) {
+                return RRuntime.LOGICAL_FALSE;
+            }
         } else {
             for (int i = 0; i < x.getLength(); i++) {
                 if (!x.getDataAtAsObject(i).equals(y.getDataAtAsObject(i))) {
@@ -308,6 +295,15 @@ public abstract class Identical extends RBuiltinNode.Arg8 {
         if (x.getLength() != y.getLength()) {
             return RRuntime.LOGICAL_FALSE;
         }
+        if (x != y && x.getRType() == y.getRType()) {
+            Boolean elements = VectorIdentity.identicalElements(x, y, numEq, singleNA);
+            if (elements != null) {
+                if (!elements) {
+                    return RRuntime.LOGICAL_FALSE;
+                }
+                return identicalAttr(x, y, numEq, singleNA, attribAsSet, ignoreBytecode, ignoreEnvironment, ignoreSrcref);
+            }
+        }
         for (int i = 0; i < x.getLength(); i++) {
             byte res = identicalRecursive(x.getDataAt(i), y.getDataAt(i), numEq, singleNA, attribAsSet, ignoreBytecode, ignoreEnvironment, ignoreSrcref);
             if (res == RRuntime.LOGICAL_FALSE) {
@@ -69,7 +69,10 @@ import com.oracle.truffle.r.nodes.unary.CastDoubleNodeGen;
 import com.oracle.truffle.r.runtime.RAccuracyInfo;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.appl.Cholesky;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RComplexVector;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDataFactory.VectorFactory;
@@ -530,6 +533,7 @@ public class LaFunctions {
     public abstract static class LaChol extends RBuiltinNode.Arg3 {
 
         private final ConditionProfile noPivot = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile javaProfile = ConditionProfile.createBinaryProfile();
 
         @Child private SetFixedAttributeNode setPivotAttrNode = SetFixedAttributeNode.create("pivot");
         @Child private SetFixedAttributeNode setRankAttrNode = SetFixedAttributeNode.create("rank");
@@ -566,7 +570,11 @@ public class LaFunctions {
 
             int info;
             if (noPivot.profile(!piv)) {
-                info = dpotrfNode.execute('U', m, aData, m);
+                if (javaProfile.profile(useJava((long) m * m))) {
+                    info = Cholesky.dpotrf(aData, m, m);
+                } else {
+                    info = dpotrfNode.execute('U', m, aData, m);
+                }
                 if (info != 0) {
                     CompilerDirectives.transferToInterpreter();
                     if (info > 0) {
@@ -605,6 +613,15 @@ public class LaFunctions {
             }
             return result;
         }
+
+        /**
+         * Small matrices are decomposed by the Java implementation, which avoids the transfer of the
+         * data to the native code.
+         */
+        @TruffleBoundary
+        private static boolean useJava(long elements) {
+            return elements <= RContext.getInstance().getOption(FastROptions.JavaDecompositionThreshold);
+        }
     }
 
     @RBuiltin(name = "La_chol2inv", kind = INTERNAL, parameterNames = {"a", "size"}, behavior = PURE)
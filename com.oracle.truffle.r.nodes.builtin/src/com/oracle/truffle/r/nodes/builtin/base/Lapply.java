@@ -27,6 +27,7 @@ import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.Frame;
@@ -38,6 +39,8 @@ import com.oracle.truffle.api.nodes.LoopNode;
 import com.oracle.truffle.api.profiles.LoopConditionProfile;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.r.nodes.RRootNode;
+import com.oracle.truffle.r.nodes.access.variables.LocalReadVariableNode;
 import com.oracle.truffle.r.nodes.access.variables.ReadVariableNode;
 import com.oracle.truffle.r.nodes.access.vector.ElementAccessMode;
 import com.oracle.truffle.r.nodes.access.vector.ExtractVectorNode;
@@ -46,9 +49,15 @@ import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.ExtractN
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.nodes.builtin.base.LapplyNodeGen.LapplyInternalNodeGen;
 import com.oracle.truffle.r.nodes.control.RLengthNode;
+import com.oracle.truffle.r.nodes.function.ArgumentMatcher;
+import com.oracle.truffle.r.nodes.function.ArgumentMatcher.MatchPermutation;
+import com.oracle.truffle.r.nodes.function.FormalArguments;
 import com.oracle.truffle.r.nodes.function.RCallBaseNode;
 import com.oracle.truffle.r.nodes.function.RCallNode;
+import com.oracle.truffle.r.nodes.function.call.CallRFunctionCachedNode;
+import com.oracle.truffle.r.nodes.function.opt.UpdateShareableChildValueNode;
 import com.oracle.truffle.r.runtime.ArgumentsSignature;
+import com.oracle.truffle.r.runtime.RCaller;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -56,10 +65,14 @@ import com.oracle.truffle.r.runtime.RSource;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.Closure;
+import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RFunction;
 import com.oracle.truffle.r.runtime.data.RDataFactory.VectorFactory;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
+import com.oracle.truffle.r.runtime.data.nodes.VectorAccess.RandomIterator;
 import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
 import com.oracle.truffle.r.runtime.nodes.InternalRSyntaxNodeChildren;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
@@ -161,6 +174,153 @@ public abstract class Lapply extends RBuiltinNode.Arg2 {
             return FrameSlotChangeMonitor.findOrAddFrameSlot(frame.getFrameDescriptor(), VECTOR_NAME, FrameSlotKind.Object);
         }
 
+        /**
+         * Fast path for the common case of a closure with a stable call target, a vector whose
+         * elements can be read directly and a stable signature of the "..." arguments. The
+         * arguments are matched once, the elements are read via {@link VectorAccess} and passed as
+         * already evaluated promises (so that {@code substitute} still yields {@code X[[i]]}), and
+         * the closure is called directly, which avoids the {@code X[[i]]} extraction, the lookup
+         * of "..." and the argument matching of the generic {@code FUN(X[[i]], ...)} call in every
+         * iteration.
+         */
+        @Specialization(guards = {"!function.isBuiltin()", "function.getTarget() == cachedTarget", "access.supports(vector)", "isDirectElementType(access)",
+                        "cachedVarArgsSignature != null", "getVarArgsSignature(frame, readVarArgs) == cachedVarArgsSignature", "permutation != null"}, limit = "getCacheSize(2)")
+        protected Object[] directLApply(VirtualFrame frame, RAbstractVector vector, RFunction function,
+                        @Cached("createIndexSlot(frame)") FrameSlot indexSlot,
+                        @Cached("createVectorSlot(frame)") FrameSlot vectorSlot,
+                        @Cached("createVarArgsRead()") LocalReadVariableNode readVarArgs,
+                        @Cached("getVarArgsSignature(frame, readVarArgs)") ArgumentsSignature cachedVarArgsSignature,
+                        @Cached("function.getTarget()") RootCallTarget cachedTarget,
+                        @Cached("vector.access()") VectorAccess access,
+                        @Cached("createPermutation(cachedTarget, cachedVarArgsSignature)") MatchPermutation permutation,
+                        @Cached("getFormals(cachedTarget)") FormalArguments formals,
+                        @Cached("createElementClosure(vectorSlot, indexSlot)") Closure elementClosure,
+                        @Cached("createCallSyntax(vectorSlot, indexSlot)") RSyntaxElement callSyntax,
+                        @Cached("create(1)") CallRFunctionCachedNode callNode,
+                        @Cached("create()") UpdateShareableChildValueNode updateStateNode,
+                        @Cached("createCountingProfile()") LoopConditionProfile loop) {
+            FrameSlotChangeMonitor.setObject(frame, vectorSlot, vector);
+            int varArgsLength = cachedVarArgsSignature.getLength();
+            Object[] varArgs = varArgsLength == 0 ? null : ((RArgsValuesAndNames) readVarArgs.execute(frame)).getArguments();
+            try (RandomIterator iter = access.randomAccess(vector)) {
+                int length = access.getLength(iter);
+                Object[] result = new Object[length];
+                if (length > 0) {
+                    reportWork(this, length);
+                    loop.profileCounted(length);
+                    for (int i = 0; loop.inject(i < length); i++) {
+                        frame.setInt(indexSlot, i + 1);
+                        Object[] suppliedArgs = new Object[1 + varArgsLength];
+                        suppliedArgs[0] = RDataFactory.createEvaluatedPromise(elementClosure, getElement(vector, access, iter, i, updateStateNode));
+                        if (varArgsLength > 0) {
+                            System.arraycopy(varArgs, 0, suppliedArgs, 1, varArgsLength);
+                        }
+                        RArgsValuesAndNames matched = ArgumentMatcher.matchArgumentsEvaluated(permutation, suppliedArgs, null, formals);
+                        RCaller caller = RCaller.create(frame, callSyntax);
+                        result[i] = callNode.execute(frame, function, caller, null, matched.getArguments(), matched.getSignature(), function.getEnclosingFrame(), null);
+                    }
+                }
+                return result;
+            }
+        }
+
+        protected static boolean isDirectElementType(VectorAccess access) {
+            switch (access.getType()) {
+                case Integer:
+                case Double:
+                case Logical:
+                case Character:
+                case List:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * Reads the element like {@code X[[i]]} would, i.e. list elements are put into a consistent
+         * sharing state, because they are passed on to the function.
+         */
+        private static Object getElement(RAbstractVector vector, VectorAccess access, RandomIterator iter, int index, UpdateShareableChildValueNode updateStateNode) {
+            switch (access.getType()) {
+                case Integer:
+                    return access.getInt(iter, index);
+                case Double:
+                    return access.getDouble(iter, index);
+                case Logical:
+                    return access.getLogical(iter, index);
+                case Character:
+                    return access.getString(iter, index);
+                case List:
+                    return updateStateNode.updateState(vector, access.getListElement(iter, index));
+                default:
+                    throw RInternalError.shouldNotReachHere();
+            }
+        }
+
+        protected static LocalReadVariableNode createVarArgsRead() {
+            return LocalReadVariableNode.create(ArgumentsSignature.VARARG_NAME, false);
+        }
+
+        protected static ArgumentsSignature getVarArgsSignature(VirtualFrame frame, LocalReadVariableNode readVarArgs) {
+            Object varArgs = readVarArgs.execute(frame);
+            return varArgs instanceof RArgsValuesAndNames ? ((RArgsValuesAndNames) varArgs).getSignature() : null;
+        }
+
+        /**
+         * Matches {@code X[[i]]} followed by the "..." arguments to the formals of the target.
+         * Returns {@code null} if the matching could fail (unused or repeated arguments), in which
+         * case the error is left to the generic call.
+         */
+        protected MatchPermutation createPermutation(RootCallTarget target, ArgumentsSignature varArgsSignature) {
+            CompilerAsserts.neverPartOfCompilation();
+            ArgumentsSignature formalSignature = getFormals(target).getSignature();
+            String[] names = new String[1 + varArgsSignature.getLength()];
+            for (int i = 0; i < varArgsSignature.getLength(); i++) {
+                String name = varArgsSignature.getName(i);
+                if (name != null) {
+                    for (int j = 1; j <= i; j++) {
+                        if (name.equals(names[j])) {
+                            return null;
+                        }
+                    }
+                    if (formalSignature.indexOfName(name) == -1) {
+                        if (formalSignature.getVarArgIndex() == ArgumentsSignature.NO_VARARG) {
+                            return null;
+                        }
+                        for (int j = 0; j < formalSignature.getLength(); j++) {
+                            String formalName = formalSignature.getName(j);
+                            if (formalName != null && formalName.startsWith(name)) {
+                                // partial matching
+                                return null;
+                            }
+                        }
+                    }
+                }
+                names[i + 1] = name;
+            }
+            if (formalSignature.getVarArgIndex() == ArgumentsSignature.NO_VARARG && names.length > formalSignature.getLength()) {
+                return null;
+            }
+            return ArgumentMatcher.matchArguments(ArgumentsSignature.get(names), formalSignature, this, null);
+        }
+
+        protected static FormalArguments getFormals(RootCallTarget target) {
+            return ((RRootNode) target.getRootNode()).getFormalArguments();
+        }
+
+        /**
+         * The syntax of the generic call, used as the caller of the direct calls so that
+         * {@code sys.call()} gives the same result in both cases.
+         */
+        protected RSyntaxElement createCallSyntax(FrameSlot vectorSlot, FrameSlot indexSlot) {
+            return (RSyntaxElement) createCallNode(vectorSlot, indexSlot);
+        }
+
+        protected static Closure createElementClosure(FrameSlot vectorSlot, FrameSlot indexSlot) {
+            return Closure.createPromiseClosure(new ExtractElementInternal(vectorSlot, indexSlot));
+        }
+
         @Specialization
         protected Object[] cachedLApply(VirtualFrame frame, Object vector, RFunction function,
                         @Cached("createIndexSlot(frame)") FrameSlot indexSlot,
@@ -206,7 +206,7 @@ public abstract class Paste extends RBuiltinNode.Arg3 {
             }
             result[i] = lastResult = concatStrings(converted, i, length, sep);
         }
-        return result;
+        return StringInternTable.deduplicate(result);
     }
 
     private static String concatStrings(String[][] converted, int index, int length, String sep) {
@@ -31,12 +31,11 @@ import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
-import java.util.HashMap;
-
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.Grouping;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
@@ -81,16 +80,8 @@ public class RowsumFunctions {
             int p = xv.isMatrix() ? xv.getDimensions()[1] : 1;
             int n = g.getLength();
             int ng = uniqueg.getLength();
-            HashMap<Object, Integer> table = new HashMap<>();
-            for (int i = 0; i < ng; i++) {
-                // uniqueg has no duplicates (by definition)
-                table.put(uniqueg.getDataAtAsObject(i), i);
-            }
-            int[] matches = new int[n];
-            for (int i = 0; i < n; i++) {
-                Integer hi = table.get(g.getDataAtAsObject(i));
-                matches[i] = hi + 1;
-            }
+            // uniqueg has no duplicates (by definition) and contains all the values of g
+            int[] matches = Grouping.match(g, uniqueg);
             int offset = 0;
             int offsetg = 0;
 
@@ -104,7 +95,7 @@ public class RowsumFunctions {
                 int[] ansi = new int[ng * p];
                 for (int i = 0; i < p; i++) {
                     for (int j = 0; j < n; j++) {
-                        int midx = matches[j] - 1 + offsetg;
+                        int midx = matches[j] + offsetg;
                         int itmp = ansi[midx];
                         if (na.check(xi.getDataAt(j + offset))) {
                             if (!narm) {
@@ -133,7 +124,7 @@ public class RowsumFunctions {
                 double[] ansd = new double[ng * p];
                 for (int i = 0; i < p; i++) {
                     for (int j = 0; j < n; j++) {
-                        int midx = matches[j] - 1 + offsetg;
+                        int midx = matches[j] + offsetg;
                         double dtmp = xd.getDataAt(j + offset);
                         if (!narm || !Double.isNaN(dtmp)) {
                             ansd[midx] += dtmp;
@@ -43,6 +43,8 @@ import static com.oracle.truffle.r.runtime.RError.Message.VECTOR_SIZE_TOO_LARGE;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.MODIFIES_STATE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -59,6 +61,13 @@ import com.oracle.truffle.r.runtime.rng.RRNG;
 
 @RBuiltin(name = "sample", kind = INTERNAL, parameterNames = {"x", "size", "replace", "prob"}, behavior = MODIFIES_STATE)
 public abstract class Sample extends RBuiltinNode.Arg4 {
+    /**
+     * The number of categories with non-trivial probability above which GNU R samples with
+     * replacement by Walker's alias method. Also used as the population size above which the
+     * sampling without replacement searches a tree of partial sums.
+     */
+    private static final int WALKER_THRESHOLD = 200;
+
     private final ConditionProfile sampleSizeProfile = ConditionProfile.createBinaryProfile();
 
     static {
@@ -119,9 +128,8 @@ public abstract class Sample extends RBuiltinNode.Arg4 {
                 nc++;
             }
         }
-        if (nc > 200) {
-            // TODO implement walker
-            throw new UnsupportedOperationException("walker_ProbSampleReplace is not yet implemented");
+        if (nc > WALKER_THRESHOLD) {
+            return RDataFactory.createIntVector(walkerProbSampleReplace(x, probArray, size), RDataFactory.COMPLETE_VECTOR);
         } else {
             return RDataFactory.createIntVector(probSampleReplace(x, probArray, size), RDataFactory.COMPLETE_VECTOR);
         }
@@ -188,7 +196,7 @@ public abstract class Sample extends RBuiltinNode.Arg4 {
     }
 
     @TruffleBoundary
-    private int[] probSampleReplace(int n, double[] probArray, int resultSize) {
+    private static int[] probSampleReplace(int n, double[] probArray, int resultSize) {
         // The following code is transcribed from GNU R src/main/random.c lines 309-335
         int[] result = new int[resultSize];
         int[] perm = new int[n];
@@ -196,7 +204,7 @@ public abstract class Sample extends RBuiltinNode.Arg4 {
         for (int i = 0; i < n; i++) {
             perm[i] = i + 1;
         }
-        heapSort(perm, probArray);
+        revsort(probArray, perm, n);
         for (int i = 1; i < n; i++) {
             probArray[i] += probArray[i - 1];
         }
@@ -213,15 +221,90 @@ public abstract class Sample extends RBuiltinNode.Arg4 {
         return result;
     }
 
+    /**
+     * The alias table of Walker's method for the normalized probabilities {@code prob}: the
+     * category {@code k} is chosen for a uniform {@code rU} in {@code [0, n)} with
+     * {@code k = (int) rU} if {@code rU < q[k]} and {@code a[k]} otherwise.
+     */
+    private static final class AliasTable {
+        private final double[] prob;
+        private final double[] q;
+        private final int[] a;
+
+        private AliasTable(double[] prob) {
+            // The following code is transcribed from GNU R src/main/random.c function
+            // walker_ProbSampleReplace
+            int n = prob.length;
+            this.prob = prob;
+            this.q = new double[n];
+            this.a = new int[n];
+            int[] hl = new int[n];
+            int h = -1;
+            int l = n;
+            for (int i = 0; i < n; i++) {
+                q[i] = prob[i] * n;
+                if (q[i] < 1.) {
+                    hl[++h] = i;
+                } else {
+                    hl[--l] = i;
+                }
+            }
+            if (h >= 0 && l < n) { /* So some q[i] are >= 1 and some < 1 */
+                for (int k = 0; k < n - 1; k++) {
+                    int i = hl[k];
+                    int j = hl[l];
+                    a[i] = j;
+                    q[j] += q[i] - 1;
+                    if (q[j] < 1.) {
+                        l++;
+                    }
+                    if (l >= n) {
+                        break; /* now all are >= 1 */
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                q[i] += i;
+            }
+        }
+    }
+
+    /**
+     * The last alias table built, weighted bootstrap and resampling typically call {@code sample}
+     * repeatedly with the same probabilities.
+     */
+    private static volatile AliasTable lastAliasTable;
+
+    @TruffleBoundary
+    private static int[] walkerProbSampleReplace(int n, double[] probArray, int resultSize) {
+        AliasTable table = lastAliasTable;
+        if (table == null || !Arrays.equals(table.prob, probArray)) {
+            table = new AliasTable(probArray);
+            lastAliasTable = table;
+        }
+        double[] q = table.q;
+        int[] a = table.a;
+        int[] result = new int[resultSize];
+        for (int i = 0; i < resultSize; i++) {
+            double rU = RRNG.unifRand() * n;
+            int k = (int) rU;
+            result[i] = (rU < q[k]) ? k + 1 : a[k] + 1;
+        }
+        return result;
+    }
+
     @TruffleBoundary
-    private int[] probSampleWithoutReplace(int n, double[] probArray, int resultSize) {
+    private static int[] probSampleWithoutReplace(int n, double[] probArray, int resultSize) {
         // The following code is transcribed from GNU R src/main/random.c lines 396-428
         int[] ans = new int[resultSize];
         int[] perm = new int[n];
         for (int i = 0; i < n; i++) {
             perm[i] = i + 1;
         }
-        heapSort(perm, probArray);
+        revsort(probArray, perm, n);
+        if (n > WALKER_THRESHOLD && resultSize > 1) {
+            return probSampleWithoutReplaceTree(n, probArray, perm, ans);
+        }
         double totalMass = 1;
         for (int i = 0, n1 = n - 1; i < resultSize; i++, n1--) {
             double rT = totalMass * RRNG.unifRand();
@@ -243,46 +326,103 @@ public abstract class Sample extends RBuiltinNode.Arg4 {
         return ans;
     }
 
-    @TruffleBoundary
-    private void buildheap(double[] keys, int[] values) {
-        for (int i = (keys.length >> 1); i >= 0; i--) {
-            minHeapify(keys, i, keys.length, values);
+    /**
+     * The same draws as the linear scan of {@link #probSampleWithoutReplace}, but the first
+     * remaining element whose cumulative mass reaches {@code rT} is found by a descent in a binary
+     * tree of partial sums over the sorted probabilities. The drawn elements are set to zero mass
+     * and the sums on their path are recomputed, so no rounding errors accumulate; the partial sums
+     * are only added up in a different order than in the scan, which can matter when {@code rT} is
+     * within rounding error of a cumulative mass.
+     */
+    private static int[] probSampleWithoutReplaceTree(int n, double[] probArray, int[] perm, int[] ans) {
+        int leaves = Integer.highestOneBit(n - 1) << 1;
+        double[] tree = new double[2 * leaves];
+        System.arraycopy(probArray, 0, tree, leaves, n);
+        for (int k = leaves - 1; k > 0; k--) {
+            tree[k] = tree[2 * k] + tree[2 * k + 1];
         }
-    }
-
-    @TruffleBoundary
-    private void minHeapify(double[] keys, int currentIndex, int heapSize, int[] values) {
-        int leftChildIndex = currentIndex << 1;
-        int rightChildIndex = leftChildIndex + 1;
-        int lowestElementIndex = currentIndex;
-        if (leftChildIndex < heapSize && keys[leftChildIndex] < keys[currentIndex]) {
-            lowestElementIndex = leftChildIndex;
-        }
-        if (rightChildIndex < heapSize && keys[rightChildIndex] < keys[currentIndex]) {
-            lowestElementIndex = rightChildIndex;
-        }
-        if (lowestElementIndex != currentIndex) {
-            exchange(keys, currentIndex, lowestElementIndex, values);
-            minHeapify(keys, lowestElementIndex, heapSize, values);
+        boolean[] drawn = new boolean[n];
+        int last = n - 1;
+        double totalMass = 1;
+        for (int i = 0; i < ans.length; i++) {
+            double rT = totalMass * RRNG.unifRand();
+            double mass = 0;
+            int node = 1;
+            while (node < leaves) {
+                node <<= 1;
+                if (!(rT <= mass + tree[node])) {
+                    mass += tree[node];
+                    node++;
+                }
+            }
+            int j = node - leaves;
+            while (j < last && drawn[j]) {
+                j++;
+            }
+            if (j > last) {
+                /* like the scan, take the last remaining element if rT was not reached */
+                j = last;
+            }
+            ans[i] = perm[j];
+            totalMass -= probArray[j];
+            drawn[j] = true;
+            tree[j + leaves] = 0;
+            for (int k = (j + leaves) >> 1; k > 0; k >>= 1) {
+                tree[k] = tree[2 * k] + tree[2 * k + 1];
+            }
+            while (last > 0 && drawn[last]) {
+                last--;
+            }
         }
+        return ans;
     }
 
-    @TruffleBoundary
-    private static void exchange(double[] keys, int i, int j, int[] values) {
-        double c = keys[i];
-        keys[i] = keys[j];
-        keys[j] = c;
-        int temp = values[i];
-        values[i] = values[j];
-        values[j] = temp;
-    }
-
-    @TruffleBoundary
-    private void heapSort(int[] values, double[] keys) {
-        buildheap(keys, values);
-        for (int i = keys.length - 1; i > 0; i--) {
-            exchange(keys, 0, i, values);
-            minHeapify(keys, 0, i, values);
+    /**
+     * Sorts {@code a} into descending order by heapsort and {@code ib} alongside, transcribed from
+     * GNU R src/main/sort.c function revsort.
+     */
+    private static void revsort(double[] a, int[] ib, int n) {
+        if (n <= 1) {
+            return;
+        }
+        // the indices below are 1-based like in the original code
+        int l = (n >> 1) + 1;
+        int ir = n;
+        for (;;) {
+            double ra;
+            int ii;
+            if (l > 1) {
+                l = l - 1;
+                ra = a[l - 1];
+                ii = ib[l - 1];
+            } else {
+                ra = a[ir - 1];
+                ii = ib[ir - 1];
+                a[ir - 1] = a[0];
+                ib[ir - 1] = ib[0];
+                if (--ir == 1) {
+                    a[0] = ra;
+                    ib[0] = ii;
+                    return;
+                }
+            }
+            int i = l;
+            int j = l << 1;
+            while (j <= ir) {
+                if (j < ir && a[j - 1] > a[j]) {
+                    ++j;
+                }
+                if (ra > a[j - 1]) {
+                    a[i - 1] = a[j - 1];
+                    ib[i - 1] = ib[j - 1];
+                    i = j;
+                    j += j;
+                } else {
+                    j = ir + 1;
+                }
+            }
+            a[i - 1] = ra;
+            ib[i - 1] = ii;
         }
     }
 }
@@ -38,7 +38,6 @@ import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.HashMap;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -61,6 +60,8 @@ import com.oracle.truffle.r.runtime.data.RFunction;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.StringInternTable;
+import com.oracle.truffle.r.runtime.data.StringInternTable.Deduplicator;
 import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
@@ -88,7 +89,12 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
 
     @SuppressWarnings("unused")
     private static class LocalData {
-        final HashMap<String, String> stringTable = new HashMap<>();
+        /**
+         * Shares the instances of repeated values within one call. The values are resolved one by
+         * one, so those of the deduplicator's sample are not canonical across calls, see
+         * {@link Deduplicator#deduplicate(String)}.
+         */
+        final Deduplicator deduplicator = StringInternTable.createDeduplicator();
         RAbstractStringVector naStrings = null;
         boolean quiet = false;
         char sepchar = 0; // 0 means any whitespace
@@ -541,8 +547,7 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
                     if (isNaString(buffer, 1, data)) {
                         return RRuntime.STRING_NA;
                     } else {
-                        String oldEntry = data.stringTable.putIfAbsent(buffer, buffer);
-                        return oldEntry == null ? buffer : oldEntry;
+                        return data.deduplicator == null ? buffer : data.deduplicator.deduplicate(buffer);
                     }
                 case Raw:
                     if (isNaString(buffer, 0, data)) {
@@ -25,8 +25,6 @@ package com.oracle.truffle.r.nodes.builtin.base;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
-import java.util.Arrays;
-
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -36,6 +34,7 @@ import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.nodes.builtin.base.SplitNodeGen.GetSplitNamesNodeGen;
 import com.oracle.truffle.r.nodes.helpers.RFactorNodes;
 import com.oracle.truffle.r.runtime.DSLConfig;
+import com.oracle.truffle.r.runtime.Grouping;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
@@ -64,9 +63,6 @@ public abstract class Split extends RBuiltinNode.Arg2 {
     @Child private RFactorNodes.GetLevels getLevelNode = new RFactorNodes.GetLevels();
     @Child private GetSplitNames getSplitNames = GetSplitNamesNodeGen.create();
 
-    private static final int INITIAL_SIZE = 5;
-    private static final int SCALE_FACTOR = 2;
-
     static {
         Casts.noCasts(Split.class);
     }
@@ -78,13 +74,18 @@ public abstract class Split extends RBuiltinNode.Arg2 {
         try (SequentialIterator xIter = xAccess.access(x); SequentialIterator fIter = fAccess.access(f)) {
             RStringVector names = getLevelNode.execute(f);
             int nLevels = getNLevels(names);
+            // the sizes of the groups are known upfront, so the results need not be grown
+            int[] counts = Grouping.countCodes(f, nLevels, x.getLength());
             int[] collectResultSize = new int[nLevels];
             Object[] results = new Object[nLevels];
 
             switch (xAccess.getType()) {
                 case Character: {
                     // Initialize result arrays
-                    String[][] collectResults = new String[nLevels][INITIAL_SIZE];
+                    String[][] collectResults = new String[nLevels][];
+                    for (int i = 0; i < nLevels; i++) {
+                        collectResults[i] = new String[counts[i]];
+                    }
 
                     // perform split
                     while (xAccess.next(xIter)) {
@@ -93,23 +94,23 @@ public abstract class Split extends RBuiltinNode.Arg2 {
                             // a factor is a 1-based int vector
                             int resultIndex = fAccess.getInt(fIter) - 1;
                             String[] collect = collectResults[resultIndex];
-                            if (collect.length == collectResultSize[resultIndex]) {
-                                collectResults[resultIndex] = collect = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
-                            }
                             collect[collectResultSize[resultIndex]++] = xAccess.getString(xIter);
                         }
                     }
 
                     RStringVector[] resultNames = getSplitNames.getNames(x, fAccess, fIter, nLevels, collectResultSize);
                     for (int i = 0; i < nLevels; i++) {
-                        results[i] = RDataFactory.createStringVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]), x.isComplete(),
+                        results[i] = RDataFactory.createStringVector(collectResults[i], x.isComplete(),
                                         (resultNames != null) ? resultNames[i] : null);
                     }
                     break;
                 }
                 case Complex: {
                     // Initialize result arrays
-                    double[][] collectResults = new double[nLevels][INITIAL_SIZE * 2];
+                    double[][] collectResults = new double[nLevels][];
+                    for (int i = 0; i < nLevels; i++) {
+                        collectResults[i] = new double[counts[i] * 2];
+                    }
 
                     // perform split
                     while (xAccess.next(xIter)) {
@@ -118,9 +119,6 @@ public abstract class Split extends RBuiltinNode.Arg2 {
                             // a factor is a 1-based int vector
                             int resultIndex = fAccess.getInt(fIter) - 1;
                             double[] collect = collectResults[resultIndex];
-                            if (collect.length == collectResultSize[resultIndex] * 2) {
-                                collectResults[resultIndex] = collect = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
-                            }
                             collect[collectResultSize[resultIndex] * 2] = xAccess.getComplexR(xIter);
                             collect[collectResultSize[resultIndex] * 2 + 1] = xAccess.getComplexI(xIter);
                             collectResultSize[resultIndex]++;
@@ -129,14 +127,17 @@ public abstract class Split extends RBuiltinNode.Arg2 {
 
                     RStringVector[] resultNames = getSplitNames.getNames(x, fAccess, fIter, nLevels, collectResultSize);
                     for (int i = 0; i < nLevels; i++) {
-                        results[i] = RDataFactory.createComplexVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i] * 2), x.isComplete(),
+                        results[i] = RDataFactory.createComplexVector(collectResults[i], x.isComplete(),
                                         (resultNames != null) ? resultNames[i] : null);
                     }
                     break;
                 }
                 case Double: {
                     // Initialize result arrays
-                    double[][] collectResults = new double[nLevels][INITIAL_SIZE];
+                    double[][] collectResults = new double[nLevels][];
+                    for (int i = 0; i < nLevels; i++) {
+                        collectResults[i] = new double[counts[i]];
+                    }
 
                     // perform split
                     while (xAccess.next(xIter)) {
@@ -145,23 +146,23 @@ public abstract class Split extends RBuiltinNode.Arg2 {
                             // a factor is a 1-based int vector
                             int resultIndex = fAccess.getInt(fIter) - 1;
                             double[] collect = collectResults[resultIndex];
-                            if (collect.length == collectResultSize[resultIndex]) {
-                                collectResults[resultIndex] = collect = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
-                            }
                             collect[collectResultSize[resultIndex]++] = xAccess.getDouble(xIter);
                         }
                     }
 
                     RStringVector[] resultNames = getSplitNames.getNames(x, fAccess, fIter, nLevels, collectResultSize);
                     for (int i = 0; i < nLevels; i++) {
-                        results[i] = RDataFactory.createDoubleVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]), x.isComplete(),
+                        results[i] = RDataFactory.createDoubleVector(collectResults[i], x.isComplete(),
                                         (resultNames != null) ? resultNames[i] : null);
                     }
                     break;
                 }
                 case Integer: {
                     // Initialize result arrays
-                    int[][] collectResults = new int[nLevels][INITIAL_SIZE];
+                    int[][] collectResults = new int[nLevels][];
+                    for (int i = 0; i < nLevels; i++) {
+                        collectResults[i] = new int[counts[i]];
+                    }
 
                     // perform split
                     while (xAccess.next(xIter)) {
@@ -170,23 +171,23 @@ public abstract class Split extends RBuiltinNode.Arg2 {
                             // a factor is a 1-based int vector
                             int resultIndex = fAccess.getInt(fIter) - 1;
                             int[] collect = collectResults[resultIndex];
-                            if (collect.length == collectResultSize[resultIndex]) {
-                                collectResults[resultIndex] = collect = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
-                            }
                             collect[collectResultSize[resultIndex]++] = xAccess.getInt(xIter);
                         }
                     }
 
                     RStringVector[] resultNames = getSplitNames.getNames(x, fAccess, fIter, nLevels, collectResultSize);
                     for (int i = 0; i < nLevels; i++) {
-                        results[i] = RDataFactory.createIntVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]), x.isComplete(),
+                        results[i] = RDataFactory.createIntVector(collectResults[i], x.isComplete(),
                                         (resultNames != null) ? resultNames[i] : null);
                     }
                     break;
                 }
                 case List: {
                     // Initialize result arrays
-                    Object[][] collectResults = new Object[nLevels][INITIAL_SIZE];
+                    Object[][] collectResults = new Object[nLevels][];
+                    for (int i = 0; i < nLevels; i++) {
+                        collectResults[i] = new Object[counts[i]];
+                    }
 
                     // perform split
                     while (xAccess.next(xIter)) {
@@ -195,23 +196,23 @@ public abstract class Split extends RBuiltinNode.Arg2 {
                             // a factor is a 1-based int vector
                             int resultIndex = fAccess.getInt(fIter) - 1;
                             Object[] collect = collectResults[resultIndex];
-                            if (collect.length == collectResultSize[resultIndex]) {
-                                collectResults[resultIndex] = collect = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
-                            }
                             collect[collectResultSize[resultIndex]++] = xAccess.getListElement(xIter);
                         }
                     }
 
                     RStringVector[] resultNames = getSplitNames.getNames(x, fAccess, fIter, nLevels, collectResultSize);
                     for (int i = 0; i < nLevels; i++) {
-                        results[i] = RDataFactory.createList(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]),
+                        results[i] = RDataFactory.createList(collectResults[i],
                                         (resultNames != null) ? resultNames[i] : null);
                     }
                     break;
                 }
                 case Logical: {
                     // Initialize result arrays
-                    byte[][] collectResults = new byte[nLevels][INITIAL_SIZE];
+                    byte[][] collectResults = new byte[nLevels][];
+                    for (int i = 0; i < nLevels; i++) {
+                        collectResults[i] = new byte[counts[i]];
+                    }
 
                     // perform split
                     while (xAccess.next(xIter)) {
@@ -220,23 +221,23 @@ public abstract class Split extends RBuiltinNode.Arg2 {
                             // a factor is a 1-based int vector
                             int resultIndex = fAccess.getInt(fIter) - 1;
                             byte[] collect = collectResults[resultIndex];
-                            if (collect.length == collectResultSize[resultIndex]) {
-                                collectResults[resultIndex] = collect = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
-                            }
                             collect[collectResultSize[resultIndex]++] = xAccess.getLogical(xIter);
                         }
                     }
 
                     RStringVector[] resultNames = getSplitNames.getNames(x, fAccess, fIter, nLevels, collectResultSize);
                     for (int i = 0; i < nLevels; i++) {
-                        results[i] = RDataFactory.createLogicalVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]), x.isComplete(),
+                        results[i] = RDataFactory.createLogicalVector(collectResults[i], x.isComplete(),
                                         (resultNames != null) ? resultNames[i] : null);
                     }
                     break;
                 }
                 case Raw: {
                     // Initialize result arrays
-                    byte[][] collectResults = new byte[nLevels][INITIAL_SIZE];
+                    byte[][] collectResults = new byte[nLevels][];
+                    for (int i = 0; i < nLevels; i++) {
+                        collectResults[i] = new byte[counts[i]];
+                    }
 
                     // perform split
                     while (xAccess.next(xIter)) {
@@ -245,16 +246,13 @@ public abstract class Split extends RBuiltinNode.Arg2 {
                             // a factor is a 1-based int vector
                             int resultIndex = fAccess.getInt(fIter) - 1;
                             byte[] collect = collectResults[resultIndex];
-                            if (collect.length == collectResultSize[resultIndex]) {
-                                collectResults[resultIndex] = collect = Arrays.copyOf(collect, collect.length * SCALE_FACTOR);
-                            }
                             collect[collectResultSize[resultIndex]++] = xAccess.getRaw(xIter);
                         }
                     }
 
                     RStringVector[] resultNames = getSplitNames.getNames(x, fAccess, fIter, nLevels, collectResultSize);
                     for (int i = 0; i < nLevels; i++) {
-                        results[i] = RDataFactory.createRawVector(Arrays.copyOfRange(collectResults[i], 0, collectResultSize[i]),
+                        results[i] = RDataFactory.createRawVector(collectResults[i],
                                         (resultNames != null) ? resultNames[i] : null);
                     }
                     break;
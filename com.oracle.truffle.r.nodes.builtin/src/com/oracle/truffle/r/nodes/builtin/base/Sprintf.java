@@ -64,6 +64,11 @@ public abstract class Sprintf extends RBuiltinNode.Arg2 {
 
     @Child private Sprintf sprintfRecursive;
 
+    /**
+     * The plan of the last format string formatted with vector arguments by this call site.
+     */
+    private FormatPlan cachedPlan;
+
     @Specialization
     protected RStringVector sprintf(RAbstractStringVector fmt, RList values) {
         return sprintf(fmt, new RArgsValuesAndNames(values.getReadonlyData(), ArgumentsSignature.empty(values.getLength())));
@@ -106,9 +111,12 @@ public abstract class Sprintf extends RBuiltinNode.Arg2 {
     @Specialization
     @TruffleBoundary
     protected RStringVector sprintf(String fmt, RAbstractIntVector x) {
-        String[] r = new String[x.getLength()];
-        for (int k = 0; k < r.length; k++) {
-            r[k] = format(fmt, x.getDataAt(k));
+        String[] r = getPlan(fmt).execute(new Object[]{x}, x.getLength(), false, k -> format(fmt, x.getDataAt(k)));
+        if (r == null) {
+            r = new String[x.getLength()];
+            for (int k = 0; k < r.length; k++) {
+                r[k] = format(fmt, x.getDataAt(k));
+            }
         }
         return RDataFactory.createStringVector(r, RDataFactory.COMPLETE_VECTOR);
     }
@@ -141,9 +149,13 @@ public abstract class Sprintf extends RBuiltinNode.Arg2 {
     @Specialization
     @TruffleBoundary
     protected RStringVector sprintf(String fmt, RAbstractDoubleVector x) {
-        String[] r = new String[x.getLength()];
-        for (int k = 0; k < r.length; k++) {
-            r[k] = sprintf(fmt, x.getDataAt(k));
+        char f = Character.toLowerCase(firstFormatChar(fmt));
+        String[] r = getPlan(fmt).execute(new Object[]{x}, x.getLength(), f == 'x' || f == 'd', k -> sprintf(fmt, x.getDataAt(k)));
+        if (r == null) {
+            r = new String[x.getLength()];
+            for (int k = 0; k < r.length; k++) {
+                r[k] = sprintf(fmt, x.getDataAt(k));
+            }
         }
         return RDataFactory.createStringVector(r, RDataFactory.COMPLETE_VECTOR);
     }
@@ -169,9 +181,12 @@ public abstract class Sprintf extends RBuiltinNode.Arg2 {
     @Specialization
     @TruffleBoundary
     protected RStringVector sprintf(String fmt, RAbstractStringVector x) {
-        String[] r = new String[x.getLength()];
-        for (int k = 0; k < r.length; k++) {
-            r[k] = format(fmt, x.getDataAt(k));
+        String[] r = getPlan(fmt).execute(new Object[]{x}, x.getLength(), false, k -> format(fmt, x.getDataAt(k)));
+        if (r == null) {
+            r = new String[x.getLength()];
+            for (int k = 0; k < r.length; k++) {
+                r[k] = format(fmt, x.getDataAt(k));
+            }
         }
         return RDataFactory.createStringVector(r, RDataFactory.COMPLETE_VECTOR);
     }
@@ -185,9 +200,12 @@ public abstract class Sprintf extends RBuiltinNode.Arg2 {
     @Specialization
     @TruffleBoundary
     protected RStringVector sprintf(String fmt, RAbstractLogicalVector x) {
-        String[] r = new String[x.getLength()];
-        for (int k = 0; k < r.length; k++) {
-            r[k] = format(fmt, x.getDataAt(k));
+        String[] r = getPlan(fmt).execute(new Object[]{x}, x.getLength(), false, k -> format(fmt, x.getDataAt(k)));
+        if (r == null) {
+            r = new String[x.getLength()];
+            for (int k = 0; k < r.length; k++) {
+                r[k] = format(fmt, x.getDataAt(k));
+            }
         }
         return RDataFactory.createStringVector(r, RDataFactory.COMPLETE_VECTOR);
     }
@@ -249,14 +267,25 @@ public abstract class Sprintf extends RBuiltinNode.Arg2 {
                 return RDataFactory.createStringVector(fmt);
             }
         } else {
-            String[] r = new String[maxLength];
-            for (int k = 0; k < r.length; k++) {
-                Object[] sprintfArgs = createSprintfArgs(values, k, maxLength);
-                r[k] = format(fmt, sprintfArgs);
+            String[] r = getPlan(fmt).execute(values, maxLength, false, k -> format(fmt, createSprintfArgs(values, k, maxLength)));
+            if (r == null) {
+                r = new String[maxLength];
+                for (int k = 0; k < r.length; k++) {
+                    Object[] sprintfArgs = createSprintfArgs(values, k, maxLength);
+                    r[k] = format(fmt, sprintfArgs);
+                }
             }
             return RDataFactory.createStringVector(r, RDataFactory.COMPLETE_VECTOR);
+        }
+    }
 
+    private FormatPlan getPlan(String fmt) {
+        FormatPlan plan = cachedPlan;
+        if (plan == null || !plan.isFormat(fmt)) {
+            plan = FormatPlan.compile(fmt);
+            cachedPlan = plan;
         }
+        return plan;
     }
 
     @Specialization(guards = "oneElement(args)")
@@ -507,7 +536,7 @@ public abstract class Sprintf extends RBuiltinNode.Arg2 {
     // format info parsing
     //
 
-    private static class FormatInfo {
+    static class FormatInfo {
         char conversion;
         /**
          * If set to non-negative value, gives the desired width.
@@ -551,7 +580,7 @@ public abstract class Sprintf extends RBuiltinNode.Arg2 {
      * conversion        = < one of the conversion characters, save % >
      */
     //@formatter:on
-    private static FormatInfo extractFormatInfo(char[] cs, int i, int argc) {
+    static FormatInfo extractFormatInfo(char[] cs, int i, int argc) {
         int j = i;
         FormatInfo fi = new FormatInfo();
         fi.argc = argc;
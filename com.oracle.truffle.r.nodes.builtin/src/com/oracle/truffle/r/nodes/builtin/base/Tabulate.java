@@ -26,10 +26,9 @@ import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.api.profiles.LoopConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.Grouping;
 import com.oracle.truffle.r.runtime.RError;
-import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RIntVector;
@@ -38,8 +37,6 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 @RBuiltin(name = "tabulate", kind = INTERNAL, parameterNames = {"bin", "nbins"}, behavior = PURE)
 public abstract class Tabulate extends RBuiltinNode.Arg2 {
 
-    private final LoopConditionProfile loopProfile = LoopConditionProfile.createCountingProfile();
-
     static {
         Casts casts = new Casts(Tabulate.class);
         casts.arg("bin").defaultError(RError.Message.INVALID_INPUT).mustBe(integerValue()).asIntegerVector();
@@ -48,14 +45,7 @@ public abstract class Tabulate extends RBuiltinNode.Arg2 {
 
     @Specialization
     protected RIntVector tabulate(RAbstractIntVector bin, int nBins) {
-        int[] ans = new int[nBins];
-        loopProfile.profileCounted(bin.getLength());
-        for (int i = 0; loopProfile.inject(i < bin.getLength()); i++) {
-            int currentEl = bin.getDataAt(i);
-            if (!RRuntime.isNA(currentEl) && currentEl > 0 && currentEl <= nBins) {
-                ans[currentEl - 1]++;
-            }
-        }
+        int[] ans = Grouping.countCodes(bin, nBins, bin.getLength());
         return RDataFactory.createIntVector(ans, RDataFactory.COMPLETE_VECTOR);
     }
 }
@@ -253,10 +253,21 @@ public abstract class VApply extends RBuiltinNode.Arg4 {
         }
     }
 
+    /*
+     * The convert*Vector methods store scalar results of the expected type directly, without
+     * casting them to a vector first.
+     */
+
     private double[] convertDoubleVector(Object[] values, int len) {
         double[] newArray = new double[values.length * len];
         int ind = 0;
         for (int i = 0; i < values.length; i++) {
+            if (len == 1 && values[i] instanceof Double) {
+                double val = (double) values[i];
+                naCheck.check(val);
+                newArray[ind++] = val;
+                continue;
+            }
             RAbstractDoubleVector v = (RAbstractDoubleVector) castDouble(values[i]);
             checkValueLength(v, i, len);
             for (int j = 0; j < v.getLength(); j++) {
@@ -272,6 +283,12 @@ public abstract class VApply extends RBuiltinNode.Arg4 {
         int[] newArray = new int[values.length * len];
         int ind = 0;
         for (int i = 0; i < values.length; i++) {
+            if (len == 1 && values[i] instanceof Integer) {
+                int val = (int) values[i];
+                naCheck.check(val);
+                newArray[ind++] = val;
+                continue;
+            }
             RAbstractIntVector v = (RAbstractIntVector) castInteger(values[i]);
             checkValueLength(v, i, len);
             for (int j = 0; j < v.getLength(); j++) {
@@ -287,6 +304,12 @@ public abstract class VApply extends RBuiltinNode.Arg4 {
         byte[] newArray = new byte[values.length * len];
         int ind = 0;
         for (int i = 0; i < values.length; i++) {
+            if (len == 1 && values[i] instanceof Byte) {
+                byte val = (byte) values[i];
+                naCheck.check(val);
+                newArray[ind++] = val;
+                continue;
+            }
             RAbstractLogicalVector v = (RAbstractLogicalVector) castLogical(values[i]);
             checkValueLength(v, i, len);
             for (int j = 0; j < v.getLength(); j++) {
@@ -302,6 +325,12 @@ public abstract class VApply extends RBuiltinNode.Arg4 {
         String[] newArray = new String[values.length * len];
         int ind = 0;
         for (int i = 0; i < values.length; i++) {
+            if (len == 1 && values[i] instanceof String) {
+                String val = (String) values[i];
+                naCheck.check(val);
+                newArray[ind++] = val;
+                continue;
+            }
             RAbstractStringVector v = (RAbstractStringVector) castString(values[i]);
             checkValueLength(v, i, len);
             for (int j = 0; j < v.getLength(); j++) {
@@ -52,6 +52,7 @@ import com.oracle.truffle.r.library.stats.Approx;
 import com.oracle.truffle.r.library.stats.ApproxTest;
 import com.oracle.truffle.r.library.stats.BinDist;
 import com.oracle.truffle.r.library.stats.CdistNodeGen;
+import com.oracle.truffle.r.library.stats.CdqrlsNodeGen;
 import com.oracle.truffle.r.library.stats.CompleteCases;
 import com.oracle.truffle.r.library.stats.CovcorNodeGen;
 import com.oracle.truffle.r.library.stats.CutreeNodeGen;
@@ -61,7 +62,6 @@ import com.oracle.truffle.r.library.stats.Influence;
 import com.oracle.truffle.r.library.stats.PPSum;
 import com.oracle.truffle.r.library.stats.PPSum.PPSumExternal;
 import com.oracle.truffle.r.library.stats.RMultinomNode;
-import com.oracle.truffle.r.library.stats.RandFunctionsNodes;
 import com.oracle.truffle.r.library.stats.RandFunctionsNodes.RandFunction1Node;
 import com.oracle.truffle.r.library.stats.RandFunctionsNodes.RandFunction2Node;
 import com.oracle.truffle.r.library.stats.RandFunctionsNodes.RandFunction3Node;
@@ -89,14 +89,12 @@ import com.oracle.truffle.r.library.utils.RprofmemNodeGen;
 import com.oracle.truffle.r.library.utils.TypeConvertNodeGen;
 import com.oracle.truffle.r.library.utils.UnzipNodeGen;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
-import com.oracle.truffle.r.nodes.builtin.RInternalCodeBuiltinNode;
 import com.oracle.truffle.r.nodes.builtin.base.foreign.CallAndExternalFunctions.DotExternal.CallNamedFunctionNode;
 import com.oracle.truffle.r.nodes.function.call.RExplicitCallNode;
 import com.oracle.truffle.r.nodes.helpers.MaterializeNode;
 import com.oracle.truffle.r.nodes.objects.GetPrimNameNodeGen;
 import com.oracle.truffle.r.nodes.objects.NewObjectNodeGen;
 import com.oracle.truffle.r.runtime.RError;
-import com.oracle.truffle.r.runtime.RInternalCode;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.builtins.RBehavior;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
@@ -330,6 +328,8 @@ public class CallAndExternalFunctions {
 
                 case "fft":
                     return FftNodeGen.create();
+                case "mvfft":
+                    return MvfftNodeGen.create();
                 case "cov":
                     return CovcorNodeGen.create(false);
                 case "cor":
@@ -542,9 +542,6 @@ public class CallAndExternalFunctions {
                     return BinDist.create();
                 case "influence":
                     return Influence.create();
-                case "mvfft":
-                    // TODO: only transforms arguments and then calls already ported fft
-                    return new UnimplementedExternal(name);
                 case "nextn":
                     // TODO: do not want to pull in fourier.c, should be simple to port
                     return new UnimplementedExternal(name);
@@ -581,7 +578,7 @@ public class CallAndExternalFunctions {
                     return getExternalModelBuiltinNode("updateform");
 
                 case "Cdqrls":
-                    return new RInternalCodeBuiltinNode("stats", RInternalCode.loadSourceRelativeTo(RandFunctionsNodes.class, "lm.R"), "Cdqrls");
+                    return CdqrlsNodeGen.create();
 
                 case "dnorm":
                     return StatsFunctionsNodes.Function3_1Node.create(new DNorm());
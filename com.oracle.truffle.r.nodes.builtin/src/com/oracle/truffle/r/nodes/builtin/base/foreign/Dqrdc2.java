@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base.foreign;
+
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
+import com.oracle.truffle.r.runtime.RError.Message;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.appl.Linpack;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+
+/**
+ * The {@code .Fortran(.F_dqrdc2, ...)} call of {@code qr.default}, which is computed by the Java
+ * port of the LINPACK routine. Like the generic {@code .Fortran} call, the result is the list of
+ * the arguments with the values of the output arguments replaced.
+ */
+public abstract class Dqrdc2 extends RExternalBuiltinNode.Arg9 {
+
+    static {
+        Casts casts = new Casts(Dqrdc2.class);
+        casts.arg(0).mustNotBeMissing().asDoubleVector(true, true, true);
+        casts.arg(1).asIntegerVector().findFirst();
+        casts.arg(2).asIntegerVector().findFirst();
+        casts.arg(3).asIntegerVector().findFirst();
+        casts.arg(4).asDoubleVector().findFirst();
+        casts.arg(5).asIntegerVector(true, true, true);
+        casts.arg(6).asDoubleVector(true, true, true);
+        casts.arg(7).asIntegerVector(true, true, true);
+        casts.arg(8).asDoubleVector(true, true, true);
+    }
+
+    @Specialization
+    protected Object dqrdc2(RAbstractDoubleVector xVec, int ldx, int n, int p, double tol, RAbstractIntVector rankVec, RAbstractDoubleVector qrauxVec, RAbstractIntVector pivotVec,
+                    RAbstractDoubleVector workVec) {
+        if (ldx < n || n < 0 || p < 0 || (long) ldx * p > xVec.getLength() || rankVec.getLength() < 1 || qrauxVec.getLength() < p || pivotVec.getLength() < p || workVec.getLength() < 2 * p) {
+            throw error(Message.INCORRECT_ARG, "dqrdc2");
+        }
+        double[] x = xVec.materialize().getDataCopy();
+        for (double value : x) {
+            if (!RRuntime.isFinite(value)) {
+                throw error(Message.NA_NAN_INF_IN_FOREIGN_FUNCTION_CALL, 1);
+            }
+        }
+        if (!RRuntime.isFinite(tol)) {
+            throw error(Message.NA_NAN_INF_IN_FOREIGN_FUNCTION_CALL, 5);
+        }
+        double[] qraux = qrauxVec.materialize().getDataCopy();
+        int[] pivot = pivotVec.materialize().getDataCopy();
+        double[] work = workVec.materialize().getDataCopy();
+        int[] rank = rankVec.materialize().getDataCopy();
+
+        rank[0] = Linpack.dqrdc2(x, ldx, n, p, tol, qraux, pivot, work);
+
+        RDoubleVector resultX = RDataFactory.createDoubleVector(x, RDataFactory.COMPLETE_VECTOR);
+        resultX.copyAttributesFrom(xVec);
+        RIntVector resultRank = RDataFactory.createIntVector(rank, RDataFactory.COMPLETE_VECTOR);
+        resultRank.copyAttributesFrom(rankVec);
+        RDoubleVector resultQraux = RDataFactory.createDoubleVector(qraux, RDataFactory.COMPLETE_VECTOR);
+        resultQraux.copyAttributesFrom(qrauxVec);
+        RIntVector resultPivot = RDataFactory.createIntVector(pivot, pivotVec.isComplete());
+        resultPivot.copyAttributesFrom(pivotVec);
+        RDoubleVector resultWork = RDataFactory.createDoubleVector(work, workVec.isComplete());
+        resultWork.copyAttributesFrom(workVec);
+        return RDataFactory.createList(new Object[]{resultX, ldx, n, p, tol, resultRank, resultQraux, resultPivot, resultWork});
+    }
+}
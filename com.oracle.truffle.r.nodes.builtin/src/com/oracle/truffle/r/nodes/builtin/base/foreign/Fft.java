@@ -19,19 +19,30 @@
  */
 package com.oracle.truffle.r.nodes.builtin.base.foreign;
 
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.asComplexVector;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.doubleValue;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.nullValue;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.library.stats.FftPlan;
 import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.GetDimAttributeNode;
 import com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
-import com.oracle.truffle.r.runtime.ffi.StatsRFFI;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 
+/**
+ * The transforms are done by {@link FftPlan}, the real input is converted directly to the
+ * interleaved complex array that is transformed.
+ */
 public abstract class Fft extends RExternalBuiltinNode.Arg2 {
 
     private final ConditionProfile zVecLgt1 = ConditionProfile.createBinaryProfile();
@@ -39,54 +50,62 @@ public abstract class Fft extends RExternalBuiltinNode.Arg2 {
 
     static {
         Casts casts = new Casts(Fft.class);
-        casts.arg(0).mustNotBeMissing().mustBe(nullValue().not()).asComplexVector(false, true, false);
+        casts.arg(0).mustNotBeMissing().mustBe(nullValue().not()).mapIf(doubleValue().not(), asComplexVector(false, true, false));
         casts.arg(1).mustNotBeNull().asLogicalVector().findFirst().map(Predef.toBoolean());
     }
 
-    @Child private StatsRFFI.FactorNode factorNode = StatsRFFI.FactorNode.create();
-    @Child private StatsRFFI.SetupWorkNode setupWorkNode = StatsRFFI.SetupWorkNode.create();
-
-    // TODO: handle more argument types (this is sufficient to run the b25 benchmarks)
     @Specialization
     public Object execute(RAbstractComplexVector zVec, boolean inverse,
                     @Cached("create()") GetDimAttributeNode getDimNode) {
-        double[] z = zVec.getDataTemp();
-        int inv = inverse ? 2 : -2;
         int[] d = getDimNode.getDimensions(zVec);
-        if (zVecLgt1.profile(zVec.getLength() > 1)) {
-            int[] maxf = new int[1];
-            int[] maxp = new int[1];
+        double[] z = zVec.getDataTemp();
+        transform(z, zVec.getLength(), d, inverse);
+        return RDataFactory.createComplexVector(z, zVec.isComplete(), d);
+    }
+
+    @Specialization
+    public Object execute(RAbstractDoubleVector xVec, boolean inverse,
+                    @Cached("create()") GetDimAttributeNode getDimNode) {
+        int[] d = getDimNode.getDimensions(xVec);
+        double[] z = toComplexData(xVec);
+        transform(z, xVec.getLength(), d, inverse);
+        return RDataFactory.createComplexVector(z, xVec.isComplete(), d);
+    }
+
+    /**
+     * Converts the real vector to the interleaved data of a complex vector like the coercion to
+     * complex does.
+     */
+    static double[] toComplexData(RAbstractDoubleVector xVec) {
+        int length = xVec.getLength();
+        double[] z = new double[length << 1];
+        for (int i = 0; i < length; i++) {
+            double value = xVec.getDataAt(i);
+            if (RRuntime.isNA(value)) {
+                z[i << 1] = RRuntime.COMPLEX_NA_REAL_PART;
+                z[(i << 1) + 1] = RRuntime.COMPLEX_NA_IMAGINARY_PART;
+            } else {
+                z[i << 1] = value;
+            }
+        }
+        return z;
+    }
+
+    private void transform(double[] z, int length, int[] d, boolean inverse) {
+        if (zVecLgt1.profile(length > 1)) {
             if (noDims.profile(d == null)) {
-                int n = zVec.getLength();
-                factorNode.execute(n, maxf, maxp);
-                if (maxf[0] == 0) {
-                    throw error(RError.Message.FFT_FACTORIZATION);
-                }
-                double[] work = new double[4 * maxf[0]];
-                int[] iwork = new int[maxp[0]];
-                setupWorkNode.execute(z, 1, n, 1, inv, work, iwork);
+                getPlan(length).transformSegments(z, 1, 1, inverse, false);
             } else {
-                int maxmaxf = 1;
-                int maxmaxp = 1;
                 int ndims = d.length;
-                /* do whole loop just for error checking and maxmax[fp] .. */
+                /* do whole loop just for error checking */
+                FftPlan[] plans = new FftPlan[ndims];
                 for (int i = 0; i < ndims; i++) {
                     if (d[i] > 1) {
-                        factorNode.execute(d[i], maxf, maxp);
-                        if (maxf[0] == 0) {
-                            throw error(RError.Message.FFT_FACTORIZATION);
-                        }
-                        if (maxf[0] > maxmaxf) {
-                            maxmaxf = maxf[0];
-                        }
-                        if (maxp[0] > maxmaxp) {
-                            maxmaxp = maxp[0];
-                        }
+                        plans[i] = getPlan(d[i]);
                     }
                 }
-                double[] work = new double[4 * maxmaxf];
-                int[] iwork = new int[maxmaxp];
-                int nseg = zVec.getLength();
+                boolean parallel = isParallel();
+                int nseg = length;
                 int n = 1;
                 int nspn = 1;
                 for (int i = 0; i < ndims; i++) {
@@ -94,12 +113,23 @@ public abstract class Fft extends RExternalBuiltinNode.Arg2 {
                         nspn *= n;
                         n = d[i];
                         nseg /= n;
-                        factorNode.execute(n, maxf, maxp);
-                        setupWorkNode.execute(z, nseg, n, nspn, inv, work, iwork);
+                        plans[i].transformSegments(z, nseg, nspn, inverse, parallel);
                     }
                 }
             }
         }
-        return RDataFactory.createComplexVector(z, zVec.isComplete(), d);
+    }
+
+    private FftPlan getPlan(int n) {
+        FftPlan plan = FftPlan.get(n);
+        if (plan == null) {
+            throw error(RError.Message.FFT_FACTORIZATION);
+        }
+        return plan;
+    }
+
+    @TruffleBoundary
+    static boolean isParallel() {
+        return RContext.getInstance().getOption(FastROptions.ParallelFft);
     }
 }
@@ -99,7 +99,12 @@ public class FortranAndCFunctions {
         @Override
         @TruffleBoundary
         public RExternalBuiltinNode lookupBuiltin(RList symbol) {
-            return null;
+            switch (LookupAdapter.lookupName(symbol)) {
+                case "dqrdc2":
+                    return Dqrdc2NodeGen.create();
+                default:
+                    return null;
+            }
         }
 
         @SuppressWarnings("unused")
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 1995-2012, The R Core Team
+ * Copyright (c) 2003, The R Foundation
+ * Copyright (c) 2019, Oracle and/or its affiliates
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, a copy is available at
+ * https://www.R-project.org/Licenses/
+ */
+package com.oracle.truffle.r.nodes.builtin.base.foreign;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.asComplexVector;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.complexValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.doubleValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.numericValue;
+
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.library.stats.FftPlan;
+import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.GetDimAttributeNode;
+import com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef;
+import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.data.RComplexVector;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * Transforms each column of a matrix, the columns are independent series and can be transformed in
+ * parallel.
+ */
+public abstract class Mvfft extends RExternalBuiltinNode.Arg2 {
+
+    static {
+        Casts casts = new Casts(Mvfft.class);
+        casts.arg(0).mustNotBeMissing().mustBe(numericValue().or(complexValue()), RError.Message.NON_NUMERIC_ARGUMENT).mapIf(doubleValue().not(),
+                        asComplexVector(true, true, true));
+        casts.arg(1).mustNotBeNull().asLogicalVector().findFirst().map(Predef.toBoolean(false));
+    }
+
+    @Specialization
+    public Object execute(RAbstractComplexVector zVec, boolean inverse,
+                    @Cached("create()") GetDimAttributeNode getDimNode) {
+        return transform(zVec, zVec.getDataTemp(), inverse, getDimNode);
+    }
+
+    @Specialization
+    public Object execute(RAbstractDoubleVector xVec, boolean inverse,
+                    @Cached("create()") GetDimAttributeNode getDimNode) {
+        return transform(xVec, Fft.toComplexData(xVec), inverse, getDimNode);
+    }
+
+    private Object transform(RAbstractVector vector, double[] z, boolean inverse, GetDimAttributeNode getDimNode) {
+        int[] d = getDimNode.getDimensions(vector);
+        if (d == null || d.length != 2) {
+            throw error(RError.Message.MULTIVARIATE_SERIES_REQUIRED);
+        }
+        int n = d[0];
+        if (n > 1) {
+            FftPlan plan = FftPlan.get(n);
+            if (plan == null) {
+                throw error(RError.Message.FFT_FACTORIZATION);
+            }
+            plan.transformSegments(z, d[1], 1, inverse, Fft.isParallel());
+        }
+        RComplexVector result = RDataFactory.createComplexVector(z, vector.isComplete());
+        result.copyAttributesFrom(vector);
+        return result;
+    }
+}
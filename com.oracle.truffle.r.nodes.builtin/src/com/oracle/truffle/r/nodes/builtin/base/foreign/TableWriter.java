@@ -0,0 +1,574 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base.foreign;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.nodes.builtin.base.printer.DoubleVectorPrinter;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.conn.ConnectionSupport.BaseRConnection;
+import com.oracle.truffle.r.runtime.conn.ConnectionSupport.ConnectionClass;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * Encodes the rows of a data frame or matrix for {@code write.table}. The cells are encoded
+ * directly into a reusable character buffer, {@link #BLOCK_ROWS} rows at a time, and every block
+ * is written to the connection at once. For file connections the block is converted to bytes in a
+ * reusable buffer and written as binary data. Large tables are encoded in parallel,
+ * several blocks at a time, and the blocks are then written in their order.
+ *
+ * Doubles that have a representation with at most 15 significant digits which reads back as the
+ * same value (the common case) are formatted without any allocation. All other doubles go through
+ * {@link DoubleVectorPrinter#encodeRealScalar(double, int)}, which produces the same output.
+ */
+final class TableWriter {
+
+    private static final int BLOCK_ROWS = 1 << 12;
+
+    private static final int DIGITS = 15;
+    private static final long[] LONG_POWERS_OF_TEN = new long[DIGITS + 1];
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        LONG_POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < LONG_POWERS_OF_TEN.length; i++) {
+            LONG_POWERS_OF_TEN[i] = LONG_POWERS_OF_TEN[i - 1] * 10;
+        }
+        // all powers of ten up to 10^22 are exact doubles
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final Column rowNames;
+    private final Column[] columns;
+    private final String sep;
+    private final String eol;
+
+    /**
+     * @param rowNames the column of row names or {@code null} if there are none
+     */
+    TableWriter(Column rowNames, Column[] columns, String sep, String eol) {
+        this.rowNames = rowNames;
+        this.columns = columns;
+        this.sep = sep;
+        this.eol = eol;
+    }
+
+    /**
+     * Writes {@code nr} rows to the connection. The blocks are encoded in parallel if
+     * {@code parallel} is set, there is more than one block and all columns can be encoded outside
+     * of the context's thread.
+     */
+    @TruffleBoundary
+    void write(BaseRConnection con, int nr, boolean parallel) throws IOException {
+        Charset charset = writesToChannel(con) ? con.getEncoding() : null;
+        int blockCount = (nr + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        int width = 1;
+        if (parallel && blockCount > 1 && isThreadSafe()) {
+            width = Math.min(blockCount, Runtime.getRuntime().availableProcessors());
+        }
+        Block[] blocks = new Block[width];
+        for (int i = 0; i < width; i++) {
+            blocks[i] = new Block();
+        }
+        for (int first = 0; first < blockCount; first += width) {
+            int count = Math.min(width, blockCount - first);
+            int start = first;
+            if (count == 1) {
+                encode(blocks[0], start, nr, charset);
+            } else {
+                IntStream.range(0, count).parallel().forEach(b -> encode(blocks[b], start + b, nr, charset));
+            }
+            for (int b = 0; b < count; b++) {
+                if (charset != null) {
+                    blocks[b].writeBytes(con);
+                } else {
+                    con.writeString(blocks[b].toString(), false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Only the file connections write strings as bytes to their channel, the others (e.g.
+     * {@code stdout} with its diversions or text connections) need to get the strings.
+     */
+    private static boolean writesToChannel(BaseRConnection con) {
+        ConnectionClass conClass = con.getConnectionClass();
+        return conClass == ConnectionClass.File || conClass == ConnectionClass.GZFile || conClass == ConnectionClass.BZFile || conClass == ConnectionClass.XZFile;
+    }
+
+    private boolean isThreadSafe() {
+        if (rowNames != null && !rowNames.isThreadSafe()) {
+            return false;
+        }
+        for (Column column : columns) {
+            if (!column.isThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void encode(Block block, int blockIndex, int nr, Charset charset) {
+        block.clear();
+        int from = blockIndex * BLOCK_ROWS;
+        int to = Math.min(nr, from + BLOCK_ROWS);
+        for (int i = from; i < to; i++) {
+            if (rowNames != null) {
+                rowNames.encode(i, block);
+                block.append(sep);
+            }
+            for (int j = 0; j < columns.length; j++) {
+                if (j > 0) {
+                    block.append(sep);
+                }
+                columns[j].encode(i, block);
+            }
+            block.append(eol);
+        }
+        if (charset != null) {
+            block.encodeBytes(charset);
+        }
+    }
+
+    /**
+     * Returns the elements of the vector as a Java array, {@code double[]}, {@code int[]},
+     * {@code byte[]} (logicals) or {@code String[]}, or {@code null} for other types of vectors.
+     * The array must not be modified.
+     */
+    static Object getData(RAbstractVector x) {
+        if (x instanceof RAbstractDoubleVector) {
+            return ((RAbstractDoubleVector) x).getReadonlyData();
+        } else if (x instanceof RAbstractIntVector) {
+            return ((RAbstractIntVector) x).getReadonlyData();
+        } else if (x instanceof RAbstractLogicalVector) {
+            return ((RAbstractLogicalVector) x).getReadonlyData();
+        } else if (x instanceof RAbstractStringVector) {
+            return getStrings((RAbstractStringVector) x);
+        }
+        return null;
+    }
+
+    private static String[] getStrings(RAbstractStringVector x) {
+        return x instanceof RStringVector ? ((RStringVector) x).getReadonlyStringData() : x.getDataCopy();
+    }
+
+    /**
+     * Creates the column of the elements {@code offset..offset + nr - 1} of {@code data} as
+     * returned by {@link #getData(RAbstractVector)}.
+     */
+    static Column createColumn(Object data, int offset, boolean quote, boolean qmethod, String na) {
+        if (data instanceof double[]) {
+            return new DoubleColumn((double[]) data, offset, na);
+        } else if (data instanceof int[]) {
+            return new IntColumn((int[]) data, offset, na);
+        } else if (data instanceof byte[]) {
+            return new LogicalColumn((byte[]) data, offset, na);
+        } else {
+            return new StringColumn((String[]) data, offset, quote, qmethod, na);
+        }
+    }
+
+    static Column createFactorColumn(RAbstractIntVector codes, RStringVector levels, boolean quote, boolean qmethod, String na) {
+        return new FactorColumn(codes.getReadonlyData(), levels.getReadonlyStringData(), quote, qmethod, na);
+    }
+
+    /**
+     * Row names are written as they are, {@code NA} row names are not replaced.
+     */
+    static Column createRowNamesColumn(RAbstractStringVector rowNames, boolean quote, boolean qmethod) {
+        return new StringColumn(getStrings(rowNames), 0, quote, qmethod, null);
+    }
+
+    /**
+     * Creates a column that encodes its cells with the given function. Such columns are always
+     * encoded on the context's thread.
+     */
+    static Column createGenericColumn(IntFunction<String> encoder) {
+        return new GenericColumn(encoder);
+    }
+
+    abstract static class Column {
+
+        abstract void encode(int row, Block out);
+
+        boolean isThreadSafe() {
+            return true;
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+        private final double[] data;
+        private final int offset;
+        private final String na;
+
+        DoubleColumn(double[] data, int offset, String na) {
+            this.data = data;
+            this.offset = offset;
+            this.na = na;
+        }
+
+        @Override
+        void encode(int row, Block out) {
+            double value = data[offset + row];
+            if (RRuntime.isNA(value)) {
+                out.append(na);
+            } else {
+                out.appendDouble(value);
+            }
+        }
+    }
+
+    private static final class IntColumn extends Column {
+        private final int[] data;
+        private final int offset;
+        private final String na;
+
+        IntColumn(int[] data, int offset, String na) {
+            this.data = data;
+            this.offset = offset;
+            this.na = na;
+        }
+
+        @Override
+        void encode(int row, Block out) {
+            int value = data[offset + row];
+            if (RRuntime.isNA(value)) {
+                out.append(na);
+            } else {
+                out.appendInt(value);
+            }
+        }
+    }
+
+    private static final class LogicalColumn extends Column {
+        private final byte[] data;
+        private final int offset;
+        private final String na;
+
+        LogicalColumn(byte[] data, int offset, String na) {
+            this.data = data;
+            this.offset = offset;
+            this.na = na;
+        }
+
+        @Override
+        void encode(int row, Block out) {
+            byte value = data[offset + row];
+            if (RRuntime.isNA(value)) {
+                out.append(na);
+            } else {
+                out.append(value == RRuntime.LOGICAL_TRUE ? "TRUE" : "FALSE");
+            }
+        }
+    }
+
+    private static final class StringColumn extends Column {
+        private final String[] data;
+        private final int offset;
+        private final boolean quote;
+        private final boolean qmethod;
+        private final String na;
+
+        StringColumn(String[] data, int offset, boolean quote, boolean qmethod, String na) {
+            this.data = data;
+            this.offset = offset;
+            this.quote = quote;
+            this.qmethod = qmethod;
+            this.na = na;
+        }
+
+        @Override
+        void encode(int row, Block out) {
+            String value = data[offset + row];
+            if (na != null && RRuntime.isNA(value)) {
+                out.append(na);
+            } else {
+                out.appendString(value, quote, qmethod);
+            }
+        }
+    }
+
+    private static final class FactorColumn extends Column {
+        private final int[] codes;
+        private final String[] levels;
+        private final boolean quote;
+        private final boolean qmethod;
+        private final String na;
+
+        FactorColumn(int[] codes, String[] levels, boolean quote, boolean qmethod, String na) {
+            this.codes = codes;
+            this.levels = levels;
+            this.quote = quote;
+            this.qmethod = qmethod;
+            this.na = na;
+        }
+
+        @Override
+        void encode(int row, Block out) {
+            int code = codes[row];
+            if (RRuntime.isNA(code)) {
+                out.append(na);
+            } else {
+                if (code < 1 || code > levels.length) {
+                    throw new IllegalArgumentException("index out of range");
+                }
+                out.appendString(levels[code - 1], quote, qmethod);
+            }
+        }
+    }
+
+    private static final class GenericColumn extends Column {
+        private final IntFunction<String> encoder;
+
+        GenericColumn(IntFunction<String> encoder) {
+            this.encoder = encoder;
+        }
+
+        @Override
+        void encode(int row, Block out) {
+            out.append(encoder.apply(row));
+        }
+
+        @Override
+        boolean isThreadSafe() {
+            return false;
+        }
+    }
+
+    /**
+     * A growable character buffer for the encoded rows of one block and, for file connections, the
+     * same rows encoded as bytes.
+     */
+    static final class Block {
+        private char[] chars = new char[8192];
+        private int length;
+        private CharsetEncoder encoder;
+        private ByteBuffer bytes;
+
+        void clear() {
+            length = 0;
+        }
+
+        private void ensureCapacity(int n) {
+            if (length + n > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + n));
+            }
+        }
+
+        void append(char c) {
+            ensureCapacity(1);
+            chars[length++] = c;
+        }
+
+        void append(String s) {
+            int n = s.length();
+            ensureCapacity(n);
+            s.getChars(0, n, chars, length);
+            length += n;
+        }
+
+        void appendString(String s, boolean quote, boolean qmethod) {
+            if (!quote) {
+                append(s);
+                return;
+            }
+            append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '"') {
+                    append(qmethod ? '\\' : '"');
+                }
+                append(c);
+            }
+            append('"');
+        }
+
+        void appendInt(int value) {
+            assert !RRuntime.isNA(value);
+            if (value < 0) {
+                append('-');
+            }
+            long v = Math.abs((long) value);
+            appendDigits(v, digitCount(v));
+        }
+
+        /**
+         * Appends exactly {@code count} decimal digits of {@code value}, padded with leading zeros.
+         */
+        private void appendDigits(long value, int count) {
+            ensureCapacity(count);
+            long v = value;
+            for (int pos = length + count - 1; pos >= length; pos--) {
+                chars[pos] = (char) ('0' + (v % 10));
+                v /= 10;
+            }
+            length += count;
+        }
+
+        private static int digitCount(long value) {
+            int count = 1;
+            for (long v = value; v >= 10; v /= 10) {
+                count++;
+            }
+            return count;
+        }
+
+        void appendDouble(double value) {
+            if (!appendShortDouble(value)) {
+                append(DoubleVectorPrinter.encodeRealScalar(value, DIGITS));
+            }
+        }
+
+        /**
+         * Formats {@code value} like {@code encodeReal} with 15 digits, i.e. with the 15 significant
+         * digits rounded value in fixed notation unless the scientific notation is shorter. This is
+         * only done if the value reads back from the (at most) 15 digits, because then these digits
+         * are the exact rounding of the value and any correct formatting produces them. Otherwise
+         * nothing is appended and {@code false} is returned.
+         */
+        private boolean appendShortDouble(double value) {
+            if (value == 0) {
+                // also -0
+                append('0');
+                return true;
+            }
+            if (!RRuntime.isFinite(value)) {
+                return false;
+            }
+            double r = Math.abs(value);
+            int scale = DIGITS - 1 - (int) Math.floor(Math.log10(r));
+            if (scale < -22 || scale > 22) {
+                return false;
+            }
+            long mantissa = Math.round(scale >= 0 ? r * POWERS_OF_TEN[scale] : r / POWERS_OF_TEN[-scale]);
+            if (mantissa < LONG_POWERS_OF_TEN[DIGITS - 1] || mantissa >= LONG_POWERS_OF_TEN[DIGITS]) {
+                return false;
+            }
+            int exponent = -scale;
+            int nsig = DIGITS;
+            while (mantissa % 10 == 0) {
+                mantissa /= 10;
+                exponent++;
+                nsig--;
+            }
+            // both operands are exact, so this is the correctly rounded value of the decimal
+            if (exponent > 22 || (exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent]) != r) {
+                return false;
+            }
+            int kpower = exponent + nsig - 1;
+            assert kpower > -100 && kpower < 100;
+            int neg = value < 0 ? 1 : 0;
+            int left = kpower + 1;
+            int rgt = Math.max(nsig - left, 0);
+            int widthF = neg + (left <= 0 ? 1 : left) + rgt + (rgt != 0 ? 1 : 0);
+            int d = nsig - 1;
+            int widthE = neg + (d > 0 ? 1 : 0) + d + 4 + 1;
+            if (neg != 0) {
+                append('-');
+            }
+            if (widthF <= widthE) {
+                if (exponent >= 0) {
+                    appendDigits(mantissa, nsig);
+                    appendDigits(0, exponent);
+                } else if (rgt >= nsig) {
+                    append('0');
+                    append('.');
+                    appendDigits(mantissa, rgt);
+                } else {
+                    long unit = LONG_POWERS_OF_TEN[rgt];
+                    appendDigits(mantissa / unit, nsig - rgt);
+                    append('.');
+                    appendDigits(mantissa % unit, rgt);
+                }
+            } else {
+                long unit = LONG_POWERS_OF_TEN[d];
+                appendDigits(mantissa / unit, 1);
+                if (d > 0) {
+                    append('.');
+                    appendDigits(mantissa % unit, d);
+                }
+                append('e');
+                append(kpower < 0 ? '-' : '+');
+                appendDigits(Math.abs(kpower), 2);
+            }
+            return true;
+        }
+
+        void encodeBytes(Charset charset) {
+            if (encoder == null || !encoder.charset().equals(charset)) {
+                encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+            }
+            int capacity = (int) Math.ceil(length * (double) encoder.maxBytesPerChar());
+            if (bytes == null || bytes.capacity() < capacity) {
+                bytes = ByteBuffer.allocate(Math.max(capacity, 8192));
+            }
+            bytes.clear();
+            encoder.reset();
+            CharBuffer in = CharBuffer.wrap(chars, 0, length);
+            CoderResult result = encoder.encode(in, bytes, true);
+            if (result.isUnderflow()) {
+                result = encoder.flush(bytes);
+            }
+            if (!result.isUnderflow()) {
+                // errors are replaced and the buffer is large enough
+                throw RInternalError.shouldNotReachHere("unexpected encoder result " + result);
+            }
+            bytes.flip();
+        }
+
+        /**
+         * Writes the bytes with {@code writeBin}, so that the connection keeps track of its write
+         * position and its cache.
+         */
+        void writeBytes(BaseRConnection con) throws IOException {
+            while (bytes.hasRemaining()) {
+                con.writeBin(bytes);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+    }
+}
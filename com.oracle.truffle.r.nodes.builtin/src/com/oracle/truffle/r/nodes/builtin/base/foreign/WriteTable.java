@@ -36,7 +36,10 @@ import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.conn.ConnectionSupport.BaseRConnection;
 import com.oracle.truffle.r.runtime.conn.RConnection;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RAttributable;
 import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RNull;
@@ -96,9 +99,18 @@ public abstract class WriteTable extends RExternalBuiltinNode.Arg11 {
                 quoteCol[qi - 1] = true;
             }
         }
-        try (RConnection con = RConnection.fromIndex(file).forceOpen("wt")) {
+        try (BaseRConnection con = RConnection.fromIndex(file).forceOpen("wt")) {
+            TableWriter.Column rowNames = null;
+            if (!(rnames instanceof RNull)) {
+                RAbstractStringVector rn = (RAbstractStringVector) rnames;
+                if (rn.getLength() < nr) {
+                    throw new IllegalArgumentException("index out of range");
+                }
+                rowNames = TableWriter.createRowNamesColumn(rn, quoteRn, qmethod);
+            }
+            TableWriter.Column[] columns;
             if (xx instanceof RAttributable && ClassHierarchyNode.hasClass((RAttributable) xx, RRuntime.CLASS_DATA_FRAME)) {
-                executeDataFrame(con, (RAbstractVector) xx, nr, nc, rnames, csep, ceol, cna, cdec, qmethod, quoteCol, quoteRn);
+                columns = createDataFrameColumns((RAbstractVector) xx, nr, nc, cna, cdec, qmethod, quoteCol, quoteRn);
             } else { /* A matrix */
 
                 // if (!isVectorAtomic(x))
@@ -108,91 +120,58 @@ public abstract class WriteTable extends RExternalBuiltinNode.Arg11 {
                 if (x.getLength() != nr * nc) {
                     throw new IllegalArgumentException("corrupt matrix -- dims not not match length");
                 }
-
-                StringBuilder tmp = new StringBuilder();
-                for (int i = 0; i < nr; i++) {
-                    if (!(rnames instanceof RNull)) {
-                        tmp.append(encodeElement2((RAbstractStringVector) rnames, i, quoteRn, qmethod, cdec));
-                        tmp.append(csep);
-                    }
-                    for (int j = 0; j < nc; j++) {
-                        if (j > 0) {
-                            tmp.append(csep);
-                        }
-                        if (isna(x, i + j * nr)) {
-                            tmp.append(cna);
-                        } else {
-                            tmp.append(encodeElement2(x, i + j * nr, quoteCol[j], qmethod, cdec));
-                            /* if(cdec) change_dec(tmp, cdec, TYPEOF(x)); */
-                        }
+                columns = new TableWriter.Column[nc];
+                Object data = TableWriter.getData(x);
+                for (int j = 0; j < nc; j++) {
+                    int offset = j * nr;
+                    boolean quoteJ = quoteCol[j];
+                    if (data != null) {
+                        columns[j] = TableWriter.createColumn(data, offset, quoteJ, qmethod, cna);
+                    } else {
+                        columns[j] = TableWriter.createGenericColumn(i -> isna(x, i + offset) ? cna : encodeElement2(x, i + offset, quoteJ, qmethod, cdec));
+                        /* if(cdec) change_dec(tmp, cdec, TYPEOF(x)); */
                     }
-                    tmp.append(ceol);
-                    con.writeString(tmp.toString(), false);
-                    tmp.setLength(0);
                 }
             }
+            new TableWriter(rowNames, columns, csep, ceol).write(con, nr, RContext.getInstance().getOption(FastROptions.ParallelWriteTable));
         } catch (IOException | IllegalArgumentException ex) {
             throw RError.error(RError.SHOW_CALLER, RError.Message.GENERIC, ex.getMessage());
         }
         return RNull.instance;
     }
 
-    private static void executeDataFrame(RConnection con, RAbstractVector x, int nr, int nc, Object rnames, String csep, String ceol, String cna, char cdec, boolean qmethod, boolean[] quoteCol,
-                    boolean quoteRn)
-                    throws IOException {
+    private static TableWriter.Column[] createDataFrameColumns(RAbstractVector x, int nr, int nc, String cna, char cdec, boolean qmethod, boolean[] quoteCol, boolean quoteRn) {
 
         /* handle factors internally, check integrity */
-        RStringVector[] levels = new RStringVector[nc];
+        TableWriter.Column[] columns = new TableWriter.Column[nc];
         for (int j = 0; j < nc; j++) {
             Object xjObj = x.getDataAtAsObject(j);
+            boolean quoteJ = quoteCol[j];
             if (xjObj instanceof RAbstractContainer) {
                 RAbstractContainer xj = (RAbstractContainer) xjObj;
                 if (xj.getLength() != nr) {
                     throw new IllegalArgumentException("corrupt data frame -- length of column " + (j + 1) + " does not not match nrows");
                 }
                 if (isFactor(xj)) {
-                    levels[j] = (RStringVector) xj.getAttributes().get("levels");
+                    RStringVector levels = (RStringVector) xj.getAttributes().get("levels");
+                    columns[j] = TableWriter.createFactorColumn((RAbstractIntVector) xj, levels, quoteJ, qmethod, cna);
+                    continue;
+                }
+                Object data = xj instanceof RAbstractVector ? TableWriter.getData((RAbstractVector) xj) : null;
+                if (data != null) {
+                    columns[j] = TableWriter.createColumn(data, 0, quoteJ, qmethod, cna);
+                } else {
+                    columns[j] = TableWriter.createGenericColumn(i -> isna(xj, i) ? cna : encodeElement2((RAbstractVector) xj, i, quoteJ, qmethod, cdec));
+                    /* if(cdec) change_dec(tmp, cdec, TYPEOF(xj)); */
                 }
             } else {
                 if (nr != 1) {
                     throw new IllegalArgumentException("corrupt data frame -- length of column " + (j + 1) + " does not not match nrows");
                 }
+                columns[j] = TableWriter.createGenericColumn(i -> encodePrimitiveElement(xjObj, cna, quoteRn, qmethod));
             }
         }
-
-        StringBuilder tmp = new StringBuilder();
-        for (int i = 0; i < nr; i++) {
-            // if (i % 1000 == 999)
-            // R_CheckUserInterrupt();
-            if (!(rnames instanceof RNull)) {
-                tmp.append(encodeElement2((RAbstractStringVector) rnames, i, quoteRn, qmethod, cdec)).append(csep);
-            }
-            for (int j = 0; j < nc; j++) {
-                Object xjObj = x.getDataAtAsObject(j);
-                if (j > 0) {
-                    tmp.append(csep);
-                }
-                if (xjObj instanceof RAbstractContainer) {
-                    RAbstractContainer xj = (RAbstractContainer) xjObj;
-                    if (isna(xj, i)) {
-                        tmp.append(cna);
-                    } else {
-                        if (levels[j] != null) {
-                            tmp.append(encodeElement2(levels[j], (int) xj.getDataAtAsObject(i) - 1, quoteCol[j], qmethod, cdec));
-                        } else {
-                            tmp.append(encodeElement2((RAbstractVector) xj, i, quoteCol[j], qmethod, cdec));
-                        }
-                        /* if(cdec) change_dec(tmp, cdec, TYPEOF(xj)); */
-                    }
-                } else {
-                    tmp.append(encodePrimitiveElement(xjObj, cna, quoteRn, qmethod));
-                    /* if(cdec) change_dec(tmp, cdec, TYPEOF(xj)); */
-                }
-            }
-            tmp.append(ceol);
-            con.writeString(tmp.toString(), false);
-            tmp.setLength(0);
-        }
+        return columns;
     }
 
     private static String encodeStringElement(String p0, boolean quote, boolean qmethod) {
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base.printer;
+
+/**
+ * Renders doubles in the fixed and scientific notations of {@code encodeReal} with integer
+ * arithmetic. The value is scaled to the last printed digit by one multiplication or division with
+ * an exactly representable power of ten, which is off from the exact product by at most half an
+ * ulp. Whenever this error could change the rounding to the nearest integer, i.e., the scaled
+ * value is too large or too close to a tie, {@code null} is returned and the caller uses the
+ * general digit loop of {@link DoubleVectorPrinter}.
+ */
+final class DoubleDigits {
+
+    private static final int MAX_SCALE = 22;
+    private static final double[] POWERS_OF_TEN = new double[MAX_SCALE + 1];
+    private static final long[] LONG_POWERS_OF_TEN = new long[19];
+
+    /**
+     * The scaled values must be below 2^52, where the ulp is at most 0.5 and the fraction is
+     * still meaningful.
+     */
+    private static final double MAX_SCALED = 0x1p52;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+        LONG_POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < LONG_POWERS_OF_TEN.length; i++) {
+            LONG_POWERS_OF_TEN[i] = LONG_POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private DoubleDigits() {
+        // no instances
+    }
+
+    /**
+     * Returns {@code r * 10^scale} rounded to the nearest integer, or {@code -1} if that cannot be
+     * decided from the double product. {@code r} must be positive and finite.
+     */
+    private static long roundScaled(double r, int scale) {
+        if (scale < -MAX_SCALE || scale > MAX_SCALE) {
+            return -1;
+        }
+        double scaled = scale >= 0 ? r * POWERS_OF_TEN[scale] : r / POWERS_OF_TEN[-scale];
+        if (!(scaled < MAX_SCALED)) {
+            return -1;
+        }
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (Math.abs(fraction - 0.5) <= Math.ulp(scaled)) {
+            return -1;
+        }
+        return (long) floor + (fraction > 0.5 ? 1 : 0);
+    }
+
+    private static int digitCount(long value) {
+        int count = 1;
+        while (count < LONG_POWERS_OF_TEN.length && value >= LONG_POWERS_OF_TEN[count]) {
+            count++;
+        }
+        return count;
+    }
+
+    private static int blanks(char[] buffer, int count) {
+        for (int i = 0; i < count; i++) {
+            buffer[i] = ' ';
+        }
+        return Math.max(count, 0);
+    }
+
+    /**
+     * Writes the {@code count} lowest decimal digits of {@code value} so that they end before
+     * {@code end}.
+     */
+    private static void digits(char[] buffer, int end, long value, int count) {
+        long v = value;
+        for (int pos = end - 1; pos >= end - count; pos--) {
+            buffer[pos] = (char) ('0' + (v % 10));
+            v /= 10;
+        }
+    }
+
+    /**
+     * Fixed notation with {@code d} digits after the decimal mark, right-justified to width
+     * {@code w}. {@code x} must be finite and not a negative zero.
+     */
+    static String encodeFixed(double x, int w, int d, char cdec) {
+        boolean negated = x < 0;
+        double r = negated ? -x : x;
+        long scaled = r == 0 ? 0 : roundScaled(r, d);
+        if (scaled < 0) {
+            return null;
+        }
+        // scaled < 2^52 < 10^16, so there is no integer part for more decimals
+        long unit = d < 16 ? LONG_POWERS_OF_TEN[d] : Long.MAX_VALUE;
+        long integer = scaled / unit;
+        int integerDigits = digitCount(integer);
+        int length = (negated ? 1 : 0) + integerDigits + (d > 0 ? 1 + d : 0);
+        char[] buffer = new char[Math.max(w, length)];
+        int pos = blanks(buffer, w - length);
+        if (negated) {
+            buffer[pos++] = '-';
+        }
+        pos += integerDigits;
+        digits(buffer, pos, integer, integerDigits);
+        if (d > 0) {
+            buffer[pos++] = cdec;
+            pos += d;
+            digits(buffer, pos, scaled % unit, d);
+        }
+        return new String(buffer);
+    }
+
+    /**
+     * Scientific notation with {@code d} digits after the decimal mark and a two digit exponent,
+     * right-justified to width {@code w}. {@code x} must be finite and not a negative zero.
+     */
+    static String encodeScientific(double x, int w, int d, int e, char cdec) {
+        if (e > 2 || d > 16) {
+            return null;
+        }
+        boolean negated = x < 0;
+        double r = negated ? -x : x;
+        long scaled;
+        int exponent;
+        if (r == 0) {
+            scaled = 0;
+            exponent = 0;
+        } else {
+            if (r < 1e-98 || r >= 1e99) {
+                // three digit exponents
+                return null;
+            }
+            exponent = (int) Math.floor(Math.log10(r));
+            scaled = roundScaled(r, d - exponent);
+            if (scaled >= 0 && scaled < LONG_POWERS_OF_TEN[d]) {
+                // log10 was rounded up
+                exponent--;
+                scaled = roundScaled(r, d - exponent);
+            }
+            if (scaled < 0) {
+                return null;
+            }
+            if (scaled >= LONG_POWERS_OF_TEN[d + 1]) {
+                // 10^(d+1) from rounding up, or log10 was rounded down
+                exponent++;
+                scaled = roundScaled(r, d - exponent);
+                if (scaled < 0) {
+                    return null;
+                }
+            }
+            if (exponent <= -99 || exponent >= 99) {
+                return null;
+            }
+        }
+        int length = (negated ? 1 : 0) + 1 + (d > 0 ? 1 + d : 0) + 4;
+        char[] buffer = new char[Math.max(w, length)];
+        int pos = blanks(buffer, w - length);
+        if (negated) {
+            buffer[pos++] = '-';
+        }
+        long unit = LONG_POWERS_OF_TEN[d];
+        buffer[pos++] = (char) ('0' + scaled / unit);
+        if (d > 0) {
+            buffer[pos++] = cdec;
+            pos += d;
+            digits(buffer, pos, scaled % unit, d);
+        }
+        buffer[pos++] = 'e';
+        buffer[pos++] = exponent < 0 ? '-' : '+';
+        digits(buffer, pos + 2, Math.abs(exponent), 2);
+        return new String(buffer);
+    }
+}
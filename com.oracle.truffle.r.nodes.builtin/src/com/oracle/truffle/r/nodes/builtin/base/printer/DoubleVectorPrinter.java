@@ -24,7 +24,6 @@ import java.io.IOException;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.Utils;
-import com.oracle.truffle.r.runtime.data.RDouble;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
 import com.oracle.truffle.r.runtime.data.nodes.VectorAccess.RandomIterator;
@@ -225,7 +224,7 @@ public final class DoubleVectorPrinter extends VectorPrinter<RAbstractDoubleVect
         return new DoubleVectorMetrics(w, d, e);
     }
 
-    @SuppressWarnings("unused") private static final int DBL_DIG = 15;
+    private static final int DBL_DIG = 15;
 
     private static final double[] tbl = {
                     1e-1,
@@ -335,12 +334,21 @@ public final class DoubleVectorPrinter extends VectorPrinter<RAbstractDoubleVect
             alpha = Math.round(rPrec);
 
             nsig = digits;
-            for (j = 1; j <= digits; j++) {
-                alpha /= 10.0;
-                if (Utils.identityEquals(alpha, Math.floor(alpha))) {
+            if (digits <= DBL_DIG) {
+                // alpha <= 10^digits is an exact long, count its trailing zeros
+                long digitsAlpha = (long) alpha;
+                while (nsig > 0 && digitsAlpha % 10 == 0) {
+                    digitsAlpha /= 10;
                     nsig--;
-                } else {
-                    break;
+                }
+            } else {
+                for (j = 1; j <= digits; j++) {
+                    alpha /= 10.0;
+                    if (Utils.identityEquals(alpha, Math.floor(alpha))) {
+                        nsig--;
+                    } else {
+                        break;
+                    }
                 }
             }
             if (nsig == 0 && digits > 0) {
@@ -377,14 +385,39 @@ public final class DoubleVectorPrinter extends VectorPrinter<RAbstractDoubleVect
         return encodeReal(x, digits, '.', 0, RRuntime.STRING_NA);
     }
 
+    /**
+     * Computes the format of the single value directly, with the same result as
+     * {@link #formatDoubleVector} for a vector of length one.
+     */
     @TruffleBoundary
     public static String encodeReal(double x, int digits, char cdec, int sciPen, String naString) {
-        RDouble value = RDouble.valueOf(x);
-        VectorAccess access = value.slowPathAccess();
-        try (RandomIterator iter = access.randomAccess(value)) {
-            DoubleVectorMetrics dm = formatDoubleVector(iter, access, 0, 1, 0, digits, sciPen, naString.length());
-            return encodeReal(x, dm.maxWidth, dm.d, dm.e, cdec, naString);
+        if (!RRuntime.isFinite(x)) {
+            return encodeReal(x, 0, 0, 0, cdec, naString);
         }
+        ScientificDouble sd = scientific(x, digits);
+        int left = sd.kpower + 1;
+        if (sd.roundingwidens) {
+            left--;
+        }
+        int sleft = sd.sgn + (left <= 0 ? 1 : left);
+        int rgt = digits == 0 ? 0 : Math.max(sd.nsig - left, 0);
+        int wF = sleft + rgt + (rgt != 0 ? 1 : 0);
+        int e = (left > 100 || left <= -99) ? 2 : 1;
+        int d = sd.nsig - 1;
+        int w = sd.sgn + (d > 0 ? 1 : 0) + d + 4 + e;
+        if (wF <= w + sciPen) {
+            return encodeReal(x, wF, rgt, 0, cdec, naString);
+        }
+        return encodeReal(x, w, d, e, cdec, naString);
+    }
+
+    /**
+     * Produces the same result as {@link #encodeReal(double, int)}. It does not touch any R
+     * objects and can therefore be used outside of the context's thread.
+     */
+    @TruffleBoundary
+    public static String encodeRealScalar(double x, int digits) {
+        return encodeReal(x, digits, '.', 0, RRuntime.STRING_NA);
     }
 
     @TruffleBoundary
@@ -422,6 +455,12 @@ public final class DoubleVectorPrinter extends VectorPrinter<RAbstractDoubleVect
         /* IEEE allows signed zeros (yuck!) */
         double x = RRuntime.normalizeZero(initialX);
 
+        if (RRuntime.isFinite(x)) {
+            String digits = e == 0 ? DoubleDigits.encodeFixed(x, w, d, cdec) : DoubleDigits.encodeScientific(x, w, d, e, cdec);
+            if (digits != null) {
+                return digits;
+            }
+        }
         StringBuilder str = new StringBuilder(w);
         if (!RRuntime.isFinite(x)) {
             String id;
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.instanceOf;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.stream.IntStream;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractListVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * FastR specific internal used in the R code of {@code rbind.data.frame} to bind the rows of data
+ * frames column by column instead of growing the columns of the result frame by frame. The elements
+ * of {@code frames} of non-zero length must be unnamed data frames with no other attributes than
+ * names, class {@code "data.frame"} and automatic row names, and they must have the same column
+ * names, possibly in a different order. Each column must be an atomic vector without attributes or
+ * a factor and it must be of the same type in all the frames. The number of rows is computed first,
+ * each column of the result is allocated once and the columns of the frames are copied into it, in
+ * parallel for large inputs if {@link FastROptions#ParallelDataFrameBind} is enabled. The levels of
+ * factor columns are merged in the order of their first appearance like in
+ * {@code rbind.data.frame}. {@code NULL} is returned for any other input, the caller is expected to
+ * fall back to the generic code in that case.
+ */
+@RBuiltin(name = ".fastr.rbindDataFrames", kind = PRIMITIVE, parameterNames = {"frames"}, behavior = PURE)
+public abstract class FastRBindDataFrames extends RBuiltinNode.Arg1 {
+
+    private static final int PARALLEL_MIN_ELEMENTS = 1 << 16;
+
+    static {
+        Casts casts = new Casts(FastRBindDataFrames.class);
+        casts.arg("frames").mustBe(instanceOf(RAbstractListVector.class));
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected Object bind(RAbstractListVector frames) {
+        ArrayList<RList> bound = new ArrayList<>();
+        RStringVector argNames = frames.getNames();
+        for (int i = 0; i < frames.getLength(); i++) {
+            Object frame = frames.getDataAt(i);
+            if (frame == RNull.instance || (frame instanceof RAbstractVector && ((RAbstractVector) frame).getLength() == 0)) {
+                // dropped by rbind.data.frame
+                continue;
+            }
+            if ((argNames != null && !argNames.getDataAt(i).isEmpty()) || !(frame instanceof RList) || !isPlainDataFrame((RList) frame)) {
+                return RNull.instance;
+            }
+            bound.add((RList) frame);
+        }
+        if (bound.isEmpty()) {
+            return RNull.instance;
+        }
+
+        // the schema is given by the first frame, the other frames are matched to it by names
+        RStringVector names = bound.get(0).getNames();
+        int ncol = names.getLength();
+        String[] columnNames = new String[ncol];
+        HashMap<String, Integer> columnIndex = new HashMap<>();
+        for (int j = 0; j < ncol; j++) {
+            columnNames[j] = names.getDataAt(j);
+            if (RRuntime.isNA(columnNames[j]) || columnNames[j].isEmpty() || columnIndex.put(columnNames[j], j) != null) {
+                return RNull.instance;
+            }
+        }
+        int nframes = bound.size();
+        int[] rows = new int[nframes];
+        RAbstractVector[][] columns = new RAbstractVector[ncol][nframes];
+        long total = 0;
+        for (int f = 0; f < nframes; f++) {
+            RList frame = bound.get(f);
+            rows[f] = getRowCount(frame);
+            if (rows[f] < 0 || frame.getLength() != ncol) {
+                return RNull.instance;
+            }
+            total += rows[f];
+            RStringVector frameNames = frame.getNames();
+            for (int k = 0; k < ncol; k++) {
+                Integer j = columnIndex.get(frameNames.getDataAt(k));
+                if (j == null || columns[j][f] != null || !isBindableColumn(frame.getDataAt(k), rows[f])) {
+                    return RNull.instance;
+                }
+                RAbstractVector column = (RAbstractVector) frame.getDataAt(k);
+                if (f > 0 && (column.getRType() != columns[j][0].getRType() || isFactor(column) != isFactor(columns[j][0]))) {
+                    return RNull.instance;
+                }
+                columns[j][f] = column;
+            }
+        }
+        if (total == 0 || total > Integer.MAX_VALUE) {
+            return RNull.instance;
+        }
+
+        // the data of the columns is read here, the copying below does not touch any R objects
+        int n = (int) total;
+        Object[][] sources = new Object[ncol][nframes];
+        String[][][] sourceLevels = new String[ncol][][];
+        boolean[] complete = new boolean[ncol];
+        for (int j = 0; j < ncol; j++) {
+            boolean factor = isFactor(columns[j][0]);
+            boolean anyLevels = false;
+            complete[j] = true;
+            if (factor) {
+                sourceLevels[j] = new String[nframes][];
+            }
+            for (int f = 0; f < nframes; f++) {
+                RAbstractVector column = columns[j][f];
+                sources[j][f] = getReadonlyData(column);
+                complete[j] &= column.isComplete();
+                if (factor) {
+                    sourceLevels[j][f] = ((RAbstractStringVector) column.getAttr(RRuntime.LEVELS_ATTR_KEY)).materialize().getReadonlyStringData();
+                    anyLevels |= sourceLevels[j][f].length > 0;
+                }
+            }
+            if (factor && !anyLevels) {
+                return RNull.instance;
+            }
+        }
+        Object[] data = new Object[ncol];
+        String[][] levels = new String[ncol][];
+        if ((long) n * ncol >= PARALLEL_MIN_ELEMENTS && ncol > 1 && RContext.getInstance().getOption(FastROptions.ParallelDataFrameBind)) {
+            IntStream.range(0, ncol).parallel().forEach(j -> bindColumn(j, columns[j][0].getRType(), sources, sourceLevels, rows, n, data, levels, complete));
+        } else {
+            for (int j = 0; j < ncol; j++) {
+                bindColumn(j, columns[j][0].getRType(), sources, sourceLevels, rows, n, data, levels, complete);
+            }
+        }
+
+        Object[] result = new Object[ncol];
+        for (int j = 0; j < ncol; j++) {
+            result[j] = createColumn(columns[j][0].getRType(), data[j], levels[j], complete[j]);
+        }
+        RList frame = RDataFactory.createList(result, RDataFactory.createStringVector(columnNames, RDataFactory.COMPLETE_VECTOR));
+        int[] rowNames = new int[n];
+        for (int i = 0; i < n; i++) {
+            rowNames[i] = i + 1;
+        }
+        frame.setAttr(RRuntime.ROWNAMES_ATTR_KEY, RDataFactory.createIntVector(rowNames, RDataFactory.COMPLETE_VECTOR));
+        frame.setClassAttr(RDataFactory.createStringVectorFromScalar(RRuntime.CLASS_DATA_FRAME));
+        return frame;
+    }
+
+    private static boolean isPlainDataFrame(RList frame) {
+        DynamicObject attributes = frame.getAttributes();
+        RStringVector classAttr = frame.getClassAttr();
+        return attributes != null && attributes.size() == 3 && classAttr != null && classAttr.getLength() == 1 && RRuntime.CLASS_DATA_FRAME.equals(classAttr.getDataAt(0)) &&
+                        frame.getNames() != null;
+    }
+
+    /**
+     * Returns the number of rows of a data frame with automatic row names, i.e. given in the
+     * compact form {@code c(NA, -n)}, also as a double vector, or as {@code 1:n}, and {@code -1} for any other row names.
+     */
+    private static int getRowCount(RList frame) {
+        Object rowNames = frame.getAttr(RRuntime.ROWNAMES_ATTR_KEY);
+        if (rowNames instanceof RAbstractDoubleVector) {
+            RAbstractDoubleVector names = (RAbstractDoubleVector) rowNames;
+            if (names.getLength() == 2 && RRuntime.isNA(names.getDataAt(0))) {
+                double n = names.getDataAt(1);
+                return n <= 0 && n > Integer.MIN_VALUE && n == (int) n ? (int) -n : -1;
+            }
+            return -1;
+        } else if (!(rowNames instanceof RAbstractIntVector)) {
+            return -1;
+        }
+        RAbstractIntVector names = (RAbstractIntVector) rowNames;
+        if (names.getLength() == 2 && RRuntime.isNA(names.getDataAt(0))) {
+            int n = names.getDataAt(1);
+            return n <= 0 && !RRuntime.isNA(n) ? -n : -1;
+        }
+        for (int i = 0; i < names.getLength(); i++) {
+            if (names.getDataAt(i) != i + 1) {
+                return -1;
+            }
+        }
+        return names.getLength();
+    }
+
+    private static boolean isBindableColumn(Object value, int rows) {
+        if (!(value instanceof RAbstractVector) || ((RAbstractVector) value).getLength() != rows) {
+            return false;
+        }
+        RAbstractVector column = (RAbstractVector) value;
+        switch (column.getRType()) {
+            case Logical:
+            case Integer:
+            case Double:
+            case Complex:
+            case Character:
+                break;
+            default:
+                return false;
+        }
+        DynamicObject attributes = column.getAttributes();
+        return attributes == null || attributes.isEmpty() || (isFactor(column) && isValidLevels(column.getAttr(RRuntime.LEVELS_ATTR_KEY)));
+    }
+
+    private static boolean isFactor(RAbstractVector column) {
+        DynamicObject attributes = column.getAttributes();
+        if (attributes == null || attributes.size() != 2 || column.getRType() != RType.Integer) {
+            return false;
+        }
+        RStringVector classAttr = column.getClassAttr();
+        return classAttr != null && classAttr.getLength() == 1 && RRuntime.CLASS_FACTOR.equals(classAttr.getDataAt(0)) && column.getAttr(RRuntime.LEVELS_ATTR_KEY) != null;
+    }
+
+    private static boolean isValidLevels(Object levels) {
+        if (!(levels instanceof RAbstractStringVector) || ((RAbstractStringVector) levels).getAttributes() != null) {
+            return false;
+        }
+        RAbstractStringVector vector = (RAbstractStringVector) levels;
+        for (int i = 0; i < vector.getLength(); i++) {
+            if (RRuntime.isNA(vector.getDataAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object getReadonlyData(RAbstractVector column) {
+        switch (column.getRType()) {
+            case Logical:
+                return ((RAbstractLogicalVector) column).getReadonlyData();
+            case Integer:
+                return ((RAbstractIntVector) column).getReadonlyData();
+            case Double:
+                return ((RAbstractDoubleVector) column).getReadonlyData();
+            case Complex:
+                return ((RAbstractComplexVector) column).getReadonlyData();
+            default:
+                return ((RAbstractStringVector) column).materialize().getReadonlyStringData();
+        }
+    }
+
+    private static void bindColumn(int j, RType type, Object[][] sources, String[][][] sourceLevels, int[] rows, int n, Object[] data, String[][] levels, boolean[] complete) {
+        if (sourceLevels[j] != null) {
+            ArrayList<String> mergedLevels = new ArrayList<>();
+            int[] codes = new int[n];
+            complete[j] &= bindFactor(sources[j], sourceLevels[j], rows, codes, mergedLevels);
+            data[j] = codes;
+            levels[j] = mergedLevels.toArray(new String[mergedLevels.size()]);
+            return;
+        }
+        int width = type == RType.Complex ? 2 : 1;
+        Object result;
+        switch (type) {
+            case Logical:
+                result = new byte[n];
+                break;
+            case Integer:
+                result = new int[n];
+                break;
+            case Double:
+                result = new double[n];
+                break;
+            case Complex:
+                result = new double[2 * n];
+                break;
+            default:
+                result = new String[n];
+                break;
+        }
+        int pos = 0;
+        for (int f = 0; f < rows.length; f++) {
+            System.arraycopy(sources[j][f], 0, result, pos * width, rows[f] * width);
+            pos += rows[f];
+        }
+        data[j] = result;
+    }
+
+    /**
+     * Maps the codes of the factors to the union of their levels, which are hashed once per frame.
+     * Codes outside of the levels of their factor become {@code NA} like in
+     * {@code factor(as.vector(x), levels)}. Returns {@code false} if that happened.
+     */
+    private static boolean bindFactor(Object[] sources, String[][] sourceLevels, int[] rows, int[] codes, ArrayList<String> mergedLevels) {
+        HashMap<String, Integer> index = new HashMap<>();
+        boolean valid = true;
+        int pos = 0;
+        for (int f = 0; f < rows.length; f++) {
+            String[] frameLevels = sourceLevels[f];
+            int[] map = new int[frameLevels.length];
+            for (int l = 0; l < frameLevels.length; l++) {
+                Integer code = index.get(frameLevels[l]);
+                if (code == null) {
+                    mergedLevels.add(frameLevels[l]);
+                    code = mergedLevels.size();
+                    index.put(frameLevels[l], code);
+                }
+                map[l] = code;
+            }
+            int[] frameCodes = (int[]) sources[f];
+            for (int i = 0; i < rows[f]; i++) {
+                int code = frameCodes[i];
+                if (code >= 1 && code <= map.length) {
+                    codes[pos++] = map[code - 1];
+                } else {
+                    valid &= RRuntime.isNA(code);
+                    codes[pos++] = RRuntime.INT_NA;
+                }
+            }
+        }
+        return valid;
+    }
+
+    private static Object createColumn(RType type, Object data, String[] levels, boolean complete) {
+        switch (type) {
+            case Logical:
+                return RDataFactory.createLogicalVector((byte[]) data, complete);
+            case Integer:
+                RIntVector result = RDataFactory.createIntVector((int[]) data, complete);
+                if (levels != null) {
+                    result.setAttr(RRuntime.LEVELS_ATTR_KEY, RDataFactory.createStringVector(levels, RDataFactory.COMPLETE_VECTOR));
+                    result.setClassAttr(RDataFactory.createStringVectorFromScalar(RRuntime.CLASS_FACTOR));
+                }
+                return result;
+            case Double:
+                return RDataFactory.createDoubleVector((double[]) data, complete);
+            case Complex:
+                return RDataFactory.createComplexVector((double[]) data, complete);
+            default:
+                return RDataFactory.createStringVector((String[]) data, complete);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.COMPLEX;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.S3DispatchCache;
+import com.oracle.truffle.r.runtime.S4DispatchCache;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+
+/**
+ * Returns the statistics of the context-wide method dispatch caches as a named list of named double
+ * vectors with the number of hits, misses, invalidated entries and the current number of entries.
+ *
+ * @see S3DispatchCache
+ * @see S4DispatchCache
+ */
+@RBuiltin(name = ".fastr.dispatchCacheStats", kind = PRIMITIVE, behavior = COMPLEX, parameterNames = {})
+public abstract class FastRDispatchCacheStats extends RBuiltinNode.Arg0 {
+
+    private static final String[] STATS_NAMES = new String[]{"hits", "misses", "invalidations", "size"};
+
+    static {
+        Casts.noCasts(FastRDispatchCacheStats.class);
+    }
+
+    @Specialization
+    @TruffleBoundary
+    public Object dispatchCacheStats() {
+        RContext context = RContext.getInstance();
+        RStringVector statsNames = RDataFactory.createStringVector(STATS_NAMES, RDataFactory.COMPLETE_VECTOR);
+        Object s3 = RDataFactory.createDoubleVector(context.s3DispatchCache.getStatistics(), RDataFactory.COMPLETE_VECTOR, statsNames);
+        Object s4 = RDataFactory.createDoubleVector(context.s4DispatchCache.getStatistics(), RDataFactory.COMPLETE_VECTOR, statsNames);
+        return RDataFactory.createList(new Object[]{s3, s4}, RDataFactory.createStringVector(new String[]{"S3", "S4"}, RDataFactory.COMPLETE_VECTOR));
+    }
+}
@@ -25,6 +25,7 @@ package com.oracle.truffle.r.nodes.builtin.fastr;
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.COMPLEX;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
 
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
@@ -41,9 +42,21 @@ public class FastRDispatchNativeHandlers extends RBuiltinNode.Arg0 {
     }
 
     @Child private BaseRFFI.DispatchHandlersNode dispatchHandlersNode = BaseRFFI.DispatchHandlersNode.create();
+    @Child private BaseRFFI.ReleaseEventLoopNode releaseEventLoopNode;
 
     @Override
     public Object execute(VirtualFrame frame) {
-        return dispatchHandlersNode.execute();
+        try {
+            return dispatchHandlersNode.execute();
+        } catch (Throwable e) {
+            // an error in a handler must not leave the native event loop thread blocked, the
+            // native side cannot always catch it (e.g. with LLVM, which has no longjmp support)
+            if (releaseEventLoopNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                releaseEventLoopNode = insert(BaseRFFI.ReleaseEventLoopNode.create());
+            }
+            releaseEventLoopNode.execute();
+            throw e;
+        }
     }
 }
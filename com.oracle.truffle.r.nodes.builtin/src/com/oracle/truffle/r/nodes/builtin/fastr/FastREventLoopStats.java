@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.COMPLEX;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.FastRConfig;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.ffi.BaseRFFI;
+
+/**
+ * Returns the counters of the native event loop (see {@link FastRInitEventLoop}) as a named double
+ * vector: the number of dispatched batches, the total and the maximal number of handler rounds per
+ * batch, the mean and maximal latency in nanoseconds between enqueueing a batch and dispatching it,
+ * and the number of enqueued batches that are not dispatched yet.
+ */
+@RBuiltin(name = ".fastr.eventLoopStats", kind = PRIMITIVE, behavior = COMPLEX, parameterNames = {})
+public abstract class FastREventLoopStats extends RBuiltinNode.Arg0 {
+
+    private static final String[] NAMES = new String[]{"batches", "rounds", "maxRounds", "meanLatencyNanos", "maxLatencyNanos", "queueDepth"};
+
+    static {
+        Casts.noCasts(FastREventLoopStats.class);
+    }
+
+    @Child private BaseRFFI.EventLoopStatsNode eventLoopStatsNode;
+
+    @Specialization
+    public Object eventLoopStats() {
+        if (!FastRConfig.UseNativeEventLoop) {
+            return RNull.instance;
+        }
+        if (eventLoopStatsNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            eventLoopStatsNode = insert(BaseRFFI.EventLoopStatsNode.create());
+        }
+        double[] stats = eventLoopStatsNode.execute();
+        return RDataFactory.createDoubleVector(stats, RDataFactory.COMPLETE_VECTOR, RDataFactory.createStringVector(NAMES, RDataFactory.COMPLETE_VECTOR));
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.doubleValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.integerValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.Grouping;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+
+/**
+ * FastR specific internal used in the R code of {@code tapply} to compute {@code sum},
+ * {@code mean}, {@code length}, {@code min} and {@code max} of the groups of a numeric vector in a
+ * single pass instead of splitting the vector and calling the function for every group. The groups
+ * are given as 1-based codes {@code 1..ngroup} as computed by {@code tapply}. The result has
+ * {@code ngroup} elements, the groups without any element are {@code NA}. {@code NULL} is returned
+ * if the result cannot be computed without warnings (integer overflow, {@code min} or {@code max}
+ * of a group with only {@code NA}s removed), the caller is expected to fall back to the generic
+ * code in that case.
+ *
+ * @see Grouping
+ */
+@RBuiltin(name = ".fastr.groupReduce", kind = PRIMITIVE, parameterNames = {"x", "group", "ngroup", "op", "na.rm"}, behavior = PURE)
+public abstract class FastRGroupReduce extends RBuiltinNode.Arg5 {
+
+    static {
+        Casts casts = new Casts(FastRGroupReduce.class);
+        casts.arg("x").mustBe(integerValue().or(doubleValue()));
+        casts.arg("group").mustBe(integerValue()).asIntegerVector();
+        casts.arg("ngroup").asIntegerVector().findFirst().mustNotBeNA();
+        casts.arg("op").asStringVector().findFirst();
+        casts.arg("na.rm").asLogicalVector().findFirst().mustNotBeNA().map(toBoolean());
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected Object groupReduce(RAbstractIntVector x, RAbstractIntVector group, int ngroup, String op, boolean naRm) {
+        int[] codes = getCodes(x.getLength(), group);
+        int[] counts = Grouping.countCodes(group, ngroup, x.getLength());
+        int[] data = x.getReadonlyData();
+        switch (op) {
+            case "length":
+                return createIntResult(counts, counts);
+            case "sum":
+                return createIntResult(Grouping.sum(data, codes, ngroup, naRm), counts);
+            case "mean":
+                return createDoubleResult(Grouping.mean(data, codes, ngroup, naRm), counts);
+            case "min":
+            case "max":
+                return createIntResult(Grouping.minMax(data, codes, ngroup, naRm, "max".equals(op)), counts);
+            default:
+                throw error(RError.Message.INVALID_ARGUMENT, "op");
+        }
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected Object groupReduce(RAbstractDoubleVector x, RAbstractIntVector group, int ngroup, String op, boolean naRm) {
+        int[] codes = getCodes(x.getLength(), group);
+        int[] counts = Grouping.countCodes(group, ngroup, x.getLength());
+        double[] data = x.getReadonlyData();
+        switch (op) {
+            case "length":
+                return createIntResult(counts, counts);
+            case "sum":
+                return createDoubleResult(Grouping.sum(data, codes, ngroup, naRm), counts);
+            case "mean":
+                return createDoubleResult(Grouping.mean(data, codes, ngroup, naRm), counts);
+            case "min":
+            case "max":
+                return createDoubleResult(Grouping.minMax(data, codes, ngroup, naRm, "max".equals(op)), counts);
+            default:
+                throw error(RError.Message.INVALID_ARGUMENT, "op");
+        }
+    }
+
+    private int[] getCodes(int length, RAbstractIntVector group) {
+        if (group.getLength() != length) {
+            throw error(RError.Message.GENERIC, "arguments must have same length");
+        }
+        return group.getReadonlyData();
+    }
+
+    private static Object createIntResult(int[] values, int[] counts) {
+        if (values == null) {
+            return RNull.instance;
+        }
+        int[] result = values == counts ? values.clone() : values;
+        boolean complete = true;
+        for (int g = 0; g < result.length; g++) {
+            if (counts[g] == 0) {
+                result[g] = RRuntime.INT_NA;
+            }
+            complete &= !RRuntime.isNA(result[g]);
+        }
+        return RDataFactory.createIntVector(result, complete);
+    }
+
+    private static Object createDoubleResult(double[] values, int[] counts) {
+        if (values == null) {
+            return RNull.instance;
+        }
+        boolean complete = true;
+        for (int g = 0; g < values.length; g++) {
+            if (counts[g] == 0) {
+                values[g] = RRuntime.DOUBLE_NA;
+            }
+            complete &= !RRuntime.isNA(values[g]);
+        }
+        return RDataFactory.createDoubleVector(values, complete);
+    }
+}
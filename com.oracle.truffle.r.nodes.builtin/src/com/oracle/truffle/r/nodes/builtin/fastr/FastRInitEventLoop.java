@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -28,9 +28,11 @@ import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.runtime.FastRConfig;
+import com.oracle.truffle.r.runtime.RPlatform;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
@@ -39,16 +41,22 @@ import com.oracle.truffle.r.runtime.ffi.BaseRFFI;
 
 /**
  * This FastR specific builtin is the entry point to the infrastructure for dispatching native IO
- * handlers. A separate native event loop is spawn and two named pipes are created by executing the
- * <code>initEventLoop</code> native function. When an event occurs in an IO descriptor (registered
- * via the <code>addInputHandler</code> native function), the native loop notifies the Java side via
- * the <code>fifoIn</code> named pipe, to which a dedicated Java thread is listening (running out of
- * any {@link RContext}). At this point the native event loop gets blocked by listening to
- * <code>fifoOut</code>, whíle the Java thread submits a task to the {@link RContext#getExecutor()
- * single-threaded executor} to dispatch the native IO event(s) through executing another native
- * function <code>dispatchNativeHandlers</code>. When done, the <code>dispatchNativeHandlers</code>
- * uses the <code>fifoOut</code> named pipe to release the native event loop. The described
- * procedure ensures that the native event handlers handle events within a single FastR context
+ * handlers. A separate native event loop is spawn by executing the <code>initEventLoop</code>
+ * native function. When an event occurs in an IO descriptor (registered via the
+ * <code>addInputHandler</code> native function), the native loop stores the set of ready
+ * descriptors in an in-process queue and writes a single byte into an anonymous doorbell pipe, to
+ * which a dedicated Java thread is listening (running out of any {@link RContext}). The native
+ * event loop then waits on a condition variable, while the Java thread submits a task to the
+ * {@link RContext#getExecutor() single-threaded executor} to dispatch the queued batch through
+ * executing another native function <code>dispatchNativeHandlers</code>. That function runs the
+ * handlers, polls for events that arrived in the meantime and dispatches them in the same batch,
+ * and finally signals the condition variable to release the native event loop. The described
+ * procedure ensures that the native event handlers handle events within a single FastR context.
+ * Dispatch statistics are available via {@link FastREventLoopStats}.
+ *
+ * The Java thread opens the anonymous pipe as {@code /dev/fd/<doorbellFd>}, which is only relied
+ * upon on Linux. On other systems the doorbell is a named FIFO in a temporary directory, whose
+ * path is returned as {@code doorbellPath}.
  */
 @RBuiltin(name = ".fastr.initEventLoop", kind = PRIMITIVE, behavior = COMPLEX, parameterNames = {})
 public abstract class FastRInitEventLoop extends RBuiltinNode.Arg0 {
@@ -62,19 +70,47 @@ public abstract class FastRInitEventLoop extends RBuiltinNode.Arg0 {
     @Specialization
     public Object initEventLoop() {
         if (FastRConfig.UseNativeEventLoop) {
-            Path tmpDir;
-            try {
-                tmpDir = Files.createTempDirectory("fastr-fifo");
-            } catch (Exception e) {
+            if ("Linux".equals(RPlatform.getOSInfo().osName)) {
+                int doorbellFd = initEventLoopNode.execute("");
+                if (doorbellFd < 0) {
+                    return RDataFactory.createList(new Object[]{doorbellFd}, RDataFactory.createStringVector("result"));
+                }
+                return RDataFactory.createList(new Object[]{0, doorbellFd},
+                                RDataFactory.createStringVector(new String[]{"result", "doorbellFd"}, RDataFactory.COMPLETE_VECTOR));
+            }
+            Path doorbellPath = createDoorbellPath();
+            if (doorbellPath == null) {
                 return RDataFactory.createList(new Object[]{1}, RDataFactory.createStringVector("result"));
             }
-            String fifoInPath = tmpDir.resolve("event-loop-fifo-in").toString();
-            String fifoOutPath = tmpDir.resolve("event-loop-fifo-out").toString();
-            int result = initEventLoopNode.execute(fifoInPath, fifoOutPath);
-            return RDataFactory.createList(new Object[]{result, fifoInPath, fifoOutPath},
-                            RDataFactory.createStringVector(new String[]{"result", "fifoInPath", "fifoOutPath"}, RDataFactory.COMPLETE_VECTOR));
+            int result = initEventLoopNode.execute(doorbellPath.toString());
+            if (result < 0) {
+                deleteDoorbellDir(doorbellPath);
+                return RDataFactory.createList(new Object[]{result}, RDataFactory.createStringVector("result"));
+            }
+            return RDataFactory.createList(new Object[]{result, doorbellPath.toString()},
+                            RDataFactory.createStringVector(new String[]{"result", "doorbellPath"}, RDataFactory.COMPLETE_VECTOR));
         } else {
             return RNull.instance;
         }
     }
+
+    @TruffleBoundary
+    private static Path createDoorbellPath() {
+        Path tmpDir;
+        try {
+            tmpDir = Files.createTempDirectory("fastr-fifo");
+        } catch (Exception e) {
+            return null;
+        }
+        return tmpDir.resolve("event-loop-doorbell");
+    }
+
+    @TruffleBoundary
+    private static void deleteDoorbellDir(Path doorbellPath) {
+        try {
+            Files.deleteIfExists(doorbellPath.getParent());
+        } catch (Exception e) {
+            // only a leftover empty directory
+        }
+    }
 }
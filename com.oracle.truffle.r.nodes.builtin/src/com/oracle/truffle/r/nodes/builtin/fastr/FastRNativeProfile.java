@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.COMPLEX;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.ffi.NativeCallProfiler;
+import com.oracle.truffle.r.runtime.ffi.NativeCallProfiler.Entry;
+
+/**
+ * Controls and reports the {@link NativeCallProfiler}. If {@code enable} is not {@code NA}, the
+ * profiler is switched on or off, if {@code reset} is {@code TRUE}, the collected data are
+ * discarded. In either case the current profile is returned as a list of three data frames:
+ * {@code symbols} with one row per native symbol, {@code packages} with the totals per DLL and
+ * {@code upcalls} with the number of each kind of upcall per native symbol. Times are in seconds.
+ */
+@RBuiltin(name = ".fastr.nativeProfile", kind = PRIMITIVE, behavior = COMPLEX, parameterNames = {"enable", "reset"})
+public abstract class FastRNativeProfile extends RBuiltinNode.Arg2 {
+
+    @Override
+    public Object[] getDefaultParameterValues() {
+        return new Object[]{RRuntime.LOGICAL_NA, RRuntime.LOGICAL_FALSE};
+    }
+
+    static {
+        Casts casts = new Casts(FastRNativeProfile.class);
+        casts.arg("enable").asLogicalVector().findFirst(RRuntime.LOGICAL_NA);
+        casts.arg("reset").asLogicalVector().findFirst(RRuntime.LOGICAL_FALSE).map(toBoolean());
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected RList nativeProfile(byte enable, boolean reset) {
+        if (!RRuntime.isNA(enable)) {
+            NativeCallProfiler.setEnabled(RRuntime.fromLogical(enable));
+        }
+        if (reset) {
+            NativeCallProfiler.reset();
+        }
+        List<Entry> entries = NativeCallProfiler.getEntries();
+        return RDataFactory.createList(new Object[]{createSymbols(entries), createPackages(entries), createUpCalls(entries)},
+                        RDataFactory.createStringVector(new String[]{"symbols", "packages", "upcalls"}, RDataFactory.COMPLETE_VECTOR));
+    }
+
+    private static RList createSymbols(List<Entry> entries) {
+        int n = entries.size();
+        String[] packages = new String[n];
+        String[] symbols = new String[n];
+        String[] backends = new String[n];
+        double[] calls = new double[n];
+        double[] times = new double[n];
+        double[] upCalls = new double[n];
+        double[] nativized = new double[n];
+        for (int i = 0; i < n; i++) {
+            Entry e = entries.get(i);
+            packages[i] = e.packageName;
+            symbols[i] = e.symbol;
+            backends[i] = e.rffiType == null ? RRuntime.STRING_NA : e.rffiType.name();
+            calls[i] = e.getCalls();
+            times[i] = e.getNanos() / 1e9;
+            upCalls[i] = e.getUpCallCount();
+            nativized[i] = e.getNativizedBytes();
+        }
+        return createDataFrame(n, new String[]{"package", "symbol", "backend", "calls", "time", "upcalls", "nativized"},
+                        RDataFactory.createStringVector(packages, RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createStringVector(symbols, RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createStringVector(backends, RDataFactory.INCOMPLETE_VECTOR),
+                        RDataFactory.createDoubleVector(calls, RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createDoubleVector(times, RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createDoubleVector(upCalls, RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createDoubleVector(nativized, RDataFactory.COMPLETE_VECTOR));
+    }
+
+    private static RList createPackages(List<Entry> entries) {
+        TreeMap<String, double[]> totals = new TreeMap<>();
+        for (Entry e : entries) {
+            double[] t = totals.computeIfAbsent(e.packageName, k -> new double[4]);
+            t[0] += e.getCalls();
+            t[1] += e.getNanos() / 1e9;
+            t[2] += e.getUpCallCount();
+            t[3] += e.getNativizedBytes();
+        }
+        int n = totals.size();
+        String[] packages = new String[n];
+        double[][] columns = new double[4][n];
+        int i = 0;
+        for (Map.Entry<String, double[]> e : totals.entrySet()) {
+            packages[i] = e.getKey();
+            for (int j = 0; j < 4; j++) {
+                columns[j][i] = e.getValue()[j];
+            }
+            i++;
+        }
+        return createDataFrame(n, new String[]{"package", "calls", "time", "upcalls", "nativized"},
+                        RDataFactory.createStringVector(packages, RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createDoubleVector(columns[0], RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createDoubleVector(columns[1], RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createDoubleVector(columns[2], RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createDoubleVector(columns[3], RDataFactory.COMPLETE_VECTOR));
+    }
+
+    private static RList createUpCalls(List<Entry> entries) {
+        ArrayList<String> packages = new ArrayList<>();
+        ArrayList<String> symbols = new ArrayList<>();
+        ArrayList<String> upCalls = new ArrayList<>();
+        ArrayList<Long> counts = new ArrayList<>();
+        for (Entry e : entries) {
+            for (Map.Entry<String, Long> u : e.getUpCalls().entrySet()) {
+                packages.add(e.packageName);
+                symbols.add(e.symbol);
+                upCalls.add(u.getKey());
+                counts.add(u.getValue());
+            }
+        }
+        int n = counts.size();
+        double[] countsData = new double[n];
+        for (int i = 0; i < n; i++) {
+            countsData[i] = counts.get(i);
+        }
+        return createDataFrame(n, new String[]{"package", "symbol", "upcall", "count"},
+                        RDataFactory.createStringVector(packages.toArray(new String[n]), RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createStringVector(symbols.toArray(new String[n]), RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createStringVector(upCalls.toArray(new String[n]), RDataFactory.COMPLETE_VECTOR),
+                        RDataFactory.createDoubleVector(countsData, RDataFactory.COMPLETE_VECTOR));
+    }
+
+    private static RList createDataFrame(int rows, String[] names, Object... columns) {
+        RList result = RDataFactory.createList(columns, RDataFactory.createStringVector(names, RDataFactory.COMPLETE_VECTOR));
+        result.setClassAttr(RDataFactory.createStringVector(RRuntime.CLASS_DATA_FRAME));
+        result.setAttr(RRuntime.ROWNAMES_ATTR_KEY, RDataFactory.createIntVector(new int[]{RRuntime.INT_NA, -rows}, RDataFactory.INCOMPLETE_VECTOR));
+        return result;
+    }
+}
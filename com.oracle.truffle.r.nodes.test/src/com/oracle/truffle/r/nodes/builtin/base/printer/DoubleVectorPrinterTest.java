@@ -26,10 +26,27 @@ import static org.junit.Assert.assertEquals;
 
 import org.junit.Test;
 
+import com.oracle.truffle.r.runtime.RRuntime;
+
 public class DoubleVectorPrinterTest {
 
     @Test
     public void testEncodeReal() {
         assertEquals("3.14159265358979e-06", DoubleVectorPrinter.encodeReal(Math.PI / 1000000));
+        assertEquals("0.333333333333333", DoubleVectorPrinter.encodeReal(1.0 / 3));
+        assertEquals("0.3", DoubleVectorPrinter.encodeReal(0.1 + 0.2));
+        assertEquals("123456.5", DoubleVectorPrinter.encodeReal(123456.5));
+        assertEquals("1e+05", DoubleVectorPrinter.encodeReal(100000));
+        assertEquals("-2.5e+10", DoubleVectorPrinter.encodeReal(-2.5e10));
+        assertEquals("1e-20", DoubleVectorPrinter.encodeReal(1e-20));
+    }
+
+    @Test
+    public void testEncodeRealDecimals() {
+        // the closest double is 1.09372399999999991848...
+        assertEquals("1.093724000000000", DoubleVectorPrinter.encodeReal(1.093724, 0, 15, 0, '.', "NA"));
+        assertEquals("  -1.099500000000000", DoubleVectorPrinter.encodeReal(-1.0995, 20, 15, 0, '.', "NA"));
+        assertEquals("  -1,235e-04", DoubleVectorPrinter.encodeReal(-0.00012346, 12, 3, 1, ',', "NA"));
+        assertEquals("   NA", DoubleVectorPrinter.encodeReal(RRuntime.DOUBLE_NA, 5, 3, 0, '.', "NA"));
     }
 }
@@ -284,6 +284,10 @@ final class CachedReplaceVectorNode extends CachedVectorNode {
             }
         }
 
+        if (vector instanceof RStringVector) {
+            // the elements are written in place
+            ((RStringVector) vector).invalidateLookupIndex();
+        }
         writeVectorNode.execute(vector, positions, value, vectorDimensions);
 
         RBaseNode.reportWork(this, replacementLength);
@@ -393,14 +397,26 @@ final class CachedReplaceVectorNode extends CachedVectorNode {
     @TruffleBoundary
     private static RAbstractVector resizeVector(RAbstractVector vector, int size) {
         RStringVector oldNames = vector.getNames();
-        RAbstractVector res = vector.copyResized(size, true).materialize();
-        if (vector instanceof RMaterializedVector) {
-            res.copyAttributesFrom(vector);
+        // names that are only referenced by this vector, e.g. those created by a previous append,
+        // grow along with the data (the names of 1-d arrays come from the dimnames list)
+        boolean growNames = oldNames != null && oldNames.isTemporary() && vector.getDimensions() == null;
+        RAbstractVector res;
+        if (!vector.isShared() && vector.growInPlace(size)) {
+            // appending to a non-shared vector, e.g. x[length(x) + 1] <- v, reuses its spare
+            // capacity and keeps the attributes in place
+            res = vector;
+        } else {
+            res = vector.copyResized(size, true).materialize();
+            if (vector instanceof RMaterializedVector) {
+                res.copyAttributesFrom(vector);
+            }
         }
         res.setDimensionsNoCheck(null);
         res.setDimNamesNoCheck(null);
         if (oldNames != null) {
-            oldNames = oldNames.resizeWithEmpty(size);
+            if (!growNames || !oldNames.growInPlaceWithEmpty(size)) {
+                oldNames = oldNames.resizeWithEmpty(size);
+            }
             res.setNames(oldNames);
         }
         return res;
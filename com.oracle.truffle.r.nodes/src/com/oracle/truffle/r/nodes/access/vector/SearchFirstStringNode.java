@@ -87,10 +87,12 @@ final class SearchFirstStringNode extends Node {
 
         if (cachedIndices == UNINTIALIZED_CACHED_INDICES) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            cachedIndices = searchCached(targetProfiled, targetLength, elementsProfiled, elementsLength, names);
+            cachedIndices = isIndexed(targetProfiled, targetLength) ? null : searchCached(targetProfiled, targetLength, elementsProfiled, elementsLength, names);
         }
         if (cachedIndices != null) {
-            if (!isCacheValid(targetProfiled, targetLength, elementsProfiled, elementsLength, cachedIndices)) {
+            // validating the cached indices is linear in the target length, long targets are
+            // better served by their lookup index
+            if (isIndexed(targetProfiled, targetLength) || !isCacheValid(targetProfiled, targetLength, elementsProfiled, elementsLength, cachedIndices)) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 cachedIndices = null; // set to generic
                 // fallthrough to generic
@@ -107,6 +109,10 @@ final class SearchFirstStringNode extends Node {
         return new SearchFirstStringNode(exactMatch, useNAForNotFound);
     }
 
+    private static boolean isIndexed(RAbstractStringVector target, int targetLength) {
+        return target instanceof RStringVector && targetLength >= RStringVector.LOOKUP_INDEX_MIN_LENGTH;
+    }
+
     private int[] searchCached(RAbstractStringVector target, int targetLength, RAbstractStringVector elements, int elementsLength, RStringVector names) {
         if (exactMatch) {
             RAbstractIntVector genericResult = searchGeneric(target, targetLength, elements, elementsLength, -1, true, names);
@@ -173,6 +179,7 @@ final class SearchFirstStringNode extends Node {
 
     private final BranchProfile notFoundProfile = BranchProfile.create();
     private final ConditionProfile hashingProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile indexedProfile = ConditionProfile.createBinaryProfile();
 
     private RAbstractIntVector searchGeneric(RAbstractStringVector target, int targetLength, RAbstractStringVector elements, int elementsLength, int notFoundStartIndex, boolean nullOnNotFound,
                     RStringVector names) {
@@ -182,17 +189,20 @@ final class SearchFirstStringNode extends Node {
         long hashingCost = targetLength * 10L + 10 /* constant overhead */;
         long lookupCost = elementsLength * 2L;
         long nestedLoopCost = targetLength * (long) elementsLength;
-        NonRecursiveHashMapCharacter map;
-        if (hashingProfile.profile(nestedLoopCost > hashingCost + lookupCost)) {
+        RStringVector indexedTarget = null;
+        NonRecursiveHashMapCharacter map = null;
+        if (indexedProfile.profile(isIndexed(target, targetLength))) {
+            // the index is kept with the target vector and reused by subsequent lookups
+            indexedTarget = (RStringVector) target;
+        } else if (hashingProfile.profile(nestedLoopCost > hashingCost + lookupCost)) {
             map = new NonRecursiveHashMapCharacter(targetLength);
-            for (int i = 0; i < targetLength; i++) {
+            // in reverse order, so that the first occurrence wins
+            for (int i = targetLength - 1; i >= 0; i--) {
                 String name = target.getDataAt(i);
                 if (!targetNACheck.check(name)) {
                     map.put(name, i);
                 }
             }
-        } else {
-            map = null;
         }
         int notFoundIndex = notFoundStartIndex;
         for (int i = 0; i < elementsLength; i++) {
@@ -200,8 +210,8 @@ final class SearchFirstStringNode extends Node {
             boolean isElementNA = elementsNACheck.check(element) || element.length() == 0;
             if (!isElementNA) {
                 int index;
-                if (map != null) {
-                    index = map.get(element);
+                if (indexedTarget != null || map != null) {
+                    index = indexedTarget != null ? indexedTarget.lookupFirstIndex(element) : map.get(element);
                     if (!exactMatch && index < 0) {
                         // the map is only good for exact matches
                         index = findNonExactIndex(target, targetLength, element);
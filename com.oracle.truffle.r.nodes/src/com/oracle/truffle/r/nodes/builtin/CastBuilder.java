@@ -382,6 +382,10 @@ public final class CastBuilder {
             return new CoercionStep<>(RType.Complex, true);
         }
 
+        public static <T> PipelineStep<T, RAbstractComplexVector> asComplexVector(boolean preserveNames, boolean preserveDimensions, boolean preserveAttributes) {
+            return new CoercionStep<>(RType.Complex, true, preserveNames, preserveDimensions, preserveAttributes);
+        }
+
         public static <T> PipelineStep<T, RAbstractRawVector> asRawVector() {
             return new CoercionStep<>(RType.Raw, true);
         }
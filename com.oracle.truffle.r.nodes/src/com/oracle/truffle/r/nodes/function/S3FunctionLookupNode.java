@@ -33,6 +33,7 @@ import com.oracle.truffle.api.frame.FrameSlotTypeException;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.InvalidAssumptionException;
 import com.oracle.truffle.api.nodes.NodeCost;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.profiles.BranchProfile;
@@ -47,6 +48,7 @@ import com.oracle.truffle.r.runtime.RDispatch;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.S3DispatchCache;
 import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
@@ -56,6 +58,8 @@ import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
+import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor.FrameAndSlotLookupResult;
+import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor.LookupResult;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 
 public abstract class S3FunctionLookupNode extends RBaseNode {
@@ -439,6 +443,51 @@ public abstract class S3FunctionLookupNode extends RBaseNode {
         }
     }
 
+    /**
+     * Collects the {@link LookupResult lookup results} describing all the reads performed during
+     * one method resolution, so that the result can be stored in the {@link S3DispatchCache}.
+     */
+    private static final class LookupRecorder {
+        private final ArrayList<LookupResult> lookups = new ArrayList<>();
+        private boolean cacheable = true;
+
+        void record(MaterializedFrame frame, String name, boolean functionLookup) {
+            if (!cacheable) {
+                return;
+            }
+            LookupResult lookup = FrameSlotChangeMonitor.lookup(frame, name);
+            if (lookup == null || lookup instanceof FrameAndSlotLookupResult) {
+                // the value of the binding is not tracked
+                cacheable = false;
+                return;
+            }
+            if (functionLookup) {
+                // a function lookup skips non-function values and continues in the enclosing
+                // frames, which the lookup result does not cover
+                Object value;
+                try {
+                    value = lookup.getValue();
+                } catch (InvalidAssumptionException e) {
+                    cacheable = false;
+                    return;
+                }
+                if (value != null && !(value instanceof RFunction) && !(value instanceof RPromise)) {
+                    cacheable = false;
+                    return;
+                }
+            }
+            lookups.add(lookup);
+        }
+
+        boolean isCacheable() {
+            return cacheable;
+        }
+
+        LookupResult[] getLookups() {
+            return lookups.toArray(new LookupResult[lookups.size()]);
+        }
+    }
+
     private static final class UseMethodFunctionLookupGenericNode extends S3FunctionLookupNode {
 
         protected UseMethodFunctionLookupGenericNode(boolean throwsError, boolean nextMethod, boolean defaultMethod) {
@@ -452,23 +501,38 @@ public abstract class S3FunctionLookupNode extends RBaseNode {
 
         @TruffleBoundary
         private Result executeInternal(String genericName, RStringVector type, String group, MaterializedFrame callerFrame, MaterializedFrame genericDefFrame) {
-            LookupOperation op = (lookupFrame, name, inMethodsTable) -> {
-                return ReadVariableNode.lookupFunction(name, lookupFrame, inMethodsTable, true);
-            };
+            S3DispatchCache cache = RContext.getInstance().s3DispatchCache;
+            Object cached = cache.get(genericName, group, type, callerFrame, genericDefFrame, nextMethod, defaultMethod);
+            Result result;
+            if (cached != S3DispatchCache.MISS) {
+                result = (Result) cached;
+            } else {
+                LookupRecorder recorder = new LookupRecorder();
+                LookupOperation op = (lookupFrame, name, inMethodsTable) -> {
+                    recorder.record(lookupFrame, name, !inMethodsTable);
+                    return ReadVariableNode.lookupFunction(name, lookupFrame, inMethodsTable, true);
+                };
+
+                GetMethodsTable getTable = () -> {
+                    FrameSlot slot = genericDefFrame == null ? null : genericDefFrame.getFrameDescriptor().findFrameSlot(RRuntime.RS3MethodsTable);
+                    if (genericDefFrame != null) {
+                        recorder.record(genericDefFrame, RRuntime.RS3MethodsTable, false);
+                    }
+                    if (slot == null) {
+                        return null;
+                    }
+                    try {
+                        return FrameSlotChangeMonitor.getObject(slot, genericDefFrame);
+                    } catch (FrameSlotTypeException e) {
+                        throw RInternalError.shouldNotReachHere();
+                    }
+                };
 
-            GetMethodsTable getTable = () -> {
-                FrameSlot slot = genericDefFrame == null ? null : genericDefFrame.getFrameDescriptor().findFrameSlot(RRuntime.RS3MethodsTable);
-                if (slot == null) {
-                    return null;
-                }
-                try {
-                    return FrameSlotChangeMonitor.getObject(slot, genericDefFrame);
-                } catch (FrameSlotTypeException e) {
-                    throw RInternalError.shouldNotReachHere();
+                result = performLookup(callerFrame, genericName, group, type, nextMethod, defaultMethod, op, getTable);
+                if (recorder.isCacheable()) {
+                    cache.put(genericName, group, type, callerFrame, genericDefFrame, nextMethod, defaultMethod, result, recorder.getLookups());
                 }
-            };
-
-            Result result = performLookup(callerFrame, genericName, group, type, nextMethod, defaultMethod, op, getTable);
+            }
 
             if (result == null) {
                 if (throwsError) {
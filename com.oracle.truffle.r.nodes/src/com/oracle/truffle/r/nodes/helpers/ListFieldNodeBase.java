@@ -36,6 +36,9 @@ public abstract class ListFieldNodeBase extends Node {
 
     protected static int getIndex(RStringVector names, String field) {
         if (names != null) {
+            if (names.getLength() >= RStringVector.LOOKUP_INDEX_MIN_LENGTH) {
+                return names.lookupFirstIndex(field);
+            }
             int fieldHash = field.hashCode();
             for (int i = 0; i < names.getLength(); i++) {
                 String current = names.getDataAt(i);
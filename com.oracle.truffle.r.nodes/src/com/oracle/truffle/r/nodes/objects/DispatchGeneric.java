@@ -34,6 +34,7 @@ import com.oracle.truffle.r.nodes.access.variables.ReadVariableNode;
 import com.oracle.truffle.r.nodes.helpers.InheritsCheckNode;
 import com.oracle.truffle.r.runtime.RCaller;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.S4DispatchCache;
 import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RFunction;
@@ -77,17 +78,18 @@ public abstract class DispatchGeneric extends RBaseNode {
         return LocalReadVariableNode.create(dispatchString, true);
     }
 
-    private Object dispatchInternal(VirtualFrame frame, REnvironment mtable, RStringVector classes, RFunction fdef, String fname, RFunction f) {
+    private RFunction inheritForDispatch(VirtualFrame frame, REnvironment mtable, RStringVector classes, RFunction fdef) {
+        // if method has not been found, it will be retrieved by the following R function call
+        // and installed in the methods table so that the slow path does not have to be executed
+        // again
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        REnvironment methodsEnv = REnvironment.getRegisteredNamespace("methods");
+        RFunction currentFunction = ReadVariableNode.lookupFunction(".InheritForDispatch", methodsEnv.getFrame(), true, true);
+        return (RFunction) RContext.getEngine().evalFunction(currentFunction, frame.materialize(), RCaller.create(frame, RASTUtils.getOriginalCall(this)), true, null, classes, fdef, mtable);
+    }
+
+    private Object dispatchInternal(VirtualFrame frame, String fname, RFunction f) {
         RFunction method = f;
-        if (method == null) {
-            // if method has not been found, it will be retrieved by the following R function call
-            // and installed in the methods table so that the slow path does not have to be executed
-            // again
-            CompilerDirectives.transferToInterpreterAndInvalidate();
-            REnvironment methodsEnv = REnvironment.getRegisteredNamespace("methods");
-            RFunction currentFunction = ReadVariableNode.lookupFunction(".InheritForDispatch", methodsEnv.getFrame(), true, true);
-            method = (RFunction) RContext.getEngine().evalFunction(currentFunction, frame.materialize(), RCaller.create(frame, RASTUtils.getOriginalCall(this)), true, null, classes, fdef, mtable);
-        }
         if (isDeferredProfile.profile(method.isBuiltin() || getInheritsInternalDispatchCheckNode().execute(method))) {
             return RRuntime.DEFERRED_DEFAULT_MARKER;
         }
@@ -103,24 +105,45 @@ public abstract class DispatchGeneric extends RBaseNode {
                     @Cached("createTableRead(dispatchString)") LocalReadVariableNode tableRead,
                     @Cached("createClassProfile()") ValueProfile frameAccessProfile) {
         RFunction method = (RFunction) tableRead.execute(frame, mtable.getFrame(frameAccessProfile));
-        return dispatchInternal(frame, mtable, classes, fdef, fname, method);
+        if (method == null) {
+            // another call site may have already resolved the inherited method
+            S4DispatchCache cache = RContext.getInstance().s4DispatchCache;
+            method = cache.get(mtable, classes);
+            if (method == null) {
+                method = inheritForDispatch(frame, mtable, classes, fdef);
+                cache.put(mtable, classes, dispatchString, method);
+            }
+        }
+        return dispatchInternal(frame, fname, method);
     }
 
     @Specialization(replaces = "dispatchCached")
-    protected Object dispatch(VirtualFrame frame, REnvironment mtable, RStringVector classes, RFunction fdef, String fname) {
-        String dispatchString = createDispatchString(classes);
-        RFunction method = (RFunction) mtable.get(dispatchString);
-        return dispatchInternal(frame, mtable, classes, fdef, fname, method);
+    protected Object dispatch(VirtualFrame frame, REnvironment mtable, RStringVector classes, RFunction fdef, String fname,
+                    @Cached("createBinaryProfile()") ConditionProfile globalCacheHitProfile) {
+        S4DispatchCache cache = RContext.getInstance().s4DispatchCache;
+        RFunction method = cache.get(mtable, classes);
+        if (globalCacheHitProfile.profile(method == null)) {
+            String dispatchString = createDispatchString(classes);
+            method = (RFunction) mtable.get(dispatchString);
+            if (method == null) {
+                method = inheritForDispatch(frame, mtable, classes, fdef);
+            }
+            cache.put(mtable, classes, dispatchString, method);
+        }
+        return dispatchInternal(frame, fname, method);
     }
 
     protected boolean equalClasses(RStringVector classes, RStringVector cachedClasses) {
         if (cachedClasses.getLength() == classes.getLength()) {
             for (int i = 0; i < cachedClasses.getLength(); i++) {
-                // TODO: makes sure equality is good enough here, but it's for optimization only
-                // anwyay
-                if (!Utils.fastPathIdentityEquals(cachedClasses.getDataAt(i), classes.getDataAt(i))) {
+                // class names are mostly interned or deduplicated, so identity is the common case
+                String cachedClass = cachedClasses.getDataAt(i);
+                String clazz = classes.getDataAt(i);
+                if (!Utils.fastPathIdentityEquals(cachedClass, clazz)) {
                     equalsMethodRequired.enter();
-                    return cachedClasses.getDataAt(i).equals(classes.getDataAt(i));
+                    if (!cachedClass.equals(clazz)) {
+                        return false;
+                    }
                 }
             }
             return true;
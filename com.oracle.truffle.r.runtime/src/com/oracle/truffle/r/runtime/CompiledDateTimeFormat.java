@@ -0,0 +1,519 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An R date-time format string ({@code strptime}/{@code strftime} conversion specifications)
+ * compiled into a flat sequence of instructions which can parse and print the broken-down time
+ * fields without going through {@code java.time} objects.
+ *
+ * Only the locale independent numeric conversions are supported: {@code %Y}, {@code %y},
+ * {@code %m}, {@code %d}, {@code %e}, {@code %H}, {@code %M}, {@code %S}, {@code %OS},
+ * {@code %OSn}, {@code %j} (output only), {@code %z} (input only), the compound {@code %F},
+ * {@code %T}, {@code %D} and {@code %R}, {@code %%} and literal text. Formats using anything else
+ * are not compiled and the callers are expected to use the general, {@code java.time} based,
+ * implementation. The same applies to individual elements that the compiled format rejects: parsing
+ * and printing return {@code false} for input that is not trivially valid (e.g., hour 24 or second
+ * 60) and the caller falls back to the general implementation for that element.
+ */
+public final class CompiledDateTimeFormat {
+
+    private static final byte LITERAL = 0;
+    private static final byte SPACE = 1;
+    private static final byte YEAR = 2;
+    private static final byte YEAR_2 = 3;
+    private static final byte MONTH = 4;
+    private static final byte DAY = 5;
+    private static final byte DAY_SPACE_PADDED = 6;
+    private static final byte HOUR = 7;
+    private static final byte MINUTE = 8;
+    private static final byte SECOND = 9;
+    private static final byte FRACTIONAL_SECOND = 10;
+    private static final byte DAY_OF_YEAR = 11;
+    private static final byte OFFSET = 12;
+
+    private static final int SECONDS_PER_DAY = 86400;
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final long[] POW10 = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L};
+
+    /**
+     * Marks a format that cannot be compiled in the cache.
+     */
+    private static final CompiledDateTimeFormat UNSUPPORTED = new CompiledDateTimeFormat(new byte[0], new int[0], false, false);
+
+    private final byte[] kinds;
+    /**
+     * The literal character for {@link #LITERAL} and {@link #SPACE}, the number of fractional
+     * digits for {@link #FRACTIONAL_SECOND}.
+     */
+    private final int[] args;
+    private final boolean canParse;
+    private final boolean canFormat;
+
+    private CompiledDateTimeFormat(byte[] kinds, int[] args, boolean canParse, boolean canFormat) {
+        this.kinds = kinds;
+        this.args = args;
+        this.canParse = canParse;
+        this.canFormat = canFormat;
+    }
+
+    /**
+     * Broken-down time as read by {@link #parse} or computed by {@link #setFromLocalSeconds}. The
+     * month is 0-based, the day of week counts from Sunday and the day of year is 0-based, as in
+     * {@code POSIXlt}.
+     */
+    public static final class Fields {
+        public int year;
+        public int month;
+        public int day;
+        public int hour;
+        public int minute;
+        public double second;
+        public int wday;
+        public int yday;
+        /**
+         * Offset from UTC in seconds given by {@code %z}, or {@link #NO_OFFSET}.
+         */
+        public int offset;
+
+        public static final int NO_OFFSET = Integer.MIN_VALUE;
+
+        /**
+         * Seconds since 1970-01-01T00:00 in the local time, ignoring the fractional seconds.
+         */
+        public long toLocalSeconds() {
+            return daysFromCivil(year, month + 1, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + (long) second;
+        }
+
+        /**
+         * Sets the date and time fields from given local seconds, {@link #second} is set to the
+         * whole second of minute.
+         */
+        public void setFromLocalSeconds(long localSeconds) {
+            long days = Math.floorDiv(localSeconds, SECONDS_PER_DAY);
+            int secondOfDay = (int) Math.floorMod(localSeconds, SECONDS_PER_DAY);
+            setDate(days);
+            hour = secondOfDay / 3600;
+            minute = (secondOfDay / 60) % 60;
+            second = secondOfDay % 60;
+        }
+
+        private void setDate(long days) {
+            // civil-from-days, see http://howardhinnant.github.io/date_algorithms.html
+            long z = days + 719468;
+            long era = (z >= 0 ? z : z - 146096) / 146097;
+            long doe = z - era * 146097;
+            long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+            long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+            long mp = (5 * doy + 2) / 153;
+            int m = (int) (mp < 10 ? mp + 3 : mp - 9);
+            year = (int) (yoe + era * 400 + (m <= 2 ? 1 : 0));
+            month = m - 1;
+            day = (int) (doy - (153 * mp + 2) / 5 + 1);
+            wday = (int) Math.floorMod(days + 4, 7L);
+            yday = (int) (days - daysFromCivil(year, 1, 1));
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 of given proleptic Gregorian date, month is 1-based.
+     */
+    public static long daysFromCivil(int y, int m, int d) {
+        long year = m <= 2 ? y - 1 : y;
+        long era = (year >= 0 ? year : year - 399) / 400;
+        long yoe = year - era * 400;
+        long doy = (153 * (m + (m > 2 ? -3 : 9)) + 2) / 5 + d - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return month == 1 && isLeapYear(year) ? 29 : DAYS_IN_MONTH[month];
+    }
+
+    /**
+     * Compiles given format, returns {@code null} if it uses unsupported conversions.
+     */
+    public static CompiledDateTimeFormat compile(String format) {
+        Builder builder = new Builder();
+        return builder.append(format) ? builder.build() : null;
+    }
+
+    private static final class Builder {
+        private byte[] kinds = new byte[16];
+        private int[] args = new int[16];
+        private int size;
+        private boolean canParse = true;
+        private boolean canFormat = true;
+        private boolean hasYear;
+        private boolean hasMonth;
+        private boolean hasDay;
+
+        private void add(byte kind, int arg) {
+            if (size == kinds.length) {
+                kinds = Arrays.copyOf(kinds, size * 2);
+                args = Arrays.copyOf(args, size * 2);
+            }
+            kinds[size] = kind;
+            args[size] = arg;
+            size++;
+        }
+
+        private boolean append(String format) {
+            int i = 0;
+            while (i < format.length()) {
+                char c = format.charAt(i++);
+                if (c != '%') {
+                    add(Character.isWhitespace(c) ? SPACE : LITERAL, c);
+                    continue;
+                }
+                if (i == format.length()) {
+                    return false;
+                }
+                c = format.charAt(i++);
+                switch (c) {
+                    case '%':
+                        add(LITERAL, '%');
+                        break;
+                    case 'Y':
+                        add(YEAR, 0);
+                        hasYear = true;
+                        break;
+                    case 'y':
+                        add(YEAR_2, 0);
+                        hasYear = true;
+                        break;
+                    case 'm':
+                        add(MONTH, 0);
+                        hasMonth = true;
+                        break;
+                    case 'd':
+                        add(DAY, 0);
+                        hasDay = true;
+                        break;
+                    case 'e':
+                        add(DAY_SPACE_PADDED, 0);
+                        hasDay = true;
+                        break;
+                    case 'H':
+                        add(HOUR, 0);
+                        break;
+                    case 'M':
+                        add(MINUTE, 0);
+                        break;
+                    case 'S':
+                        add(SECOND, 0);
+                        break;
+                    case 'O':
+                        if (i == format.length() || format.charAt(i) != 'S') {
+                            return false;
+                        }
+                        i++;
+                        if (i < format.length() && format.charAt(i) >= '0' && format.charAt(i) <= '6') {
+                            add(FRACTIONAL_SECOND, format.charAt(i++) - '0');
+                        } else {
+                            add(FRACTIONAL_SECOND, -1);
+                        }
+                        break;
+                    case 'j':
+                        add(DAY_OF_YEAR, 0);
+                        canParse = false;
+                        break;
+                    case 'z':
+                        add(OFFSET, 0);
+                        canFormat = false;
+                        break;
+                    case 'F':
+                        append("%Y-%m-%d");
+                        break;
+                    case 'T':
+                        append("%H:%M:%S");
+                        break;
+                    case 'D':
+                        append("%m/%d/%y");
+                        break;
+                    case 'R':
+                        append("%H:%M");
+                        break;
+                    default:
+                        return false;
+                }
+            }
+            return true;
+        }
+
+        private CompiledDateTimeFormat build() {
+            // formats without a complete date take the missing parts from the current date
+            boolean parse = canParse && hasYear && hasMonth && hasDay;
+            return new CompiledDateTimeFormat(Arrays.copyOf(kinds, size), Arrays.copyOf(args, size), parse, canFormat);
+        }
+    }
+
+    public boolean canParse() {
+        return canParse;
+    }
+
+    public boolean canFormat() {
+        return canFormat;
+    }
+
+    /**
+     * Parses given string into {@code fields}, ignoring any trailing characters. Returns
+     * {@code false} if the string does not match or if the result is not a valid date.
+     */
+    public boolean parse(String str, Fields fields) {
+        assert canParse;
+        fields.hour = 0;
+        fields.minute = 0;
+        fields.second = 0;
+        fields.offset = Fields.NO_OFFSET;
+        int pos = 0;
+        int length = str.length();
+        for (int op = 0; op < kinds.length; op++) {
+            int value;
+            switch (kinds[op]) {
+                case LITERAL:
+                    if (pos == length || str.charAt(pos) != args[op]) {
+                        return false;
+                    }
+                    pos++;
+                    break;
+                case SPACE:
+                    while (pos < length && Character.isWhitespace(str.charAt(pos))) {
+                        pos++;
+                    }
+                    break;
+                case YEAR:
+                    if ((value = parseNumber(str, pos, 4)) < 0) {
+                        return false;
+                    }
+                    pos += value >>> 16;
+                    fields.year = value & 0xFFFF;
+                    break;
+                case YEAR_2:
+                    if ((value = parseNumber(str, pos, 2)) < 0) {
+                        return false;
+                    }
+                    pos += value >>> 16;
+                    value &= 0xFFFF;
+                    fields.year = value < 69 ? 2000 + value : 1900 + value;
+                    break;
+                case MONTH:
+                    if ((value = parseNumber(str, pos, 2)) < 0 || (value & 0xFFFF) < 1 || (value & 0xFFFF) > 12) {
+                        return false;
+                    }
+                    pos += value >>> 16;
+                    fields.month = (value & 0xFFFF) - 1;
+                    break;
+                case DAY_SPACE_PADDED:
+                    if (pos < length && str.charAt(pos) == ' ') {
+                        pos++;
+                    }
+                    // fall through
+                case DAY:
+                    if ((value = parseNumber(str, pos, 2)) < 0 || (value & 0xFFFF) < 1) {
+                        return false;
+                    }
+                    pos += value >>> 16;
+                    fields.day = value & 0xFFFF;
+                    break;
+                case HOUR:
+                    if ((value = parseNumber(str, pos, 2)) < 0 || (value & 0xFFFF) > 23) {
+                        return false;
+                    }
+                    pos += value >>> 16;
+                    fields.hour = value & 0xFFFF;
+                    break;
+                case MINUTE:
+                    if ((value = parseNumber(str, pos, 2)) < 0 || (value & 0xFFFF) > 59) {
+                        return false;
+                    }
+                    pos += value >>> 16;
+                    fields.minute = value & 0xFFFF;
+                    break;
+                case SECOND:
+                case FRACTIONAL_SECOND:
+                    if ((value = parseNumber(str, pos, 2)) < 0 || (value & 0xFFFF) > 59) {
+                        return false;
+                    }
+                    pos += value >>> 16;
+                    fields.second = value & 0xFFFF;
+                    if (kinds[op] == FRACTIONAL_SECOND && pos + 1 < length && str.charAt(pos) == '.' && isDigit(str.charAt(pos + 1))) {
+                        long fraction = 0;
+                        int digits = 0;
+                        pos++;
+                        while (pos < length && isDigit(str.charAt(pos))) {
+                            if (digits < 9) {
+                                fraction = fraction * 10 + str.charAt(pos) - '0';
+                                digits++;
+                            }
+                            pos++;
+                        }
+                        fields.second += (double) fraction / POW10[digits];
+                    }
+                    break;
+                case OFFSET:
+                    if (pos + 5 > length || (str.charAt(pos) != '+' && str.charAt(pos) != '-') || (value = parseNumber(str, pos + 1, 4)) < 0 || (value >>> 16) != 4) {
+                        return false;
+                    }
+                    int hours = (value & 0xFFFF) / 100;
+                    int minutes = (value & 0xFFFF) % 100;
+                    if (hours > 14 || minutes > 59) {
+                        return false;
+                    }
+                    fields.offset = (str.charAt(pos) == '-' ? -1 : 1) * (hours * 3600 + minutes * 60);
+                    pos += 5;
+                    break;
+                default:
+                    throw RInternalError.shouldNotReachHere();
+            }
+        }
+        return fields.day <= daysInMonth(fields.year, fields.month);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Reads up to {@code maxDigits} decimal digits, returns the number of digits read in the upper
+     * and the value in the lower 16 bits, or {@code -1} if there is no digit.
+     */
+    private static int parseNumber(String str, int start, int maxDigits) {
+        int pos = start;
+        int end = Math.min(str.length(), start + maxDigits);
+        int value = 0;
+        while (pos < end && isDigit(str.charAt(pos))) {
+            value = value * 10 + str.charAt(pos) - '0';
+            pos++;
+        }
+        return pos == start ? -1 : ((pos - start) << 16) | value;
+    }
+
+    /**
+     * Appends the formatted time to {@code out}. The month is 0-based and the year is the full
+     * year. Returns {@code false}, leaving {@code out} unchanged, if any of the fields is out of its
+     * usual range.
+     */
+    public boolean format(int year, int month, int day, int hour, int minute, double second, StringBuilder out) {
+        assert canFormat;
+        if (year < 0 || year > 9999 || month < 0 || month > 11 || day < 1 || day > daysInMonth(year, month) || hour < 0 || hour > 23 || minute < 0 || minute > 59 || !(second >= 0 && second < 60)) {
+            return false;
+        }
+        for (int op = 0; op < kinds.length; op++) {
+            switch (kinds[op]) {
+                case LITERAL:
+                case SPACE:
+                    out.append((char) args[op]);
+                    break;
+                case YEAR:
+                    appendPadded(out, year, 4, '0');
+                    break;
+                case YEAR_2:
+                    appendPadded(out, year % 100, 2, '0');
+                    break;
+                case MONTH:
+                    appendPadded(out, month + 1, 2, '0');
+                    break;
+                case DAY:
+                    appendPadded(out, day, 2, '0');
+                    break;
+                case DAY_SPACE_PADDED:
+                    appendPadded(out, day, 2, ' ');
+                    break;
+                case HOUR:
+                    appendPadded(out, hour, 2, '0');
+                    break;
+                case MINUTE:
+                    appendPadded(out, minute, 2, '0');
+                    break;
+                case SECOND:
+                    appendPadded(out, (int) second, 2, '0');
+                    break;
+                case FRACTIONAL_SECOND:
+                    appendPadded(out, (int) second, 2, '0');
+                    int digits = args[op];
+                    if (digits > 0) {
+                        long nanos = (long) ((second - Math.floor(second)) * 1000000000L);
+                        out.append('.');
+                        appendPadded(out, (int) (nanos / POW10[9 - digits]), digits, '0');
+                    }
+                    break;
+                case DAY_OF_YEAR:
+                    appendPadded(out, (int) (daysFromCivil(year, month + 1, day) - daysFromCivil(year, 1, 1)) + 1, 3, '0');
+                    break;
+                default:
+                    throw RInternalError.shouldNotReachHere();
+            }
+        }
+        return true;
+    }
+
+    private static void appendPadded(StringBuilder out, int value, int width, char pad) {
+        for (int limit = 10, i = 1; i < width; i++, limit *= 10) {
+            if (value < limit) {
+                out.append(pad);
+            }
+        }
+        out.append(value);
+    }
+
+    /**
+     * Per context cache of compiled formats and of time zone transition tables.
+     */
+    public static final class Cache {
+        private static final int MAX_FORMATS = 256;
+
+        private final ConcurrentHashMap<String, CompiledDateTimeFormat> formats = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<ZoneId, ZoneTransitionTable> zones = new ConcurrentHashMap<>();
+
+        /**
+         * Returns the compiled format or {@code null} if the format cannot be compiled.
+         */
+        public CompiledDateTimeFormat getFormat(String format) {
+            CompiledDateTimeFormat result = formats.get(format);
+            if (result == null) {
+                result = compile(format);
+                if (result == null) {
+                    result = UNSUPPORTED;
+                }
+                if (formats.size() < MAX_FORMATS) {
+                    formats.putIfAbsent(format, result);
+                }
+            }
+            return result == UNSUPPORTED ? null : result;
+        }
+
+        public ZoneTransitionTable getZone(ZoneId zone) {
+            return zones.computeIfAbsent(zone, ZoneTransitionTable::new);
+        }
+    }
+}
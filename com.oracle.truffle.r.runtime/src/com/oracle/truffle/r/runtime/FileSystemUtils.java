@@ -29,9 +29,13 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.CopyOption;
 import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileVisitor;
+import java.nio.file.LinkOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
 import java.nio.file.attribute.PosixFilePermission;
@@ -45,8 +49,16 @@ import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+import java.util.function.IntConsumer;
 import java.util.function.Predicate;
 import java.util.regex.PatternSyntaxException;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -164,6 +176,267 @@ public class FileSystemUtils {
         return start;
     }
 
+    /**
+     * The fork-join pool of the parallel file system operations. Their tasks block in I/O, so they
+     * do not run in the common pool, which would starve the parallel streams of the computational
+     * builtins. The pool is only created on first use.
+     */
+    private static final class IOPool {
+        private static final int MAX_THREADS = 16;
+        private static final AtomicInteger threadCount = new AtomicInteger();
+
+        private static final ForkJoinPool INSTANCE = new ForkJoinPool(Math.min(MAX_THREADS, 2 * Runtime.getRuntime().availableProcessors()), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("FastR-file-io-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Runs {@code action} for all indices from {@code 0} to {@code length - 1} in parallel in the
+     * file I/O pool and waits for its completion. The action may block in I/O and must be thread
+     * safe.
+     */
+    @TruffleBoundary
+    public static void parallelForIO(int length, IntConsumer action) {
+        IOPool.INSTANCE.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, length).parallel().forEach(action)));
+    }
+
+    /**
+     * Lists the files of the tree below {@code start} that satisfy {@code matcher}, including
+     * {@code start} itself, with the same depth limit and in the same order as {@link #find}. The
+     * matcher is also given whether the file is a directory, so that it does not have to query the
+     * file system again. If {@code parallel}, the subdirectories are listed in tasks of the file I/O
+     * pool and the matcher must be thread safe. Subdirectories that cannot be read are
+     * skipped.
+     *
+     * @throws IOException if {@code start} is a directory that cannot be read.
+     */
+    @TruffleBoundary
+    public static List<TruffleFile> findAll(TruffleFile start, int maxDepth, BiPredicate<TruffleFile, Boolean> matcher, boolean parallel) throws IOException {
+        ArrayList<TruffleFile> result = new ArrayList<>();
+        boolean isDirectory = start.isDirectory();
+        if (matcher.test(start, isDirectory)) {
+            result.add(start);
+        }
+        if (isDirectory && maxDepth > 0) {
+            // the start directory is listed here to report its errors
+            List<Object> entries = listEntries(start, 1, maxDepth, matcher, parallel);
+            FindTask task = new FindTask(entries, maxDepth, matcher, parallel);
+            List<TruffleFile> files = parallel ? IOPool.INSTANCE.invoke(task) : task.compute();
+            result.addAll(files);
+        }
+        return result;
+    }
+
+    /**
+     * Lists the entries of {@code dir} at {@code depth}, with the files that satisfy the matcher and
+     * the tasks for the subdirectories in their order.
+     */
+    private static List<Object> listEntries(TruffleFile dir, int depth, int maxDepth, BiPredicate<TruffleFile, Boolean> matcher, boolean parallel) throws IOException {
+        ArrayList<Object> entries = new ArrayList<>();
+        try (DirectoryStream<TruffleFile> stream = dir.newDirectoryStream()) {
+            for (TruffleFile entry : stream) {
+                boolean isDirectory = entry.isDirectory();
+                if (matcher.test(entry, isDirectory)) {
+                    entries.add(entry);
+                }
+                if (isDirectory && depth < maxDepth) {
+                    entries.add(new FindTask(entry, depth + 1, maxDepth, matcher, parallel));
+                }
+            }
+        } catch (DirectoryIteratorException e) {
+            throw e.getCause();
+        }
+        return entries;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class FindTask extends RecursiveTask<List<TruffleFile>> {
+        private final TruffleFile dir;
+        private final int depth;
+        private final int maxDepth;
+        private final BiPredicate<TruffleFile, Boolean> matcher;
+        private final boolean parallel;
+        private List<Object> entries;
+
+        FindTask(TruffleFile dir, int depth, int maxDepth, BiPredicate<TruffleFile, Boolean> matcher, boolean parallel) {
+            this.dir = dir;
+            this.depth = depth;
+            this.maxDepth = maxDepth;
+            this.matcher = matcher;
+            this.parallel = parallel;
+        }
+
+        FindTask(List<Object> entries, int maxDepth, BiPredicate<TruffleFile, Boolean> matcher, boolean parallel) {
+            this(null, 0, maxDepth, matcher, parallel);
+            this.entries = entries;
+        }
+
+        @Override
+        protected List<TruffleFile> compute() {
+            if (entries == null) {
+                try {
+                    entries = listEntries(dir, depth, maxDepth, matcher, parallel);
+                } catch (IOException e) {
+                    return new ArrayList<>();
+                }
+            }
+            if (parallel) {
+                for (Object entry : entries) {
+                    if (entry instanceof FindTask) {
+                        ((FindTask) entry).fork();
+                    }
+                }
+            }
+            ArrayList<TruffleFile> result = new ArrayList<>();
+            for (Object entry : entries) {
+                if (entry instanceof FindTask) {
+                    FindTask task = (FindTask) entry;
+                    result.addAll(parallel ? task.join() : task.compute());
+                } else {
+                    result.add((TruffleFile) entry);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Deletes the contents of directory {@code dir}, the subdirectories in tasks of the file I/O
+     * pool if {@code parallel}. Returns {@code false} if anything could not be deleted.
+     */
+    @TruffleBoundary
+    public static boolean deleteContents(TruffleFile dir, boolean parallel) {
+        DeleteTask task = new DeleteTask(dir, parallel);
+        return parallel ? IOPool.INSTANCE.invoke(task) : task.compute();
+    }
+
+    @SuppressWarnings("serial")
+    private static final class DeleteTask extends RecursiveTask<Boolean> {
+        private final TruffleFile dir;
+        private final boolean parallel;
+
+        DeleteTask(TruffleFile dir, boolean parallel) {
+            this.dir = dir;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected Boolean compute() {
+            boolean success = true;
+            ArrayList<TruffleFile> files = new ArrayList<>();
+            ArrayList<DeleteTask> subdirs = new ArrayList<>();
+            try (DirectoryStream<TruffleFile> stream = dir.newDirectoryStream()) {
+                for (TruffleFile entry : stream) {
+                    if (entry.isDirectory(LinkOption.NOFOLLOW_LINKS)) {
+                        DeleteTask task = new DeleteTask(entry, parallel);
+                        if (parallel) {
+                            task.fork();
+                        }
+                        subdirs.add(task);
+                    } else {
+                        files.add(entry);
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                success = false;
+            }
+            for (TruffleFile file : files) {
+                success &= delete(file);
+            }
+            for (DeleteTask task : subdirs) {
+                success &= parallel ? task.join() : task.compute();
+                success &= delete(task.dir);
+            }
+            return success;
+        }
+
+        private static boolean delete(TruffleFile file) {
+            try {
+                deleteIfExists(file);
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Copies directory {@code fromDir} with all its contents to {@code toDir}, the subdirectories
+     * in tasks of the file I/O pool if {@code parallel}. Symbolic links are copied as the
+     * files they point to, but not followed into directories. Returns {@code false} if a target
+     * file or directory already exists or a directory could not be copied.
+     *
+     * @throws IOException if a file cannot be copied or a directory cannot be read.
+     */
+    @TruffleBoundary
+    public static boolean copyTree(TruffleFile fromDir, TruffleFile toDir, CopyOption[] copyOptions, boolean parallel) throws IOException {
+        CopyTask task = new CopyTask(fromDir, toDir, copyOptions, parallel);
+        try {
+            return parallel ? IOPool.INSTANCE.invoke(task) : task.compute();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class CopyTask extends RecursiveTask<Boolean> {
+        private final TruffleFile from;
+        private final TruffleFile to;
+        private final CopyOption[] copyOptions;
+        private final boolean parallel;
+
+        CopyTask(TruffleFile from, TruffleFile to, CopyOption[] copyOptions, boolean parallel) {
+            this.from = from;
+            this.to = to;
+            this.copyOptions = copyOptions;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected Boolean compute() {
+            boolean success = true;
+            try {
+                from.copy(to, copyOptions);
+            } catch (FileAlreadyExistsException e) {
+                success = false;
+            } catch (DirectoryNotEmptyException e) {
+                // ok
+            } catch (IOException e) {
+                return false;
+            }
+            ArrayList<CopyTask> subdirs = new ArrayList<>();
+            try (DirectoryStream<TruffleFile> stream = from.newDirectoryStream()) {
+                for (TruffleFile entry : stream) {
+                    TruffleFile target = to.resolve(entry.getName());
+                    if (entry.isDirectory(LinkOption.NOFOLLOW_LINKS)) {
+                        CopyTask task = new CopyTask(entry, target, copyOptions, parallel);
+                        if (parallel) {
+                            task.fork();
+                        }
+                        subdirs.add(task);
+                    } else {
+                        try {
+                            entry.copy(target, copyOptions);
+                        } catch (FileAlreadyExistsException e) {
+                            success = false;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (DirectoryIteratorException e) {
+                throw new UncheckedIOException(e.getCause());
+            }
+            for (CopyTask task : subdirs) {
+                success &= parallel ? task.join() : task.compute();
+            }
+            return success;
+        }
+    }
+
     private static final class FileTreeIterator implements Iterator<Event>, Closeable {
         private final FileTreeWalker walker;
         private Event next;
@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.util.HashMap;
+import java.util.function.BinaryOperator;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashMapCharacter;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashMapDouble;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashMapInt;
+import com.oracle.truffle.r.runtime.ParallelChunks.ChunkReducer;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * Grouping engine shared by {@code rowsum}, {@code split}, {@code tabulate} and the
+ * {@code .fastr.groupReduce} builtin behind {@code tapply}.
+ *
+ * Groups are represented by dense codes: either 0-based indices as computed by
+ * {@link #match(RAbstractVector, RAbstractVector)}, which hashes keys in primitive open addressing
+ * tables, or 1-based factor codes, which need no hashing at all. Multiple factor keys are combined
+ * by the callers into a single mixed radix code (as {@code tapply} does). The reductions make a
+ * single pass over the data; the ones whose result does not depend on the order of the elements are
+ * computed in parallel chunks for large inputs if {@link FastROptions#ParallelGrouping} is enabled.
+ */
+public final class Grouping {
+
+    /**
+     * Group index of elements without a group (no match, {@code NA} or out of range code).
+     */
+    public static final int NO_GROUP = -1;
+
+    private static final int PARALLEL_CHUNK_SIZE = 1 << 20;
+
+    private Grouping() {
+        // only static members
+    }
+
+    /**
+     * Computes the 0-based index of every element of {@code keys} in {@code table} (the first
+     * occurrence) or {@link #NO_GROUP}, with the semantics of {@code match}.
+     */
+    @TruffleBoundary
+    public static int[] match(RAbstractVector keys, RAbstractVector table) {
+        int n = keys.getLength();
+        int[] result = new int[n];
+        if (keys instanceof RAbstractIntVector && table instanceof RAbstractIntVector) {
+            RAbstractIntVector k = (RAbstractIntVector) keys;
+            RAbstractIntVector t = (RAbstractIntVector) table;
+            NonRecursiveHashMapInt map = new NonRecursiveHashMapInt(t.getLength());
+            for (int i = t.getLength() - 1; i >= 0; i--) {
+                map.put(t.getDataAt(i), i);
+            }
+            for (int i = 0; i < n; i++) {
+                result[i] = map.get(k.getDataAt(i));
+            }
+        } else if (keys instanceof RAbstractDoubleVector && table instanceof RAbstractDoubleVector) {
+            RAbstractDoubleVector k = (RAbstractDoubleVector) keys;
+            RAbstractDoubleVector t = (RAbstractDoubleVector) table;
+            NonRecursiveHashMapDouble map = new NonRecursiveHashMapDouble(t.getLength());
+            for (int i = t.getLength() - 1; i >= 0; i--) {
+                map.put(normalizeZero(t.getDataAt(i)), i);
+            }
+            for (int i = 0; i < n; i++) {
+                result[i] = map.get(normalizeZero(k.getDataAt(i)));
+            }
+        } else if (keys instanceof RAbstractStringVector && table instanceof RAbstractStringVector) {
+            RAbstractStringVector k = (RAbstractStringVector) keys;
+            RAbstractStringVector t = (RAbstractStringVector) table;
+            NonRecursiveHashMapCharacter map = new NonRecursiveHashMapCharacter(t.getLength());
+            for (int i = t.getLength() - 1; i >= 0; i--) {
+                map.put(t.getDataAt(i), i);
+            }
+            for (int i = 0; i < n; i++) {
+                result[i] = map.get(k.getDataAt(i));
+            }
+        } else {
+            HashMap<Object, Integer> map = new HashMap<>();
+            for (int i = table.getLength() - 1; i >= 0; i--) {
+                map.put(table.getDataAtAsObject(i), i);
+            }
+            for (int i = 0; i < n; i++) {
+                Integer index = map.get(keys.getDataAtAsObject(i));
+                result[i] = index == null ? NO_GROUP : index;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * -0.0 and 0.0 are the same key, but have different hash codes.
+     */
+    private static double normalizeZero(double value) {
+        return value == 0 ? 0.0 : value;
+    }
+
+    /**
+     * Returns the group index of given 1-based code, or {@link #NO_GROUP}.
+     */
+    private static int group(int code, int groupCount) {
+        return code > 0 && code <= groupCount ? code - 1 : NO_GROUP;
+    }
+
+    /**
+     * Counts the occurrences of the 1-based codes {@code 1..groupCount}, {@code NA} and other
+     * values are ignored. The codes are recycled to {@code length} elements.
+     */
+    @TruffleBoundary
+    public static int[] countCodes(RAbstractIntVector codes, int groupCount, int length) {
+        int codesLength = codes.getLength();
+        if (codesLength == 0) {
+            return new int[groupCount];
+        }
+        int[] data = codes.getReadonlyData();
+        int[] counts = reduce(Math.min(length, codesLength), (from, to) -> {
+            int[] result = new int[groupCount];
+            for (int i = from; i < to; i++) {
+                int g = group(data[i], groupCount);
+                if (g != NO_GROUP) {
+                    result[g]++;
+                }
+            }
+            return result;
+        }, Grouping::addTo);
+        if (length > codesLength) {
+            // recycled codes: whole repetitions followed by a prefix
+            int repetitions = length / codesLength;
+            for (int g = 0; g < groupCount; g++) {
+                counts[g] *= repetitions;
+            }
+            for (int i = 0; i < length % codesLength; i++) {
+                int g = group(data[i], groupCount);
+                if (g != NO_GROUP) {
+                    counts[g]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Sums the values of each group, the result is {@code null} if a sum overflows the integer
+     * range. {@code NA} values make the sum of their group {@code NA} unless {@code naRm} is set.
+     */
+    @TruffleBoundary
+    public static int[] sum(int[] x, int[] codes, int groupCount, boolean naRm) {
+        long[] sums = reduce(x.length, (from, to) -> {
+            long[] result = new long[groupCount];
+            boolean[] na = new boolean[groupCount];
+            for (int i = from; i < to; i++) {
+                int g = group(codes[i], groupCount);
+                if (g != NO_GROUP) {
+                    if (RRuntime.isNA(x[i])) {
+                        na[g] |= !naRm;
+                    } else {
+                        result[g] += x[i];
+                    }
+                }
+            }
+            for (int g = 0; g < groupCount; g++) {
+                if (na[g]) {
+                    result[g] = Long.MIN_VALUE;
+                }
+            }
+            return result;
+        }, (a, b) -> {
+            for (int g = 0; g < a.length; g++) {
+                a[g] = a[g] == Long.MIN_VALUE || b[g] == Long.MIN_VALUE ? Long.MIN_VALUE : a[g] + b[g];
+            }
+            return a;
+        });
+        int[] result = new int[groupCount];
+        for (int g = 0; g < groupCount; g++) {
+            if (sums[g] == Long.MIN_VALUE) {
+                result[g] = RRuntime.INT_NA;
+            } else if (sums[g] > Integer.MAX_VALUE || sums[g] < -Integer.MAX_VALUE) {
+                return null;
+            } else {
+                result[g] = (int) sums[g];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sums the values of each group in the order of the elements (i.e. never in parallel), so
+     * that the result does not depend on the number of chunks.
+     */
+    @TruffleBoundary
+    public static double[] sum(double[] x, int[] codes, int groupCount, boolean naRm) {
+        double[] result = new double[groupCount];
+        for (int i = 0; i < x.length; i++) {
+            int g = group(codes[i], groupCount);
+            if (g != NO_GROUP && !(naRm && Double.isNaN(x[i]))) {
+                result[g] += x[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the means of the groups the same way as the {@code mean} builtin, i.e. the values
+     * are summed in the order of the elements and the sum is divided by the count. The first
+     * {@code NA} or {@code NaN} of a group is its mean unless {@code naRm} is set. Groups without
+     * values (after the removal of {@code NA}s) get {@code NaN}.
+     */
+    @TruffleBoundary
+    public static double[] mean(double[] x, int[] codes, int groupCount, boolean naRm) {
+        double[] result = new double[groupCount];
+        int[] counts = new int[groupCount];
+        boolean[] na = new boolean[groupCount];
+        for (int i = 0; i < x.length; i++) {
+            int g = group(codes[i], groupCount);
+            if (g == NO_GROUP || na[g]) {
+                continue;
+            }
+            if (Double.isNaN(x[i])) {
+                if (!naRm) {
+                    na[g] = true;
+                    result[g] = x[i];
+                }
+            } else {
+                result[g] += x[i];
+                counts[g]++;
+            }
+        }
+        for (int g = 0; g < groupCount; g++) {
+            if (!na[g]) {
+                result[g] /= counts[g];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the means of integer groups, {@code NA}s make the mean {@code NA} unless
+     * {@code naRm} is set.
+     */
+    @TruffleBoundary
+    public static double[] mean(int[] x, int[] codes, int groupCount, boolean naRm) {
+        double[] result = new double[groupCount];
+        int[] counts = new int[groupCount];
+        for (int i = 0; i < x.length; i++) {
+            int g = group(codes[i], groupCount);
+            if (g != NO_GROUP) {
+                if (RRuntime.isNA(x[i])) {
+                    if (!naRm) {
+                        result[g] = RRuntime.DOUBLE_NA;
+                    }
+                } else {
+                    counts[g]++;
+                    if (!RRuntime.isNA(result[g])) {
+                        result[g] += x[i];
+                    }
+                }
+            }
+        }
+        for (int g = 0; g < groupCount; g++) {
+            if (!RRuntime.isNA(result[g])) {
+                result[g] /= counts[g];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the minimum ({@code max == false}) or maximum of each group. The result is
+     * {@code null} if {@code naRm} removes all the values of a non-empty group (in which case R
+     * gives infinity with a warning).
+     */
+    @TruffleBoundary
+    public static int[] minMax(int[] x, int[] codes, int groupCount, boolean naRm, boolean max) {
+        int[][] partial = reduce(x.length, (from, to) -> {
+            int[] result = new int[groupCount];
+            // 0 = no value yet, 1 = has value, 2 = NA
+            int[] state = new int[groupCount];
+            for (int i = from; i < to; i++) {
+                int g = group(codes[i], groupCount);
+                if (g == NO_GROUP || state[g] == 2) {
+                    continue;
+                }
+                if (RRuntime.isNA(x[i])) {
+                    if (!naRm) {
+                        state[g] = 2;
+                        result[g] = RRuntime.INT_NA;
+                    }
+                } else if (state[g] == 0 || (max ? x[i] > result[g] : x[i] < result[g])) {
+                    state[g] = 1;
+                    result[g] = x[i];
+                }
+            }
+            return new int[][]{result, state};
+        }, (a, b) -> {
+            for (int g = 0; g < groupCount; g++) {
+                if (b[1][g] > a[1][g] || (b[1][g] == 1 && a[1][g] == 1 && (max ? b[0][g] > a[0][g] : b[0][g] < a[0][g]))) {
+                    a[0][g] = b[0][g];
+                    a[1][g] = b[1][g];
+                }
+            }
+            return a;
+        });
+        return hasEmptyGroup(partial[1], codes, groupCount) ? null : partial[0];
+    }
+
+    /**
+     * Double version of {@link #minMax(int[], int[], int, boolean, boolean)}. As in R, {@code NA}
+     * takes precedence over {@code NaN}.
+     */
+    @TruffleBoundary
+    public static double[] minMax(double[] x, int[] codes, int groupCount, boolean naRm, boolean max) {
+        Object[] partial = reduce(x.length, (from, to) -> {
+            double[] result = new double[groupCount];
+            // 0 = no value yet, 1 = has value, 2 = NaN, 3 = NA
+            int[] state = new int[groupCount];
+            for (int i = from; i < to; i++) {
+                int g = group(codes[i], groupCount);
+                if (g == NO_GROUP || state[g] == 3) {
+                    continue;
+                }
+                double value = x[i];
+                if (Double.isNaN(value)) {
+                    if (!naRm) {
+                        int valueState = RRuntime.isNA(value) ? 3 : 2;
+                        if (valueState > state[g]) {
+                            state[g] = valueState;
+                            result[g] = value;
+                        }
+                    }
+                } else if (state[g] == 0 || (state[g] == 1 && (max ? value > result[g] : value < result[g]))) {
+                    state[g] = 1;
+                    result[g] = value;
+                }
+            }
+            return new Object[]{result, state};
+        }, (a, b) -> {
+            double[] aResult = (double[]) a[0];
+            int[] aState = (int[]) a[1];
+            double[] bResult = (double[]) b[0];
+            int[] bState = (int[]) b[1];
+            for (int g = 0; g < groupCount; g++) {
+                if (bState[g] > aState[g] || (bState[g] == 1 && aState[g] == 1 && (max ? bResult[g] > aResult[g] : bResult[g] < aResult[g]))) {
+                    aResult[g] = bResult[g];
+                    aState[g] = bState[g];
+                }
+            }
+            return a;
+        });
+        return hasEmptyGroup((int[]) partial[1], codes, groupCount) ? null : (double[]) partial[0];
+    }
+
+    /**
+     * Checks whether some group has elements, but no value was recorded for it.
+     */
+    private static boolean hasEmptyGroup(int[] state, int[] codes, int groupCount) {
+        boolean[] present = new boolean[groupCount];
+        for (int i = 0; i < codes.length; i++) {
+            int g = group(codes[i], groupCount);
+            if (g != NO_GROUP) {
+                present[g] = true;
+            }
+        }
+        for (int g = 0; g < groupCount; g++) {
+            if (present[g] && state[g] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] addTo(int[] a, int[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] += b[i];
+        }
+        return a;
+    }
+
+    /**
+     * Applies the reducer to chunks of the range {@code 0..length} and merges the partial results
+     * in the order of the chunks. The chunks are processed in parallel if the range is large
+     * enough and {@link FastROptions#ParallelGrouping} is enabled.
+     */
+    private static <T> T reduce(int length, ChunkReducer<T> reducer, BinaryOperator<T> merge) {
+        boolean parallel = ParallelChunks.chunkCount(length, PARALLEL_CHUNK_SIZE, true) > 1 && RContext.getInstance().getOption(FastROptions.ParallelGrouping);
+        return ParallelChunks.reduce(length, PARALLEL_CHUNK_SIZE, parallel, reducer, merge);
+    }
+}
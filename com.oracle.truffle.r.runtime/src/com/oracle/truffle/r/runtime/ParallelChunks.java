@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.util.function.BinaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Splits the index range {@code 0..length} into chunks that are processed in parallel by the common
+ * fork-join pool. There are at most as many chunks as processors and each has at least
+ * {@code minChunkSize} elements, smaller ranges are processed on the calling thread.
+ *
+ * The work runs on threads that have not entered the R context, so it must not access the context
+ * and in particular must not read options. The callers read their option once and pass the result
+ * as the {@code parallel} argument.
+ */
+public final class ParallelChunks {
+
+    @FunctionalInterface
+    public interface ChunkReducer<T> {
+        T reduce(int from, int to);
+    }
+
+    @FunctionalInterface
+    public interface ChunkPredicate {
+        boolean test(int from, int to);
+    }
+
+    private ParallelChunks() {
+        // only static members
+    }
+
+    /**
+     * Returns the number of chunks that a range of {@code length} elements is split into, which is
+     * {@code 1} if {@code parallel} is {@code false} or the range is too small.
+     */
+    public static int chunkCount(int length, int minChunkSize, boolean parallel) {
+        int chunks = length / minChunkSize;
+        return chunks < 2 || !parallel ? 1 : Math.min(chunks, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Applies the reducer to the chunks and merges the partial results in the order of the chunks.
+     */
+    public static <T> T reduce(int length, int minChunkSize, boolean parallel, ChunkReducer<T> reducer, BinaryOperator<T> merge) {
+        int chunks = chunkCount(length, minChunkSize, parallel);
+        if (chunks == 1) {
+            return reducer.reduce(0, length);
+        }
+        int chunkSize = (length + chunks - 1) / chunks;
+        return IntStream.range(0, chunks).parallel().mapToObj(c -> reducer.reduce(c * chunkSize, Math.min(length, (c + 1) * chunkSize))).reduce(merge).get();
+    }
+
+    /**
+     * Returns {@code true} if the predicate holds for all the chunks. The chunks that were not
+     * started yet are skipped once the predicate fails for one of them.
+     */
+    public static boolean allMatch(int length, int minChunkSize, boolean parallel, ChunkPredicate predicate) {
+        int chunks = chunkCount(length, minChunkSize, parallel);
+        if (chunks == 1) {
+            return predicate.test(0, length);
+        }
+        int chunkSize = (length + chunks - 1) / chunks;
+        return IntStream.range(0, chunks).parallel().allMatch(c -> predicate.test(c * chunkSize, Math.min(length, (c + 1) * chunkSize)));
+    }
+}
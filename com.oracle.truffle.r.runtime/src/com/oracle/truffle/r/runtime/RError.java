@@ -557,6 +557,10 @@ public final class RError extends RuntimeException implements TruffleException {
         DETERMINANT_COMPLEX("determinant not currently defined for complex matrices"),
         NON_NUMERIC_ARGUMENT("non-numeric argument"),
         FFT_FACTORIZATION("fft factorization error"),
+        MULTIVARIATE_SERIES_REQUIRED("vector-valued (multivariate) series required"),
+        X_NOT_MATRIX("'x' is not a matrix"),
+        QR_DIMENSIONS_DO_NOT_MATCH("dimensions of 'x' (%d,%d) and 'y' (%d) do not match"),
+        NA_NAN_INF_IN("NA/NaN/Inf in '%s'"),
         COMPLEX_NOT_PERMITTED("complex matrices not permitted at present"),
         FIRST_QR("first argument must be a QR decomposition"),
         ONLY_SQUARE_INVERTED("only square matrices can be inverted"),
@@ -27,7 +27,6 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.ref.WeakReference;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
@@ -37,6 +36,7 @@ import java.util.Arrays;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -86,6 +86,7 @@ import com.oracle.truffle.r.runtime.data.RSharingAttributeStorage;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RSymbol;
 import com.oracle.truffle.r.runtime.data.RUnboundValue;
+import com.oracle.truffle.r.runtime.data.StringInternTable;
 import com.oracle.truffle.r.runtime.data.closures.RToStringVectorClosure;
 import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
@@ -651,7 +652,8 @@ public class RSerialize {
                              * directly, but it is easier and more robust to deparse and reparse.
                              * N.B. We always convert closures regardless of whether they are at top
                              * level or not (and they are not always at the top in the default
-                             * packages)
+                             * packages). The conversion itself is deferred until the function's
+                             * call target is first needed.
                              */
                             if (RContext.getInstance().matchesOption(FastROptions.Debug, "printUclosure")) {
                                 RPairList pairList = RDataFactory.createPairList(carItem, cdrItem, tagItem, type);
@@ -664,17 +666,7 @@ public class RSerialize {
                             // older versions of GnuR allowed 'NULL'
                             assert tagItem == RNull.instance || tagItem instanceof REnvironment;
                             REnvironment enclosingEnv = tagItem == RNull.instance ? REnvironment.baseEnv() : (REnvironment) tagItem;
-                            boolean restore = setupLibPath(enclosingEnv);
-                            RFunction func = PairlistDeserializer.processFunction(carItem, cdrItem, enclosingEnv, currentFunctionName, packageName);
-                            if (attrItem != RNull.instance) {
-                                setAttributes(func, attrItem);
-                                handleFunctionSrcrefAttr(func);
-                            }
-                            if (restore) {
-                                RContext.getInstance().libraryPaths.remove(0);
-                            }
-
-                            result = func;
+                            result = PairlistDeserializer.processFunction(carItem, cdrItem, enclosingEnv, currentFunctionName, packageName, attrItem);
                             break;
                         }
 
@@ -1225,15 +1217,7 @@ public class RSerialize {
                     result = new String(buf, offset, len, StandardCharsets.UTF_8);
                 }
                 offset += len;
-                WeakReference<String> entry;
-                if ((entry = strings.get(result)) != null) {
-                    String string = entry.get();
-                    if (string != null) {
-                        return string;
-                    }
-                }
-                strings.put(result, new WeakReference<>(result));
-                return result;
+                return deduplicate ? StringInternTable.intern(result) : result;
             }
 
             void readRaw(byte[] data) {
@@ -1268,7 +1252,7 @@ public class RSerialize {
          */
         private final Buffer defaultBuffer;
 
-        private final WeakHashMap<String, WeakReference<String>> strings = RContext.getInstance().stringMap;
+        private final boolean deduplicate = StringInternTable.isEnabled();
 
         XdrInputFormat(InputStream is) {
             super(is);
@@ -2766,15 +2750,32 @@ public class RSerialize {
      */
     private static final class PairlistDeserializer {
 
-        public static RFunction processFunction(Object car, Object cdr, REnvironment environment, String functionName, String packageName) {
+        /**
+         * Creates the function with a call target that is built from the pairlists when it is
+         * first needed. The {@value RRuntime#R_SRCFILE} environments of its pairlists are resolved to sources right away, while the library of the function's
+         * namespace is set up, so that building the call target does not depend on the library
+         * paths.
+         */
+        public static RFunction processFunction(Object car, Object cdr, REnvironment environment, String functionName, String packageName, Object attributes) {
             // car == arguments, cdr == body, tag == PairList(attributes, environment)
+            DeserializedClosureTarget lazyTarget = new DeserializedClosureTarget(car, cdr, environment, functionName);
+            RFunction func = RDataFactory.createLazyFunction(functionName, packageName, lazyTarget, environment.getFrame());
+            if (attributes != RNull.instance) {
+                Input.setAttributes(func, attributes);
+                lazyTarget.srcrefHolder = func;
+            }
 
-            MaterializedFrame enclosingFrame = environment.getFrame();
-
-            RootCallTarget callTarget = RContext.getASTBuilder().rootFunction(RContext.getInstance().getLanguage(), RSyntaxNode.LAZY_DEPARSE, processArguments(car, false), processBody(cdr),
-                            functionName == null ? "<deserialized function>" : functionName);
-            FrameSlotChangeMonitor.initializeEnclosingFrame(callTarget.getRootNode().getFrameDescriptor(), enclosingFrame);
-            RFunction func = RDataFactory.createFunction(functionName, packageName, callTarget, null, enclosingFrame);
+            SrcfileSources sources = new SrcfileSources();
+            boolean restore = setupLibPath(environment);
+            try {
+                sources.addAll(car);
+                sources.addAll(cdr);
+            } finally {
+                if (restore) {
+                    RContext.getInstance().libraryPaths.remove(0);
+                }
+            }
+            lazyTarget.sources = sources;
 
             /*
              * TODO: this is missing the code that registers sources with RPackageSource!
@@ -2782,15 +2783,110 @@ public class RSerialize {
             return func;
         }
 
+        /**
+         * Drops the pairlists once the call target is built, because the function keeps referencing
+         * this instance.
+         */
+        private static final class DeserializedClosureTarget extends RFunction.LazyTarget {
+            private Object car;
+            private Object cdr;
+            private REnvironment environment;
+            private final String functionName;
+            /**
+             * The function carrying the {@value RRuntime#R_SRCREF} attribute, if any.
+             */
+            private RFunction srcrefHolder;
+            private SrcfileSources sources;
+
+            DeserializedClosureTarget(Object car, Object cdr, REnvironment environment, String functionName) {
+                this.car = car;
+                this.cdr = cdr;
+                this.environment = environment;
+                this.functionName = functionName;
+            }
+
+            @Override
+            @TruffleBoundary
+            protected RootCallTarget build() {
+                MaterializedFrame enclosingFrame = environment.getFrame();
+                RootCallTarget callTarget = RContext.getASTBuilder().rootFunction(RContext.getInstance().getLanguage(), RSyntaxNode.LAZY_DEPARSE, processArguments(car, false, sources),
+                                processBody(cdr, sources), functionName == null ? "<deserialized function>" : functionName);
+                FrameSlotChangeMonitor.initializeEnclosingFrame(callTarget.getRootNode().getFrameDescriptor(), enclosingFrame);
+                if (srcrefHolder != null) {
+                    // not via the function, which would request the target being built
+                    handleSrcrefAttr(srcrefHolder, (RSyntaxElement) callTarget.getRootNode(), sources);
+                }
+                car = null;
+                cdr = null;
+                environment = null;
+                srcrefHolder = null;
+                sources = null;
+                return callTarget;
+            }
+        }
+
+        /**
+         * The sources of the {@value RRuntime#R_SRCFILE} environments found in the pairlists of a
+         * closure, resolved when the closure is unserialized.
+         */
+        private static final class SrcfileSources {
+            /**
+             * Maps the srcfile environments to their {@link Source} or to the {@link IOException}
+             * thrown when resolving it.
+             */
+            private IdentityHashMap<REnvironment, Object> sources;
+
+            void addAll(Object value) {
+                Object current = value;
+                while (current instanceof RPairList) {
+                    RPairList pl = (RPairList) current;
+                    add(pl);
+                    if (pl.getType() == SEXPTYPE.BCODESXP) {
+                        addAll(((RAbstractListVector) pl.cdr()).getDataAt(0));
+                        return;
+                    }
+                    addAll(pl.car());
+                    current = pl.cdr();
+                }
+            }
+
+            private void add(RPairList pl) {
+                if (pl.getAttributes() == null) {
+                    return;
+                }
+                Object srcfile = pl.getAttr(RRuntime.R_SRCFILE);
+                if (srcfile instanceof REnvironment) {
+                    if (sources == null) {
+                        sources = new IdentityHashMap<>(4);
+                    } else if (sources.containsKey(srcfile)) {
+                        return;
+                    }
+                    try {
+                        sources.put((REnvironment) srcfile, RSource.fromSrcfile((REnvironment) srcfile));
+                    } catch (IOException e) {
+                        sources.put((REnvironment) srcfile, e);
+                    }
+                }
+            }
+
+            Source get(REnvironment srcfile) throws IOException {
+                Object result = sources == null ? null : sources.get(srcfile);
+                if (result instanceof IOException) {
+                    throw (IOException) result;
+                }
+                return (Source) result;
+            }
+        }
+
         public static RPairList processLanguage(Object car, Object cdr, Object tag) {
-            Closure closure = Closure.createLanguageClosure(processCall(car, cdr, tag, null).asRNode());
+            Closure closure = Closure.createLanguageClosure(processCall(car, cdr, tag, null, null).asRNode());
             return RDataFactory.createLanguage(closure);
         }
 
         public static RPromise processPromise(Object car, Object cdr, Object tag) {
             // car == value, cdr == expression, tag == environment
 
-            Closure closure = Closure.createPromiseClosure(processBody(cdr).asRNode());
+            Closure closure = Closure.createPromiseClosure(processBody(cdr, null).asRNode());
             if (car == RUnboundValue.instance) {
                 REnvironment env = tag == RNull.instance ? REnvironment.baseEnv() : (REnvironment) tag;
                 return RDataFactory.createPromise(PromiseState.Explicit, closure, env.getFrame());
@@ -2799,16 +2895,16 @@ public class RSerialize {
             }
         }
 
-        private static RSyntaxNode process(Object value, boolean isCallLHS, String name) {
+        private static RSyntaxNode process(Object value, boolean isCallLHS, String name, SrcfileSources sources) {
             if (value instanceof RSymbol) {
                 return RContext.getASTBuilder().lookup(RSyntaxNode.LAZY_DEPARSE, ((RSymbol) value).getName(), isCallLHS);
             } else if (value instanceof RPairList) {
                 RPairList pl = (RPairList) value;
                 switch (pl.getType()) {
                     case LANGSXP:
-                        return processCall(pl.car(), pl.cdr(), pl.getTag(), name);
+                        return processCall(pl.car(), pl.cdr(), pl.getTag(), name, sources);
                     case CLOSXP:
-                        return processFunctionExpression(pl.car(), pl.cdr(), pl.getTag(), name);
+                        return processFunctionExpression(pl.car(), pl.cdr(), pl.getTag(), name, sources);
                     default:
                         // other pairlists: include as constants
                         return RContext.getASTBuilder().constant(RSyntaxNode.LAZY_DEPARSE, unwrapScalarValues(value));
@@ -2833,26 +2929,26 @@ public class RSerialize {
             return value;
         }
 
-        private static RSyntaxNode processCall(Object car, Object cdr, @SuppressWarnings("unused") Object tag, String name) {
+        private static RSyntaxNode processCall(Object car, Object cdr, @SuppressWarnings("unused") Object tag, String name, SrcfileSources sources) {
             if (car instanceof RSymbol && ((RSymbol) car).getName().equals("function")) {
                 RPairList function = (RPairList) cdr;
-                return processFunctionExpression(function.car(), function.cdr(), function.getTag(), name);
+                return processFunctionExpression(function.car(), function.cdr(), function.getTag(), name, sources);
             }
             boolean isAssignment = car instanceof RSymbol && ((RSymbol) car).getName().equals("<-");
-            RSyntaxNode call = RContext.getASTBuilder().call(RSyntaxNode.LAZY_DEPARSE, process(car, true, null), processArguments(cdr, isAssignment));
+            RSyntaxNode call = RContext.getASTBuilder().call(RSyntaxNode.LAZY_DEPARSE, process(car, true, null, sources), processArguments(cdr, isAssignment, sources));
             if (cdr instanceof RAttributable) {
-                handleSrcrefAttr((RAttributable) cdr, call);
+                handleSrcrefAttr((RAttributable) cdr, call, sources);
             }
             return call;
         }
 
-        private static RSyntaxNode processFunctionExpression(Object car, Object cdr, @SuppressWarnings("unused") Object tag, String name) {
+        private static RSyntaxNode processFunctionExpression(Object car, Object cdr, @SuppressWarnings("unused") Object tag, String name, SrcfileSources sources) {
             // car == arguments, cdr == body
-            return RContext.getASTBuilder().function(RContext.getInstance().getLanguage(), RSyntaxNode.LAZY_DEPARSE, processArguments(car, false), processBody(cdr),
+            return RContext.getASTBuilder().function(RContext.getInstance().getLanguage(), RSyntaxNode.LAZY_DEPARSE, processArguments(car, false, sources), processBody(cdr, sources),
                             name == null ? "<deserialized function>" : name);
         }
 
-        private static List<RCodeBuilder.Argument<RSyntaxNode>> processArguments(Object args, boolean isAssignment) {
+        private static List<RCodeBuilder.Argument<RSyntaxNode>> processArguments(Object args, boolean isAssignment, SrcfileSources sources) {
             List<RCodeBuilder.Argument<RSyntaxNode>> list = new ArrayList<>();
 
             RPairList arglist = args instanceof RNull ? null : (RPairList) args;
@@ -2864,7 +2960,7 @@ public class RSerialize {
                 if (isAssignment && index == 0 && arglist.car() instanceof RSymbol) {
                     assignedName = ((RSymbol) arglist.car()).getName();
                 }
-                RSyntaxNode value = arglist.car() == RMissing.instance ? null : process(arglist.car(), false, index == 1 ? assignedName : null);
+                RSyntaxNode value = arglist.car() == RMissing.instance ? null : process(arglist.car(), false, index == 1 ? assignedName : null, sources);
                 list.add(RCodeBuilder.argument(RSyntaxNode.LAZY_DEPARSE, name, value));
                 arglist = next(arglist);
                 index++;
@@ -2881,45 +2977,42 @@ public class RSerialize {
             }
         }
 
-        private static RSyntaxNode processBody(Object cdr) {
+        private static RSyntaxNode processBody(Object cdr, SrcfileSources sources) {
             if (cdr instanceof RPairList) {
                 RPairList pl = (RPairList) cdr;
                 RSyntaxNode body;
                 switch (pl.getType()) {
                     case BCODESXP:
                         RAbstractListVector list = (RAbstractListVector) pl.cdr();
-                        body = process(list.getDataAt(0), false, null);
+                        body = process(list.getDataAt(0), false, null, sources);
                         break;
                     case LISTSXP:
                         // TODO: it is not clear why is this assertion here
                         // assert pl.cdr() == RNull.instance || (pl.cadr() == RNull.instance &&
                         // pl.cddr() == RNull.instance);
-                        body = process(pl.car(), false, null);
+                        body = process(pl.car(), false, null, sources);
                         break;
                     case LANGSXP:
-                        body = processCall(pl.car(), pl.cdr(), pl.getTag(), null);
+                        body = processCall(pl.car(), pl.cdr(), pl.getTag(), null, sources);
                         break;
                     default:
                         throw RInternalError.shouldNotReachHere("unexpected SXP type in body: " + pl.getType());
                 }
-                handleSrcrefAttr(pl, body);
+                handleSrcrefAttr(pl, body, sources);
                 return body;
             }
-            return process(cdr, false, null);
+            return process(cdr, false, null, sources);
         }
     }
 
-    private static void handleFunctionSrcrefAttr(RFunction func) {
-        handleSrcrefAttr(func, (RSyntaxElement) func.getRootNode());
-    }
-
     /**
      * @param func Element carrying the {@value RRuntime#R_SRCREF} attribute.
      * @param elem The syntax element to create the source section for.
+     * @param sources The resolved srcfiles or {@code null} to resolve them here.
      */
-    private static void handleSrcrefAttr(RAttributable func, RSyntaxElement elem) {
+    private static void handleSrcrefAttr(RAttributable func, RSyntaxElement elem, PairlistDeserializer.SrcfileSources sources) {
         if (elem instanceof RSyntaxCall) {
-            handleSrcrefAttr(func, (RSyntaxCall) elem);
+            handleSrcrefAttr(func, (RSyntaxCall) elem, sources);
         } else {
             Object srcref = func.getAttr(RRuntime.R_SRCREF);
             if (srcref instanceof RAbstractIntVector) {
@@ -2932,15 +3025,16 @@ public class RSerialize {
     /**
      * @param func Element carrying the {@value RRuntime#R_SRCREF} attribute.
      * @param elem The syntax element to create the source section for.
+     * @param sources The resolved srcfiles or {@code null} to resolve them here.
      */
-    private static void handleSrcrefAttr(RAttributable func, RSyntaxCall elem) {
+    private static void handleSrcrefAttr(RAttributable func, RSyntaxCall elem, PairlistDeserializer.SrcfileSources sources) {
         Object srcref = func.getAttr(RRuntime.R_SRCREF);
         if (srcref instanceof RAbstractIntVector) {
             Object srcfile = func.getAttr(RRuntime.R_SRCFILE);
             assert srcfile instanceof REnvironment;
             Source source;
             try {
-                source = RSource.fromSrcfile((REnvironment) srcfile);
+                source = getSource((REnvironment) srcfile, sources);
             } catch (IOException e) {
                 source = null;
             }
@@ -2950,7 +3044,7 @@ public class RSerialize {
             try {
                 Object srcfile = func.getAttr(RRuntime.R_SRCFILE);
                 assert srcfile instanceof REnvironment;
-                Source source = RSource.fromSrcfile((REnvironment) srcfile);
+                Source source = getSource((REnvironment) srcfile, sources);
 
                 RList blockSrcref = (RList) srcref;
                 RSyntaxElement[] syntaxArguments = elem.getSyntaxArguments();
@@ -2976,6 +3070,10 @@ public class RSerialize {
         }
     }
 
+    private static Source getSource(REnvironment srcfile, PairlistDeserializer.SrcfileSources sources) throws IOException {
+        return sources == null ? RSource.fromSrcfile(srcfile) : sources.get(srcfile);
+    }
+
     private static boolean debugWarning(String message) {
         RError.warning(RError.SHOW_CALLER, RError.Message.GENERIC, message);
         return true;
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.util.HashMap;
+import java.util.Objects;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
+import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor.LookupResult;
+
+/**
+ * Context-wide cache of S3 method resolution results, used by megamorphic {@code UseMethod},
+ * {@code NextMethod} and internal dispatch sites once their per node cache is exhausted. The key is
+ * the generic name, the group, the class vector, the frame descriptor of the environment where the
+ * lookup starts and the frame that defines the generic (the one holding the S3 methods table).
+ *
+ * Every entry holds the {@link FrameSlotChangeMonitor#lookup(com.oracle.truffle.api.frame.Frame, Object)
+ * lookup results} of all the names that were probed during the resolution, including the failed
+ * ones. The entry is valid only as long as all of them are valid, which is the case until a binding
+ * with one of the names is created, changed or removed anywhere on the path of the lookup, e.g.,
+ * when a method is defined in the global environment or registered in a methods table. Lookups
+ * that cannot be described by stable lookup results are not cached.
+ */
+public final class S3DispatchCache {
+
+    /**
+     * Returned by {@link #get} if there is no valid entry. Note that {@code null} is a valid cached
+     * value meaning that no method was found.
+     */
+    public static final Object MISS = new Object();
+
+    private static final int MAX_ENTRIES = 8192;
+
+    private static final class Entry {
+        private final Object result;
+        private final LookupResult[] lookups;
+
+        private Entry(Object result, LookupResult[] lookups) {
+            this.result = result;
+            this.lookups = lookups;
+        }
+
+        private boolean isValid() {
+            for (LookupResult lookup : lookups) {
+                if (!lookup.isValid()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Key {
+        private final String generic;
+        private final String group;
+        private final String[] classes;
+        private final FrameDescriptor callerDescriptor;
+        private final MaterializedFrame genericDefFrame;
+        private final boolean nextMethod;
+        private final boolean defaultMethod;
+        private final int hash;
+
+        private Key(String generic, String group, String[] classes, FrameDescriptor callerDescriptor, MaterializedFrame genericDefFrame, boolean nextMethod, boolean defaultMethod) {
+            this.generic = generic;
+            this.group = group;
+            this.classes = classes;
+            this.callerDescriptor = callerDescriptor;
+            this.genericDefFrame = genericDefFrame;
+            this.nextMethod = nextMethod;
+            this.defaultMethod = defaultMethod;
+            int h = generic.hashCode();
+            for (String clazz : classes) {
+                h = 31 * h + clazz.hashCode();
+            }
+            h = 31 * h + System.identityHashCode(callerDescriptor);
+            h = 31 * h + System.identityHashCode(genericDefFrame);
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            if (hash != other.hash || callerDescriptor != other.callerDescriptor || genericDefFrame != other.genericDefFrame || nextMethod != other.nextMethod ||
+                            defaultMethod != other.defaultMethod || classes.length != other.classes.length || !generic.equals(other.generic) || !Objects.equals(group, other.group)) {
+                return false;
+            }
+            for (int i = 0; i < classes.length; i++) {
+                if (!classes[i].equals(other.classes[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final HashMap<Key, Entry> cache = new HashMap<>();
+
+    private long hits;
+    private long misses;
+    private long invalidations;
+
+    private static Key createKey(String generic, String group, RStringVector classes, MaterializedFrame callerFrame, MaterializedFrame genericDefFrame, boolean nextMethod, boolean defaultMethod) {
+        String[] classNames = classes == null ? new String[0] : classes.getDataCopy();
+        return new Key(generic, group, classNames, callerFrame.getFrameDescriptor(), genericDefFrame, nextMethod, defaultMethod);
+    }
+
+    /**
+     * Returns the cached resolution result or {@link #MISS}.
+     */
+    @TruffleBoundary
+    public Object get(String generic, String group, RStringVector classes, MaterializedFrame callerFrame, MaterializedFrame genericDefFrame, boolean nextMethod, boolean defaultMethod) {
+        Key key = createKey(generic, group, classes, callerFrame, genericDefFrame, nextMethod, defaultMethod);
+        Entry entry = cache.get(key);
+        if (entry != null) {
+            if (entry.isValid()) {
+                hits++;
+                return entry.result;
+            }
+            invalidations++;
+            cache.remove(key);
+        }
+        misses++;
+        return MISS;
+    }
+
+    @TruffleBoundary
+    public void put(String generic, String group, RStringVector classes, MaterializedFrame callerFrame, MaterializedFrame genericDefFrame, boolean nextMethod, boolean defaultMethod, Object result,
+                    LookupResult[] lookups) {
+        if (cache.size() >= MAX_ENTRIES) {
+            cache.clear();
+        }
+        cache.put(createKey(generic, group, classes, callerFrame, genericDefFrame, nextMethod, defaultMethod), new Entry(result, lookups));
+    }
+
+    /**
+     * Returns the number of hits, misses and invalidated entries and the current number of entries.
+     */
+    @TruffleBoundary
+    public double[] getStatistics() {
+        return new double[]{hits, misses, invalidations, cache.size()};
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.r.runtime.data.RFunction;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.env.REnvironment;
+import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
+
+/**
+ * Context-wide cache of S4 method selection results keyed on the methods table of a generic and the
+ * class signature of the dispatch. Unlike the per call site cache in {@code DispatchGeneric}, the
+ * entries are shared by all call sites and they are populated only after the inheritance has been
+ * resolved, i.e., also for signatures whose method is inherited.
+ *
+ * Each entry is tied to the {@link StableValue} of the corresponding binding in the methods table,
+ * so it becomes invalid as soon as {@code setMethod}, {@code removeMethod} or {@code setClass}
+ * (re)assign or remove the binding, which is what the methods package does when the tables change.
+ * If the binding is not stable (it has been changed too many times), the result is not cached.
+ * Changes not reflected in the tables, e.g., primitive methods being turned on or off, clear the
+ * whole cache via {@link #invalidateAll()}.
+ */
+public final class S4DispatchCache {
+
+    private static final int MAX_ENTRIES = 8192;
+
+    private static final class Entry {
+        private final RFunction method;
+        private final StableValue<Object> binding;
+
+        private Entry(RFunction method, StableValue<Object> binding) {
+            this.method = method;
+            this.binding = binding;
+        }
+    }
+
+    /**
+     * The stored keys hold a copy of the class signature, the probe key used for lookups wraps the
+     * class vector directly so that cache hits do not allocate.
+     */
+    private static final class Key {
+        private REnvironment mtable;
+        private String[] classes;
+        private RStringVector probeClasses;
+        private int hash;
+
+        private Key(REnvironment mtable, String[] classes) {
+            this.mtable = mtable;
+            this.classes = classes;
+            this.hash = System.identityHashCode(mtable) * 31 + Arrays.hashCode(classes);
+        }
+
+        private Key() {
+        }
+
+        private void setProbe(REnvironment probeMtable, RStringVector probe) {
+            this.mtable = probeMtable;
+            this.probeClasses = probe;
+            int h = 1;
+            for (int i = 0; i < probe.getLength(); i++) {
+                h = 31 * h + probe.getDataAt(i).hashCode();
+            }
+            this.hash = System.identityHashCode(probeMtable) * 31 + h;
+        }
+
+        private int length() {
+            return classes != null ? classes.length : probeClasses.getLength();
+        }
+
+        private String get(int i) {
+            return classes != null ? classes[i] : probeClasses.getDataAt(i);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            if (other.mtable != mtable || other.hash != hash || other.length() != length()) {
+                return false;
+            }
+            for (int i = 0; i < length(); i++) {
+                if (!get(i).equals(other.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final HashMap<Key, Entry> cache = new HashMap<>();
+    private final Key probe = new Key();
+
+    private long hits;
+    private long misses;
+    private long invalidations;
+
+    /**
+     * Returns the method selected for given class signature in given methods table or {@code null}
+     * if there is no valid entry.
+     */
+    @TruffleBoundary
+    public RFunction get(REnvironment mtable, RStringVector classes) {
+        probe.setProbe(mtable, classes);
+        Entry entry = cache.get(probe);
+        probe.setProbe(null, null);
+        if (entry != null) {
+            if (entry.binding.getAssumption().isValid()) {
+                hits++;
+                return entry.method;
+            }
+            invalidations++;
+            cache.remove(new Key(mtable, classes.getDataCopy()));
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Records the result of the method selection. The entry is created only if the selected method
+     * is stored in a stable binding of the methods table under given dispatch string.
+     */
+    @TruffleBoundary
+    public void put(REnvironment mtable, RStringVector classes, String dispatchString, RFunction method) {
+        MaterializedFrame frame = mtable.getFrame();
+        FrameDescriptor fd = frame.getFrameDescriptor();
+        FrameSlot slot = fd.findFrameSlot(dispatchString);
+        if (slot == null || FrameSlotChangeMonitor.getValue(slot, frame) != method) {
+            return;
+        }
+        StableValue<Object> binding = FrameSlotChangeMonitor.getStableValueAssumption(fd, slot, method);
+        if (binding == null || binding.getValue() != method || !binding.getAssumption().isValid()) {
+            return;
+        }
+        if (cache.size() >= MAX_ENTRIES) {
+            cache.clear();
+        }
+        cache.put(new Key(mtable, classes.getDataCopy()), new Entry(method, binding));
+    }
+
+    @TruffleBoundary
+    public void invalidateAll() {
+        invalidations += cache.size();
+        cache.clear();
+    }
+
+    /**
+     * Returns the number of hits, misses and invalidated entries and the current number of entries.
+     */
+    @TruffleBoundary
+    public double[] getStatistics() {
+        return new double[]{hits, misses, invalidations, cache.size()};
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.NativeDataAccess;
+import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.RComplexVector;
+import com.oracle.truffle.r.runtime.data.RDoubleSequence;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RIntSequence;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.data.RLogicalVector;
+import com.oracle.truffle.r.runtime.data.RRawVector;
+import com.oracle.truffle.r.runtime.data.RStringSequence;
+import com.oracle.truffle.r.runtime.data.model.RAbstractAtomicVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractListBaseVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractRawVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * The comparison of the elements of atomic vectors done by {@code identical}, with the semantics of
+ * the {@code num.eq} and {@code single.NA} arguments for doubles (and the parts of complex numbers)
+ * as in GNU R's {@code neWithNaN}.
+ *
+ * Vectors that share their storage (the same Java array or the same native memory) and sequences
+ * with the same start and stride are identical without looking at the elements. Otherwise, the
+ * elements are compared by loops specialized to the type, directly on the Java arrays if possible,
+ * and long vectors are compared in parallel chunks if {@link FastROptions#ParallelIdentical} is
+ * enabled. {@link #identicalElements(RAbstractListBaseVector, RAbstractListBaseVector, boolean, boolean)}
+ * does the same for lists of plain vectors.
+ */
+public final class VectorIdentity {
+
+    private static final int PARALLEL_CHUNK_SIZE = 1 << 20;
+
+    private VectorIdentity() {
+        // only static members
+    }
+
+    /**
+     * Compares two doubles like GNU R's {@code identical}: {@code numEq} compares the numbers with
+     * {@code ==} (so that {@code 0} and {@code -0} are identical) instead of bitwise and
+     * {@code singleNA} does not distinguish the different {@code NaN} values other than
+     * {@code NA}.
+     */
+    public static boolean identical(double x, double y, boolean numEq, boolean singleNA) {
+        if (singleNA) {
+            if (RRuntime.isNA(x)) {
+                return RRuntime.isNA(y);
+            } else if (RRuntime.isNA(y)) {
+                return false;
+            } else if (Double.isNaN(x)) {
+                return Double.isNaN(y);
+            }
+        }
+        if (numEq && (singleNA || !(Double.isNaN(x) || Double.isNaN(y)))) {
+            return x == y;
+        }
+        return Double.doubleToRawLongBits(x) == Double.doubleToRawLongBits(y);
+    }
+
+    /**
+     * Compares two strings like GNU R's {@code identical}: {@code NA} is only identical to
+     * {@code NA}, not to the string {@code "NA"}.
+     */
+    public static boolean identical(String x, String y) {
+        return x == y || (!RRuntime.isNA(x) && !RRuntime.isNA(y) && x.equals(y));
+    }
+
+    /**
+     * Returns {@code true} if the elements of the atomic vectors {@code x} and {@code y} of the same
+     * type and length are identical. The attributes are not compared.
+     */
+    @TruffleBoundary
+    public static boolean identicalData(RAbstractAtomicVector x, RAbstractAtomicVector y, boolean numEq, boolean singleNA) {
+        return identicalData(x, y, numEq, singleNA, ParallelChunks.chunkCount(x.getLength(), PARALLEL_CHUNK_SIZE, true) > 1 && isParallel());
+    }
+
+    /**
+     * Compares the elements, in parallel chunks if {@code parallel} is set. Can run on a thread
+     * that has not entered the context, which is why the option is read by the callers.
+     */
+    private static boolean identicalData(RAbstractAtomicVector x, RAbstractAtomicVector y, boolean numEq, boolean singleNA, boolean parallel) {
+        assert x.getRType() == y.getRType() && x.getLength() == y.getLength();
+        int length = x.getLength();
+        if (x == y || length == 0 || sharesStorage(x, y)) {
+            return true;
+        }
+        Boolean sequences = identicalSequences(x, y);
+        if (sequences != null) {
+            return sequences;
+        }
+        return ParallelChunks.allMatch(length, PARALLEL_CHUNK_SIZE, parallel, (from, to) -> identicalRange(x, y, from, to, numEq, singleNA));
+    }
+
+    /**
+     * Compares the elements of lists whose elements are all plain atomic vectors, i.e. vectors
+     * without attributes, in parallel. Returns {@code null} if the lists contain other elements,
+     * which the caller has to compare recursively, or if the lists are too small to be worth it.
+     */
+    @TruffleBoundary
+    public static Boolean identicalElements(RAbstractListBaseVector x, RAbstractListBaseVector y, boolean numEq, boolean singleNA) {
+        int length = x.getLength();
+        assert length == y.getLength();
+        if (length < 2) {
+            return null;
+        }
+        long size = 0;
+        for (int i = 0; i < length; i++) {
+            Object xi = x.getDataAt(i);
+            Object yi = y.getDataAt(i);
+            if (!isPlainVector(xi) || !isPlainVector(yi)) {
+                return null;
+            }
+            size += ((RAbstractAtomicVector) xi).getLength();
+        }
+        if (size < PARALLEL_CHUNK_SIZE || !isParallel()) {
+            return null;
+        }
+        return IntStream.range(0, length).parallel().allMatch(i -> {
+            RAbstractAtomicVector xi = (RAbstractAtomicVector) x.getDataAt(i);
+            RAbstractAtomicVector yi = (RAbstractAtomicVector) y.getDataAt(i);
+            return xi.getRType() == yi.getRType() && xi.getLength() == yi.getLength() && identicalData(xi, yi, numEq, singleNA, true);
+        });
+    }
+
+    private static boolean isPlainVector(Object value) {
+        return value instanceof RAbstractAtomicVector && ((RAbstractAtomicVector) value).getAttributes() == null;
+    }
+
+    @TruffleBoundary
+    private static boolean isParallel() {
+        return RContext.getInstance().getOption(FastROptions.ParallelIdentical);
+    }
+
+    /**
+     * Uses the internal stores, which keep the spare capacity of vectors that grew in place (see
+     * {@link RAbstractVector#growInPlace(int)}), so the comparison does not copy the data.
+     */
+    private static boolean sharesStorage(RAbstractVector x, RAbstractVector y) {
+        if (x.isMaterialized() && y.isMaterialized()) {
+            Object xData = x.getInternalStore();
+            if (xData != null) {
+                return xData == y.getInternalStore();
+            }
+        }
+        long address = NativeDataAccess.getNativeDataAddress(x);
+        return address != 0 && address == NativeDataAccess.getNativeDataAddress(y);
+    }
+
+    /**
+     * Compares sequences by their start and stride, returns {@code null} if that does not decide
+     * the question.
+     */
+    private static Boolean identicalSequences(RAbstractVector x, RAbstractVector y) {
+        if (x instanceof RIntSequence && y instanceof RIntSequence) {
+            // the sequences have the same length, at least two elements determine the stride
+            RIntSequence xs = (RIntSequence) x;
+            RIntSequence ys = (RIntSequence) y;
+            return xs.getStart() == ys.getStart() && (xs.getLength() == 1 || xs.getStride() == ys.getStride());
+        } else if (x instanceof RDoubleSequence && y instanceof RDoubleSequence) {
+            RDoubleSequence xs = (RDoubleSequence) x;
+            RDoubleSequence ys = (RDoubleSequence) y;
+            if (Double.doubleToRawLongBits(xs.getStart()) == Double.doubleToRawLongBits(ys.getStart()) &&
+                            Double.doubleToRawLongBits(xs.getStride()) == Double.doubleToRawLongBits(ys.getStride())) {
+                return true;
+            }
+        } else if (x instanceof RStringSequence && y instanceof RStringSequence) {
+            RStringSequence xs = (RStringSequence) x;
+            RStringSequence ys = (RStringSequence) y;
+            if (xs.getStart() == ys.getStart() && xs.getStride() == ys.getStride() && xs.getPrefix().equals(ys.getPrefix()) && xs.getSuffix().equals(ys.getSuffix())) {
+                return true;
+            }
+        }
+        return null;
+    }
+
+    private static boolean identicalRange(RAbstractAtomicVector x, RAbstractAtomicVector y, int from, int to, boolean numEq, boolean singleNA) {
+        switch (x.getRType()) {
+            case Integer:
+                return identicalRange((RAbstractIntVector) x, (RAbstractIntVector) y, from, to);
+            case Double:
+                return identicalRange((RAbstractDoubleVector) x, (RAbstractDoubleVector) y, from, to, numEq, singleNA);
+            case Logical:
+                return identicalRange((RAbstractLogicalVector) x, (RAbstractLogicalVector) y, from, to);
+            case Character:
+                return identicalRange((RAbstractStringVector) x, (RAbstractStringVector) y, from, to);
+            case Complex:
+                return identicalRange((RAbstractComplexVector) x, (RAbstractComplexVector) y, from, to, numEq, singleNA);
+            case Raw:
+                return identicalRange((RAbstractRawVector) x, (RAbstractRawVector) y, from, to);
+            default:
+                throw RInternalError.shouldNotReachHere(x.getRType().getName());
+        }
+    }
+
+    private static boolean identicalRange(RAbstractIntVector x, RAbstractIntVector y, int from, int to) {
+        if (x instanceof RIntVector && y instanceof RIntVector) {
+            int[] xData = ((RIntVector) x).getInternalStore();
+            int[] yData = ((RIntVector) y).getInternalStore();
+            if (xData != null && yData != null) {
+                if (from == 0 && to == xData.length && to == yData.length) {
+                    return Arrays.equals(xData, yData);
+                }
+                for (int i = from; i < to; i++) {
+                    if (xData[i] != yData[i]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        for (int i = from; i < to; i++) {
+            if (x.getDataAt(i) != y.getDataAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean identicalRange(RAbstractDoubleVector x, RAbstractDoubleVector y, int from, int to, boolean numEq, boolean singleNA) {
+        if (x instanceof RDoubleVector && y instanceof RDoubleVector) {
+            double[] xData = ((RDoubleVector) x).getInternalStore();
+            double[] yData = ((RDoubleVector) y).getInternalStore();
+            if (xData != null && yData != null) {
+                if (numEq) {
+                    // equal numbers are identical with any singleNA
+                    for (int i = from; i < to; i++) {
+                        if (xData[i] != yData[i] && !identical(xData[i], yData[i], true, singleNA)) {
+                            return false;
+                        }
+                    }
+                } else {
+                    for (int i = from; i < to; i++) {
+                        if (Double.doubleToRawLongBits(xData[i]) != Double.doubleToRawLongBits(yData[i]) && !identical(xData[i], yData[i], false, singleNA)) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            }
+        }
+        for (int i = from; i < to; i++) {
+            if (!identical(x.getDataAt(i), y.getDataAt(i), numEq, singleNA)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean identicalRange(RAbstractLogicalVector x, RAbstractLogicalVector y, int from, int to) {
+        if (x instanceof RLogicalVector && y instanceof RLogicalVector) {
+            byte[] xData = ((RLogicalVector) x).getInternalStore();
+            byte[] yData = ((RLogicalVector) y).getInternalStore();
+            if (xData != null && yData != null) {
+                return identicalRange(xData, yData, from, to);
+            }
+        }
+        for (int i = from; i < to; i++) {
+            if (x.getDataAt(i) != y.getDataAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean identicalRange(RAbstractRawVector x, RAbstractRawVector y, int from, int to) {
+        if (x instanceof RRawVector && y instanceof RRawVector) {
+            byte[] xData = ((RRawVector) x).getInternalStore();
+            byte[] yData = ((RRawVector) y).getInternalStore();
+            if (xData != null && yData != null) {
+                return identicalRange(xData, yData, from, to);
+            }
+        }
+        for (int i = from; i < to; i++) {
+            if (x.getRawDataAt(i) != y.getRawDataAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean identicalRange(byte[] xData, byte[] yData, int from, int to) {
+        if (from == 0 && to == xData.length && to == yData.length) {
+            return Arrays.equals(xData, yData);
+        }
+        for (int i = from; i < to; i++) {
+            if (xData[i] != yData[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean identicalRange(RAbstractStringVector x, RAbstractStringVector y, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!identical(x.getDataAt(i), y.getDataAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean identicalRange(RAbstractComplexVector x, RAbstractComplexVector y, int from, int to, boolean numEq, boolean singleNA) {
+        if (x instanceof RComplexVector && y instanceof RComplexVector) {
+            RComplexVector xv = (RComplexVector) x;
+            RComplexVector yv = (RComplexVector) y;
+            for (int i = 2 * from; i < 2 * to; i++) {
+                if (!identical(xv.getComplexPartAt(i), yv.getComplexPartAt(i), numEq, singleNA)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (int i = from; i < to; i++) {
+            RComplex xc = x.getDataAt(i);
+            RComplex yc = y.getDataAt(i);
+            if (!identical(xc.getRealPart(), yc.getRealPart(), numEq, singleNA) || !identical(xc.getImaginaryPart(), yc.getImaginaryPart(), numEq, singleNA)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
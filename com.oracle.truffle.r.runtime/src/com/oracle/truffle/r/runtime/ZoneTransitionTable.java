@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+/**
+ * Flattened offset transitions of a time zone for the years 1900 to 2100, so that converting
+ * between UTC and local seconds does not allocate any {@code java.time} objects. Instants outside
+ * of that range and local times close to a transition, where the result depends on how gaps and
+ * overlaps are resolved, are delegated to the {@link ZoneRules} of the zone.
+ */
+public final class ZoneTransitionTable {
+
+    private static final long RANGE_START = -2208988800L; // 1900-01-01T00:00:00Z
+    private static final long RANGE_END = 4102444800L; // 2100-01-01T00:00:00Z
+    private static final int SECONDS_PER_DAY = 86400;
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    /**
+     * Instants (epoch seconds) at which the offset changes.
+     */
+    private final long[] transitions;
+    /**
+     * {@code offsets[i]} is the offset in seconds valid before {@code transitions[i]} and at or
+     * after {@code transitions[i - 1]}.
+     */
+    private final int[] offsets;
+    private final boolean[] dst;
+
+    public ZoneTransitionTable(ZoneId zone) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        long[] trans = new long[16];
+        int[] offs = new int[17];
+        boolean[] dsts = new boolean[17];
+        int count = 0;
+        Instant current = Instant.ofEpochSecond(RANGE_START);
+        offs[0] = rules.getOffset(current).getTotalSeconds();
+        dsts[0] = rules.isDaylightSavings(current);
+        ZoneOffsetTransition transition;
+        while ((transition = rules.nextTransition(current)) != null && transition.toEpochSecond() < RANGE_END) {
+            if (count == trans.length) {
+                // offs and dsts always have one element more than trans
+                trans = Arrays.copyOf(trans, trans.length * 2);
+                offs = Arrays.copyOf(offs, trans.length + 1);
+                dsts = Arrays.copyOf(dsts, trans.length + 1);
+            }
+            current = transition.getInstant();
+            trans[count] = transition.toEpochSecond();
+            offs[count + 1] = transition.getOffsetAfter().getTotalSeconds();
+            dsts[count + 1] = rules.isDaylightSavings(current);
+            count++;
+        }
+        this.transitions = Arrays.copyOf(trans, count);
+        this.offsets = Arrays.copyOf(offs, count + 1);
+        this.dst = Arrays.copyOf(dsts, count + 1);
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    private static boolean inRange(long epochSecond) {
+        return epochSecond >= RANGE_START && epochSecond < RANGE_END;
+    }
+
+    /**
+     * Returns the index of the offset valid at given instant.
+     */
+    private int indexOf(long epochSecond) {
+        int index = Arrays.binarySearch(transitions, epochSecond);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Returns the offset from UTC in seconds at given instant.
+     */
+    public int offsetAt(long epochSecond) {
+        if (inRange(epochSecond)) {
+            return offsets[indexOf(epochSecond)];
+        }
+        return rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+    }
+
+    /**
+     * Returns whether daylight saving time is in effect at given instant.
+     */
+    public boolean isDaylightSavings(long epochSecond) {
+        if (inRange(epochSecond)) {
+            return dst[indexOf(epochSecond)];
+        }
+        return rules.isDaylightSavings(Instant.ofEpochSecond(epochSecond));
+    }
+
+    /**
+     * Converts local seconds (seconds since 1970-01-01T00:00 in this zone) to epoch seconds, with
+     * the same resolution of gaps and overlaps as {@link LocalDateTime#atZone(ZoneId)}.
+     */
+    public long localToEpochSecond(long localSecond) {
+        if (inRange(localSecond - SECONDS_PER_DAY) && inRange(localSecond + SECONDS_PER_DAY)) {
+            int index = indexOf(localSecond - offsets[indexOf(localSecond)]);
+            long epochSecond = localSecond - offsets[index];
+            // no transition within a day: the local time is neither in a gap nor in an overlap
+            if (indexOf(epochSecond - SECONDS_PER_DAY) == index && indexOf(epochSecond + SECONDS_PER_DAY) == index) {
+                return epochSecond;
+            }
+        }
+        return localToEpochSecondSlow(localSecond);
+    }
+
+    private long localToEpochSecondSlow(long localSecond) {
+        return LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC).atZone(zone).toEpochSecond();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.appl;
+
+/**
+ * Cholesky decomposition {@code A = U^T * U} of a symmetric positive definite matrix, the Java
+ * counterpart of LAPACK's {@code dpotrf} with {@code uplo = 'U'}. Only the upper triangle of the
+ * column-major matrix is referenced and overwritten by {@code U}.
+ *
+ * {@code U} is computed by blocks of rows: the diagonal block first, then the rest of its rows. All
+ * the inner loops are dot products of column segments, which are contiguous in the column-major
+ * layout, and the columns of the diagonal block stay in the cache while the rows right of it are
+ * computed.
+ */
+public final class Cholesky {
+
+    private static final int BLOCK_SIZE = 64;
+
+    private Cholesky() {
+        // only static methods
+    }
+
+    /**
+     * Factors the {@code n} by {@code n} matrix {@code a} with leading dimension {@code lda} in
+     * place. Returns {@code 0} on success or, like {@code dpotrf}, the order of the leading minor
+     * that is not positive definite.
+     */
+    public static int dpotrf(double[] a, int n, int lda) {
+        for (int j = 0; j < n; j += BLOCK_SIZE) {
+            int jb = Math.min(BLOCK_SIZE, n - j);
+
+            /* factor the diagonal block */
+            int info = factorDiagonalBlock(a, lda, j, jb);
+            if (info != 0) {
+                return info + j;
+            }
+
+            /* compute the rows of the block right of the diagonal block */
+            for (int k = j + jb; k < n; k++) {
+                int kcol = k * lda;
+                for (int i = j; i < j + jb; i++) {
+                    int icol = i * lda;
+                    a[kcol + i] = (a[kcol + i] - dot(a, icol, kcol, i)) / a[icol + i];
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static int factorDiagonalBlock(double[] a, int lda, int j, int jb) {
+        for (int i = j; i < j + jb; i++) {
+            int icol = i * lda;
+            for (int l = j; l < i; l++) {
+                int lcol = l * lda;
+                a[icol + l] = (a[icol + l] - dot(a, lcol, icol, l)) / a[lcol + l];
+            }
+            double aii = a[icol + i] - dot(a, icol, icol, i);
+            if (aii <= 0 || Double.isNaN(aii)) {
+                a[icol + i] = aii;
+                return i - j + 1;
+            }
+            a[icol + i] = Math.sqrt(aii);
+        }
+        return 0;
+    }
+
+    /**
+     * Dot product of the first {@code length} elements of the columns starting at {@code col1} and
+     * {@code col2}.
+     */
+    private static double dot(double[] a, int col1, int col2, int length) {
+        double result = 0;
+        for (int i = 0; i < length; i++) {
+            result += a[col1 + i] * a[col2 + i];
+        }
+        return result;
+    }
+}
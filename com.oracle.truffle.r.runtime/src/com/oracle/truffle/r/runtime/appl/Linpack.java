@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 1995, 1996  Robert Gentleman and Ross Ihaka
+ * Copyright (c) 1997-2013, The R Core Team
+ * Copyright (c) 2019, Oracle and/or its affiliates
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, a copy is available at
+ * https://www.R-project.org/Licenses/
+ */
+package com.oracle.truffle.r.runtime.appl;
+
+/**
+ * The QR decomposition routines {@code dqrdc2}, {@code dqrsl} and {@code dqrls} of GnuR's
+ * {@code appl} directory, transcribed from Fortran with the level 1 BLAS routines inlined in the
+ * form of the reference BLAS, so that the results are those of the native routines.
+ *
+ * The matrices are stored by columns, the indices are 0-based.
+ */
+public final class Linpack {
+
+    private Linpack() {
+        // only static methods
+    }
+
+    /**
+     * The Householder QR decomposition with limited column pivoting of the {@code n} by {@code p}
+     * matrix {@code x}: the columns with negligible norm (relative to {@code tol}) are moved to the
+     * end. Returns the rank, {@code jpvt} must be initialized by the caller, {@code work} must hold
+     * at least {@code 2 * p} values.
+     */
+    public static int dqrdc2(double[] x, int ldx, int n, int p, double tol, double[] qraux, int[] jpvt, double[] work) {
+        // work(j,1) is work[j], work(j,2) is work[p + j]
+        if (n > 0) {
+            for (int j = 0; j < p; j++) {
+                qraux[j] = dnrm2(n, x, j * ldx);
+                work[j] = qraux[j];
+                work[p + j] = qraux[j];
+                if (work[p + j] == 0.0) {
+                    work[p + j] = 1.0;
+                }
+            }
+        }
+
+        /* perform the householder reduction of x */
+
+        int lup = Math.min(n, p);
+        int k = p + 1;
+        for (int l = 0; l < lup; l++) {
+
+            /*
+             * cycle the columns from l to p left-to-right until one with non-negligible norm is
+             * located. a column is considered to have become negligible if its norm has fallen
+             * below tol times its original norm.
+             */
+
+            while (l + 1 < k && !(qraux[l] >= work[p + l] * tol)) {
+                int lcol = l * ldx;
+                for (int i = 0; i < n; i++) {
+                    double t = x[lcol + i];
+                    for (int j = l + 1; j < p; j++) {
+                        x[(j - 1) * ldx + i] = x[j * ldx + i];
+                    }
+                    x[(p - 1) * ldx + i] = t;
+                }
+                int i = jpvt[l];
+                double t = qraux[l];
+                double tt = work[l];
+                double ttt = work[p + l];
+                for (int j = l + 1; j < p; j++) {
+                    jpvt[j - 1] = jpvt[j];
+                    qraux[j - 1] = qraux[j];
+                    work[j - 1] = work[j];
+                    work[p + j - 1] = work[p + j];
+                }
+                jpvt[p - 1] = i;
+                qraux[p - 1] = t;
+                work[p - 1] = tt;
+                work[2 * p - 1] = ttt;
+                k--;
+            }
+            if (l + 1 == n) {
+                continue;
+            }
+
+            /* compute the householder transformation for column l */
+
+            int ll = l * ldx + l;
+            int len = n - l;
+            double nrmxl = dnrm2(len, x, ll);
+            if (nrmxl == 0.0) {
+                continue;
+            }
+            if (x[ll] != 0.0) {
+                nrmxl = Math.copySign(nrmxl, x[ll]);
+            }
+            dscal(len, 1.0 / nrmxl, x, ll);
+            x[ll] = 1.0 + x[ll];
+
+            /* apply the transformation to the remaining columns, updating the norms */
+
+            for (int j = l + 1; j < p; j++) {
+                int lj = j * ldx + l;
+                double t = -ddot(len, x, ll, x, lj) / x[ll];
+                daxpy(len, t, x, ll, x, lj);
+                if (qraux[j] != 0.0) {
+                    double tt = Math.abs(x[lj]) / qraux[j];
+                    tt = Math.max(1.0 - tt * tt, 0.0);
+                    t = tt;
+                    /* modified 9/99 by doug bates to use a relative tolerance */
+                    if (Math.abs(t) < 1e-6) {
+                        qraux[j] = dnrm2(len - 1, x, lj + 1);
+                        work[j] = qraux[j];
+                    } else {
+                        qraux[j] = qraux[j] * Math.sqrt(t);
+                    }
+                }
+            }
+
+            /* save the transformation */
+
+            qraux[l] = x[ll];
+            x[ll] = -nrmxl;
+        }
+        return Math.min(k - 1, n);
+    }
+
+    /**
+     * Applies the output of {@link #dqrdc2} to the vector {@code y} at {@code yOff}, computing the
+     * parts selected by {@code job} like the LINPACK routine. The vectors {@code qy}, {@code qty},
+     * {@code b}, {@code rsd} and {@code xb} are given together with their offsets. Returns
+     * {@code info}.
+     */
+    public static int dqrsl(double[] x, int ldx, int n, int k, double[] qraux, double[] y, int yOff, double[] qy, int qyOff, double[] qty, int qtyOff, double[] b, int bOff, double[] rsd,
+                    int rsdOff, double[] xb, int xbOff, int job) {
+        int info = 0;
+
+        /* determine what is to be computed */
+
+        boolean cqy = job / 10000 != 0;
+        boolean cqty = job % 10000 != 0;
+        boolean cb = (job % 1000) / 100 != 0;
+        boolean cr = (job % 100) / 10 != 0;
+        boolean cxb = job % 10 != 0;
+        int ju = Math.min(k, n - 1);
+
+        /* special action when n=1 */
+
+        if (ju == 0) {
+            if (cqy) {
+                qy[qyOff] = y[yOff];
+            }
+            if (cqty) {
+                qty[qtyOff] = y[yOff];
+            }
+            if (cxb) {
+                xb[xbOff] = y[yOff];
+            }
+            if (cb) {
+                if (x[0] != 0.0) {
+                    b[bOff] = y[yOff] / x[0];
+                } else {
+                    info = 1;
+                }
+            }
+            if (cr) {
+                rsd[rsdOff] = 0.0;
+            }
+            return info;
+        }
+
+        /* set up to compute qy or qty */
+
+        if (cqy) {
+            System.arraycopy(y, yOff, qy, qyOff, n);
+        }
+        if (cqty) {
+            System.arraycopy(y, yOff, qty, qtyOff, n);
+        }
+        if (cqy) {
+
+            /* compute qy */
+
+            for (int j = ju - 1; j >= 0; j--) {
+                if (qraux[j] != 0.0) {
+                    applyHouseholder(x, ldx, n, j, qraux[j], qy, qyOff);
+                }
+            }
+        }
+        if (cqty) {
+
+            /* compute trans(q)*y */
+
+            for (int j = 0; j < ju; j++) {
+                if (qraux[j] != 0.0) {
+                    applyHouseholder(x, ldx, n, j, qraux[j], qty, qtyOff);
+                }
+            }
+        }
+
+        /* set up to compute b, rsd, or xb */
+
+        if (cb) {
+            System.arraycopy(qty, qtyOff, b, bOff, k);
+        }
+        if (cxb) {
+            System.arraycopy(qty, qtyOff, xb, xbOff, k);
+        }
+        if (cr && k < n) {
+            System.arraycopy(qty, qtyOff + k, rsd, rsdOff + k, n - k);
+        }
+        if (cxb) {
+            for (int i = k; i < n; i++) {
+                xb[xbOff + i] = 0.0;
+            }
+        }
+        if (cr) {
+            for (int i = 0; i < k; i++) {
+                rsd[rsdOff + i] = 0.0;
+            }
+        }
+        if (cb) {
+
+            /* compute b */
+
+            for (int j = k - 1; j >= 0; j--) {
+                double xjj = x[j * ldx + j];
+                if (xjj == 0.0) {
+                    info = j + 1;
+                    break;
+                }
+                b[bOff + j] = b[bOff + j] / xjj;
+                if (j != 0) {
+                    daxpy(j, -b[bOff + j], x, j * ldx, b, bOff);
+                }
+            }
+        }
+        if (cr || cxb) {
+
+            /* compute rsd or xb as required */
+
+            for (int j = ju - 1; j >= 0; j--) {
+                if (qraux[j] != 0.0) {
+                    if (cr) {
+                        applyHouseholder(x, ldx, n, j, qraux[j], rsd, rsdOff);
+                    }
+                    if (cxb) {
+                        applyHouseholder(x, ldx, n, j, qraux[j], xb, xbOff);
+                    }
+                }
+            }
+        }
+        return info;
+    }
+
+    /**
+     * Applies the j-th transformation to {@code v}, the diagonal element of {@code x} is replaced
+     * by {@code qrauxj} for the computation like in the original code.
+     */
+    private static void applyHouseholder(double[] x, int ldx, int n, int j, double qrauxj, double[] v, int vOff) {
+        int jj = j * ldx + j;
+        double temp = x[jj];
+        x[jj] = qrauxj;
+        double t = -ddot(n - j, x, jj, v, vOff + j) / x[jj];
+        daxpy(n - j, t, x, jj, v, vOff + j);
+        x[jj] = temp;
+    }
+
+    /**
+     * Fits the least squares solutions of {@code x * b = y} for the {@code ny} columns of
+     * {@code y}. The arguments are those of the Fortran routine, returns the rank.
+     */
+    public static int dqrls(double[] x, int n, int p, double[] y, int ny, double tol, double[] b, double[] rsd, double[] qty, int[] jpvt, double[] qraux, double[] work) {
+        /* reduce x. */
+        int k = dqrdc2(x, n, n, p, tol, qraux, jpvt, work);
+
+        /* solve the truncated least squares problem for each rhs. */
+        if (k > 0) {
+            for (int jj = 0; jj < ny; jj++) {
+                dqrsl(x, n, n, k, qraux, y, jj * n, rsd, jj * n, qty, jj * n, b, jj * p, rsd, jj * n, rsd, jj * n, 1110);
+            }
+        } else {
+            System.arraycopy(y, 0, rsd, 0, n * ny);
+        }
+
+        /* set the unused components of b to zero. */
+        for (int j = k; j < p; j++) {
+            for (int jj = 0; jj < ny; jj++) {
+                b[j + jj * p] = 0.0;
+            }
+        }
+        return k;
+    }
+
+    /**
+     * The euclidean norm computed with scaling like in the reference BLAS.
+     */
+    static double dnrm2(int n, double[] x, int off) {
+        if (n < 1) {
+            return 0.0;
+        } else if (n == 1) {
+            return Math.abs(x[off]);
+        }
+        double scale = 0.0;
+        double ssq = 1.0;
+        for (int i = off; i < off + n; i++) {
+            if (x[i] != 0.0) {
+                double absxi = Math.abs(x[i]);
+                if (scale < absxi) {
+                    double r = scale / absxi;
+                    ssq = 1.0 + ssq * (r * r);
+                    scale = absxi;
+                } else {
+                    double r = absxi / scale;
+                    ssq = ssq + r * r;
+                }
+            }
+        }
+        return scale * Math.sqrt(ssq);
+    }
+
+    static double ddot(int n, double[] x, int xOff, double[] y, int yOff) {
+        double result = 0.0;
+        for (int i = 0; i < n; i++) {
+            result += x[xOff + i] * y[yOff + i];
+        }
+        return result;
+    }
+
+    static void daxpy(int n, double a, double[] x, int xOff, double[] y, int yOff) {
+        if (a == 0.0) {
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            y[yOff + i] += a * x[xOff + i];
+        }
+    }
+
+    private static void dscal(int n, double a, double[] x, int off) {
+        for (int i = off; i < off + n; i++) {
+            x[i] = a * x[i];
+        }
+    }
+}
@@ -539,18 +539,21 @@ public class FileConnections {
         public void writeBin(ByteBuffer buffer) throws IOException {
             setWritePosition();
             super.writeBin(buffer);
+            writeOffset = channel.position();
         }
 
         @Override
         public void writeChar(String s, int pad, String eos, boolean useBytes) throws IOException {
             setWritePosition();
             super.writeChar(s, pad, eos, useBytes);
+            writeOffset = channel.position();
         }
 
         @Override
         public void writeString(String s, boolean nl) throws IOException {
             setWritePosition();
             super.writeString(s, nl);
+            writeOffset = channel.position();
         }
 
         @Override
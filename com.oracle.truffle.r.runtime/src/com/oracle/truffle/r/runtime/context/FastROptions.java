@@ -125,6 +125,30 @@ public class FastROptions {
     public static final OptionKey<Boolean> RestrictForceSplitting = new OptionKey<>(true);
     @Option(category = OptionCategory.INTERNAL, help = "Turn on explicit GC via the gc built-in. Otherwise calls to gc are ignored.") //
     public static final OptionKey<Boolean> EnableExplicitGC = new OptionKey<>(false);
+    @Option(category = OptionCategory.EXPERT, help = "Share repeated strings read by readLines, scan, type.convert, unserialize, etc. via a global weak intern table") //
+    public static final OptionKey<Boolean> DeduplicateStrings = new OptionKey<>(true);
+    @Option(category = OptionCategory.EXPERT, help = "Compute order independent grouped aggregations (tabulate, split, tapply) of large vectors in parallel chunks") //
+    public static final OptionKey<Boolean> ParallelGrouping = new OptionKey<>(true);
+    @Option(category = OptionCategory.EXPERT, help = "Encode the rows of large tables written by write.table in parallel blocks") //
+    public static final OptionKey<Boolean> ParallelWriteTable = new OptionKey<>(true);
+    @Option(category = OptionCategory.EXPERT, help = "Evaluate density, distribution and quantile functions (dnorm, pnorm, qnorm) with scalar parameters on long vectors in parallel chunks") //
+    public static final OptionKey<Boolean> ParallelDistributionFunctions = new OptionKey<>(true);
+    @Option(category = OptionCategory.EXPERT, help = "Compute the pairwise distances of dist() for large matrices in parallel bands of tiles") //
+    public static final OptionKey<Boolean> ParallelDistances = new OptionKey<>(true);
+    @Option(category = OptionCategory.EXPERT, help = "Compute euclidean distances in dist() directly from the differences, if disabled the faster but less precise form via the dot products of the rows is used for finite data") //
+    public static final OptionKey<Boolean> ExactEuclideanDistance = new OptionKey<>(true);
+    @Option(category = OptionCategory.EXPERT, help = "Transform the independent series of fft() and mvfft() in parallel") //
+    public static final OptionKey<Boolean> ParallelFft = new OptionKey<>(true);
+    @Option(category = OptionCategory.EXPERT, help = "Compare long vectors and long lists of vectors in identical() in parallel chunks") //
+    public static final OptionKey<Boolean> ParallelIdentical = new OptionKey<>(true);
+    @Option(category = OptionCategory.EXPERT, help = "Walk the directory trees of list.files, list.dirs, unlink and file.copy and query the attributes of many files in file.info in parallel") //
+    public static final OptionKey<Boolean> ParallelFileTree = new OptionKey<>(true);
+    @Option(category = OptionCategory.EXPERT, help = "Copy the columns of many or long data frames bound by rbind in parallel") //
+    public static final OptionKey<Boolean> ParallelDataFrameBind = new OptionKey<>(true);
+    @Option(category = OptionCategory.EXPERT, help = "Maximal number of elements of the matrices that lm.fit and chol decompose in Java, larger matrices are decomposed by the native LINPACK and LAPACK routines") //
+    public static final OptionKey<Integer> JavaDecompositionThreshold = new OptionKey<>(1 << 20);
+    @Option(category = OptionCategory.EXPERT, help = "Number of sources whose parse results are reused by parse (and thus source and sys.source) when the same code is parsed again, 0 disables the cache") //
+    public static final OptionKey<Integer> ParseCacheSize = new OptionKey<>(64);
 
     // Discontinued since rc12
     // only a warning is printed to use the default logger mechanism
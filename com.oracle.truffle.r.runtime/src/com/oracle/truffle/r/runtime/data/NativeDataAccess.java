@@ -71,6 +71,7 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector.RMaterializedVector;
 import com.oracle.truffle.r.runtime.data.nodes.ShareObjectNode;
 import com.oracle.truffle.r.runtime.ffi.FFIMaterializeNode;
+import com.oracle.truffle.r.runtime.ffi.NativeCallProfiler;
 import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
 
 import sun.misc.Unsafe;
@@ -299,6 +300,9 @@ public final class NativeDataAccess {
                 long bytesCount = trueLen * (long) elementSize;
                 setDataAddress(allocateNativeMemory(bytesCount));
                 UnsafeAdapter.UNSAFE.copyMemory(source, elementBase, null, dataAddress, bytesCount);
+                if (NativeCallProfiler.isEnabled()) {
+                    NativeCallProfiler.nativized(bytesCount);
+                }
             } else {
                 setDataAddress(getEmptyDataAddress());
             }
@@ -315,6 +319,9 @@ public final class NativeDataAccess {
             UnsafeAdapter.UNSAFE.copyMemory(bytes, Unsafe.ARRAY_BYTE_BASE_OFFSET, null, dataAddress, bytes.length);
             UnsafeAdapter.UNSAFE.putByte(dataAddress + bytes.length, (byte) 0); // C strings
                                                                                 // terminator
+            if (NativeCallProfiler.isEnabled()) {
+                NativeCallProfiler.nativized(bytes.length + 1);
+            }
             this.length = bytes.length + 1;
 
             // ensure that marker address is not used
@@ -330,6 +337,9 @@ public final class NativeDataAccess {
                 for (int i = 0; i < wrappers.length; i++) {
                     UnsafeAdapter.UNSAFE.putLong(addr + (long) i * Long.BYTES, getPointer(wrappers[i]));
                 }
+                if (NativeCallProfiler.isEnabled()) {
+                    NativeCallProfiler.nativized(wrappers.length * (long) Long.BYTES);
+                }
             }
         }
 
@@ -351,6 +361,9 @@ public final class NativeDataAccess {
                         throw RInternalError.shouldNotReachHere();
                     }
                 }
+                if (NativeCallProfiler.isEnabled()) {
+                    NativeCallProfiler.nativized(elements.length * (long) Long.BYTES);
+                }
             }
         }
 
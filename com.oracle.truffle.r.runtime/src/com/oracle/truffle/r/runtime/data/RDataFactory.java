@@ -1261,6 +1261,13 @@ public final class RDataFactory {
         return traceDataCreated(new RFunction(name, packageName, target, builtin, enclosingFrame));
     }
 
+    /**
+     * Creates a closure whose call target is built by {@code lazyTarget} when it is first needed.
+     */
+    public static RFunction createLazyFunction(String name, String packageName, RFunction.LazyTarget lazyTarget, MaterializedFrame enclosingFrame) {
+        return traceDataCreated(new RFunction(name, packageName, lazyTarget, enclosingFrame));
+    }
+
     private static final AtomicInteger environmentCount = new AtomicInteger();
 
     @TruffleBoundary
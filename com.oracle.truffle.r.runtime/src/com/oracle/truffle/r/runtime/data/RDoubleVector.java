@@ -43,6 +43,12 @@ public final class RDoubleVector extends RAbstractDoubleVector implements RMater
 
     private double[] data;
 
+    /**
+     * The number of elements in use if {@link #data} has spare capacity after
+     * {@link #growInPlace(int)}, {@code -1} if the whole array is in use.
+     */
+    private int usedLength = -1;
+
     RDoubleVector(double[] data, boolean complete) {
         super(complete);
         this.data = data;
@@ -86,9 +92,15 @@ public final class RDoubleVector extends RAbstractDoubleVector implements RMater
 
     @Override
     public double[] getInternalManagedData() {
+        trimCapacity();
         return data;
     }
 
+    @Override
+    public boolean hasNativeMemoryData() {
+        return data == null;
+    }
+
     @Override
     public double[] getInternalStore() {
         return data;
@@ -108,11 +120,12 @@ public final class RDoubleVector extends RAbstractDoubleVector implements RMater
 
     @Override
     public int getLength() {
-        return NativeDataAccess.getDataLength(this, data);
+        return usedLength >= 0 ? usedLength : NativeDataAccess.getDataLength(this, data);
     }
 
     @Override
     public void setLength(int l) {
+        trimCapacity();
         try {
             NativeDataAccess.setDataLength(this, data, l);
         } finally {
@@ -139,7 +152,7 @@ public final class RDoubleVector extends RAbstractDoubleVector implements RMater
     @Override
     public double[] getDataCopy() {
         if (data != null) {
-            return Arrays.copyOf(data, data.length);
+            return Arrays.copyOf(data, getLength());
         } else {
             return NativeDataAccess.copyDoubleNativeData(getNativeMirror());
         }
@@ -148,6 +161,7 @@ public final class RDoubleVector extends RAbstractDoubleVector implements RMater
     @Override
     public double[] getReadonlyData() {
         if (data != null) {
+            trimCapacity();
             return data;
         } else {
             return NativeDataAccess.copyDoubleNativeData(getNativeMirror());
@@ -184,7 +198,31 @@ public final class RDoubleVector extends RAbstractDoubleVector implements RMater
         return getDataAt(index);
     }
 
+    @Override
+    public boolean growInPlace(int newLength) {
+        if (data == null) {
+            return false;
+        }
+        int length = getLength();
+        assert newLength > length;
+        if (newLength > data.length) {
+            data = Arrays.copyOf(data, growCapacity(length, newLength));
+        }
+        Arrays.fill(data, length, newLength, RRuntime.DOUBLE_NA);
+        usedLength = newLength == data.length ? -1 : newLength;
+        complete = false;
+        return true;
+    }
+
+    private void trimCapacity() {
+        if (usedLength >= 0) {
+            data = Arrays.copyOf(data, usedLength);
+            usedLength = -1;
+        }
+    }
+
     public long allocateNativeContents() {
+        trimCapacity();
         try {
             return NativeDataAccess.allocateNativeContents(this, data, getLength());
         } finally {
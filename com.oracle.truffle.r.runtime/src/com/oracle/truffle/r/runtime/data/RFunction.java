@@ -22,7 +22,9 @@
  */
 package com.oracle.truffle.r.runtime.data;
 
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -52,7 +54,8 @@ import com.oracle.truffle.r.runtime.data.RSharingAttributeStorage.Shareable;
  * are as follows:
  * <ul>
  * <li>The {@link #name} is optional. It is only set initially for builtins (required).
- * <li>The {@link #target} represents the actually callable entry point to the function.
+ * <li>The {@link #target} represents the actually callable entry point to the function. It can be
+ * built lazily by a {@link LazyTarget} on the first request, see {@link #getTarget()}.
  * <li>Functions may represent builtins; this is indicated by the {@link #builtin} flag set to the
  * associated {@link RBuiltin} instance.
  * <li>The lexically enclosing environment of this function's definition is referenced by
@@ -67,6 +70,11 @@ public final class RFunction extends RSharingAttributeStorage implements Shareab
     private final String name;
     private final String packageName;
     @CompilationFinal private RootCallTarget target;
+    /**
+     * Builds {@link #target} if it is {@code null}. The {@link LazyTarget} publishes the built
+     * target safely, so {@link #target} itself only caches it.
+     */
+    private final LazyTarget lazyTarget;
     private final RBuiltinDescriptor builtin;
 
     @CompilationFinal private MaterializedFrame enclosingFrame;
@@ -74,6 +82,7 @@ public final class RFunction extends RSharingAttributeStorage implements Shareab
     RFunction(String name, String packageName, RootCallTarget target, RBuiltinDescriptor builtin, MaterializedFrame enclosingFrame) {
         this.packageName = packageName;
         this.target = target;
+        this.lazyTarget = null;
         this.builtin = builtin;
         this.name = name;
         if (!isBuiltin() && name != NO_NAME) {
@@ -83,6 +92,40 @@ public final class RFunction extends RSharingAttributeStorage implements Shareab
         this.enclosingFrame = enclosingFrame instanceof VirtualEvalFrame ? ((VirtualEvalFrame) enclosingFrame).getOriginalFrame() : enclosingFrame;
     }
 
+    RFunction(String name, String packageName, LazyTarget lazyTarget, MaterializedFrame enclosingFrame) {
+        this.packageName = packageName;
+        this.lazyTarget = lazyTarget;
+        this.builtin = null;
+        this.name = name;
+        this.enclosingFrame = enclosingFrame instanceof VirtualEvalFrame ? ((VirtualEvalFrame) enclosingFrame).getOriginalFrame() : enclosingFrame;
+    }
+
+    /**
+     * Builds the call target of a closure on the first request. This saves the construction of the
+     * AST for the many functions of loaded packages that are never used. The instance is shared by
+     * the copies of the function, so they all get the same call target.
+     */
+    public abstract static class LazyTarget {
+        private final Object lock = new Object();
+        private volatile RootCallTarget target;
+
+        protected abstract RootCallTarget build();
+
+        private RootCallTarget get() {
+            RootCallTarget result = target;
+            if (result == null) {
+                synchronized (lock) {
+                    result = target;
+                    if (result == null) {
+                        result = build();
+                        target = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
     @SuppressWarnings("static-method")
     @ExportMessage
     boolean isExecutable() {
@@ -120,11 +163,30 @@ public final class RFunction extends RSharingAttributeStorage implements Shareab
     }
 
     public RootCallTarget getTarget() {
-        return target;
+        RootCallTarget result = target;
+        if (result == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            result = buildTarget();
+        }
+        return result;
+    }
+
+    /**
+     * Other threads may still see {@code null} in {@link #target} after this, they then get the
+     * same target from the {@link LazyTarget}.
+     */
+    @TruffleBoundary
+    private RootCallTarget buildTarget() {
+        RootCallTarget result = lazyTarget.get();
+        if (name != NO_NAME) {
+            RContext.getRRuntimeASTAccess().setFunctionName(result.getRootNode(), name);
+        }
+        target = result;
+        return result;
     }
 
     public RootNode getRootNode() {
-        return target.getRootNode();
+        return getTarget().getRootNode();
     }
 
     public MaterializedFrame getEnclosingFrame() {
@@ -133,12 +195,17 @@ public final class RFunction extends RSharingAttributeStorage implements Shareab
 
     @Override
     public String toString() {
-        return target.toString();
+        return getTarget().toString();
     }
 
     @Override
     public RFunction copy() {
-        RFunction newFunction = RDataFactory.createFunction(getName(), getPackageName(), getTarget(), getRBuiltin(), getEnclosingFrame());
+        RFunction newFunction;
+        if (target == null) {
+            newFunction = RDataFactory.createLazyFunction(getName(), getPackageName(), lazyTarget, getEnclosingFrame());
+        } else {
+            newFunction = RDataFactory.createFunction(getName(), getPackageName(), getTarget(), getRBuiltin(), getEnclosingFrame());
+        }
         if (getAttributes() != null) {
             newFunction.initAttributes(RAttributesLayout.copy(getAttributes()));
         }
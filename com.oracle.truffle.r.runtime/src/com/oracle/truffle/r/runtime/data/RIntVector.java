@@ -43,6 +43,12 @@ public final class RIntVector extends RAbstractIntVector implements RMaterialize
 
     private int[] data;
 
+    /**
+     * The number of elements in use if {@link #data} has spare capacity after
+     * {@link #growInPlace(int)}, {@code -1} if the whole array is in use.
+     */
+    private int usedLength = -1;
+
     RIntVector(int[] data, boolean complete) {
         super(complete);
         this.data = data;
@@ -120,11 +126,12 @@ public final class RIntVector extends RAbstractIntVector implements RMaterialize
 
     @Override
     public int getLength() {
-        return NativeDataAccess.getDataLength(this, data);
+        return usedLength >= 0 ? usedLength : NativeDataAccess.getDataLength(this, data);
     }
 
     @Override
     public void setLength(int l) {
+        trimCapacity();
         try {
             NativeDataAccess.setDataLength(this, data, l);
         } finally {
@@ -146,7 +153,7 @@ public final class RIntVector extends RAbstractIntVector implements RMaterialize
     @Override
     public int[] getDataCopy() {
         if (data != null) {
-            return Arrays.copyOf(data, data.length);
+            return Arrays.copyOf(data, getLength());
         } else {
             return NativeDataAccess.copyIntNativeData(getNativeMirror());
         }
@@ -154,12 +161,19 @@ public final class RIntVector extends RAbstractIntVector implements RMaterialize
 
     @Override
     public int[] getInternalManagedData() {
+        trimCapacity();
         return data;
     }
 
+    @Override
+    public boolean hasNativeMemoryData() {
+        return data == null;
+    }
+
     @Override
     public int[] getReadonlyData() {
         if (data != null) {
+            trimCapacity();
             return data;
         } else {
             return NativeDataAccess.copyIntNativeData(getNativeMirror());
@@ -202,7 +216,31 @@ public final class RIntVector extends RAbstractIntVector implements RMaterialize
         NativeDataAccess.setData(this, data, index, (int) value);
     }
 
+    @Override
+    public boolean growInPlace(int newLength) {
+        if (data == null) {
+            return false;
+        }
+        int length = getLength();
+        assert newLength > length;
+        if (newLength > data.length) {
+            data = Arrays.copyOf(data, growCapacity(length, newLength));
+        }
+        Arrays.fill(data, length, newLength, RRuntime.INT_NA);
+        usedLength = newLength == data.length ? -1 : newLength;
+        complete = false;
+        return true;
+    }
+
+    private void trimCapacity() {
+        if (usedLength >= 0) {
+            data = Arrays.copyOf(data, usedLength);
+            usedLength = -1;
+        }
+    }
+
     public long allocateNativeContents() {
+        trimCapacity();
         try {
             return NativeDataAccess.allocateNativeContents(this, data, getLength());
         } finally {
@@ -48,6 +48,12 @@ public final class RList extends RAbstractListVector implements RMaterializedVec
      */
     private Object[] data;
 
+    /**
+     * The number of elements in use if {@link #data} has spare capacity after
+     * {@link #growInPlace(int)}, {@code -1} if the whole array is in use.
+     */
+    private int usedLength = -1;
+
     RList(Object[] data) {
         super(false);
         assert data.getClass().isAssignableFrom(Object[].class) : data;
@@ -71,11 +77,12 @@ public final class RList extends RAbstractListVector implements RMaterializedVec
 
     @Override
     public int getLength() {
-        return NativeDataAccess.getDataLength(this, getInternalStore());
+        return usedLength >= 0 ? usedLength : NativeDataAccess.getDataLength(this, getInternalStore());
     }
 
     @Override
     public void setLength(int l) {
+        trimCapacity();
         if (!isNativized()) {
             if (l != data.length) {
                 try {
@@ -134,12 +141,19 @@ public final class RList extends RAbstractListVector implements RMaterializedVec
 
     @Override
     public Object[] getInternalManagedData() {
+        trimCapacity();
         return getInternalStore();
     }
 
+    @Override
+    public boolean hasNativeMemoryData() {
+        return getInternalStore() == null;
+    }
+
     @Override
     public Object[] getReadonlyData() {
         if (!isNativized()) {
+            trimCapacity();
             return data;
         } else {
             return NativeDataAccess.copyListNativeData(getNativeMirror());
@@ -153,8 +167,8 @@ public final class RList extends RAbstractListVector implements RMaterializedVec
     @Override
     public Object[] getDataCopy() {
         if (!isNativized()) {
-            Object[] copy = new Object[data.length];
-            System.arraycopy(data, 0, copy, 0, data.length);
+            Object[] copy = new Object[getLength()];
+            System.arraycopy(data, 0, copy, 0, copy.length);
             return copy;
         } else {
             return NativeDataAccess.copyListNativeData(getNativeMirror());
@@ -205,7 +219,30 @@ public final class RList extends RAbstractListVector implements RMaterializedVec
         setDataAt(i, value);
     }
 
+    @Override
+    public boolean growInPlace(int newLength) {
+        if (isNativized()) {
+            return false;
+        }
+        int length = getLength();
+        assert newLength > length;
+        if (newLength > data.length) {
+            data = Arrays.copyOf(data, growCapacity(length, newLength));
+        }
+        Arrays.fill(data, length, newLength, RNull.instance);
+        usedLength = newLength == data.length ? -1 : newLength;
+        return true;
+    }
+
+    private void trimCapacity() {
+        if (usedLength >= 0) {
+            data = Arrays.copyOf(data, usedLength);
+            usedLength = -1;
+        }
+    }
+
     public long allocateNativeContents() {
+        trimCapacity();
         try {
             return NativeDataAccess.allocateNativeContents(this, getInternalStore(), data.length);
         } finally {
@@ -43,6 +43,12 @@ public final class RLogicalVector extends RAbstractLogicalVector implements RMat
 
     private byte[] data;
 
+    /**
+     * The number of elements in use if {@link #data} has spare capacity after
+     * {@link #growInPlace(int)}, {@code -1} if the whole array is in use.
+     */
+    private int usedLength = -1;
+
     RLogicalVector(byte[] data, boolean complete) {
         super(complete);
         this.data = data;
@@ -87,9 +93,15 @@ public final class RLogicalVector extends RAbstractLogicalVector implements RMat
 
     @Override
     public byte[] getInternalManagedData() {
+        trimCapacity();
         return data;
     }
 
+    @Override
+    public boolean hasNativeMemoryData() {
+        return data == null;
+    }
+
     @Override
     public byte[] getInternalStore() {
         return data;
@@ -122,7 +134,7 @@ public final class RLogicalVector extends RAbstractLogicalVector implements RMat
 
     @Override
     public int getLength() {
-        return NativeDataAccess.getDataLength(this, data);
+        return usedLength >= 0 ? usedLength : NativeDataAccess.getDataLength(this, data);
     }
 
     @Override
@@ -132,6 +144,7 @@ public final class RLogicalVector extends RAbstractLogicalVector implements RMat
 
     @Override
     public void setLength(int l) {
+        trimCapacity();
         try {
             NativeDataAccess.setDataLength(this, data, l);
         } finally {
@@ -174,7 +187,7 @@ public final class RLogicalVector extends RAbstractLogicalVector implements RMat
     @Override
     public byte[] getDataCopy() {
         if (data != null) {
-            return Arrays.copyOf(data, data.length);
+            return Arrays.copyOf(data, getLength());
         } else {
             return getNativeDataCopy();
         }
@@ -183,6 +196,7 @@ public final class RLogicalVector extends RAbstractLogicalVector implements RMat
     @Override
     public byte[] getReadonlyData() {
         if (data != null) {
+            trimCapacity();
             return data;
         } else {
             return getNativeDataCopy();
@@ -199,7 +213,31 @@ public final class RLogicalVector extends RAbstractLogicalVector implements RMat
         return getDataAt(index);
     }
 
+    @Override
+    public boolean growInPlace(int newLength) {
+        if (data == null) {
+            return false;
+        }
+        int length = getLength();
+        assert newLength > length;
+        if (newLength > data.length) {
+            data = Arrays.copyOf(data, growCapacity(length, newLength));
+        }
+        Arrays.fill(data, length, newLength, RRuntime.LOGICAL_NA);
+        usedLength = newLength == data.length ? -1 : newLength;
+        complete = false;
+        return true;
+    }
+
+    private void trimCapacity() {
+        if (usedLength >= 0) {
+            data = Arrays.copyOf(data, usedLength);
+            usedLength = -1;
+        }
+    }
+
     public long allocateNativeContents() {
+        trimCapacity();
         try {
             return NativeDataAccess.allocateNativeContents(this, data, getLength());
         } finally {
@@ -73,6 +73,14 @@ public final class RStringSequence extends RAbstractStringVector implements RSeq
         return start;
     }
 
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
     public int getEnd() {
         return start + (getLength() - 1) * stride;
     }
@@ -22,14 +22,18 @@
  */
 package com.oracle.truffle.r.runtime.data;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashMapCharacter;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.SuppressFBWarnings;
+import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.data.NativeDataAccess.NativeMirror;
 import com.oracle.truffle.r.runtime.data.closures.RClosures;
 import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
@@ -46,11 +50,50 @@ public final class RStringVector extends RAbstractStringVector implements RMater
 
     static final Assumption noWrappedStrings = Truffle.getRuntime().createAssumption("noWrappedStrings");
 
+    /**
+     * Vectors with at least this many elements should be searched via
+     * {@link #lookupFirstIndex(String)}, shorter ones are faster searched linearly.
+     */
+    public static final int LOOKUP_INDEX_MIN_LENGTH = 64;
+
     /**
      * After nativized, the data array degenerates to a reference holder.
      */
     private Object[] data;
 
+    /**
+     * The number of elements in use if {@link #data} has spare capacity after
+     * {@link #growInPlace(int)} or {@link #growInPlaceWithEmpty(int)}, {@code -1} if the whole
+     * array is in use.
+     */
+    private int usedLength = -1;
+
+    /**
+     * Lazily built index of the first occurrence of every element, see
+     * {@link #lookupFirstIndex(String)}. It is {@code null} before the first lookup and
+     * {@link LookupIndex#LOOKED_UP} after a lookup without an index. Any modification of the
+     * elements discards the index. The state is published as a single immutable object, so that a
+     * thread never sees a partially built index.
+     */
+    private volatile LookupIndex lookupIndex;
+
+    /**
+     * Whether {@link #lookupIndex} holds a hash index. This plain field is checked by
+     * {@link #invalidateLookupIndex()}, so that writes to vectors without an index, i.e. almost all
+     * of them, do not access the volatile field.
+     */
+    private boolean hasLookupIndex;
+
+    private static final class LookupIndex {
+        static final LookupIndex LOOKED_UP = new LookupIndex(null);
+
+        final NonRecursiveHashMapCharacter map;
+
+        LookupIndex(NonRecursiveHashMapCharacter map) {
+            this.map = map;
+        }
+    }
+
     private RStringVector() {
         super(false);
     }
@@ -93,9 +136,15 @@ public final class RStringVector extends RAbstractStringVector implements RMater
 
     @Override
     public Object[] getInternalManagedData() {
+        trimCapacity();
         return getInternalStore();
     }
 
+    @Override
+    public boolean hasNativeMemoryData() {
+        return getInternalStore() == null;
+    }
+
     @Override
     public Object[] getInternalStore() {
         return isNativized() ? null : data;
@@ -104,6 +153,7 @@ public final class RStringVector extends RAbstractStringVector implements RMater
     @Override
     public void setDataAt(Object store, int index, String value) {
         assert canBeValidStore(store, getInternalStore());
+        invalidateLookupIndex();
         NativeDataAccess.setData(this, data, index, value);
     }
 
@@ -115,11 +165,13 @@ public final class RStringVector extends RAbstractStringVector implements RMater
 
     @Override
     public int getLength() {
-        return NativeDataAccess.getDataLength(this, getInternalStore());
+        return usedLength >= 0 ? usedLength : NativeDataAccess.getDataLength(this, getInternalStore());
     }
 
     @Override
     public void setLength(int l) {
+        invalidateLookupIndex();
+        trimCapacity();
         if (!isNativized()) {
             if (l != data.length) {
                 try {
@@ -154,12 +206,13 @@ public final class RStringVector extends RAbstractStringVector implements RMater
     public String[] getDataCopy() {
         if (!isNativized()) {
             Object[] localData = data;
-            String[] copy = new String[localData.length];
+            int length = getLength();
+            String[] copy = new String[length];
             if (noWrappedStrings.isValid() || localData instanceof String[]) {
-                System.arraycopy(localData, 0, copy, 0, localData.length);
+                System.arraycopy(localData, 0, copy, 0, length);
             } else {
                 CharSXPWrapper[] wrappers = (CharSXPWrapper[]) localData;
-                for (int i = 0; i < localData.length; i++) {
+                for (int i = 0; i < length; i++) {
                     copy[i] = wrappers[i].getContents();
                 }
             }
@@ -172,6 +225,7 @@ public final class RStringVector extends RAbstractStringVector implements RMater
     @Override
     public Object[] getReadonlyData() {
         if (!isNativized()) {
+            trimCapacity();
             return data;
         } else {
             return NativeDataAccess.copyStringNativeData(getNativeMirror());
@@ -184,6 +238,7 @@ public final class RStringVector extends RAbstractStringVector implements RMater
      */
     public String[] getReadonlyStringData() {
         if (!isNativized()) {
+            trimCapacity();
             Object[] localData = data;
             if (noWrappedStrings.isValid() || localData instanceof String[]) {
                 return (String[]) localData;
@@ -213,6 +268,7 @@ public final class RStringVector extends RAbstractStringVector implements RMater
         if (this.isShared()) {
             throw RInternalError.shouldNotReachHere("update shared vector");
         }
+        invalidateLookupIndex();
         NativeDataAccess.setData(this, data, i, right);
         if (rightNACheck.check(right)) {
             setComplete(false);
@@ -228,15 +284,55 @@ public final class RStringVector extends RAbstractStringVector implements RMater
 
     @Override
     protected boolean isResizedComplete(int newSize, boolean filledNAs) {
-        return !isNativized() && isComplete() && ((data.length >= newSize) || !filledNAs);
+        return !isNativized() && isComplete() && ((getLength() >= newSize) || !filledNAs);
     }
 
     public RStringVector resizeWithEmpty(int size) {
         return createStringVector(copyResizedData(size, RRuntime.NAMES_ATTR_EMPTY_VALUE), isComplete(), null);
     }
 
+    @Override
+    public boolean growInPlace(int newLength) {
+        if (!grow(newLength, RRuntime.STRING_NA)) {
+            return false;
+        }
+        complete = false;
+        return true;
+    }
+
+    /**
+     * Like {@link #growInPlace(int)}, but sets the new elements to empty strings, which is what
+     * {@link #resizeWithEmpty(int)} does for names vectors.
+     */
+    public boolean growInPlaceWithEmpty(int newLength) {
+        return grow(newLength, RRuntime.NAMES_ATTR_EMPTY_VALUE);
+    }
+
+    private boolean grow(int newLength, String fill) {
+        if (isNativized()) {
+            return false;
+        }
+        invalidateLookupIndex();
+        int length = getLength();
+        assert newLength > length;
+        if (newLength > data.length) {
+            data = Arrays.copyOf(data, growCapacity(length, newLength));
+        }
+        Arrays.fill(data, length, newLength, data instanceof String[] ? fill : CharSXPWrapper.create(fill));
+        usedLength = newLength == data.length ? -1 : newLength;
+        return true;
+    }
+
+    private void trimCapacity() {
+        if (usedLength >= 0) {
+            data = Arrays.copyOf(data, usedLength);
+            usedLength = -1;
+        }
+    }
+
     @Override
     public void transferElementSameType(int toIndex, RAbstractVector fromVector, int fromIndex) {
+        invalidateLookupIndex();
         Object[] localData = getReadonlyData();
         RAbstractStringVector other = (RAbstractStringVector) fromVector;
         if (noWrappedStrings.isValid()) {
@@ -246,11 +342,77 @@ public final class RStringVector extends RAbstractStringVector implements RMater
         }
     }
 
+    @Override
+    public Object getDataTemp() {
+        // the caller may modify the returned array
+        invalidateLookupIndex();
+        return super.getDataTemp();
+    }
+
     @Override
     public RStringVector materialize() {
         return this;
     }
 
+    /**
+     * Returns the index of the first element equal to {@code element} or {@code -1} if there is
+     * none. The second lookup on a vector builds a hash index of its elements, which is then used
+     * by all following lookups until the vector is modified. Lookups in names vectors that are
+     * used as lookup tables, e.g. {@code x[["key"]]} or {@code x$field} on long named lists, are
+     * therefore constant time.
+     *
+     * Modifications through this vector's methods, its vector accesses (which discard the index
+     * when they are set up, because they can write to the store directly), the {@code [<-} family
+     * of replacement functions and native code (the index is never used for nativized vectors)
+     * discard the index. Code that
+     * modifies the internal store of a string vector in place in any other way must call
+     * {@link #invalidateLookupIndex()}.
+     */
+    @TruffleBoundary
+    public int lookupFirstIndex(String element) {
+        if (RRuntime.isNA(element) || isNativized()) {
+            invalidateLookupIndex();
+            return indexOfFirst(element);
+        }
+        LookupIndex index = lookupIndex;
+        if (index == null) {
+            // a single lookup does not pay for the index
+            lookupIndex = LookupIndex.LOOKED_UP;
+            return indexOfFirst(element);
+        } else if (index.map == null) {
+            int length = getLength();
+            NonRecursiveHashMapCharacter map = new NonRecursiveHashMapCharacter(length);
+            for (int i = length - 1; i >= 0; i--) {
+                String value = getDataAt(i);
+                if (!RRuntime.isNA(value)) {
+                    map.put(value, i);
+                }
+            }
+            index = new LookupIndex(map);
+            hasLookupIndex = true;
+            lookupIndex = index;
+        }
+        return index.map.get(element);
+    }
+
+    private int indexOfFirst(String element) {
+        int length = getLength();
+        for (int i = 0; i < length; i++) {
+            String value = getDataAt(i);
+            if (Utils.fastPathIdentityEquals(value, element) || (!RRuntime.isNA(value) && value.equals(element))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void invalidateLookupIndex() {
+        if (hasLookupIndex) {
+            hasLookupIndex = false;
+            lookupIndex = LookupIndex.LOOKED_UP;
+        }
+    }
+
     @Override
     public Object getDataAtAsObject(int index) {
         return getDataAt(index);
@@ -259,6 +421,7 @@ public final class RStringVector extends RAbstractStringVector implements RMater
     @Override
     public void setElement(int i, Object value) {
         assert value instanceof CharSXPWrapper;
+        invalidateLookupIndex();
         wrapStrings();
         NativeDataAccess.setData(this, (CharSXPWrapper[]) data, i, (CharSXPWrapper) value);
     }
@@ -269,6 +432,7 @@ public final class RStringVector extends RAbstractStringVector implements RMater
      * vector contains plain Strings, they will be first wrapped to {@link CharSXPWrapper}s.
      */
     public long allocateNativeContents() {
+        trimCapacity();
         try {
             wrapStrings();
             return NativeDataAccess.allocateNativeContents(this, (CharSXPWrapper[]) getInternalStore(), getLength());
@@ -296,6 +460,7 @@ public final class RStringVector extends RAbstractStringVector implements RMater
     @SuppressFBWarnings(value = "ST_WRITE_TO_STATIC_FROM_INSTANCE_METHOD", justification = "intentional")
     public void wrapStrings(ConditionProfile isNativized, ConditionProfile needsWrapping) {
         if (isNativized.profile(!isNativized())) {
+            trimCapacity();
             Object[] oldData = data;
             if (needsWrapping.profile(oldData instanceof CharSXPWrapper[])) {
                 return;
@@ -321,6 +486,7 @@ public final class RStringVector extends RAbstractStringVector implements RMater
     }
 
     public void setWrappedDataAt(int index, CharSXPWrapper elem) {
+        invalidateLookupIndex();
         if (!isNativized()) {
             wrapStrings();
             assert data instanceof CharSXPWrapper[] : "wrap the string vector data with wrapStrings() before using getWrappedDataAt(int)";
@@ -355,6 +521,13 @@ public final class RStringVector extends RAbstractStringVector implements RMater
             return super.supports(value) && (!hasStore || ((RStringVector) value).getInternalStore() instanceof CharSXPWrapper[] == containsWrappers);
         }
 
+        @Override
+        protected Object getStore(RAbstractContainer vector) {
+            // setStringImpl writes to the store directly, bypassing the methods of the vector
+            ((RStringVector) vector).invalidateLookupIndex();
+            return super.getStore(vector);
+        }
+
         @Override
         protected String getStringImpl(AccessIterator accessIter, int index) {
             if (hasStore) {
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.WeakHashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
+
+/**
+ * VM-wide weak table of canonical {@link String} instances, the FastR counterpart of the global
+ * CHARSXP cache of GNU R. Builtins that produce character data from external input (e.g.
+ * {@code readLines}, {@code scan}, {@code type.convert} or unserialization) pass the strings
+ * through the table so that repeated values share one instance. Apart from the memory savings this
+ * makes identity fast paths like the one of S4 dispatch succeed more often. Strings from other
+ * sources and the values of a {@link Deduplicator} in its sampling phase are not canonical, so
+ * such code must always fall back to {@link String#equals(Object)}.
+ *
+ * The table is split into independently locked segments selected by the (cached) hash code of the
+ * string. The entries are only weakly reachable from the table, so the table never keeps any
+ * string alive. Deduplication is controlled by {@link FastROptions#DeduplicateStrings}.
+ */
+public final class StringInternTable {
+
+    private static final int SEGMENT_COUNT = 64;
+
+    private static final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    static {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    private static final class Segment {
+        private final WeakHashMap<String, WeakReference<String>> map = new WeakHashMap<>();
+
+        synchronized String intern(String value) {
+            WeakReference<String> entry = map.get(value);
+            if (entry != null) {
+                String result = entry.get();
+                if (result != null) {
+                    return result;
+                }
+            }
+            map.put(value, new WeakReference<>(value));
+            return value;
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+
+    private StringInternTable() {
+        // only static members
+    }
+
+    public static boolean isEnabled() {
+        return RContext.getInstance().getOption(FastROptions.DeduplicateStrings);
+    }
+
+    /**
+     * Returns the canonical instance of given string, the string itself is registered as the
+     * canonical instance if there is none yet. {@code NA} and {@code null} are returned as they are.
+     */
+    @TruffleBoundary
+    public static String intern(String value) {
+        if (value == null || RRuntime.isNA(value)) {
+            return value;
+        }
+        int hash = value.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (SEGMENT_COUNT - 1)].intern(value);
+    }
+
+    /**
+     * Number of live entries in the table (for diagnostics).
+     */
+    @TruffleBoundary
+    public static int size() {
+        int result = 0;
+        for (Segment segment : segments) {
+            result += segment.size();
+        }
+        return result;
+    }
+
+    /**
+     * Deduplicates the given array in place if deduplication is enabled, see {@link Deduplicator}.
+     * Arrays shorter than {@link Deduplicator#SAMPLE_SIZE} are left as they are: they cannot save
+     * much memory and for distinct values the sampling would cost more than the array itself.
+     */
+    @TruffleBoundary
+    public static String[] deduplicate(String[] data) {
+        if (data.length >= Deduplicator.SAMPLE_SIZE && isEnabled()) {
+            new Deduplicator().deduplicate(data);
+        }
+        return data;
+    }
+
+    /**
+     * Creates a deduplicator for a single producer (e.g. one invocation of a builtin), or
+     * {@code null} if deduplication is disabled.
+     */
+    @TruffleBoundary
+    public static Deduplicator createDeduplicator() {
+        return isEnabled() ? new Deduplicator() : null;
+    }
+
+    /**
+     * Deduplicates the strings of one producer. The first values serve as a sample of the data and
+     * are only resolved in a local map that is not shared with other threads. If most of them are
+     * distinct (e.g. identifiers or free text), the deduplication would only cost time and memory,
+     * so the deduplicator turns itself off and returns the remaining values as they are. Otherwise
+     * every distinct value is looked up in the global table once and the subsequent occurrences
+     * are resolved in the local map.
+     */
+    public static final class Deduplicator {
+
+        static final int SAMPLE_SIZE = 1024;
+
+        /**
+         * Deduplication is abandoned if more than {@code 1 / MIN_REPETITION} of the sampled values
+         * are distinct.
+         */
+        static final int MIN_REPETITION = 2;
+
+        private HashMap<String, String> local = new HashMap<>();
+        private int seen;
+        private boolean global;
+
+        private Deduplicator() {
+        }
+
+        public boolean isActive() {
+            return local != null;
+        }
+
+        /**
+         * Returns the canonical instance of the value once the sample is complete. The values
+         * returned during the sampling phase are only shared among the values of this
+         * deduplicator, they are not necessarily the instances in the global table. Use
+         * {@link #deduplicate(String[])} if the whole result is available at once, it replaces the
+         * sample with the canonical instances.
+         */
+        @TruffleBoundary
+        public String deduplicate(String value) {
+            HashMap<String, String> map = local;
+            if (map == null) {
+                return value;
+            }
+            String result = value;
+            if (value != null && !RRuntime.isNA(value)) {
+                result = map.get(value);
+                if (result == null) {
+                    if (!global && (map.size() + 1) * MIN_REPETITION > SAMPLE_SIZE) {
+                        // the sample cannot be repetitive enough anymore
+                        local = null;
+                        return value;
+                    }
+                    result = global ? intern(value) : value;
+                    map.put(result, result);
+                }
+            }
+            if (++seen == SAMPLE_SIZE) {
+                // the sample is repetitive enough
+                global = true;
+                map.replaceAll((key, canonical) -> intern(canonical));
+            }
+            return result;
+        }
+
+        @TruffleBoundary
+        public void deduplicate(String[] data) {
+            for (int i = 0; i < data.length && local != null; i++) {
+                boolean sampling = !global;
+                data[i] = deduplicate(data[i]);
+                if (sampling && global) {
+                    // the sample was resolved locally, replace it with the canonical instances
+                    for (int j = 0; j <= i; j++) {
+                        String canonical = local.get(data[j]);
+                        if (canonical != null) {
+                            data[j] = canonical;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
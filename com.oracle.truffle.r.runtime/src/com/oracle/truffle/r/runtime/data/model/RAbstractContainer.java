@@ -72,7 +72,8 @@ public abstract class RAbstractContainer extends RSharingAttributeStorage {
      * methods without any field loads. If {@code store} is saved into a local variable, then the
      * {@code getDataAsObject} overloads with {@code store} parameter do not have to load the
      * vector's fields, but instead read the necessary data from a local variable, which could be
-     * beneficial when in loop.
+     * beneficial when in loop. The store of a vector that grew in place can be longer than the
+     * vector, see {@link RAbstractVector#growInPlace(int)}.
      */
     public abstract Object getInternalStore();
 
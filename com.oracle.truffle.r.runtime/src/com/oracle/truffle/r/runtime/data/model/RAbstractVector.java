@@ -130,7 +130,11 @@ public abstract class RAbstractVector extends RAbstractContainer implements RFFI
      */
     public abstract Object getInternalManagedData();
 
-    public final boolean hasNativeMemoryData() {
+    /**
+     * Vectors that can {@link #growInPlace(int)} override this so that the check does not trim
+     * their spare capacity.
+     */
+    public boolean hasNativeMemoryData() {
         return getInternalManagedData() == null;
     }
 
@@ -576,6 +580,34 @@ public abstract class RAbstractVector extends RAbstractContainer implements RFFI
         return result;
     }
 
+    /**
+     * Tries to extend this vector to {@code newLength} elements without copying its data. The new
+     * elements are set to {@code NA} ({@code NULL} for lists). Materialized vectors that support
+     * this keep spare capacity in their managed data array so that a sequence of appends costs
+     * amortized constant time per element. The spare capacity is trimmed away before the data
+     * array escapes via {@link #getInternalManagedData()}, {@link #getReadonlyData()} or to the
+     * native side, so that everyone else still observes an exactly sized array. Only
+     * {@link #getInternalStore()} returns the array with its spare capacity, its users bound the
+     * accessed elements by {@link #getLength()}.
+     *
+     * The caller is responsible for making sure that the vector is not shared.
+     *
+     * @return {@code false} if this vector cannot grow in place (e.g. because it is backed by
+     *         native memory), in which case it is left unmodified.
+     */
+    public boolean growInPlace(@SuppressWarnings("unused") int newLength) {
+        return false;
+    }
+
+    /**
+     * Computes the capacity of a data array that is grown in place from {@code length} to at
+     * least {@code minCapacity} elements.
+     */
+    protected static int growCapacity(int length, int minCapacity) {
+        long capacity = length + (length >> 1) + 4L;
+        return (int) Math.max(minCapacity, Math.min(capacity, Integer.MAX_VALUE - 8));
+    }
+
     public RAbstractVector copyResizedWithDimensions(int[] newDimensions, boolean fillNA) {
         RAbstractVector materialized = materialize();
         assert materialized.isMaterialized();
@@ -56,8 +56,15 @@ public final class BaseRFFI {
             super(parent.createDownCallNode());
         }
 
-        public int execute(String fifoInPath, String fifoOutPath) {
-            return (int) call(NativeFunction.initEventLoop, fifoInPath, fifoOutPath);
+        /**
+         * Starts the native event loop. The doorbell receives one byte for each batch of events
+         * waiting to be dispatched. It is an anonymous pipe if {@code doorbellPath} is empty, the
+         * result is then the file descriptor of its read end. Otherwise the doorbell is a FIFO
+         * created at {@code doorbellPath} and the result is {@code 0}. A negative value is returned
+         * if the event loop is not available.
+         */
+        public int execute(String doorbellPath) {
+            return (int) call(NativeFunction.initEventLoop, doorbellPath);
         }
 
         public static InitEventLoopNode create() {
@@ -80,6 +87,48 @@ public final class BaseRFFI {
         }
     }
 
+    public static final class ReleaseEventLoopNode extends NativeCallNode {
+
+        private ReleaseEventLoopNode(DownCallNodeFactory parent) {
+            super(parent.createDownCallNode());
+        }
+
+        /**
+         * Releases the native event loop thread after the dispatching of a batch failed. Does
+         * nothing if no batch is being dispatched.
+         */
+        public void execute() {
+            call(NativeFunction.releaseEventLoop);
+        }
+
+        public static ReleaseEventLoopNode create() {
+            return RFFIFactory.getBaseRFFI().createReleaseEventLoopNode();
+        }
+    }
+
+    public static final class EventLoopStatsNode extends NativeCallNode {
+        public static final int STATS_LENGTH = 6;
+
+        private EventLoopStatsNode(DownCallNodeFactory parent) {
+            super(parent.createDownCallNode());
+        }
+
+        /**
+         * Returns the number of dispatched batches, the number of handler rounds, the maximal
+         * number of rounds in one batch, the mean and the maximal dispatch latency in nanoseconds
+         * and the number of enqueued batches that are not dispatched yet.
+         */
+        public double[] execute() {
+            double[] stats = new double[STATS_LENGTH];
+            call(NativeFunction.eventLoopStats, stats);
+            return stats;
+        }
+
+        public static EventLoopStatsNode create() {
+            return RFFIFactory.getBaseRFFI().createEventLoopStatsNode();
+        }
+    }
+
     public static final class GetpidNode extends NativeCallNode {
 
         private GetpidNode(DownCallNodeFactory parent) {
@@ -336,6 +385,14 @@ public final class BaseRFFI {
         return new DispatchHandlersNode(eventLoopDownCallNodeFactory);
     }
 
+    public ReleaseEventLoopNode createReleaseEventLoopNode() {
+        return new ReleaseEventLoopNode(eventLoopDownCallNodeFactory);
+    }
+
+    public EventLoopStatsNode createEventLoopStatsNode() {
+        return new EventLoopStatsNode(eventLoopDownCallNodeFactory);
+    }
+
     public GetpidNode createGetpidNode() {
         return new GetpidNode(downCallNodeFactory);
     }
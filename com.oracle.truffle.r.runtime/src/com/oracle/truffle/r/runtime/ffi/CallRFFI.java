@@ -43,9 +43,13 @@ public interface CallRFFI {
             LibHandle handle = dllInfo == null ? null : dllInfo.handle;
             Type rffiType = handle == null ? stateRFFI.getDefaultRFFIType() : handle.getRFFIType();
             Object before = stateRFFI.beforeDowncall(frame == null ? null : frame.materialize(), rffiType);
+            NativeCallProfiler.Invocation invocation = NativeCallProfiler.isEnabled() ? NativeCallProfiler.enter(nativeCallInfo, rffiType) : null;
             try {
                 return execute(nativeCallInfo, args);
             } finally {
+                if (invocation != null) {
+                    NativeCallProfiler.exit(invocation);
+                }
                 stateRFFI.afterDowncall(before, rffiType);
             }
         }
@@ -61,11 +65,16 @@ public interface CallRFFI {
     interface InvokeVoidCallNode extends NodeInterface {
         default void dispatch(VirtualFrame frame, NativeCallInfo nativeCallInfo, Object[] args) {
             RFFIContext stateRFFI = RContext.getInstance().getStateRFFI();
-            Object before = stateRFFI.beforeDowncall(frame == null ? null : frame.materialize(), nativeCallInfo.dllInfo.handle.getRFFIType());
+            Type rffiType = nativeCallInfo.dllInfo.handle.getRFFIType();
+            Object before = stateRFFI.beforeDowncall(frame == null ? null : frame.materialize(), rffiType);
+            NativeCallProfiler.Invocation invocation = NativeCallProfiler.isEnabled() ? NativeCallProfiler.enter(nativeCallInfo, rffiType) : null;
             try {
                 execute(frame, nativeCallInfo, args);
             } finally {
-                stateRFFI.afterDowncall(before, nativeCallInfo.dllInfo.handle.getRFFIType());
+                if (invocation != null) {
+                    NativeCallProfiler.exit(invocation);
+                }
+                stateRFFI.afterDowncall(before, rffiType);
             }
         }
 
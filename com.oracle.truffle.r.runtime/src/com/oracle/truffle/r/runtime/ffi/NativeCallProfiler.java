@@ -0,0 +1,396 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.ffi;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.r.runtime.RLogger;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.context.RContext.ContextState;
+import com.oracle.truffle.r.runtime.ffi.DLL.DLLInfo;
+import com.oracle.truffle.r.runtime.ffi.RFFIFactory.Type;
+
+/**
+ * Lightweight aggregating profiler of the native interface. When enabled, it records for every
+ * native symbol invoked via {@code .Call}/{@code .External} (see {@link CallRFFI}) the number of
+ * calls, the wall time spent in the call, the number of each kind of upcall made while the symbol
+ * was the innermost active downcall and the number of bytes copied to native memory by
+ * {@code NativeDataAccess} when R vectors are nativized. Unlike {@link RFFILog}, nothing is
+ * formatted or written while profiling, so it can be left on in long running applications.
+ *
+ * The times are inclusive, i.e., the time of a downcall includes the time of any nested R code and
+ * downcalls run from its upcalls. Upcalls and nativizations that happen outside of any downcall are
+ * attributed to the pseudo symbol {@value #UNATTRIBUTED}.
+ *
+ * Every context has its own profile, see {@link ContextStateImpl}, the static methods work with the
+ * profile of the current context. It can be controlled and inspected from R via
+ * {@code .fastr.nativeProfile} and, when the {@value #NATIVE_CALL_PROFILER} environment variable is
+ * set, over JMX via {@link NativeCallProfilerInspectorMBean}, which is registered for every context.
+ * Setting the variable also enables the profiler when the context is created.
+ */
+public final class NativeCallProfiler {
+
+    public static final String NATIVE_CALL_PROFILER = "NATIVE_CALL_PROFILER";
+
+    public static final String UNATTRIBUTED = "<none>";
+
+    /**
+     * Invalidated the first time the profiler is enabled, so that the checks in the downcall and
+     * upcall paths fold away in compiled code of applications that never use the profiler.
+     */
+    private static final Assumption neverEnabled = Truffle.getRuntime().createAssumption("native call profiler never enabled");
+
+    private NativeCallProfiler() {
+        // no instances
+    }
+
+    /**
+     * The aggregated statistics of one native symbol.
+     */
+    public static final class Entry {
+        public final String packageName;
+        public final String symbol;
+        public final Type rffiType;
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+        private final AtomicLong nativizedBytes = new AtomicLong();
+        private final ConcurrentHashMap<String, AtomicLong> upCalls = new ConcurrentHashMap<>();
+
+        Entry(String packageName, String symbol, Type rffiType) {
+            this.packageName = packageName;
+            this.symbol = symbol;
+            this.rffiType = rffiType;
+        }
+
+        public long getCalls() {
+            return calls.get();
+        }
+
+        public long getNanos() {
+            return nanos.get();
+        }
+
+        public long getNativizedBytes() {
+            return nativizedBytes.get();
+        }
+
+        public long getUpCallCount() {
+            long result = 0;
+            for (AtomicLong count : upCalls.values()) {
+                result += count.get();
+            }
+            return result;
+        }
+
+        /**
+         * Returns the number of upcalls by upcall name, sorted by name.
+         */
+        public Map<String, Long> getUpCalls() {
+            TreeMap<String, Long> result = new TreeMap<>();
+            for (Map.Entry<String, AtomicLong> e : upCalls.entrySet()) {
+                result.put(e.getKey(), e.getValue().get());
+            }
+            return result;
+        }
+
+        boolean isEmpty() {
+            return calls.get() == 0 && nativizedBytes.get() == 0 && upCalls.isEmpty();
+        }
+
+        void reset() {
+            calls.set(0);
+            nanos.set(0);
+            nativizedBytes.set(0);
+            upCalls.clear();
+        }
+    }
+
+    /**
+     * An active downcall, linked to the enclosing active downcall of the same thread.
+     */
+    public static final class Invocation {
+        private final ContextStateImpl profile;
+        private final Entry entry;
+        private final Invocation previous;
+        private final long start;
+
+        Invocation(ContextStateImpl profile, Entry entry, Invocation previous, long start) {
+            this.profile = profile;
+            this.entry = entry;
+            this.previous = previous;
+            this.start = start;
+        }
+    }
+
+    /**
+     * The profile of one context.
+     */
+    public static final class ContextStateImpl implements RContext.ContextState {
+
+        private volatile boolean enabled;
+
+        private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+        private final ThreadLocal<Invocation> current = new ThreadLocal<>();
+
+        private final Entry unattributed = new Entry("", UNATTRIBUTED, null);
+
+        private ObjectName mbeanName;
+
+        public static ContextStateImpl newContextState() {
+            return new ContextStateImpl();
+        }
+
+        @Override
+        public ContextState initialize(RContext context) {
+            if (System.getenv(NATIVE_CALL_PROFILER) != null) {
+                try {
+                    MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+                    ObjectName name = new ObjectName("FastR:type=JMX,name=NativeCallProfiler,context=" + context.getId());
+                    mbs.registerMBean(new NativeCallProfilerInspector(this), name);
+                    mbeanName = name;
+                } catch (Exception e) {
+                    RLogger.getLogger(RLogger.LOGGER_RFFI).log(Level.SEVERE, "Cannot register the native call profiler MBean", e);
+                }
+                setEnabled(true);
+            }
+            return this;
+        }
+
+        @Override
+        public void beforeDispose(RContext context) {
+            if (mbeanName != null) {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+                } catch (Exception e) {
+                    RLogger.getLogger(RLogger.LOGGER_RFFI).log(Level.SEVERE, "Cannot unregister the native call profiler MBean", e);
+                }
+                mbeanName = null;
+            }
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        @TruffleBoundary
+        public void setEnabled(boolean value) {
+            if (value) {
+                neverEnabled.invalidate();
+            }
+            enabled = value;
+        }
+
+        @TruffleBoundary
+        public void reset() {
+            for (Entry entry : entries.values()) {
+                entry.reset();
+            }
+            unattributed.reset();
+        }
+
+        /**
+         * Returns a snapshot of all non-empty entries ordered by the time spent in them, the pseudo
+         * entry for unattributed activity last.
+         */
+        @TruffleBoundary
+        public List<Entry> getEntries() {
+            ArrayList<Entry> result = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                if (!entry.isEmpty()) {
+                    result.add(entry);
+                }
+            }
+            result.sort(Comparator.comparingLong(Entry::getNanos).reversed().thenComparing(e -> e.packageName).thenComparing(e -> e.symbol));
+            if (!unattributed.isEmpty()) {
+                result.add(unattributed);
+            }
+            return result;
+        }
+
+        private Entry currentEntry() {
+            Invocation invocation = current.get();
+            return invocation == null ? unattributed : invocation.entry;
+        }
+    }
+
+    private static ContextStateImpl profile() {
+        return RContext.getInstance().stateNativeCallProfiler;
+    }
+
+    public static boolean isEnabled() {
+        return !neverEnabled.isValid() && profile().enabled;
+    }
+
+    @TruffleBoundary
+    public static void setEnabled(boolean value) {
+        profile().setEnabled(value);
+    }
+
+    @TruffleBoundary
+    public static void reset() {
+        profile().reset();
+    }
+
+    /**
+     * Records the start of a downcall and returns the token that must be passed to
+     * {@link #exit(Invocation)} once the downcall finishes.
+     */
+    @TruffleBoundary
+    public static Invocation enter(NativeCallInfo nativeCallInfo, Type rffiType) {
+        ContextStateImpl profile = profile();
+        DLLInfo dllInfo = nativeCallInfo.dllInfo;
+        String packageName = dllInfo == null ? "" : dllInfo.name;
+        Entry entry = profile.entries.get(packageName + "::" + nativeCallInfo.name);
+        if (entry == null) {
+            entry = profile.entries.computeIfAbsent(packageName + "::" + nativeCallInfo.name, k -> new Entry(packageName, nativeCallInfo.name, rffiType));
+        }
+        Invocation invocation = new Invocation(profile, entry, profile.current.get(), System.nanoTime());
+        profile.current.set(invocation);
+        return invocation;
+    }
+
+    @TruffleBoundary
+    public static void exit(Invocation invocation) {
+        long elapsed = System.nanoTime() - invocation.start;
+        invocation.entry.calls.incrementAndGet();
+        invocation.entry.nanos.addAndGet(elapsed);
+        invocation.profile.current.set(invocation.previous);
+    }
+
+    @TruffleBoundary
+    public static void upCall(String name) {
+        AtomicLong count = profile().currentEntry().upCalls.computeIfAbsent(name, k -> new AtomicLong());
+        count.incrementAndGet();
+    }
+
+    @TruffleBoundary
+    public static void nativized(long bytes) {
+        profile().currentEntry().nativizedBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Returns a snapshot of the profile of the current context, see
+     * {@link ContextStateImpl#getEntries()}.
+     */
+    @TruffleBoundary
+    public static List<Entry> getEntries() {
+        return profile().getEntries();
+    }
+
+    public interface NativeCallProfilerInspectorMBean {
+        boolean isEnabled();
+
+        void setEnabled(boolean value);
+
+        void reset();
+
+        /**
+         * One line per native symbol: package, symbol, backend, calls, milliseconds, upcalls and
+         * nativized bytes.
+         */
+        String[] getSymbols();
+
+        /**
+         * One line per package with the totals of its symbols.
+         */
+        String[] getPackages();
+
+        String getUpCalls(String packageName, String symbol);
+    }
+
+    public static class NativeCallProfilerInspector implements NativeCallProfilerInspectorMBean {
+
+        private final ContextStateImpl profile;
+
+        NativeCallProfilerInspector(ContextStateImpl profile) {
+            this.profile = profile;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return profile.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean value) {
+            profile.setEnabled(value);
+        }
+
+        @Override
+        public void reset() {
+            profile.reset();
+        }
+
+        @Override
+        public String[] getSymbols() {
+            List<Entry> list = profile.getEntries();
+            String[] result = new String[list.size()];
+            for (int i = 0; i < result.length; i++) {
+                Entry e = list.get(i);
+                result[i] = String.format("%s::%s [%s] calls=%d ms=%.3f upcalls=%d nativized=%d", e.packageName, e.symbol, e.rffiType, e.getCalls(), e.getNanos() / 1e6, e.getUpCallCount(),
+                                e.getNativizedBytes());
+            }
+            return result;
+        }
+
+        @Override
+        public String[] getPackages() {
+            TreeMap<String, long[]> totals = new TreeMap<>();
+            for (Entry e : profile.getEntries()) {
+                long[] t = totals.computeIfAbsent(e.packageName, k -> new long[4]);
+                t[0] += e.getCalls();
+                t[1] += e.getNanos();
+                t[2] += e.getUpCallCount();
+                t[3] += e.getNativizedBytes();
+            }
+            String[] result = new String[totals.size()];
+            int i = 0;
+            for (Map.Entry<String, long[]> e : totals.entrySet()) {
+                long[] t = e.getValue();
+                result[i++] = String.format("%s calls=%d ms=%.3f upcalls=%d nativized=%d", e.getKey(), t[0], t[1] / 1e6, t[2], t[3]);
+            }
+            return result;
+        }
+
+        @Override
+        public String getUpCalls(String packageName, String symbol) {
+            Entry e = UNATTRIBUTED.equals(symbol) ? profile.unattributed : profile.entries.get(packageName + "::" + symbol);
+            return e == null ? "" : e.getUpCalls().toString();
+        }
+    }
+}
@@ -33,8 +33,10 @@ import com.oracle.truffle.r.runtime.RInternalError;
  */
 public enum NativeFunction {
     // base
-    initEventLoop("(string, string): sint32", "call_base_", baseLibrary(), true),
+    initEventLoop("(string): sint32", "call_base_", baseLibrary(), true),
     dispatchHandlers("(): sint32", "call_base_", baseLibrary(), true),
+    releaseEventLoop("(): void", "call_base_"),
+    eventLoopStats("([double]): void", "call_base_"),
     getpid("(): sint32", "call_base_"),
     getcwd("([uint8], sint32): sint32", "call_base_"),
     chdir("(string): sint32", "call_base_"),
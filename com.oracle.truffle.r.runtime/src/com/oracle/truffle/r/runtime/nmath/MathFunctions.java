@@ -75,4 +75,25 @@ public class MathFunctions {
 
         double evaluate(double a, double b, boolean x, boolean y);
     }
+
+    /**
+     * Optionally implemented by the functions above that can evaluate their first argument faster
+     * when all the other arguments are fixed, which is the common case of a vector of values with
+     * scalar parameters.
+     */
+    public interface FixedParameters {
+        /**
+         * Returns the kernel for the given values of all but the first argument, none of which is
+         * {@code NaN}, or {@code null} if the generic {@code evaluate} should be used. The
+         * validation of the parameters and the sub-expressions that depend only on them are
+         * computed here once. The kernel is only called with values that are not {@code NaN}, must
+         * give the same results as {@code evaluate} and must be safe to use from multiple threads.
+         */
+        Kernel prepare(double b, double c, double d, boolean x, boolean y);
+    }
+
+    @FunctionalInterface
+    public interface Kernel {
+        double evaluate(double a);
+    }
 }
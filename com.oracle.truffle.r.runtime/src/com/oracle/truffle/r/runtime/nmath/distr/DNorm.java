@@ -22,10 +22,12 @@ package com.oracle.truffle.r.runtime.nmath.distr;
 
 import com.oracle.truffle.r.runtime.nmath.DPQ;
 import com.oracle.truffle.r.runtime.nmath.MathConstants;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions.FixedParameters;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function3_1;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions.Kernel;
 import com.oracle.truffle.r.runtime.nmath.RMathError;
 
-public final class DNorm implements Function3_1 {
+public final class DNorm implements Function3_1, FixedParameters {
 
     public static DNorm create() {
         return new DNorm();
@@ -68,4 +70,40 @@ public final class DNorm implements Function3_1 {
         }
         return MathConstants.M_1_SQRT_2PI * Math.exp(-0.5 * x * x) / sigma;
     }
+
+    @Override
+    public Kernel prepare(double mu, double sigma, double unused, boolean giveLog, boolean unused2) {
+        if (!Double.isFinite(sigma)) {
+            double d0 = DPQ.rd0(giveLog);
+            return x -> d0;
+        } else if (sigma <= 0) {
+            // the checks on x come first
+            return null;
+        }
+        double d0 = DPQ.rd0(giveLog);
+        double limit = 2 * Math.sqrt(Double.MAX_VALUE);
+        if (giveLog) {
+            double logSigma = Math.log(sigma);
+            return xa -> {
+                if (!Double.isFinite(xa) && mu == xa) {
+                    return RMathError.defaultError();
+                }
+                double x = Math.abs((xa - mu) / sigma);
+                if (x >= limit || !Double.isFinite(x)) {
+                    return d0;
+                }
+                return -(MathConstants.M_LN_SQRT_2PI + 0.5 * x * x + logSigma);
+            };
+        }
+        return xa -> {
+            if (!Double.isFinite(xa) && mu == xa) {
+                return RMathError.defaultError();
+            }
+            double x = Math.abs((xa - mu) / sigma);
+            if (x >= limit || !Double.isFinite(x)) {
+                return d0;
+            }
+            return MathConstants.M_1_SQRT_2PI * Math.exp(-0.5 * x * x) / sigma;
+        };
+    }
 }
@@ -24,11 +24,13 @@ import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.nmath.DPQ;
 import com.oracle.truffle.r.runtime.nmath.MathConstants;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions.FixedParameters;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function3_2;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions.Kernel;
 
 // transcribed from pnorm.c
 
-public final class Pnorm implements Function3_2 {
+public final class Pnorm implements Function3_2, FixedParameters {
 
     private final BranchProfile nanProfile;
 
@@ -92,6 +94,27 @@ public final class Pnorm implements Function3_2 {
         return (lowerTail ? pnormBoth.cum : pnormBoth.ccum);
     }
 
+    @Override
+    public Kernel prepare(double mu, double sigma, double unused, boolean lowerTail, boolean logP) {
+        if (sigma <= 0) {
+            return null;
+        }
+        double lower = DPQ.rdt0(lowerTail, logP);
+        double upper = DPQ.rdt1(lowerTail, logP);
+        return x -> {
+            if (!Double.isFinite(x) && mu == x) {
+                return Double.NaN; /* x-mu is NaN */
+            }
+            double p = (x - mu) / sigma;
+            if (!Double.isFinite(p)) {
+                return (x < mu) ? lower : upper;
+            }
+            PnormBoth pnormBoth = new PnormBoth(p);
+            pnormBoth.pnormBoth(p, !lowerTail, logP);
+            return (lowerTail ? pnormBoth.cum : pnormBoth.ccum);
+        };
+    }
+
     public static final class PnormBoth {
 
         public static void evaluate(double x, double[] cum, double[] ccum, boolean lowerTail, boolean logP) {
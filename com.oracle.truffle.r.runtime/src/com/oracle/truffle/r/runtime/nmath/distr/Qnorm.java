@@ -27,11 +27,13 @@ package com.oracle.truffle.r.runtime.nmath.distr;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.r.runtime.nmath.DPQ;
 import com.oracle.truffle.r.runtime.nmath.DPQ.EarlyReturn;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions.FixedParameters;
 import com.oracle.truffle.r.runtime.nmath.MathFunctions.Function3_2;
+import com.oracle.truffle.r.runtime.nmath.MathFunctions.Kernel;
 
 // transcribed from qnorm.c
 
-public final class Qnorm implements Function3_2 {
+public final class Qnorm implements Function3_2, FixedParameters {
 
     public static Qnorm create() {
         return new Qnorm();
@@ -67,6 +69,15 @@ public final class Qnorm implements Function3_2 {
         return qnormImpl(p, mu, sigma, lowerTail, logP);
     }
 
+    @Override
+    public Kernel prepare(double mu, double sigma, double unused, boolean lowerTail, boolean logP) {
+        if (sigma <= 0) {
+            // the boundaries of p are checked first
+            return null;
+        }
+        return p -> qnorm(p, mu, sigma, lowerTail, logP);
+    }
+
     /**
      * Static version without arguments validation.
      */
@@ -135,6 +135,12 @@ public class TestS4 extends TestRBase {
 
         assertEval(Ignored.NewRVersionMigration,
                         "{ setClass('A2', representation(a = 'numeric')); setMethod('rep', 'A2', function(x, a, b, c) { c(x@a, a, b, c) }); setMethod('ifelse', c(yes = 'A2'), function(test, yes, no) print(test)) }");
+
+        // the selected methods must not survive changes of the methods tables
+        assertEval("{ setClass('B1', representation(a='numeric')); setClass('B2', contains='B1'); setGeneric('bgen', function(o) standardGeneric('bgen')); setMethod('bgen', 'B1', function(o) 'B1'); " +
+                        "r <- c(bgen(new('B2')), bgen(new('B2'))); setMethod('bgen', 'B2', function(o) 'B2'); r <- c(r, bgen(new('B2'))); removeMethod('bgen', 'B2'); r <- c(r, bgen(new('B2'))); removeGeneric('bgen'); r }");
+        assertEval("{ setClass('B3', representation(a='numeric')); setGeneric('bgen3', function(o) standardGeneric('bgen3')); setMethod('bgen3', 'B3', function(o) 1); f <- function(x) bgen3(x); " +
+                        "r <- vapply(1:3, function(i) f(new('B3')), 0); setMethod('bgen3', 'B3', function(o) 2); r <- c(r, f(new('B3'))); removeGeneric('bgen3'); r }");
     }
 
     @Test
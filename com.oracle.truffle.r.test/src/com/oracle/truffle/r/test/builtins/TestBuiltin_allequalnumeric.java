@@ -51,4 +51,13 @@ public class TestBuiltin_allequalnumeric extends TestBase {
         assertEval("argv <- structure(list(target = 3.18309886183776e-301, current = 3.18309886183791e-301,     tolerance = 1e-15), .Names = c('target', 'current', 'tolerance'));" +
                         "do.call('all.equal.numeric', argv)");
     }
+
+    @Test
+    public void testallequalnumericIdentical() {
+        assertEval("x <- c(1, NA, 3); all.equal(x, x)");
+        assertEval("x <- c(a=1, b=NA); all.equal(x, c(a=1, b=NA), tolerance='a')");
+        assertEval("all.equal(1:3, 1:3, check.attributes=NA)");
+        assertEval("all.equal(c(1, NaN), c(1, NA))");
+        assertEval("all.equal(1:3, c(1, 2, 3))");
+    }
 }
@@ -89,5 +89,7 @@ public class TestBuiltin_asPOSIXlt extends TestBase {
         assertEval("{ q <- Sys.time(); as.vector(unclass(as.POSIXct(as.POSIXlt(q))) - unclass(q)) }");
         assertEval("as.POSIXlt(c('10/1/2017 0:00', '10/1/2017 0:00'), '%m/%e/%Y %H:%M', tz='Europe/Belarus')$isdst");
         assertEval("as.POSIXlt(c('10/1/2017 0:00', '10/1/2017 0:00'), '%m/%e/%Y %H:%M', tz='America/Los_Angeles')$isdst");
+        assertEval("{ x <- as.POSIXlt(c(-1e9, 0, 1.2e9, 1.5e9, 4e9), origin='1970-01-01', tz='Europe/Berlin'); list(x$isdst, x$hour, x$yday) }");
+        assertEval("{ x <- as.POSIXlt(c(-1e9, 0, 1.2e9, 1.5e9, 4e9), origin='1970-01-01', tz='America/New_York'); list(x$isdst, x$hour, format(x)) }");
     }
 }
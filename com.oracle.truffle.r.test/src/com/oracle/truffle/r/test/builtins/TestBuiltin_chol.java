@@ -46,4 +46,11 @@ public class TestBuiltin_chol extends TestBase {
         assertEval(Output.IgnoreErrorMessage, "{ m <- matrix(c(5,-5,-5,3),2,2) ; chol(m) }");
         assertEval("chol(matrix(c(4,2,2,3), ncol=2), pivot=TRUE)");
     }
+
+    @Test
+    public void testCholLarge() {
+        // more than one block of rows
+        assertEval("{ set.seed(1); g <- matrix(rnorm(150 * 150), 150); a <- crossprod(g) + diag(150); u <- chol(a); c(all(u[lower.tri(u)] == 0), isTRUE(all.equal(crossprod(u), a))) }");
+        assertEval(Output.IgnoreErrorMessage, "{ a <- diag(100); a[70, 70] <- -1; chol(a) }");
+    }
 }
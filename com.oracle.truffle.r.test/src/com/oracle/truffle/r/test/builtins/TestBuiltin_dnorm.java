@@ -48,4 +48,16 @@ public class TestBuiltin_dnorm extends TestBase {
         assertEval("dnorm(10, mean=1/0)");
         assertEval("dnorm(10, sd=1/0)");
     }
+
+    @Test
+    public void testScalarParameters() {
+        assertEval("dnorm(c(a=0, b=NA, c=NaN, d=Inf, e=-Inf, f=2), mean=1, sd=2, log=TRUE)");
+        assertEval("dnorm(c(Inf, -Inf, 1), mean=Inf)");
+        assertEval("pnorm(c(-Inf, -1, 0, NA, NaN, 1, Inf), mean=0.5, sd=2)");
+        assertEval("pnorm(c(-Inf, -1, 0, 1, Inf), mean=0.5, sd=2, lower.tail=FALSE, log.p=TRUE)");
+        assertEval("qnorm(c(0, 0.1, 0.5, NA, 1, 2), mean=1, sd=3)");
+        assertEval("qnorm(c(-Inf, -1, 0, 1), sd=-1, log.p=TRUE)");
+        assertEval("x <- seq(-5, 5, length.out=300000); identical(dnorm(x, 1, 2), dnorm(x, c(1, 1), 2)); identical(pnorm(x, 1, 2), pnorm(x, c(1, 1), 2)); identical(dnorm(x, 1, 2, log=TRUE), dnorm(x, c(1, 1), 2, log=TRUE))");
+        assertEval("x <- matrix(c(0.1, 0.2, 0.3, 0.4), 2); qnorm(x, 1, 2)");
+    }
 }
@@ -62,4 +62,9 @@ public class TestBuiltin_filecopy extends TestBase {
         // overwritten)
     }
 
+    @Test
+    public void testCopyRecursive() {
+        assertEval("{ td <- tempfile(); td2 <- tempfile(); dir.create(file.path(td, 'a', 'b'), recursive=TRUE); dir.create(td2); writeLines('x', file.path(td, 'a', 'b', 'f.txt')); writeLines('y', file.path(td, 'g.txt')); " +
+                        "r <- list(file.copy(td, td2, recursive=TRUE), sub(basename(td), 'X', list.files(td2, recursive=TRUE), fixed=TRUE), readLines(file.path(td2, basename(td), 'a', 'b', 'f.txt'))); unlink(c(td, td2), recursive=TRUE); r }");
+    }
 }
@@ -36,4 +36,9 @@ public class TestBuiltin_fileinfo extends TestBase {
     public void testfileinfo2() {
         assertEval("argv <- list(character(0)); .Internal(file.info(argv[[1]]))");
     }
+
+    @Test
+    public void testfileinfoFiles() {
+        assertEval("{ td <- tempfile(); dir.create(td); f <- file.path(td, 'f.txt'); writeLines('abc', f); fi <- file.info(c(f, td, file.path(td, 'missing'))); unlink(td, recursive=TRUE); list(fi$size[-2], fi$isdir, is.na(fi$mtime)) }");
+    }
 }
@@ -107,4 +107,10 @@ public class TestBuiltin_formatC extends TestBase {
         assertEval(".Internal(formatC(1e-15, \"double\", 1L, 6L, \"g\", \"\", 12))");
         assertEval("y <- structure(c(2, 14.1776856316985), .Dim = c(2L, 1L), .Dimnames = list(c(\"m.ship.expon.\", \"objective\"), \" \")); formatC(y, digits = 6)");
     }
+
+    @Test
+    public void testformatCVectors() {
+        assertEval("formatC(c(1L, 22L, NA, 4444L), width = 6, flag = '0')");
+        assertEval("formatC(c(3.14159, -2.5, 100), width = 10, format = 'e', digits = 3)");
+    }
 }
@@ -292,4 +292,35 @@ public class TestBuiltin_identical extends TestBase {
                         new String[]{"T", "F"}
         }));
     }
+
+    @Test
+    public void testVectors() {
+        assertEval(template("identical(c(1, %0), c(1, %0), num.eq=%1, single.NA=%2)", new String[][]{
+                        new String[]{"NA", "NaN", "0"},
+                        new String[]{"T", "F"},
+                        new String[]{"T", "F"}
+        }));
+        assertEval(template("identical(c(1, 0, NA), c(1, %0), num.eq=%1, single.NA=%2)", new String[][]{
+                        new String[]{"-0, NA", "0, NaN", "0, NA_real_"},
+                        new String[]{"T", "F"},
+                        new String[]{"T", "F"}
+        }));
+        assertEval("identical(c(1+2i, NA), c(1+2i, NA))");
+        assertEval("identical(c(1+2i, complex(real=0, imaginary=-0)), c(1+2i, 0+0i), num.eq=FALSE)");
+        assertEval("identical(c('a', NA), c('a', 'NA'))");
+        assertEval("identical(c('a', NA), c('a', NA))");
+        assertEval("identical(c(TRUE, NA), c(TRUE, NA))");
+        assertEval("identical(as.raw(1:3), as.raw(c(1, 2, 4)))");
+        assertEval("identical(1:10, c(1:9, 10L))");
+        assertEval("identical(1:10, 1:11)");
+        assertEval("identical(seq(1, 10, by=0.5), seq(1, 10, by=0.5))");
+        assertEval("identical(paste0('x', 1:5), paste0('x', 1:5))");
+        assertEval("identical(paste0('x', 1:5), paste0('y', 1:5))");
+        assertEval("x <- runif(10); y <- x; identical(x, y); y[[3]] <- 1; identical(x, y)");
+        assertEval("x <- c(1:3e6, NA); y <- x; y[[2e6]] <- 0L; identical(x, x + 0L); identical(x, y)");
+        assertEval("x <- lapply(1:100, function(i) as.double(seq_len(2e4) + i)); y <- x; y[[100]][[2e4]] <- 0; identical(x, lapply(x, function(v) v + 0)); identical(x, y)");
+        assertEval("x <- lapply(1:100, function(i) seq_len(2e4) + i); y <- x; y[[50]] <- as.double(y[[50]]); identical(x, y)");
+        // elements long enough to be compared in parallel chunks themselves
+        assertEval("x <- lapply(1:3, function(i) rep(c(i, 0.5), 1.1e6)); y <- lapply(x, function(v) v + 0); z <- y; z[[3]][2.2e6] <- 1; c(identical(x, y), identical(x, z), identical(x[[1]], y[[1]]))");
+    }
 }
@@ -65,6 +65,26 @@ public class TestBuiltin_lapply extends TestBase {
         assertEval(Output.IgnoreErrorContext, "f <- function(...) { .Internal(lapply(X=environment(), FUN=function(x){x})) }; f()");
     }
 
+    @Test
+    public void testLapplyDirectCall() {
+        assertEval("{ f <- function(x) lapply(x, function(e) e + 1L); f(1:3); f(c(1.5, NA)); f(list(1, 2L)) }");
+        assertEval("{ lapply(c(TRUE, NA, FALSE), function(x) !x) }");
+        assertEval("{ lapply(c(a='x', b=NA), function(x) paste0(x, '!')) }");
+        assertEval("{ lapply(1:2, function(x) substitute(x)) }");
+        assertEval("{ lapply(1:2, function(x) sys.call()) }");
+        assertEval("{ lapply(1:2, function(x, y = x * 10) c(x, y, missing(y))) }");
+        assertEval("{ lapply(1:2, function(x, ...) list(x, ...), b = 2, 3) }");
+        assertEval("{ lapply(1:2, function(...) ..1) }");
+        assertEval("{ f <- function(g) lapply(1:2, g, 3); f(function(x, y) x + y); f(function(x, y) x * y) }");
+        assertEval("{ lapply(1:2, function(x) x, 3) }");
+        assertEval("{ vapply(1:3, function(x) x * 2, numeric(1)) }");
+        assertEval("{ vapply(c(a=1L, b=NA), function(x) x, integer(1)) }");
+        assertEval("{ vapply(1:3, function(x) if (x == 2) 2L else 1.5, numeric(1)) }");
+        assertEval("{ l <- list(c(1, 2), c(3, 4)); r <- lapply(l, function(v) { v[1] <- 100; v }); list(l, r) }");
+        assertEval("{ l <- list(list(a=1), list(a=2)); r <- lapply(l, function(e) { e$a <- e$a * 10; e }); list(l, r) }");
+        assertEval("{ f <- function() { l <- list(1:3); lapply(l, function(v) { v[[2]] <- 0L; v }); l }; f() }");
+    }
+
     @Test
     public void testTapply() {
         assertEval("{ ind <- list(c(1, 2, 2), c(\"A\", \"A\", \"B\")) ; tapply(1:3, ind) }");
@@ -98,4 +98,11 @@ public class TestBuiltin_listfiles extends TestBase {
 
         emptyDir.delete();
     }
+
+    @Test
+    public void testRecursiveTree() {
+        assertEval("{ td <- tempfile(); dir.create(td); for (d in c('a', 'b', 'a/c', 'a/c/d')) dir.create(file.path(td, d)); invisible(file.create(file.path(td, c('x.txt', 'a/y.txt', 'a/c/z.txt', 'a/c/d/w.txt', 'b/.h', 'b/h')))); " +
+                        "r <- list(list.files(td, recursive=TRUE), list.files(td, recursive=TRUE, all.files=TRUE, include.dirs=TRUE), list.files(td, recursive=TRUE, pattern='^[wz]'), list.dirs(td, full.names=FALSE)); " +
+                        "unlink(td, recursive=TRUE); c(r, dir.exists(td)) }");
+    }
 }
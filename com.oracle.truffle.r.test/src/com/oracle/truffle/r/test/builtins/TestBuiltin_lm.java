@@ -44,6 +44,14 @@ public class TestBuiltin_lm extends TestBase {
         assertEval(Output.IgnoreErrorMessage, "require(stats);" + "lm(formula = weight ~ group, method = 'model.frame')");
     }
 
+    @Test
+    public void testLmFit() {
+        assertEval("{ x <- cbind(1, 1:10, 1:10, (1:10)^2 / 10); y <- c(2.3, 3.2, 2.9, 3.4, 5.4, 5.6, 7.4, 7.8, 10.1, 8.9); lm.fit(x, y) }");
+        assertEval("{ x <- cbind(1, c(2, 5, 1, 8, 3, 4)); y <- cbind(a = 1:6, b = c(3, 1, 4, 1, 5, 9)); fit <- lm.fit(x, y); list(fit$coefficients, fit$residuals, fit$effects, fit$qr$pivot) }");
+        assertEval(Output.IgnoreErrorContext, "{ lm.fit(cbind(1, c(1, NA, 3)), 1:3) }");
+        assertEval(Output.IgnoreErrorContext, "{ .Call(stats:::C_Cdqrls, cbind(1, 1:3), 1:4, 1e-7, TRUE) }");
+    }
+
     @Test
     public void testlm334() {
         assertEval("require(stats);" + "lm(data = LifeCycleSavings, formula = sr ~ pop15 + pop75 + dpi + ddpi)");
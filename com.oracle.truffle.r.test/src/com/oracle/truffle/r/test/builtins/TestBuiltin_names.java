@@ -226,4 +226,18 @@ public class TestBuiltin_names extends TestBase {
     public void testLNames() {
         assertEval("{ x <- quote(plot(x = age, y = weight)); names(x) }");
     }
+
+    @Test
+    public void testLongNamesLookup() {
+        // long names vectors are searched through a lookup index kept with the names
+        assertEval("{ x <- as.list(1:200); names(x) <- paste0('k', 1:200); c(x[['k150']], x[['k150']], x$k7, x$k7, x[['k201']]) }");
+        assertEval("{ x <- as.list(1:200); names(x) <- paste0('k', 1:200); names(x)[[3]] <- 'k150'; c(x[['k150']], x[['k150']], x$k150, x[['k3']]) }");
+        assertEval("{ x <- as.list(1:200); names(x) <- paste0('k', 1:200); for (i in 1:3) y <- x$k100; names(x)[[50]] <- 'k100'; x$k100 }");
+        assertEval("{ x <- as.list(1:200); names(x) <- rep(c('a', 'b'), 100); c(x[['b']], x[['b']], x$a, x$a, x[c('b', 'a', 'b')]) }");
+        assertEval("{ x <- 1:200; names(x) <- paste0('k', 1:200); x[c('k10', 'k20')]; x[c('k10', 'k20')]; x[['k20']] <- 0L; x['k30'] <- 1L; names(x)[[5]] <- 'k30'; x[c('k20', 'k30', 'zz')] }");
+        assertEval("{ x <- as.list(1:200); names(x) <- paste0('k', 1:200); x$k10; x$k10; x$k10 <- 'a'; x$new <- 'b'; x$new; c(x$k10, x$new, length(x)) }");
+        assertEval("{ x <- as.list(1:200); names(x) <- paste0('key', 1:200); x$key10; x$key10; x$key19 }");
+        assertEval("{ x <- as.list(1:200); names(x) <- paste0('k', 1:200); x$k10; x$k10; names(x) <- chartr('k', 'z', names(x)); c(x$z10, is.null(x$k10)) }");
+        assertEval("{ x <- as.list(1:200); names(x) <- rep(c('a', 'b'), 100); x$a; x$a; names(x) <- make.unique(names(x)); c(x$a, x$a.1, x$b.99) }");
+    }
 }
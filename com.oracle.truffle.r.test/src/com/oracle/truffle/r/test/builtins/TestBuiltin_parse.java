@@ -55,6 +55,15 @@ public class TestBuiltin_parse extends TestBase {
         assertEval("{ parse(text=\"NULL\") }");
     }
 
+    @Test
+    public void testRepeatedParse() {
+        assertEval("{ x <- 0; for (i in 1:3) x <- eval(parse(text='x + i')); x }");
+        assertEval("{ f <- function(k) eval(parse(text='function(a) a * k')[[1]]); g1 <- f(2); g2 <- f(3); c(g1(5), g2(5)) }");
+        assertEval("{ p1 <- parse(text='y <- 1; y + 1', keep.source=TRUE); p2 <- parse(text='y <- 1; y + 1', keep.source=TRUE); identical(as.list(p1), as.list(p2)); attr(p2, 'srcref') }");
+        assertEval("{ e <- parse(text='g(1, 2)'); e[[1]][[1]] <- as.name('h'); parse(text='g(1, 2)') }");
+        assertEval("{ for (i in 1:2) print(tryCatch(parse(text='x + '), error=function(e) 'incomplete')) }");
+    }
+
     @Test
     public void testParseIdentifier() {
         assertEval("parse(text='is.null')");
@@ -120,5 +120,9 @@ public class TestBuiltin_paste extends TestBase {
 
         // ISOdate utilizes paste
         assertEval("{ ISOdate(2010, 01, 01, 1:10) }");
+
+        // results longer than the sample size of string deduplication
+        assertEval("{ x <- paste(c('a', 'b', NA), rep(1:3, each = 1000), sep = '_'); c(length(x), length(unique(x)), match(c('a_1', 'NA_3'), x)) }");
+        assertEval("{ x <- paste0('id', 1:3000); c(length(unique(x)), x[c(1, 1024, 1025, 3000)]) }");
     }
 }
@@ -73,4 +73,11 @@ public class TestBuiltin_qr extends TestBase {
         assertEval("{ round( qr.solve(qr(c(1,3,4,2)), c(1,2,3,4)), digits=5 ) }");
         assertEval("{ round( qr.solve(c(1,3,4,2), c(1,2,3,4)), digits=5) }");
     }
+
+    @Test
+    public void testQrPivoting() {
+        assertEval("{ x <- cbind(1, 1:10, 1:10, (1:10)^2 / 10); dimnames(x) <- list(NULL, c('a', 'b', 'c', 'd')); q <- qr(x); list(q$qr, q$rank, q$qraux, q$pivot) }");
+        assertEval("{ x <- cbind(0, 1:5, 0, c(2, 7, 1, 8, 2)); q <- qr(x); list(q$rank, q$pivot, round(q$qraux, 10)) }");
+        assertEval(Output.IgnoreErrorContext, "{ qr(matrix(c(1, NA, 3, 4), 2)) }");
+    }
 }
@@ -160,6 +160,20 @@ public class TestBuiltin_rbind extends TestBase {
         assertEval("{ attributes(rbind(structure(1:4, dim=c(2,2), dimnames=list(y=c('y1', 'y2'), x=c('x1', 'x2'))), integer(0))) }");
     }
 
+    @Test
+    public void testDataFrames() {
+        assertEval("{ l <- lapply(1:5, function(i) data.frame(x=i, y=i/2, z=letters[i], b=i %% 2 == 0, stringsAsFactors=FALSE)); dput(do.call(rbind, l)) }");
+        assertEval("{ l <- lapply(1:4, function(i) data.frame(f=factor(letters[i:(i+1)]), n=c(i, NA))); r <- do.call(rbind, l); dput(r); levels(r$f) }");
+        assertEval("{ dput(rbind(data.frame(a=1:2, b=c('x', 'y')), data.frame(b=c('z', 'x'), a=3:4))) }");
+        assertEval("{ dput(rbind(data.frame(a=1:2), data.frame(a=integer(0)), data.frame(a=5L), NULL)) }");
+        assertEval("{ dput(rbind(data.frame(a=1:2, c=c(1+2i, 3i)), data.frame(a=NA_integer_, c=NA_complex_))) }");
+        assertEval("{ dput(rbind(data.frame(a=1:2, f=factor(c('u', 'v'))), data.frame(a=3L, f='w'))) }");
+        assertEval("{ dput(rbind(data.frame(a=1:2), data.frame(a=c(1.5, 2)))) }");
+        assertEval("{ dput(rbind(first=data.frame(a=1:2), second=data.frame(a=3L))) }");
+        assertEval("{ d <- data.frame(a=1:4); dput(rbind(d[3:4, , drop=FALSE], d[1:2, , drop=FALSE])) }");
+        assertEval("{ dput(rbind(data.frame(a=1:2), data.frame(a=3L), make.row.names=FALSE)) }");
+    }
+
     @Test
     public void testRetType() {
         assertEval("dput(rbind(NULL))");
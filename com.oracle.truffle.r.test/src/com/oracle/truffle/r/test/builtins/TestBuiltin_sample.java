@@ -105,6 +105,17 @@ public class TestBuiltin_sample extends TestBase {
         assertEval(Ignored.ImplementationError, "{ set.seed(9567, \"Marsaglia-Multicarry\"); x <- 5 ; sample(x, 6, FALSE, NULL) ;}");
     }
 
+    @Test
+    public void testSampleManyCategories() {
+        // more than 200 categories: Walker's alias method with replacement, tree search without
+        assertEval("{ set.seed(42); p <- (1:1000) %% 13 + 1; sample(1000, 30, TRUE, p) }");
+        assertEval("{ set.seed(42); p <- (1:1000) %% 13 + 1; x <- sample(1000, 20, TRUE, p); y <- sample(1000, 20, TRUE, p); list(x, y) }");
+        assertEval("{ set.seed(42); p <- rep(c(0, 1, 10), 100); sample(300, 50, TRUE, p) }");
+        assertEval("{ set.seed(42); p <- (1:1000) %% 13 + 1; sample(1000, 30, FALSE, p) }");
+        assertEval("{ set.seed(42); p <- rep(c(0, 1, 10), 100); sample(300, 200, FALSE, p) }");
+        assertEval("{ set.seed(42); p <- rep(c(0, 1, 10), 100); sample(300, 201, FALSE, p) }");
+    }
+
     @Test
     public void testArgsCasts() {
         // x
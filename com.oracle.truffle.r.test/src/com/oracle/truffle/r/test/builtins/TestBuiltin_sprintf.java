@@ -198,4 +198,16 @@ public class TestBuiltin_sprintf extends TestBase {
         // Note: as.raw may be problematic also in the case of %d, %f, ...
         assertEval(Ignored.Unimplemented, "{ sprintf('%s', as.raw(1)) }");
     }
+
+    @Test
+    public void testVectors() {
+        assertEval("{ sprintf('id_%05d', 1:12) }");
+        assertEval("{ sprintf('%s-%d', c('a', 'b', NA), c(1L, NA, 3L)) }");
+        assertEval("{ sprintf('%x %X %o %#x', 250:255, 250:255, 250:255, 250:255) }");
+        assertEval("{ sprintf('%-6s|%6s|%%', c('ab', 'cde'), c(TRUE, FALSE, NA, TRUE)) }");
+        assertEval("{ sprintf('%.3f / %e / %g', c(1.5, -2.25, NA, 1e10), c(0.5, 2), c(0.0001234, 123456789)) }");
+        assertEval("{ sprintf('%+d and % d', c(-3L, 0L, 7L), -1:1) }");
+        assertEval("{ sprintf('%2$s %1$s', c('world', 'there'), 'hello') }");
+        assertEval("{ sprintf('%d', c(1, 2.5)) }");
+    }
 }
@@ -86,4 +86,17 @@ public class TestBuiltin_strptime extends TestBase {
         assertEval(Output.IgnoreErrorContext, "{ .Internal(strptime('',,'')); }");
         assertEval(Output.IgnoreErrorContext, "{ .Internal(strptime('','',)); }");
     }
+
+    @Test
+    public void testCompiledFormats() {
+        assertEval("{ x <- strptime(c('2019-03-10 01:59:59', '2019-03-10 12:00:00', '2019-02-29 10:00:00', '2020-02-29 23:59:59', NA), '%Y-%m-%d %H:%M:%S', tz='UTC'); list(x$wday, x$yday, format(x)) }");
+        assertEval("{ x <- strptime('12/31/99 23:05', '%D %R', tz='UTC'); c(x$year, x$mon, x$mday, x$hour, x$min) }");
+        assertEval("{ x <- strptime('2019-01-02 03:04:05.25', '%Y-%m-%d %H:%M:%OS', tz='UTC'); c(x$sec, x$min) }");
+        assertEval("{ format(as.POSIXct('2019-06-15 07:08:09', tz='UTC'), c('%Y/%m/%d', '%e.%m.%y %T', '%j %H%M%S %%')) }");
+        assertEval("{ as.numeric(as.POSIXct(c('1969-12-31 23:59:59', '2000-02-29 12:00:00', '2038-01-19 03:14:08'), tz='UTC')) }");
+        assertEval("{ as.Date(c('2017-01-31', '2016-02-29', '2017-02-29', '2017-04-31', '2017-13-01')) }");
+        // zones with more transitions since 1900 than the initial capacity of the transition table
+        assertEval("{ x <- strptime(c('1950-07-01 12:00:00', '2019-03-31 01:59:59', '2019-03-31 03:00:00', '2019-10-27 02:30:00', '2099-12-31 23:59:59'), '%Y-%m-%d %H:%M:%S', tz='Europe/Berlin'); list(x$isdst, x$gmtoff, as.numeric(as.POSIXct(x))) }");
+        assertEval("{ x <- strptime(c('1960-01-01 00:00', '2007-03-11 01:30', '2007-11-04 12:00', '2050-08-01 08:15'), '%Y-%m-%d %H:%M', tz='America/New_York'); list(x$isdst, format(x, '%Y/%m/%d %H:%M'), as.numeric(as.POSIXct(x))) }");
+    }
 }
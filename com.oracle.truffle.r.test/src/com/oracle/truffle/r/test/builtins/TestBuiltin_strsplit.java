@@ -159,5 +159,9 @@ public class TestBuiltin_strsplit extends TestBase {
         assertEval("strsplit('a[1][1]=x11&a[1][2]=x12', '[][]')");
 
         assertEval("strsplit('/some/path/to/somewhere' , '^(?=/)(?!//)|(?<!^)(?<!^/)/', perl = TRUE)");
+
+        // repeated and distinct pieces, more than the sample size of string deduplication
+        assertEval("{ x <- strsplit(rep(c('a,b', 'b,c'), 1000), ','); table(unlist(x)) }");
+        assertEval("{ x <- unlist(strsplit(paste(1:3000, 3000:1, sep=','), ',')); c(length(x), length(unique(x)), match(c('1', '3000', '1500'), x)) }");
     }
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.builtins;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+// Checkstyle: stop line length check
+public class TestBuiltin_tapply extends TestBase {
+
+    @Test
+    public void testTapply() {
+        assertEval("{ x <- c(1.5, 2, NA, 4, 5); g <- c('a', 'b', 'a', 'b', 'c'); tapply(x, g, sum) }");
+        assertEval("{ x <- c(1.5, 2, NA, 4, 5); g <- c('a', 'b', 'a', 'b', 'c'); tapply(x, g, sum, na.rm = TRUE) }");
+        assertEval("{ x <- c(1L, 2L, NA, 4L, 5L); g <- c('a', 'b', 'a', 'b', 'c'); list(tapply(x, g, sum), tapply(x, g, mean, na.rm = TRUE), tapply(x, g, length)) }");
+        assertEval("{ x <- c(3, NaN, NA, 4, 5, 1); g <- c(1, 1, 1, 2, 2, 3); list(tapply(x, g, min), tapply(x, g, max), tapply(x, g, max, na.rm = TRUE)) }");
+        assertEval("{ x <- c(NA, 1L); tapply(x, c(1, 2), min, na.rm = TRUE) }");
+        assertEval("{ x <- c(.Machine$integer.max, 1L, 2L); tapply(x, c(1, 1, 2), sum) }");
+        assertEval("{ tapply(1:10, factor(rep(1:3, length.out = 10), levels = 1:4), mean) }");
+        assertEval("{ tapply(c(0.1, 0.2, 0.3, 0.4), list(c('x', 'y', 'x', 'y'), c('u', 'u', 'v', 'w')), sum) }");
+        assertEval("{ tapply(1:6, rep(1:2, 3), sum, default = 0L) }");
+        assertEval("{ set.seed(1); x <- runif(1000) * 1e6; g <- sample(1:7, 1000, TRUE); identical(as.vector(tapply(x, g, mean)), vapply(split(x, g), mean, 0, USE.NAMES = FALSE)) }");
+        assertEval("{ x <- c(0.1, NaN, 0.7, NA, 1/3, 2/3); g <- c(1, 1, 2, 2, 3, 3); identical(as.vector(tapply(x, g, mean)), vapply(split(x, g), mean, 0, USE.NAMES = FALSE)) }");
+        assertEval("{ tapply(1:6, rep(1:2, 3), function(x) sum(x)) }");
+    }
+}
@@ -94,6 +94,11 @@ public class TestBuiltin_unserialize extends TestBase {
         assertEval(template(
                         "f <- function() x; e <- new.env(); e$x <- 123; environment(f) <- e; expr <- substitute({ FUN() }, list(FUN=f)); eval(expr); expr <- unserialize(serialize(expr, NULL, version=%0)); eval(expr)",
                         VERSIONS));
+        assertEval(template("f <- unserialize(serialize(function(x, y = 2) x + y, NULL, version=%0)); g <- f; formals(g)$y <- 3; f(1); g(1); body(f); names(formals(f))", VERSIONS));
+        assertEval(template("e <- new.env(); e$k <- 10; f <- local(function(x) x * k, e); f <- unserialize(serialize(f, NULL, version=%0)); environment(f)$k; f(2)", VERSIONS));
+        assertEval(template("f <- unserialize(serialize(function(n) { g <- function(k) k + n; vapply(1:3, g, 1) }, NULL, version=%0)); f(10); f(20)", VERSIONS));
+        assertEval(template("f <- function(x) x * 2; attr(f, 'a') <- 'b'; f <- unserialize(serialize(f, NULL, version=%0)); g <- f; attr(g, 'a') <- 'c'; g(3); f(2); attr(f, 'a'); attr(g, 'a')", VERSIONS));
+        assertEval(template("options(keep.source=TRUE); f <- eval(parse(text='function(x) {\n  y <- x + 1\n  y * 2\n}', keep.source=TRUE)); f <- unserialize(serialize(f, NULL, version=%0)); f(3); is.null(attr(f, 'srcref'))", VERSIONS));
     }
 
     @Test
@@ -2431,4 +2431,19 @@ public class TestSimpleVectors extends TestBase {
     public void testLargeNames() {
         assertEval("v <- runif(1000); names(v) <- paste0('a', 1:1000); v[paste0('a', 1:1000)] <- 42; length(v); sum(v)");
     }
+
+    @Test
+    public void testAppendGrowth() {
+        assertEval("{ x <- integer(0); for (i in 1:100) x[length(x) + 1] <- i; c(length(x), sum(x)) }");
+        assertEval("{ x <- c(a=1); for (i in 1:20) x[length(x) + 1] <- i / 2; list(length(x), sum(x), names(x)) }");
+        assertEval("{ x <- logical(0); for (i in 1:30) x[i] <- i %% 2 == 0; y <- x; x[31] <- NA; list(length(y), length(x), sum(x, na.rm=TRUE)) }");
+        assertEval("{ x <- 1:3 + 0; x[10] <- 1; x[12] <- 2; x }");
+        assertEval("{ l <- list(); for (i in 1:50) l[[length(l) + 1]] <- i; c(length(l), sum(unlist(l))) }");
+        assertEval("{ l <- list(1); l[[3]] <- 'a'; l2 <- l; l[[5]] <- TRUE; list(l2, l) }");
+        assertEval("{ m <- matrix(1:4, 2); m[6] <- 6L; list(m, dim(m)) }");
+        assertEval("{ x <- list(); for (i in 1:50) x[[paste0('k', i)]] <- i; list(length(x), names(x)[c(1, 25, 50)], x[['k30']]) }");
+        assertEval("{ x <- c(a=1); for (i in 1:20) x[paste0('k', i)] <- i; n <- names(x); x[['z']] <- 0; x[30] <- 1; list(n, names(x)) }");
+        assertEval("{ x <- character(0); for (i in 1:40) x[length(x) + 1] <- as.character(i); y <- x; x[42] <- 'a'; list(y, x) }");
+        assertEval("{ x <- integer(0); y <- double(0); ok <- TRUE; for (i in 1:60) { x[i] <- i; y[i] <- i; ok <- ok && identical(x, as.integer(y)) && identical(rev(rev(x)), x) }; list(ok, identical(x, 1:60)) }");
+    }
 }
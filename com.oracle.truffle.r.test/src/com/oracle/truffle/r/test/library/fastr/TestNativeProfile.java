@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+// Checkstyle: stop line length check
+
+public class TestNativeProfile extends TestBase {
+
+    @Test
+    public void testNativeProfile() {
+        assertEvalFastR("p <- .fastr.nativeProfile(TRUE, TRUE); .fastr.nativeProfile(FALSE); sapply(p, class)",
+                        "c(symbols = 'data.frame', packages = 'data.frame', upcalls = 'data.frame')");
+        assertEvalFastR("p <- .fastr.nativeProfile(FALSE, TRUE); lapply(p, names)",
+                        "list(symbols = c('package', 'symbol', 'backend', 'calls', 'time', 'upcalls', 'nativized'), packages = c('package', 'calls', 'time', 'upcalls', 'nativized'), upcalls = c('package', 'symbol', 'upcall', 'count'))");
+        assertEvalFastR(".fastr.nativeProfile(TRUE, TRUE); p <- .fastr.nativeProfile(FALSE, TRUE); sapply(p, nrow)", "c(symbols = 0L, packages = 0L, upcalls = 0L)");
+        // cfilter is a native routine of stats that is not replaced by a Java implementation
+        assertEvalFastR(".fastr.nativeProfile(TRUE, TRUE); .Call(stats:::C_cfilter, as.double(1:10), rep(1/3, 3), 2L, FALSE); p <- .fastr.nativeProfile(FALSE); " +
+                        "s <- p$symbols[grepl('cfilter', p$symbols$symbol), ]; list(nrow(s), s$calls, s$package, s$time >= 0, p$packages$calls[p$packages$package == 'stats'] >= 1)",
+                        "list(1L, 1, 'stats', TRUE, TRUE)");
+    }
+}
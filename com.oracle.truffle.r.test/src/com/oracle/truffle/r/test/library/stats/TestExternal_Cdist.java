@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.stats;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+public class TestExternal_Cdist extends TestBase {
+    private static final String[] METHODS = new String[]{"'euclidean'", "'maximum'", "'manhattan'", "'canberra'", "'binary'", "'minkowski'"};
+
+    @Test
+    public void testDist() {
+        assertEval(template("x <- matrix(c(1, 0, 3, NA, 5, 2, 0, 7, 1, 1, NaN, 4), 4); dist(x, method=%0, p=3)", METHODS));
+        assertEval(template("x <- matrix(c(1, Inf, 3, -Inf, 5, 2, 0, 7), 4); dist(x, method=%0, diag=TRUE)", METHODS));
+        assertEval("dist(matrix(NA_real_, 3, 2))");
+        assertEval("dist(matrix(1:6, 3), method='minkowski', p=0)");
+    }
+
+    @Test
+    public void testDistLarge() {
+        // larger than a tile of rows and worth computing in parallel
+        assertEval(template("set.seed(42); x <- matrix(runif(700 * 20), 700); x[3, 5] <- NA; d <- dist(x, method=%0, p=1.5); " +
+                        "y <- x[c(1, 350, 700), ]; c(length(d), sum(is.na(d)), all.equal(as.vector(dist(y, method=%0, p=1.5)), as.vector(d)[c(349, 699, sum(351:699) + 350)]))", METHODS));
+    }
+
+    @Test
+    public void testDistTooLong() {
+        // the number of pairs overflows an int, GNU R would create a long vector
+        assertEvalFastR("tryCatch(dist(matrix(0, 70000, 1)), error = function(e) conditionMessage(e))", "'result would be too long a vector'");
+    }
+}
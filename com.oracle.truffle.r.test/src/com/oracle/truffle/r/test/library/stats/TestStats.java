@@ -52,6 +52,24 @@ public class TestStats extends TestBase {
         assertEval("{ fft(cbind(1:2,3:4)) }");
         assertEval("{ fft(c(0, 1, integer(6))) }");
         assertEval("{ fft(c(complex(real=1, imaginary=0), integer(7))) }");
+        assertEval("{ fft(c(1.5, NA, 3)) }");
+        assertEval("{ fft(c(2, -1, 0.5, 4, 3, 7, 11)) }");
+        assertEval(template("{ x <- sin(seq_len(%0)) + 1i * cos(seq_len(%0) / 3); y <- fft(x); k <- seq_len(%0) - 1; " +
+                        "c(isTRUE(all.equal(y, as.vector(exp(-2i * pi * outer(k, k) / %0) %*% x))), isTRUE(all.equal(fft(y, inverse=TRUE) / %0, x))) }",
+                        new String[]{"12", "16", "25", "49", "97", "120", "243", "360", "1024"}));
+        assertEval("{ x <- array(sin(1:120), c(4, 5, 6)); y <- fft(x); c(dim(y), isTRUE(all.equal(Re(fft(y, inverse=TRUE)) / 120, x))) }");
+        assertEval("{ x <- array(cos(1:360), c(6, 5, 12)); fft(x)[c(1, 7, 100, 360)] }");
+        assertEval("{ fft(matrix(c(1, 2, 3, 4, 5, 6), 2, dimnames=list(c('a', 'b'), NULL))) }");
+    }
+
+    @Test
+    public void testMVFFT() {
+        assertEval("{ mvfft(cbind(1:4, c(2, 0, 1, 3))) }");
+        assertEval("{ mvfft(cbind(1:4, c(2, 0, 1, 3)), inverse=TRUE) }");
+        assertEval("{ mvfft(matrix(c(1+2i, 3, 0, -1i, 2, 2), 3, dimnames=list(NULL, c('x', 'y')))) }");
+        assertEval("{ mvfft(matrix(1:3, 1)) }");
+        assertEval("{ x <- matrix(sin(1:3000), 30); isTRUE(all.equal(mvfft(x), apply(x, 2, fft))) }");
+        assertEval("{ mvfft(1:4) }");
     }
 
     @Test
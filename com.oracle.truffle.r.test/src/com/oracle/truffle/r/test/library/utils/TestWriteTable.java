@@ -38,4 +38,23 @@ public class TestWriteTable extends TestBase {
     public void testTable() {
         assertEval("write.table(data.frame(col=c(1,2,3,4), col2=c(T, F, T, F)))");
     }
+
+    @Test
+    public void testNumberFormatting() {
+        assertEval("write.table(data.frame(x=c(0, -0, 1, -1.5, 100000, 123456, 1e-4, 0.00012, 1/3, 0.1+0.2, 1e15, 1e16, 123456789012345678, 1e-300, NA, NaN, Inf, -Inf)))");
+        assertEval("write.table(data.frame(x=c(1L, -2L, NA, .Machine$integer.max), y=c(TRUE, NA, FALSE, TRUE), z=c('a', NA, 'b\\\"c', '')), na='<NA>')");
+        assertEval("write.table(data.frame(z=c('a', 'b\\\"c')), qmethod='double')");
+        assertEval("write.table(matrix(c(1.25, 2, NA, 4e10, 5, 6), 2), col.names=FALSE)");
+        assertEval("write.table(matrix(c('a', 'b', NA, 'd'), 2), quote=FALSE)");
+    }
+
+    @Test
+    public void testLargeTable() {
+        assertEval("{ n <- 20000; d <- data.frame(i=seq_len(n), x=seq_len(n) / 7, f=factor(rep(c('a', 'b'), n / 2)), s=as.character(n:1)); f <- tempfile(); write.csv(d, f, row.names=FALSE); r <- read.csv(f); unlink(f); c(nrow(r), all.equal(r$x, d$x), identical(r$i, d$i), identical(as.character(r$f), as.character(d$f))) }");
+    }
+
+    @Test
+    public void testReadWriteConnection() {
+        assertEval("{ f <- tempfile(); con <- file(f, 'w+'); writeLines('# header', con); write.table(data.frame(x=1:3, y=c('a', 'b', 'c')), con); writeLines('# footer', con); r <- readLines(con); close(con); unlink(f); r }");
+    }
 }